@@ -0,0 +1,90 @@
+package project.productstock.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import project.productstock.ProductStockApplication;
+import project.productstock.dto.ProductDTO;
+import project.productstock.service.ProductBatchService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Boots the application against its own H2 database and seeds {@link #PRODUCTS} products, shared by every thread of
+ * a benchmark trial. The {@code default} profile uses an in-memory database; compare it with the tuned,
+ * file-backed one through {@code -p profile=default,prod}.
+ */
+@State(Scope.Benchmark)
+public class ApplicationState {
+
+    public static final int PRODUCTS = 10_000;
+
+    @Param({"default"})
+    public String profile;
+
+    public ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        context = start(profile);
+        context.getBean(ProductBatchService.class).upsertAll(products("P", PRODUCTS).iterator(), result -> { });
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    /**
+     * Starts the application with {@code profile} on a fresh database: in-memory for {@code default}, a new
+     * temporary data directory otherwise. {@code args} are passed on as command-line arguments.
+     */
+    public static ConfigurableApplicationContext start(String profile, String... args) throws IOException {
+        String database = "default".equals(profile)
+                ? "--spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID()
+                : "--product.data-dir=" + Files.createTempDirectory("benchmark-").toAbsolutePath();
+        String[] arguments = Arrays.copyOf(args, args.length + 1);
+        arguments[args.length] = database;
+        return ProductStockApplication.application()
+                .profiles(profile)
+                .properties(
+                        "server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run(arguments);
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public static String randomCode() {
+        return code("P", ThreadLocalRandom.current().nextInt(PRODUCTS));
+    }
+
+    public static String code(String prefix, int index) {
+        return String.format("%s%06d", prefix, index);
+    }
+
+    public static List<ProductDTO> products(String prefix, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> ProductDTO.builder()
+                        .code(code(prefix, i))
+                        .description("Benchmark product " + i)
+                        .max(500)
+                        .quantity(i % 500)
+                        .build())
+                .collect(Collectors.toList());
+    }
+}
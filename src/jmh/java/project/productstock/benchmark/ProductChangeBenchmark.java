@@ -0,0 +1,77 @@
+package project.productstock.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import project.productstock.changes.ProductChangeLog;
+import project.productstock.service.ProductService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a client pays to catch up after {@link #changes} stock changes: re-reading the whole catalogue against
+ * reading the change log since its last sync point.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductChangeBenchmark {
+
+    private static final String PRODUCT_API_URL_PATH = "/api/v1/products";
+
+    @Param({"10", "100", "1000"})
+    public int changes;
+
+    private MockMvc mockMvc;
+    private long since;
+
+    @Setup
+    public void setUp(ApplicationState application) throws Exception {
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) application.context).build();
+        since = application.getBean(ProductChangeLog.class).watermark();
+        ProductService productService = application.getBean(ProductService.class);
+        Long id = null;
+        for (int i = 0; i < changes; i++) {
+            if (i % 2 == 0) {
+                id = productService.getByCode(ApplicationState.randomCode()).getId();
+                productService.increment(id, 1, null);
+            } else {
+                productService.decrement(id, 1, null);
+            }
+        }
+        System.out.printf("%n%d changes: full refresh %d bytes, incremental sync %d bytes%n", changes,
+                fullRefresh().getResponse().getContentAsByteArray().length,
+                incrementalSync().getResponse().getContentAsByteArray().length);
+    }
+
+    @Benchmark
+    public MvcResult fullRefresh() throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH)
+                .accept(MediaType.APPLICATION_JSON)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult incrementalSync() throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/changes")
+                .param("since", String.valueOf(since))
+                .param("limit", String.valueOf(ProductChangeLog.MAX_PAGE_SIZE))
+                .accept(MediaType.APPLICATION_JSON)).andReturn();
+    }
+}
@@ -0,0 +1,116 @@
+package project.productstock.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import project.productstock.dto.ProductDTO;
+import project.productstock.dto.QuantityDTO;
+import project.productstock.service.ProductService;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Full MockMvc round trip, from request mapping to serialized response, for each {@code ProductController} endpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductControllerBenchmark {
+
+    private static final String PRODUCT_API_URL_PATH = "/api/v1/products";
+
+    private final AtomicInteger createdProducts = new AtomicInteger();
+
+    private MockMvc mockMvc;
+    private ObjectMapper objectMapper;
+    private Long hotProductId;
+    private byte[] quantity;
+    private byte[] batch;
+
+    @Setup
+    public void setUp(ApplicationState application) throws Exception {
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) application.context).build();
+        objectMapper = application.getBean(ObjectMapper.class);
+        hotProductId = application.getBean(ProductService.class).getByCode(ApplicationState.code("P", 0)).getId();
+        quantity = objectMapper.writeValueAsBytes(new QuantityDTO(1));
+        batch = objectMapper.writeValueAsBytes(ApplicationState.products("P", 100));
+    }
+
+    @Benchmark
+    public MvcResult findByCode() throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/" + ApplicationState.randomCode())
+                .accept(MediaType.APPLICATION_JSON)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult listPage() throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH)
+                .param("afterId", String.valueOf(ThreadLocalRandom.current().nextInt(ApplicationState.PRODUCTS)))
+                .param("size", "100")
+                .accept(MediaType.APPLICATION_JSON)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult listAll() throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH)
+                .accept(MediaType.APPLICATION_JSON)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult stream() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/stream")
+                .accept("application/x-ndjson")).andReturn();
+        return mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult incrementAndDecrement() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.patch(PRODUCT_API_URL_PATH + "/" + hotProductId + "/increment")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(quantity)).andReturn();
+        return mockMvc.perform(MockMvcRequestBuilders.patch(PRODUCT_API_URL_PATH + "/" + hotProductId + "/decrement")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(quantity)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult createAndDelete() throws Exception {
+        ProductDTO productDTO = ProductDTO.builder()
+                .code(ApplicationState.code("N", createdProducts.incrementAndGet()))
+                .description("Created product")
+                .max(500)
+                .quantity(1)
+                .build();
+        MvcResult created = mockMvc.perform(MockMvcRequestBuilders.post(PRODUCT_API_URL_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(productDTO))).andReturn();
+        Long id = objectMapper.readValue(created.getResponse().getContentAsByteArray(), ProductDTO.class).getId();
+        return mockMvc.perform(MockMvcRequestBuilders.delete(PRODUCT_API_URL_PATH + "/" + id)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult upsertBatch() throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.post(PRODUCT_API_URL_PATH + "/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(batch)).andReturn();
+    }
+}
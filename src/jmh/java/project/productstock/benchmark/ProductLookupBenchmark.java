@@ -0,0 +1,99 @@
+package project.productstock.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import project.productstock.dto.ProductLookupDTO;
+import project.productstock.service.ProductBatchService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolving a cart of {@code cartSize} random codes over real HTTP: one {@code GET /{code}} per code, as the order
+ * service does today, against a single {@code POST /lookup}. Run with the product cache on (warm after the first
+ * iterations) and off, where every code reaches the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductLookupBenchmark {
+
+    @Param({"200"})
+    public int cartSize;
+
+    @Param({"true", "false"})
+    public boolean cache;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private ObjectMapper objectMapper;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = ApplicationState.start("default", "--product.cache.enabled=" + cache);
+        context.getBean(ProductBatchService.class)
+                .upsertAll(ApplicationState.products("P", ApplicationState.PRODUCTS).iterator(), result -> { });
+        objectMapper = context.getBean(ObjectMapper.class);
+        baseUrl = "http://localhost:" + ((ServletWebServerApplicationContext) context).getWebServer().getPort()
+                + "/api/v1/products";
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int perCode() throws Exception {
+        int bytes = 0;
+        for (String code : cart()) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/" + code))
+                    .header("Accept", "application/json")
+                    .build();
+            bytes += httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray()).body().length;
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public int lookup() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/lookup"))
+                .header("Accept", "application/json")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(new ProductLookupDTO(cart()))))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray()).body().length;
+    }
+
+    private List<String> cart() {
+        List<String> codes = new ArrayList<>(cartSize);
+        for (int i = 0; i < cartSize; i++) {
+            codes.add(ApplicationState.randomCode());
+        }
+        return codes;
+    }
+}
@@ -0,0 +1,47 @@
+package project.productstock.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import project.productstock.dto.ProductDTO;
+import project.productstock.entity.Product;
+import project.productstock.mapper.ProductMapper;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductMapperBenchmark {
+
+    private final ProductMapper productMapper = ProductMapper.INSTANCE;
+
+    private final ProductDTO productDTO = ProductDTO.builder()
+            .id(1L)
+            .code("RWS0001")
+            .description("Mouse")
+            .max(50)
+            .quantity(10)
+            .build();
+
+    private final Product product = productMapper.toModel(productDTO);
+
+    @Benchmark
+    public Product toModel() {
+        return productMapper.toModel(productDTO);
+    }
+
+    @Benchmark
+    public ProductDTO toDTO() {
+        return productMapper.toDTO(product);
+    }
+}
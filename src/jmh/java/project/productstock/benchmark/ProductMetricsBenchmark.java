@@ -0,0 +1,67 @@
+package project.productstock.benchmark;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import project.productstock.metrics.ProductMetrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of the instrumentation added on the request path, recorded into a Prometheus registry from
+ * several threads. Compare each score against {@link #baseline()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class ProductMetricsBenchmark {
+
+    private ProductMetrics productMetrics;
+    private Timer requestTimer;
+
+    @Setup
+    public void setUp() {
+        PrometheusMeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        productMetrics = new ProductMetrics(meterRegistry);
+        requestTimer = Timer.builder("http.server.requests")
+                .tag("uri", "/api/v1/products/{code}")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Benchmark
+    public void baseline(Blackhole blackhole) {
+        blackhole.consume(productMetrics);
+    }
+
+    @Benchmark
+    public void countError() {
+        productMetrics.productNotFound();
+    }
+
+    @Benchmark
+    public void recordListedRows() {
+        productMetrics.rowsListed(100);
+    }
+
+    @Benchmark
+    public void recordRequestLatency() {
+        requestTimer.record(250_000, TimeUnit.NANOSECONDS);
+    }
+}
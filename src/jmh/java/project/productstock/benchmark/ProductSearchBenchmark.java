@@ -0,0 +1,98 @@
+package project.productstock.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import project.productstock.dto.ProductDTO;
+import project.productstock.dto.ProductPageDTO;
+import project.productstock.dto.ProductSearchDTO;
+import project.productstock.service.ProductBatchService;
+import project.productstock.service.ProductSearchService;
+
+import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * {@link ProductSearchService} queries over {@code products} extra rows whose descriptions combine a colour, a
+ * material and a kind, so a two-word query matches roughly 1 in 80 products.
+ * Run the catalogue-scale case with {@code -Djmh.args="Search -p products=1000000"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    private static final String[] COLOURS = {"black", "white", "red", "blue", "green", "grey", "yellow", "orange"};
+    private static final String[] MATERIALS = {"steel", "plastic", "wooden", "rubber", "glass"};
+    private static final String[] KINDS = {"bolt", "screw", "hinge", "bracket", "washer", "clamp", "hook", "nail",
+            "rivet", "spring"};
+
+    @Param({"100000"})
+    public int products;
+
+    private ProductSearchService productSearchService;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        Iterator<ProductDTO> searchableProducts = IntStream.range(0, products)
+                .mapToObj(i -> ProductDTO.builder()
+                        .code(ApplicationState.code("S", i))
+                        .description(String.join(" ", COLOURS[i % COLOURS.length],
+                                MATERIALS[i / COLOURS.length % MATERIALS.length], KINDS[i / 40 % KINDS.length]))
+                        .max(500)
+                        .quantity(i % 500)
+                        .build())
+                .iterator();
+        application.getBean(ProductBatchService.class).upsertAll(searchableProducts, result -> { });
+        productSearchService = application.getBean(ProductSearchService.class);
+    }
+
+    @Benchmark
+    public ProductPageDTO descriptionWords() {
+        return productSearchService.search(ProductSearchDTO.builder()
+                .q(randomOf(COLOURS) + " " + randomOf(KINDS))
+                .build());
+    }
+
+    @Benchmark
+    public ProductPageDTO descriptionWordsAndLowFillRatio() {
+        return productSearchService.search(ProductSearchDTO.builder()
+                .q(randomOf(MATERIALS) + " " + randomOf(KINDS))
+                .maxFillRatio(0.1)
+                .build());
+    }
+
+    @Benchmark
+    public ProductPageDTO codePrefix() {
+        return productSearchService.search(ProductSearchDTO.builder()
+                .codePrefix("S" + ThreadLocalRandom.current().nextInt(10))
+                .build());
+    }
+
+    @Benchmark
+    public ProductPageDTO quantityRange() {
+        int minQuantity = ThreadLocalRandom.current().nextInt(490);
+        return productSearchService.search(ProductSearchDTO.builder()
+                .minQuantity(minQuantity)
+                .maxQuantity(minQuantity + 10)
+                .build());
+    }
+
+    private static String randomOf(String[] words) {
+        return words[ThreadLocalRandom.current().nextInt(words.length)];
+    }
+}
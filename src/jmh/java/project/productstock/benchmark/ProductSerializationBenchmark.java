@@ -0,0 +1,88 @@
+package project.productstock.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import project.productstock.dto.ProductDTO;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding and decoding {@code size} products in each wire format the API negotiates, optionally gzipped the way
+ * Tomcat compresses large responses. The encoded size of each combination is printed at setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductSerializationBenchmark {
+
+    @Param({"1", "1000", "100000"})
+    public int size;
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<ProductDTO> productDTOs;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = mapper(format);
+        writer = objectMapper.writerFor(new TypeReference<List<ProductDTO>>() { });
+        reader = objectMapper.readerFor(new TypeReference<List<ProductDTO>>() { });
+        productDTOs = ApplicationState.products("S", size);
+        encoded = serialize();
+        System.out.printf("%n%d products as %s%s: %d bytes%n", size, format, gzip ? " (gzip)" : "", encoded.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeValue(gzip ? new GZIPOutputStream(out) : out, productDTOs);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public List<ProductDTO> deserialize() throws IOException {
+        return gzip ? reader.readValue(new GZIPInputStream(new ByteArrayInputStream(encoded))) : reader.readValue(encoded);
+    }
+
+    private static ObjectMapper mapper(String format) {
+        switch (format) {
+            case "cbor":
+                return new CBORMapper();
+            case "smile":
+                return new SmileMapper();
+            default:
+                return new ObjectMapper();
+        }
+    }
+}
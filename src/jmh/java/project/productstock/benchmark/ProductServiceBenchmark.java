@@ -0,0 +1,69 @@
+package project.productstock.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import project.productstock.dto.ProductDTO;
+import project.productstock.dto.ProductPageDTO;
+import project.productstock.service.ProductService;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link ProductService} operations against embedded H2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    private final AtomicInteger createdProducts = new AtomicInteger();
+
+    private ProductService productService;
+    private Long hotProductId;
+
+    @Setup
+    public void setUp(ApplicationState application) throws Exception {
+        productService = application.getBean(ProductService.class);
+        hotProductId = productService.getByCode(ApplicationState.code("P", 0)).getId();
+    }
+
+    @Benchmark
+    public ProductDTO getByCode() throws Exception {
+        return productService.getByCode(ApplicationState.randomCode());
+    }
+
+    @Benchmark
+    public ProductPageDTO listPage() {
+        return productService.listPage((long) ThreadLocalRandom.current().nextInt(ApplicationState.PRODUCTS), 100);
+    }
+
+    @Benchmark
+    public ProductDTO incrementAndDecrement() throws Exception {
+        productService.increment(hotProductId, 1, null);
+        return productService.decrement(hotProductId, 1, null);
+    }
+
+    @Benchmark
+    public void createAndDelete() throws Exception {
+        ProductDTO productDTO = productService.createProduct(ProductDTO.builder()
+                .code(ApplicationState.code("N", createdProducts.incrementAndGet()))
+                .description("Created product")
+                .max(500)
+                .quantity(1)
+                .build());
+        productService.deleteById(productDTO.getId(), null);
+    }
+}
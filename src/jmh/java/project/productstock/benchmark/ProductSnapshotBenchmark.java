@@ -0,0 +1,140 @@
+package project.productstock.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import project.productstock.dto.ProductDTO;
+import project.productstock.service.ProductService;
+import project.productstock.snapshot.ProductListing;
+import project.productstock.snapshot.ProductSnapshot;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The two reads a replica serves, against {@code products} products: one product by a random code, and the full
+ * listing encoded as JSON the way the controller writes it, into a sink that only counts bytes. The {@code jpa}
+ * source goes through the product cache, Hibernate and DTO mapping; {@code snapshot} reads the
+ * {@link ProductSnapshot}. Run with {@code -prof gc} to compare bytes allocated per operation. Setup prints the heap
+ * the snapshot retains and, for comparison, the heap a full {@code List<ProductDTO>} takes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ProductSnapshotBenchmark {
+
+    private static final int INSERT_BATCH_SIZE = 10_000;
+    private static final String INSERT_PRODUCT_SQL =
+            "insert into product (id, code, description, max, quantity, version) values (next value for product_sequence, ?, ?, ?, ?, 0)";
+
+    @Param({"1000000"})
+    public int products;
+
+    @Param({"jpa", "snapshot"})
+    public String source;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ObjectMapper objectMapper;
+    private String[] codes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        boolean snapshot = "snapshot".equals(source);
+        context = ApplicationState.start("default", "--product.snapshot.enabled=" + snapshot,
+                "--product.snapshot.refresh-interval=1h");
+        productService = context.getBean(ProductService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        codes = new String[products];
+        seed(context.getBean(JdbcTemplate.class));
+
+        long before = heapAfterGc();
+        if (snapshot) {
+            context.getBean(ProductSnapshot.class).reload();
+            long retained = heapAfterGc() - before;
+            System.out.printf("%nsnapshot of %d products retains %d MB (%d bytes per product)%n", products,
+                    retained >> 20, retained / products);
+        } else {
+            List<ProductDTO> productDTOs = productService.listAll();
+            long retained = heapAfterGc() - before;
+            System.out.printf("%nList<ProductDTO> of %d products retains %d MB (%d bytes per product)%n",
+                    productDTOs.size(), retained >> 20, retained / productDTOs.size());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public ProductDTO getByCode() throws Exception {
+        return productService.getByCode(codes[ThreadLocalRandom.current().nextInt(products)]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long listAll() throws IOException {
+        CountingOutputStream body = new CountingOutputStream();
+        Optional<ProductListing> listing = productService.listAllFromSnapshot();
+        objectMapper.writeValue(body, listing.isPresent() ? listing.get() : productService.listAll());
+        return body.count;
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < products; i++) {
+            codes[i] = ApplicationState.code("S", i);
+            batch.add(new Object[]{codes[i], "Snapshot benchmark product " + i, 500, i % 500});
+            if (batch.size() == INSERT_BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(INSERT_PRODUCT_SQL, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_PRODUCT_SQL, batch);
+        }
+    }
+
+    private static long heapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
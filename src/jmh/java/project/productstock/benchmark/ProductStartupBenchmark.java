@@ -0,0 +1,79 @@
+package project.productstock.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold start of the application context per profile, with and without the {@code faststart} profile on top: every
+ * fork boots it exactly once. {@link #firstRequest} goes on until a {@code GET /{code}} succeeds, the time a new
+ * instance takes to serve; its product is inserted over JDBC so no application code path is warmed up before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class ProductStartupBenchmark {
+
+    private static final String CODE = "START01";
+
+    @Param({"default", "prod"})
+    public String profile;
+
+    @Param({"false", "true"})
+    public boolean faststart;
+
+    private ConfigurableApplicationContext context;
+
+    @Benchmark
+    public ConfigurableApplicationContext start() throws Exception {
+        context = start(profile, faststart);
+        return context;
+    }
+
+    @Benchmark
+    public int firstRequest() throws Exception {
+        context = start(profile, faststart);
+        context.getBean(JdbcTemplate.class).update(
+                "insert into product (id, code, description, max, quantity, version) values (next value for product_sequence, ?, ?, ?, ?, 0)",
+                CODE, "Startup product", 100, 10);
+        int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/api/v1/products/" + CODE)
+                .openConnection();
+        int status = connection.getResponseCode();
+        connection.getInputStream().readAllBytes();
+        if (status != 200) {
+            throw new IllegalStateException("First request failed with " + status);
+        }
+        return status;
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() {
+        context.close();
+    }
+
+    static ConfigurableApplicationContext start(String profile, boolean faststart) throws Exception {
+        return faststart
+                ? ApplicationState.start(profile, "--spring.profiles.include=faststart")
+                : ApplicationState.start(profile);
+    }
+}
@@ -0,0 +1,70 @@
+package project.productstock.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import project.productstock.dto.ProductDTO;
+import project.productstock.service.ProductBatchService;
+import project.productstock.service.ProductService;
+
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stock mutation throughput on the file-backed prod profile: direct conditional UPDATEs versus the write-behind
+ * ledger, with and without forcing every journal record to disk. Run with more threads through {@code -t}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StockLedgerBenchmark {
+
+    @Param({"direct", "write-behind", "write-behind-sync"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private long[] productIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = ApplicationState.start("prod",
+                "--product.ledger.enabled=" + !"direct".equals(mode),
+                "--product.ledger.sync-on-append=" + "write-behind-sync".equals(mode),
+                "--product.ledger.journal=" + Files.createTempDirectory("benchmark-ledger").resolve("stock.journal"));
+        List<ProductDTO> products = ApplicationState.products("L", ApplicationState.PRODUCTS);
+        products.forEach(product -> product.setQuantity(250));
+        productIds = context.getBean(ProductBatchService.class).upsertAll(products.iterator()).stream()
+                .mapToLong(result -> result.getId())
+                .toArray();
+        productService = context.getBean(ProductService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProductDTO incrementAndDecrement() throws Exception {
+        long id = productIds[ThreadLocalRandom.current().nextInt(productIds.length)];
+        productService.increment(id, 1, null);
+        return productService.decrement(id, 1, null);
+    }
+}
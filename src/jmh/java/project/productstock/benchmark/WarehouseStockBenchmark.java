@@ -0,0 +1,151 @@
+package project.productstock.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import project.productstock.dto.LocationStockDTO;
+import project.productstock.dto.ProductStockDTO;
+import project.productstock.dto.StockTotalDTO;
+import project.productstock.repository.StockRollupRepository;
+import project.productstock.repository.WarehouseStockRepository;
+import project.productstock.service.ProductBatchService;
+import project.productstock.service.ProductService;
+import project.productstock.warehouse.WarehouseStockService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a product's stock across {@code warehouses} locations for each of {@code products} products: totals from
+ * the maintained rollup against a SUM over every location, and the full stock view with and without locations.
+ * The default of 100 × 10,000 keeps a million location rows in the in-memory database; run the catalogue-scale case
+ * with {@code -Djmh.args="WarehouseStock -p products=1000000 -jvmArgs -Xmx16g"} against a file-backed profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WarehouseStockBenchmark {
+
+    private static final int INSERT_BATCH_SIZE = 10_000;
+    private static final String INSERT_LOCATION_SQL =
+            "insert into warehouse_stock (product_id, warehouse, max, quantity) values (?, ?, ?, ?)";
+    private static final String INSERT_ROLLUP_SQL =
+            "insert into stock_rollup (product_id, stripe, max, quantity) values (?, ?, ?, ?)";
+
+    @Param({"100"})
+    public int warehouses;
+
+    @Param({"10000"})
+    public int products;
+
+    private ProductService productService;
+    private WarehouseStockService warehouseStockService;
+    private WarehouseStockRepository warehouseStockRepository;
+    private StockRollupRepository stockRollupRepository;
+    private List<Long> ids;
+    private List<String> codes;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        if (products > ApplicationState.PRODUCTS) {
+            application.getBean(ProductBatchService.class)
+                    .upsertAll(ApplicationState.products("W", products - ApplicationState.PRODUCTS).iterator(), result -> { });
+        }
+        JdbcTemplate jdbcTemplate = application.getBean(JdbcTemplate.class);
+        ids = jdbcTemplate.queryForList("select id from product order by id limit ?", Long.class, products);
+        codes = jdbcTemplate.queryForList("select code from product order by id limit ?", String.class, products);
+        seed(jdbcTemplate);
+
+        productService = application.getBean(ProductService.class);
+        warehouseStockService = application.getBean(WarehouseStockService.class);
+        warehouseStockRepository = application.getBean(WarehouseStockRepository.class);
+        stockRollupRepository = application.getBean(StockRollupRepository.class);
+    }
+
+    @Benchmark
+    public StockTotalDTO totalFromRollup() {
+        return stockRollupRepository.total(randomId());
+    }
+
+    @Benchmark
+    public StockTotalDTO totalBySum() {
+        return warehouseStockRepository.sumByProductId(randomId());
+    }
+
+    @Benchmark
+    public ProductStockDTO stockTotalOnly() throws Exception {
+        return productService.getStockByCode(randomCode(), false);
+    }
+
+    @Benchmark
+    public ProductStockDTO stockWithLocations() throws Exception {
+        return productService.getStockByCode(randomCode(), true);
+    }
+
+    @Benchmark
+    public LocationStockDTO incrementAndDecrement() throws Exception {
+        Long id = randomId();
+        String warehouse = warehouse(ThreadLocalRandom.current().nextInt(warehouses));
+        warehouseStockService.increment(id, warehouse, 1);
+        return warehouseStockService.decrement(id, warehouse, 1);
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> locations = new ArrayList<>(INSERT_BATCH_SIZE);
+        List<Object[]> rollups = new ArrayList<>();
+        for (int p = 0; p < ids.size(); p++) {
+            long[] max = new long[WarehouseStockService.ROLLUP_STRIPES];
+            long[] quantity = new long[WarehouseStockService.ROLLUP_STRIPES];
+            for (int w = 0; w < warehouses; w++) {
+                String warehouse = warehouse(w);
+                int stripe = WarehouseStockService.stripe(warehouse);
+                int locationQuantity = 1 + (p + w) % 498;
+                locations.add(new Object[]{ids.get(p), warehouse, 500, locationQuantity});
+                max[stripe] += 500;
+                quantity[stripe] += locationQuantity;
+                if (locations.size() == INSERT_BATCH_SIZE) {
+                    jdbcTemplate.batchUpdate(INSERT_LOCATION_SQL, locations);
+                    locations.clear();
+                }
+            }
+            for (int stripe = 0; stripe < max.length; stripe++) {
+                if (max[stripe] > 0) {
+                    rollups.add(new Object[]{ids.get(p), stripe, max[stripe], quantity[stripe]});
+                }
+            }
+            if (rollups.size() >= INSERT_BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(INSERT_ROLLUP_SQL, rollups);
+                rollups.clear();
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_LOCATION_SQL, locations);
+        jdbcTemplate.batchUpdate(INSERT_ROLLUP_SQL, rollups);
+    }
+
+    private Long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private String randomCode() {
+        return codes.get(ThreadLocalRandom.current().nextInt(codes.size()));
+    }
+
+    private static String warehouse(int index) {
+        return String.format("WH%03d", index);
+    }
+}
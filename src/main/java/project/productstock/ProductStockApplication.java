@@ -1,13 +1,30 @@
 package project.productstock;
 
-import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class ProductStockApplication {
 
+	/**
+	 * Startup steps kept for the timeline report and the {@code startup} actuator endpoint; a full start records
+	 * a few thousand, later ones are dropped.
+	 */
+	public static final int STARTUP_TIMELINE_CAPACITY = 10_000;
+
 	public static void main(String[] args) {
-		SpringApplication.run(ProductStockApplication.class, args);
+		application().run(args);
+	}
+
+	/**
+	 * The application as {@link #main} starts it, recording its startup timeline.
+	 */
+	public static SpringApplicationBuilder application() {
+		return new SpringApplicationBuilder(ProductStockApplication.class)
+				.applicationStartup(new BufferingApplicationStartup(STARTUP_TIMELINE_CAPACITY));
 	}
 
 }
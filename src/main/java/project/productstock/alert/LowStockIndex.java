@@ -0,0 +1,188 @@
+package project.productstock.alert;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.productstock.dto.LowStockEventDTO;
+import project.productstock.dto.LowStockEventType;
+import project.productstock.dto.ProductDTO;
+import project.productstock.entity.Product;
+import project.productstock.mapper.ProductMapper;
+import project.productstock.repository.ProductRepository;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Products currently below the low-stock threshold, keyed by id. Every product write reports the new state through
+ * {@link #update(ProductDTO)}, which only touches that product's entry, and listeners receive the resulting deltas.
+ * <p>
+ * Inside a transaction, updates and removals only apply once it commits, so a rolled-back write never publishes an
+ * event. Callbacks of two commits on the same product may still run out of order, and a rebuild may read a row older
+ * than a live update, so every product keeps the last version applied to it, low or not, and anything older is
+ * ignored. A deleted product keeps a tombstone that no version passes, so a late update cannot bring it back. Events
+ * are published inside the entry's atomic update, so listeners see them in the order the entry changed; listeners
+ * must therefore only hand the event off, never block.
+ */
+@Slf4j
+@Component
+public class LowStockIndex {
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final double thresholdRatio;
+    private final ProductMapper productMapper = ProductMapper.INSTANCE;
+
+    private final Map<Long, Entry> entriesById = new ConcurrentHashMap<>();
+    private final List<Consumer<LowStockEventDTO>> listeners = new CopyOnWriteArrayList<>();
+
+    public LowStockIndex(ProductRepository productRepository, TransactionTemplate transactionTemplate,
+                         EntityManager entityManager, LowStockProperties properties) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.thresholdRatio = properties.getThresholdRatio();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Product> products = productRepository.streamAll()) {
+                products.forEach(product -> {
+                    apply(productMapper.toDTO(product));
+                    entityManager.detach(product);
+                });
+            }
+        });
+        log.info("Found {} low-stock products in {} ms", lowStock().count(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public void update(ProductDTO productDTO) {
+        ProductDTO snapshot = productDTO.toBuilder().build();
+        afterCommit(() -> apply(snapshot));
+    }
+
+    public void remove(Long id) {
+        afterCommit(() -> entriesById.compute(id, (key, previous) -> {
+            if (previous != null && previous.lowStock != null) {
+                publish(LowStockEventType.LEFT, previous.lowStock);
+            }
+            return Entry.DELETED;
+        }));
+    }
+
+    /**
+     * Current low-stock products ordered by id.
+     */
+    public List<ProductDTO> snapshot() {
+        return lowStock()
+                .sorted(Comparator.comparing(ProductDTO::getId))
+                .map(productDTO -> productDTO.toBuilder().build())
+                .collect(Collectors.toList());
+    }
+
+    public boolean isLow(ProductDTO productDTO) {
+        return productDTO.getQuantity() < productDTO.getMax() * thresholdRatio;
+    }
+
+    public void addListener(Consumer<LowStockEventDTO> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<LowStockEventDTO> listener) {
+        listeners.remove(listener);
+    }
+
+    private Stream<ProductDTO> lowStock() {
+        return entriesById.values().stream()
+                .map(entry -> entry.lowStock)
+                .filter(Objects::nonNull);
+    }
+
+    private void apply(ProductDTO snapshot) {
+        boolean low = isLow(snapshot);
+        entriesById.compute(snapshot.getId(), (id, previous) -> {
+            if (previous != null && previous.isNewerThan(snapshot)) {
+                return previous;
+            }
+            ProductDTO before = previous == null ? null : previous.lowStock;
+            if (!low) {
+                if (before != null) {
+                    publish(LowStockEventType.LEFT, snapshot);
+                }
+                return new Entry(snapshot.getVersion(), null);
+            }
+            if (before == null) {
+                publish(LowStockEventType.ENTERED, snapshot);
+            } else if (!before.equals(snapshot)) {
+                publish(LowStockEventType.UPDATED, snapshot);
+            }
+            return new Entry(snapshot.getVersion(), snapshot);
+        });
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    /**
+     * The last version applied to a product, and its state while that version is low on stock.
+     */
+    private static final class Entry {
+
+        static final Entry DELETED = new Entry(Long.MAX_VALUE, null);
+
+        private final Long version;
+        private final ProductDTO lowStock;
+
+        private Entry(Long version, ProductDTO lowStock) {
+            this.version = version;
+            this.lowStock = lowStock;
+        }
+
+        boolean isNewerThan(ProductDTO productDTO) {
+            return this == DELETED
+                    || version != null && productDTO.getVersion() != null && productDTO.getVersion() < version;
+        }
+    }
+
+    private void publish(LowStockEventType type, ProductDTO productDTO) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        List<Consumer<LowStockEventDTO>> failed = new ArrayList<>();
+        for (Consumer<LowStockEventDTO> listener : listeners) {
+            try {
+                listener.accept(new LowStockEventDTO(type, productDTO.toBuilder().build()));
+            } catch (RuntimeException e) {
+                log.warn("Dropping low-stock listener after failure", e);
+                failed.add(listener);
+            }
+        }
+        listeners.removeAll(failed);
+    }
+}
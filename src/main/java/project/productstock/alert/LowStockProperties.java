@@ -0,0 +1,19 @@
+package project.productstock.alert;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "product.low-stock")
+public class LowStockProperties {
+
+    /**
+     * A product is low on stock while its quantity is below this fraction of its max.
+     */
+    private double thresholdRatio = 0.2;
+
+    /**
+     * Events buffered per stream subscriber; a subscriber that falls this far behind is disconnected.
+     */
+    private int subscriberBuffer = 1000;
+}
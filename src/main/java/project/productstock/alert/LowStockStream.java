@@ -0,0 +1,155 @@
+package project.productstock.alert;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import project.productstock.dto.LowStockEventDTO;
+import project.productstock.dto.LowStockEventType;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Fans {@link LowStockIndex} deltas out to Server-Sent Events subscribers. Publishing only offers the event to each
+ * subscriber's bounded buffer, so writers never wait on a client; each subscriber is drained by at most one sender
+ * thread at a time, so it receives its events in publication order and a slow client only holds up itself. A
+ * subscriber whose buffer overflows is disconnected rather than left with a gap, and can resubscribe for a fresh
+ * snapshot.
+ */
+@Slf4j
+@Component
+public class LowStockStream implements DisposableBean {
+
+    private final LowStockIndex lowStockIndex;
+    private final int subscriberBuffer;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicInteger senderCount = new AtomicInteger();
+    private final ExecutorService senders = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "low-stock-sender-" + senderCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LowStockStream(LowStockIndex lowStockIndex, LowStockProperties properties) {
+        this.lowStockIndex = lowStockIndex;
+        this.subscriberBuffer = properties.getSubscriberBuffer();
+        lowStockIndex.addListener(event -> subscribers.forEach(subscriber -> subscriber.offer(event)));
+    }
+
+    /**
+     * Opens a stream that starts with one {@code ENTERED} event per product currently low on stock, followed by
+     * deltas as products cross the threshold or change while below it. The subscriber is registered before the
+     * snapshot is taken, so a delta may repeat a change the snapshot already shows, but none is missed.
+     */
+    public SseEmitter subscribe(long timeoutMillis) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscriber.close());
+        subscribers.add(subscriber);
+        subscriber.start(lowStockIndex.snapshot().stream()
+                .map(productDTO -> new LowStockEventDTO(LowStockEventType.ENTERED, productDTO))
+                .collect(Collectors.toList()));
+        return subscriber.emitter;
+    }
+
+    int subscribers() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void destroy() {
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<LowStockEventDTO> buffer = new ArrayBlockingQueue<>(subscriberBuffer);
+        private final AtomicBoolean draining = new AtomicBoolean(true);
+        private volatile List<LowStockEventDTO> initial;
+        private volatile boolean closed;
+        private volatile boolean overflowed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * Sends the snapshot ahead of whatever deltas were buffered while it was taken; until then the subscriber
+         * counts as draining, so deltas only queue up.
+         */
+        void start(List<LowStockEventDTO> snapshot) {
+            initial = snapshot;
+            senders.execute(this::drain);
+        }
+
+        void offer(LowStockEventDTO event) {
+            if (closed) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                log.warn("Disconnecting a low-stock subscriber that fell {} events behind", subscriberBuffer);
+                overflowed = true;
+                close();
+            }
+            schedule();
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                if (initial != null) {
+                    initial.forEach(this::send);
+                    initial = null;
+                }
+                LowStockEventDTO event;
+                while (!closed && (event = buffer.poll()) != null) {
+                    send(event);
+                }
+                if (overflowed) {
+                    overflowed = false;
+                    emitter.complete();
+                }
+            } finally {
+                draining.set(false);
+            }
+            if (!closed && !buffer.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void send(LowStockEventDTO event) {
+            if (closed) {
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().name(event.getType().name()).data(event));
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Low-stock subscriber went away", e);
+                close();
+            }
+        }
+    }
+}
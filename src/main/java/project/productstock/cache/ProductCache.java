@@ -0,0 +1,156 @@
+package project.productstock.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import project.productstock.dto.CacheStatsDTO;
+import project.productstock.dto.ProductDTO;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of product snapshots keyed by code. Unknown codes are cached as empty entries with
+ * their own, shorter TTL so repeated lookups of missing products do not reach the database either.
+ */
+@Component
+public class ProductCache implements MeterBinder {
+
+    private final boolean enabled;
+    private final Cache<String, Optional<ProductDTO>> cache;
+    private final LongAdder negativeResults = new LongAdder();
+    private final LongAdder negativeLoads = new LongAdder();
+
+    public ProductCache(ProductCacheProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfter(new SnapshotExpiry(properties.getTtl().toNanos(), properties.getNegativeTtl().toNanos()))
+                .recordStats()
+                .build();
+    }
+
+    public Optional<ProductDTO> get(String code, Function<String, Optional<ProductDTO>> loader) {
+        if (!enabled) {
+            return loader.apply(code);
+        }
+        Optional<ProductDTO> snapshot = cache.get(code, key -> {
+            Optional<ProductDTO> loaded = loader.apply(key).map(ProductCache::copy);
+            if (!loaded.isPresent()) {
+                negativeLoads.increment();
+            }
+            return loaded;
+        });
+        if (!snapshot.isPresent()) {
+            negativeResults.increment();
+        }
+        return snapshot.map(ProductCache::copy);
+    }
+
+    /**
+     * Snapshots for every code in {@code codes}, empty for unknown ones. Codes not cached yet are handed to
+     * {@code loader} together, so it can fetch them in bulk; it must return an entry for each code it is given.
+     */
+    public Map<String, Optional<ProductDTO>> getAll(Set<String> codes,
+                                                    Function<Set<String>, Map<String, Optional<ProductDTO>>> loader) {
+        Map<String, Optional<ProductDTO>> snapshots = enabled ? cache.getAll(codes, keys -> {
+            Set<String> missedCodes = new LinkedHashSet<>();
+            keys.forEach(missedCodes::add);
+            Map<String, Optional<ProductDTO>> loaded = new HashMap<>();
+            loader.apply(missedCodes).forEach((code, snapshot) -> {
+                if (!snapshot.isPresent()) {
+                    negativeLoads.increment();
+                }
+                loaded.put(code, snapshot.map(ProductCache::copy));
+            });
+            return loaded;
+        }) : loader.apply(codes);
+        Map<String, Optional<ProductDTO>> copies = new HashMap<>();
+        snapshots.forEach((code, snapshot) -> {
+            if (enabled && !snapshot.isPresent()) {
+                negativeResults.increment();
+            }
+            copies.put(code, snapshot.map(ProductCache::copy));
+        });
+        return copies;
+    }
+
+    /**
+     * Drops the entry for {@code code} once the current transaction commits, or right away when there is none.
+     * Evicting after commit guarantees a concurrent reader cannot re-populate the entry with the pre-commit row.
+     */
+    public void evict(String code) {
+        if (!enabled || code == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(code);
+                }
+            });
+        } else {
+            cache.invalidate(code);
+        }
+    }
+
+    public CacheStatsDTO stats() {
+        CacheStats stats = cache.stats();
+        return CacheStatsDTO.builder()
+                .enabled(enabled)
+                .size(cache.estimatedSize())
+                .hitCount(stats.hitCount())
+                .negativeHitCount(negativeResults.sum() - negativeLoads.sum())
+                .missCount(stats.missCount())
+                .evictionCount(stats.evictionCount())
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "product");
+    }
+
+    private static ProductDTO copy(ProductDTO productDTO) {
+        return productDTO.toBuilder().build();
+    }
+
+    private static final class SnapshotExpiry implements Expiry<String, Optional<ProductDTO>> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        private SnapshotExpiry(long ttlNanos, long negativeTtlNanos) {
+            this.ttlNanos = ttlNanos;
+            this.negativeTtlNanos = negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String code, Optional<ProductDTO> snapshot, long currentTime) {
+            return snapshot.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String code, Optional<ProductDTO> snapshot, long currentTime, long currentDuration) {
+            return expireAfterCreate(code, snapshot, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String code, Optional<ProductDTO> snapshot, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package project.productstock.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "product.cache")
+public class ProductCacheProperties {
+
+    private boolean enabled = true;
+
+    private long maximumSize = 10_000;
+
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * How long an unknown code is remembered as missing.
+     */
+    private Duration negativeTtl = Duration.ofSeconds(30);
+}
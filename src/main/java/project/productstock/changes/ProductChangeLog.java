@@ -0,0 +1,220 @@
+package project.productstock.changes;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.productstock.dto.ProductChangeDTO;
+import project.productstock.dto.ProductChangePageDTO;
+import project.productstock.dto.ProductChangeType;
+import project.productstock.dto.ProductDTO;
+import project.productstock.entity.ProductChange;
+import project.productstock.entity.ProductChangeTruncation;
+import project.productstock.exception.ProductChangesExpiredException;
+import project.productstock.mapper.ProductChangeMapper;
+import project.productstock.repository.ProductChangeRepository;
+import project.productstock.repository.ProductChangeTruncationRepository;
+
+import javax.persistence.EntityManager;
+import java.time.Instant;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only log of product changes, numbered by a monotonic sequence, so clients can sync with
+ * {@link #changesSince} in O(changes) instead of re-reading the catalogue.
+ * <p>
+ * Each change is written in the transaction that made it. Sequence numbers are handed out before commit, so a
+ * transaction holding a lower number may still commit after one holding a higher number; readers therefore only
+ * see changes up to the {@link #watermark()}, below which every transaction has finished. A client that keeps
+ * passing back {@code nextSince} can never skip a change.
+ * <p>
+ * The sequence number is drawn by {@code persist}, which may cost a database round trip, so it runs outside the
+ * lock. Before drawing, a writer registers the highest number assigned so far as its floor; the number it then
+ * draws is above that floor, and the watermark stays at or below every outstanding floor until the writer has
+ * registered its number.
+ */
+@Slf4j
+@Component
+public class ProductChangeLog implements InitializingBean, DisposableBean {
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final ProductChangeProperties properties;
+    private final ProductChangeRepository productChangeRepository;
+    private final ProductChangeTruncationRepository productChangeTruncationRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductChangeMapper productChangeMapper = ProductChangeMapper.INSTANCE;
+
+    private final TreeSet<Long> inFlight = new TreeSet<>();
+    private final TreeMap<Long, Integer> drawingFloors = new TreeMap<>();
+    private long lastAssigned;
+    private volatile long truncatedThrough;
+    private ScheduledExecutorService cleaner;
+
+    public ProductChangeLog(ProductChangeProperties properties, ProductChangeRepository productChangeRepository,
+                            ProductChangeTruncationRepository productChangeTruncationRepository,
+                            EntityManager entityManager, TransactionTemplate transactionTemplate) {
+        this.properties = properties;
+        this.productChangeRepository = productChangeRepository;
+        this.productChangeTruncationRepository = productChangeTruncationRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Restores the truncation point retention last persisted. A log written before it was persisted falls back once
+     * to just below its first surviving change, which is then persisted.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        truncatedThrough = transactionTemplate.execute(status -> productChangeTruncationRepository
+                .findById(ProductChangeTruncation.ID)
+                .orElseGet(() -> {
+                    Long firstSeq = productChangeRepository.findFirstSeq();
+                    return productChangeTruncationRepository.save(
+                            new ProductChangeTruncation(ProductChangeTruncation.ID, firstSeq == null ? 0 : firstSeq - 1));
+                })
+                .getThrough());
+        Long lastSeq = productChangeRepository.findLastSeq();
+        lastAssigned = lastSeq == null ? 0 : lastSeq;
+
+        long interval = properties.getCleanupInterval().toNanos();
+        cleaner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-change-cleaner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        cleaner.scheduleWithFixedDelay(this::cleanUpQuietly, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Appends a change within the caller's transaction, which must be active; it becomes visible once that
+     * transaction and every transaction holding a lower sequence number have finished.
+     */
+    public void record(ProductChangeType type, ProductDTO productDTO) {
+        ProductChange change = ProductChange.builder()
+                .type(type)
+                .productId(productDTO.getId())
+                .code(productDTO.getCode())
+                .description(productDTO.getDescription())
+                .max(productDTO.getMax())
+                .quantity(productDTO.getQuantity())
+                .version(productDTO.getVersion())
+                .changedAt(Instant.now())
+                .build();
+        long floor;
+        synchronized (inFlight) {
+            floor = lastAssigned;
+            drawingFloors.merge(floor, 1, Integer::sum);
+        }
+        Long seq = null;
+        try {
+            entityManager.persist(change);
+            seq = change.getSeq();
+        } finally {
+            synchronized (inFlight) {
+                drawingFloors.computeIfPresent(floor, (key, count) -> count == 1 ? null : count - 1);
+                if (seq != null) {
+                    inFlight.add(seq);
+                    lastAssigned = Math.max(lastAssigned, seq);
+                }
+            }
+        }
+        long assigned = seq;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (inFlight) {
+                    inFlight.remove(assigned);
+                }
+            }
+        });
+    }
+
+    /**
+     * Highest sequence number up to which every change is either committed or rolled back.
+     */
+    public long watermark() {
+        synchronized (inFlight) {
+            long watermark = inFlight.isEmpty() ? lastAssigned : inFlight.first() - 1;
+            return drawingFloors.isEmpty() ? watermark : Math.min(watermark, drawingFloors.firstKey());
+        }
+    }
+
+    /**
+     * Up to {@code limit} changes after {@code since}, oldest first.
+     *
+     * @throws ProductChangesExpiredException when retention already dropped changes the client has not seen
+     */
+    public ProductChangePageDTO changesSince(long since, int limit) throws ProductChangesExpiredException {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long watermark = watermark();
+        List<ProductChangeDTO> content = productChangeRepository
+                .findBySeqGreaterThanAndSeqLessThanEqualOrderBySeqAsc(since, watermark, PageRequest.of(0, pageSize + 1))
+                .stream()
+                .map(productChangeMapper::toDTO)
+                .collect(Collectors.toList());
+        // checked after reading: cleanUp() moves truncatedThrough before deleting, so a racing deletion is caught here
+        long truncated = truncatedThrough;
+        if (since < truncated) {
+            throw new ProductChangesExpiredException(since, truncated);
+        }
+        boolean hasMore = content.size() > pageSize;
+        if (hasMore) {
+            content = content.subList(0, pageSize);
+        }
+        long nextSince = content.isEmpty() ? since : content.get(content.size() - 1).getSeq();
+        return new ProductChangePageDTO(content, nextSince, hasMore);
+    }
+
+    /**
+     * Applies retention, always keeping the latest change so the log's starting point survives a restart, then
+     * compaction when enabled. Only finished changes, below the {@link #watermark()}, are touched.
+     */
+    public void cleanUp() {
+        long watermark = watermark();
+        transactionTemplate.executeWithoutResult(status -> {
+            Long lastSeq = productChangeRepository.findLastSeq();
+            if (lastSeq == null) {
+                return;
+            }
+            Long expiredThrough = productChangeRepository.findLastSeqBefore(Instant.now().minus(properties.getRetention()));
+            long through = Math.max(expiredThrough == null ? 0 : expiredThrough, lastSeq - properties.getMaxEntries());
+            through = Math.min(through, Math.min(lastSeq - 1, watermark));
+            if (through > truncatedThrough) {
+                truncatedThrough = through;
+                productChangeTruncationRepository.save(new ProductChangeTruncation(ProductChangeTruncation.ID, through));
+                int deleted = productChangeRepository.deleteThrough(through);
+                log.debug("Dropped {} product changes through seq {}", deleted, through);
+            }
+            if (properties.isCompaction()) {
+                int compacted = productChangeRepository.deleteSupersededThrough(watermark);
+                log.debug("Compacted {} superseded product changes", compacted);
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        cleaner.shutdownNow();
+    }
+
+    private void cleanUpQuietly() {
+        try {
+            cleanUp();
+        } catch (RuntimeException e) {
+            log.warn("Product change log cleanup failed; retrying on the next run", e);
+        }
+    }
+}
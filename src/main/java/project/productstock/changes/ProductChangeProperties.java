@@ -0,0 +1,30 @@
+package project.productstock.changes;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "product.changes")
+public class ProductChangeProperties {
+
+    /**
+     * Changes older than this are dropped from the log.
+     */
+    private Duration retention = Duration.ofDays(7);
+
+    /**
+     * Upper bound on the log length, counted in sequence numbers, so gaps left by rolled-back writes make it
+     * approximate.
+     */
+    private long maxEntries = 1_000_000;
+
+    /**
+     * Also drop changes superseded by a later change to the same product. Clients still converge on the same
+     * state, but no longer see every intermediate one.
+     */
+    private boolean compaction = false;
+
+    private Duration cleanupInterval = Duration.ofMinutes(1);
+}
@@ -0,0 +1,27 @@
+package project.productstock.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import project.productstock.idempotency.IdempotencyFilter;
+import project.productstock.idempotency.IdempotencyProperties;
+
+/**
+ * {@code Idempotency-Key} support ({@code product.idempotency.enabled}, on by default) for the product API's
+ * mutating endpoints. Requests without the header go straight through.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "product.idempotency.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyConfiguration {
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyProperties properties,
+                                                                       MeterRegistry meterRegistry) {
+        FilterRegistrationBean<IdempotencyFilter> registration =
+                new FilterRegistrationBean<>(new IdempotencyFilter(properties, meterRegistry));
+        registration.addUrlPatterns("/api/v1/products/*");
+        return registration;
+    }
+}
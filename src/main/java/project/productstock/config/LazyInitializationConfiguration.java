@@ -0,0 +1,27 @@
+package project.productstock.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import project.productstock.changes.ProductChangeLog;
+import project.productstock.ledger.StockLedger;
+import project.productstock.metrics.ProductMetrics;
+import project.productstock.reservation.ReservationService;
+import project.productstock.snapshot.ProductSnapshot;
+
+/**
+ * Beans that stay eager under {@code spring.main.lazy-initialization=true} (the {@code faststart} profile): those
+ * whose work must not wait for a request to touch them. The stock ledger replays its journal before anything reads
+ * quantities, the reservation expiry thread returns held stock, the change log applies retention on a timer, the
+ * product snapshot loads before reads arrive, and the product meters should be scraped as zero rather than missing.
+ * The description and low-stock indexes need no entry, their {@code ApplicationReadyEvent} listeners create them.
+ */
+@Configuration(proxyBeanMethods = false)
+public class LazyInitializationConfiguration {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerProductBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(StockLedger.class, ReservationService.class,
+                ProductChangeLog.class, ProductSnapshot.class, ProductMetrics.class);
+    }
+}
@@ -0,0 +1,49 @@
+package project.productstock.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import project.productstock.sql.SqlProperties;
+import project.productstock.sql.StatementCounter;
+import project.productstock.sql.StatementLogFilter;
+
+import javax.sql.DataSource;
+
+/**
+ * Statement counting and timing ({@code product.sql.enabled}, on by default): every DataSource is wrapped so its
+ * statements reach the {@link StatementCounter}, and each request's statements are logged by the
+ * {@link StatementLogFilter}. The wrapper unwraps to the pool, so pool metrics and health keep working.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "product.sql.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlConfiguration {
+
+    @Bean
+    public StatementCounter statementCounter(SqlProperties properties) {
+        return new StatementCounter(properties);
+    }
+
+    @Bean
+    public StatementLogFilter statementLogFilter(SqlProperties properties) {
+        return new StatementLogFilter(properties);
+    }
+
+    @Bean
+    static BeanPostProcessor statementCountingDataSourcePostProcessor(ObjectProvider<StatementCounter> statementCounter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(beanName, (DataSource) bean)
+                            .listener(statementCounter.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
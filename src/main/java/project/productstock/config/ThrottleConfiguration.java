@@ -0,0 +1,29 @@
+package project.productstock.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import project.productstock.throttle.ThrottleInterceptor;
+import project.productstock.throttle.ThrottleProperties;
+
+/**
+ * Opt-in rate limiting and load shedding ({@code product.throttle.enabled=true}) for every {@code /api} endpoint.
+ * Budgets are tuned through {@code product.throttle.standard.*}, {@code .bulk.*} and {@code .subscription.*}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "product.throttle.enabled", havingValue = "true")
+public class ThrottleConfiguration implements WebMvcConfigurer {
+
+    private final ThrottleInterceptor throttleInterceptor;
+
+    public ThrottleConfiguration(ThrottleProperties throttleProperties, MeterRegistry meterRegistry) {
+        this.throttleInterceptor = new ThrottleInterceptor(throttleProperties, meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(throttleInterceptor).addPathPatterns("/api/**");
+    }
+}
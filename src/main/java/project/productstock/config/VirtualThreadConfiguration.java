@@ -0,0 +1,46 @@
+package project.productstock.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in execution mode ({@code product.execution.mode=virtual}) that runs Tomcat request handling and MVC async
+ * work, such as the streaming endpoints, on virtual threads instead of the bounded platform worker pool. Requires
+ * a Java 21+ runtime; the build still targets Java 17, so the executor is looked up reflectively. Concurrency
+ * against the database is still capped by the Hikari pool size.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "product.execution.mode", havingValue = "virtual")
+public class VirtualThreadConfiguration {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(newVirtualThreadPerTaskExecutor());
+    }
+
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException(String.format(
+                    "product.execution.mode=virtual requires Java 21 or newer, running on %s", Runtime.version()));
+        }
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads are not available on this runtime", e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package project.productstock.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary alternatives to JSON, chosen by the request's {@code Accept} or {@code Content-Type}: CBOR
+ * ({@code application/cbor}) and Smile ({@code application/x-jackson-smile}). Spring MVC would register both on its
+ * own; declaring them here builds them from Boot's {@link Jackson2ObjectMapperBuilder}, so every format shares the
+ * {@code spring.jackson.*} settings and a DTO reads the same in each. JSON stays the default.
+ */
+@Configuration(proxyBeanMethods = false)
+public class WireFormatConfiguration {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.createXmlMapper(false).factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.createXmlMapper(false).factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,41 @@
+package project.productstock.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import project.productstock.alert.LowStockIndex;
+import project.productstock.alert.LowStockStream;
+import project.productstock.dto.ProductDTO;
+import project.productstock.throttle.ThrottleBudget;
+import project.productstock.throttle.Throttled;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/products/low-stock")
+@RequiredArgsConstructor
+public class LowStockController {
+
+    private static final long DEFAULT_STREAM_TIMEOUT_MILLIS = 30 * 60 * 1000L;
+
+    private final LowStockIndex lowStockIndex;
+    private final LowStockStream lowStockStream;
+
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    public List<ProductDTO> listLowStock() {
+        return lowStockIndex.snapshot();
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Throttled(ThrottleBudget.SUBSCRIPTION)
+    public SseEmitter streamLowStock(@RequestParam(defaultValue = "" + DEFAULT_STREAM_TIMEOUT_MILLIS) long timeoutMillis) {
+        return lowStockStream.subscribe(timeoutMillis);
+    }
+}
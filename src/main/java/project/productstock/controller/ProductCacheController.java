@@ -0,0 +1,24 @@
+package project.productstock.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import project.productstock.cache.ProductCache;
+import project.productstock.dto.CacheStatsDTO;
+
+@RestController
+@RequestMapping("/api/v1/products/cache")
+@RequiredArgsConstructor
+public class ProductCacheController {
+
+    private final ProductCache productCache;
+
+    @GetMapping("/stats")
+    @ResponseStatus(HttpStatus.OK)
+    public CacheStatsDTO stats() {
+        return productCache.stats();
+    }
+}
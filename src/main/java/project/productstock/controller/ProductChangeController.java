@@ -0,0 +1,34 @@
+package project.productstock.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import project.productstock.changes.ProductChangeLog;
+import project.productstock.dto.ProductChangePageDTO;
+import project.productstock.exception.ProductChangesExpiredException;
+
+@RestController
+@RequestMapping("/api/v1/products/changes")
+@RequiredArgsConstructor
+public class ProductChangeController {
+
+    private static final int DEFAULT_PAGE_SIZE = 500;
+
+    private final ProductChangeLog productChangeLog;
+
+    /**
+     * Changes after {@code since}, oldest first. Clients keep passing back {@code nextSince}; a 410 means the
+     * changes they still need were dropped by retention and they have to re-read the catalogue.
+     */
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    public ProductChangePageDTO listChanges(@RequestParam(defaultValue = "0") long since,
+                                            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit)
+            throws ProductChangesExpiredException {
+        return productChangeLog.changesSince(since, limit);
+    }
+}
@@ -1,29 +1,69 @@
 package project.productstock.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import project.productstock.dto.BatchItemResultDTO;
+import project.productstock.dto.ImportSummaryDTO;
 import project.productstock.dto.ProductDTO;
+import project.productstock.dto.ProductLookupDTO;
+import project.productstock.dto.ProductLookupResultDTO;
+import project.productstock.dto.ProductPageDTO;
+import project.productstock.dto.ProductSearchDTO;
+import project.productstock.dto.QuantityDTO;
+import project.productstock.dto.TransferFormat;
 import project.productstock.exception.ProductAlreadyExistsException;
+import project.productstock.exception.ProductImportException;
+import project.productstock.exception.ProductMaxStockExceededException;
 import project.productstock.exception.ProductNotFoundException;
+import project.productstock.exception.ProductOutOfStockException;
+import project.productstock.exception.ProductVersionMismatchException;
+import project.productstock.service.ProductBatchService;
+import project.productstock.service.ProductSearchService;
 import project.productstock.service.ProductService;
+import project.productstock.service.ProductTransferService;
+import project.productstock.snapshot.ProductListing;
+import project.productstock.throttle.ThrottleBudget;
+import project.productstock.throttle.Throttled;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/products")
 @RequiredArgsConstructor
 public class ProductController {
 
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
     private final ProductService productService;
+    private final ProductBatchService productBatchService;
+    private final ProductSearchService productSearchService;
+    private final ProductTransferService productTransferService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -31,21 +71,155 @@ public class ProductController {
         return productService.createProduct(productDTO);
     }
 
-    @GetMapping("/{code}")
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Throttled(ThrottleBudget.BULK)
+    @ResponseStatus(HttpStatus.OK)
+    public List<BatchItemResultDTO> upsertBatch(@RequestBody List<ProductDTO> productDTOs) {
+        return productBatchService.upsertAll(productDTOs.iterator());
+    }
+
+    @PostMapping(value = "/batch", consumes = APPLICATION_NDJSON_VALUE)
+    @Throttled(ThrottleBudget.BULK)
     @ResponseStatus(HttpStatus.OK)
-    public ProductDTO findByCode(@PathVariable String code) throws ProductNotFoundException {
-        return productService.getByCode(code);
+    public List<BatchItemResultDTO> upsertBatch(InputStream body) throws IOException {
+        try (MappingIterator<ProductDTO> productDTOs = objectMapper.readerFor(ProductDTO.class).readValues(body)) {
+            return productBatchService.upsertAll(productDTOs);
+        }
     }
 
+    @PostMapping(value = "/import", consumes = TEXT_CSV_VALUE)
+    @Throttled(ThrottleBudget.BULK)
+    @ResponseStatus(HttpStatus.OK)
+    public ImportSummaryDTO importCsv(InputStream body) throws IOException, ProductImportException {
+        return productTransferService.importProducts(body, TransferFormat.CSV);
+    }
+
+    @PostMapping(value = "/import", consumes = APPLICATION_NDJSON_VALUE)
+    @Throttled(ThrottleBudget.BULK)
+    @ResponseStatus(HttpStatus.OK)
+    public ImportSummaryDTO importNdjson(InputStream body) throws IOException, ProductImportException {
+        return productTransferService.importProducts(body, TransferFormat.NDJSON);
+    }
+
+    @GetMapping(value = "/export", produces = {TEXT_CSV_VALUE, APPLICATION_NDJSON_VALUE})
+    @Throttled(ThrottleBudget.BULK)
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        TransferFormat format = accept != null && accept.contains(APPLICATION_NDJSON_VALUE) ? TransferFormat.NDJSON : TransferFormat.CSV;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format == TransferFormat.CSV ? TEXT_CSV_VALUE : APPLICATION_NDJSON_VALUE))
+                .body(outputStream -> productTransferService.exportProducts(outputStream, format));
+    }
+
+    /**
+     * Tagged with the product's id and version, so a matching {@code If-None-Match} gets a 304 without a body. The tag is
+     * the same in every format, so the response varies by {@code Accept}.
+     */
+    @GetMapping("/{code}")
+    public ResponseEntity<ProductDTO> findByCode(@PathVariable String code) throws ProductNotFoundException {
+        ProductDTO productDTO = productService.getByCode(code);
+        return ResponseEntity.ok().eTag(ProductETags.of(productDTO)).varyBy(HttpHeaders.ACCEPT).body(productDTO);
+    }
+
+    /**
+     * JSON unless the client accepts CBOR or Smile, which are smaller and cheaper to encode; large bodies in any
+     * format are gzipped when the client allows it. Written from the product snapshot when it is serving.
+     */
     @GetMapping()
+    @Throttled(ThrottleBudget.BULK)
+    public ResponseEntity<?> listAll() {
+        Optional<ProductListing> listing = productService.listAllFromSnapshot();
+        if (listing.isPresent()) {
+            return ResponseEntity.ok().eTag(ProductETags.of(listing.get())).varyBy(HttpHeaders.ACCEPT).body(listing.get());
+        }
+        List<ProductDTO> productDTOs = productService.listAll();
+        return ResponseEntity.ok().eTag(ProductETags.of(productDTOs)).varyBy(HttpHeaders.ACCEPT).body(productDTOs);
+    }
+
+    @GetMapping(params = "size")
     @ResponseStatus(HttpStatus.OK)
-    public List<ProductDTO> listAll() {
-        return productService.listAll();
+    public ProductPageDTO listPage(@RequestParam(required = false) Long afterId, @RequestParam int size) {
+        return productService.listPage(afterId, size);
+    }
+
+    /**
+     * Resolves many codes in one request, e.g. a cart. Unknown codes come back in {@code missing} rather than as a
+     * 404, so one stale code does not fail the others.
+     */
+    @PostMapping("/lookup")
+    @ResponseStatus(HttpStatus.OK)
+    public ProductLookupResultDTO lookup(@RequestBody @Valid ProductLookupDTO productLookupDTO) {
+        return productService.lookupByCodes(productLookupDTO.getCodes());
+    }
+
+    @GetMapping("/search")
+    @ResponseStatus(HttpStatus.OK)
+    public ProductPageDTO search(ProductSearchDTO criteria) {
+        return productSearchService.search(criteria);
+    }
+
+    @GetMapping(value = "/stream", produces = {APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    @Throttled(ThrottleBudget.BULK)
+    public ResponseEntity<StreamingResponseBody> streamAll(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        boolean ndjson = accept == null || !accept.contains(MediaType.APPLICATION_JSON_VALUE);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ndjson ? APPLICATION_NDJSON_VALUE : MediaType.APPLICATION_JSON_VALUE))
+                .body(outputStream -> {
+                    try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                        if (ndjson) {
+                            generator.setRootValueSeparator(null);
+                        } else {
+                            generator.writeStartArray();
+                        }
+                        productService.streamAll(productDTO -> writeValue(generator, productDTO, ndjson));
+                        if (!ndjson) {
+                            generator.writeEndArray();
+                        }
+                    }
+                });
+    }
+
+    /**
+     * With an {@code If-Match} header the change only applies while the product is still at the version it tags;
+     * otherwise it fails with 412 Precondition Failed.
+     */
+    @PatchMapping("/{id}/increment")
+    public ResponseEntity<ProductDTO> increment(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws ProductNotFoundException, ProductMaxStockExceededException, ProductVersionMismatchException {
+        ProductDTO productDTO = productService.increment(id, quantityDTO.getQuantity(), expectedVersion(id, ifMatch));
+        return ResponseEntity.ok().eTag(ProductETags.of(productDTO)).body(productDTO);
+    }
+
+    @PatchMapping("/{id}/decrement")
+    public ResponseEntity<ProductDTO> decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws ProductNotFoundException, ProductOutOfStockException, ProductVersionMismatchException {
+        ProductDTO productDTO = productService.decrement(id, quantityDTO.getQuantity(), expectedVersion(id, ifMatch));
+        return ResponseEntity.ok().eTag(ProductETags.of(productDTO)).body(productDTO);
     }
 
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void deleteById(@PathVariable Long id) throws ProductNotFoundException {
-        productService.deleteById(id);
+    public void deleteById(@PathVariable Long id,
+                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws ProductNotFoundException, ProductVersionMismatchException {
+        productService.deleteById(id, expectedVersion(id, ifMatch));
+    }
+
+    private Long expectedVersion(Long id, String ifMatch) {
+        return ProductETags.version(ifMatch, id, () -> productService.currentVersion(id));
+    }
+
+    private void writeValue(JsonGenerator generator, Object value, boolean ndjson) {
+        try {
+            generator.writeObject(value);
+            if (ndjson) {
+                generator.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
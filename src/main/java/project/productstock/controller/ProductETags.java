@@ -0,0 +1,113 @@
+package project.productstock.controller;
+
+import project.productstock.dto.ProductDTO;
+import project.productstock.snapshot.ProductListing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Weak entity tags derived from product versions. A product's tag is its id and version, so tags of different
+ * products never collide; a list's tag hashes the ids and versions of its products, so it changes whenever any of
+ * them is added, removed or written. A snapshot listing is tagged with the last change it had applied. The tags name a
+ * version rather than the bytes of one encoding, so they are weak: the same tag holds for JSON, CBOR and Smile,
+ * gzipped or not, and Tomcat compresses weakly tagged responses as it does untagged ones. {@code If-Match} is still
+ * compared by version.
+ */
+final class ProductETags {
+
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+    private static final String ID_SEPARATOR = "-";
+    private static final long UNKNOWN_VERSION = -1L;
+
+    private ProductETags() {
+    }
+
+    static String of(ProductDTO productDTO) {
+        return weak(productDTO.getId() + ID_SEPARATOR + productDTO.getVersion());
+    }
+
+    static String of(List<ProductDTO> productDTOs) {
+        long hash = 1;
+        for (ProductDTO productDTO : productDTOs) {
+            hash = 31 * hash + productDTO.getId();
+            hash = 31 * hash + (productDTO.getVersion() == null ? 0 : productDTO.getVersion());
+        }
+        return weak(productDTOs.size() + "-" + Long.toHexString(hash));
+    }
+
+    static String of(ProductListing listing) {
+        return weak(listing.size() + "-" + Long.toHexString(listing.seq()));
+    }
+
+    /**
+     * The version of product {@code id} an {@code If-Match} header asks for, or {@code null} when any version will
+     * do. The header may list several tags; those that are not this product's can never match, so a header without
+     * any maps to a version no product has. When it lists several versions of this product, the one it is at now is
+     * asked for if listed, read through {@code currentVersion}.
+     */
+    static Long version(String ifMatch, Long id, Supplier<Optional<Long>> currentVersion) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        List<Long> versions = new ArrayList<>();
+        for (String tag : tags(ifMatch)) {
+            Long version = versionOf(tag, id);
+            if (version != null && !versions.contains(version)) {
+                versions.add(version);
+            }
+        }
+        if (versions.size() <= 1) {
+            return versions.isEmpty() ? UNKNOWN_VERSION : versions.get(0);
+        }
+        return currentVersion.get().filter(versions::contains).orElse(UNKNOWN_VERSION);
+    }
+
+    /**
+     * The tags of a comma-separated list; commas inside a quoted tag do not separate.
+     */
+    private static List<String> tags(String header) {
+        List<String> tags = new ArrayList<>();
+        boolean quoted = false;
+        int start = 0;
+        for (int i = 0; i < header.length(); i++) {
+            char c = header.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                tags.add(header.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        tags.add(header.substring(start).trim());
+        return tags;
+    }
+
+    /**
+     * The version a single tag names when it is one of product {@code id}'s, otherwise {@code null}.
+     */
+    private static Long versionOf(String tag, Long id) {
+        if (tag.startsWith(WEAK_PREFIX)) {
+            tag = tag.substring(WEAK_PREFIX.length());
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        int separator = tag.lastIndexOf(ID_SEPARATOR);
+        if (separator < 0 || !tag.substring(0, separator).equals(String.valueOf(id))) {
+            return null;
+        }
+        try {
+            return Long.valueOf(tag.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String weak(String value) {
+        return WEAK_PREFIX + "\"" + value + "\"";
+    }
+}
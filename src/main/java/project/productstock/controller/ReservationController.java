@@ -0,0 +1,59 @@
+package project.productstock.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import project.productstock.dto.ReservationDTO;
+import project.productstock.dto.ReservationRequestDTO;
+import project.productstock.exception.ProductNotFoundException;
+import project.productstock.exception.ProductOutOfStockException;
+import project.productstock.exception.ReservationNotFoundException;
+import project.productstock.exception.ReservationNotHeldException;
+import project.productstock.exception.ReservationsUnavailableException;
+import project.productstock.reservation.ReservationService;
+
+import javax.validation.Valid;
+
+@RestController
+@RequestMapping("/api/v1/products/{code}/reservations")
+@RequiredArgsConstructor
+public class ReservationController {
+
+    private final ReservationService reservationService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public ReservationDTO reserve(@PathVariable String code, @RequestBody @Valid ReservationRequestDTO reservationRequestDTO)
+            throws ProductNotFoundException, ProductOutOfStockException, ReservationsUnavailableException {
+        return reservationService.reserve(code, reservationRequestDTO);
+    }
+
+    @GetMapping("/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    public ReservationDTO getById(@PathVariable String code, @PathVariable Long id) throws ReservationNotFoundException {
+        return reservationService.getById(code, id);
+    }
+
+    /**
+     * A 409 means the reservation was already settled or has expired; its units are no longer held.
+     */
+    @PostMapping("/{id}/commit")
+    @ResponseStatus(HttpStatus.OK)
+    public ReservationDTO commit(@PathVariable String code, @PathVariable Long id)
+            throws ReservationNotFoundException, ReservationNotHeldException {
+        return reservationService.commit(code, id);
+    }
+
+    @PostMapping("/{id}/release")
+    @ResponseStatus(HttpStatus.OK)
+    public ReservationDTO release(@PathVariable String code, @PathVariable Long id)
+            throws ReservationNotFoundException, ReservationNotHeldException {
+        return reservationService.release(code, id);
+    }
+}
@@ -0,0 +1,73 @@
+package project.productstock.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import project.productstock.dto.LocationStockDTO;
+import project.productstock.dto.ProductStockDTO;
+import project.productstock.dto.QuantityDTO;
+import project.productstock.exception.HomeWarehouseException;
+import project.productstock.exception.ProductMaxStockExceededException;
+import project.productstock.exception.ProductNotFoundException;
+import project.productstock.exception.ProductOutOfStockException;
+import project.productstock.exception.WarehouseStockNotFoundException;
+import project.productstock.service.ProductService;
+import project.productstock.warehouse.WarehouseStockService;
+
+import javax.validation.Valid;
+
+@RestController
+@RequestMapping("/api/v1/products")
+@RequiredArgsConstructor
+public class WarehouseStockController {
+
+    private final ProductService productService;
+    private final WarehouseStockService warehouseStockService;
+
+    @GetMapping("/{code}/stock")
+    @ResponseStatus(HttpStatus.OK)
+    public ProductStockDTO getStock(@PathVariable String code, @RequestParam(defaultValue = "true") boolean locations)
+            throws ProductNotFoundException {
+        return productService.getStockByCode(code, locations);
+    }
+
+    @PutMapping("/{id}/warehouses/{warehouse}")
+    @ResponseStatus(HttpStatus.OK)
+    public LocationStockDTO putLocation(@PathVariable Long id, @PathVariable String warehouse,
+                                        @RequestBody @Valid LocationStockDTO locationStockDTO)
+            throws HomeWarehouseException, ProductNotFoundException, ProductMaxStockExceededException {
+        return warehouseStockService.putLocation(id, warehouse, locationStockDTO);
+    }
+
+    @PatchMapping("/{id}/warehouses/{warehouse}/increment")
+    @ResponseStatus(HttpStatus.OK)
+    public LocationStockDTO increment(@PathVariable Long id, @PathVariable String warehouse,
+                                      @RequestBody @Valid QuantityDTO quantityDTO)
+            throws HomeWarehouseException, WarehouseStockNotFoundException, ProductMaxStockExceededException {
+        return warehouseStockService.increment(id, warehouse, quantityDTO.getQuantity());
+    }
+
+    @PatchMapping("/{id}/warehouses/{warehouse}/decrement")
+    @ResponseStatus(HttpStatus.OK)
+    public LocationStockDTO decrement(@PathVariable Long id, @PathVariable String warehouse,
+                                      @RequestBody @Valid QuantityDTO quantityDTO)
+            throws HomeWarehouseException, WarehouseStockNotFoundException, ProductOutOfStockException {
+        return warehouseStockService.decrement(id, warehouse, quantityDTO.getQuantity());
+    }
+
+    @DeleteMapping("/{id}/warehouses/{warehouse}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void removeLocation(@PathVariable Long id, @PathVariable String warehouse)
+            throws HomeWarehouseException, WarehouseStockNotFoundException {
+        warehouseStockService.removeLocation(id, warehouse);
+    }
+}
@@ -0,0 +1,28 @@
+package project.productstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchItemResultDTO {
+
+    /**
+     * Zero-based position of the item in the submitted batch.
+     */
+    private int index;
+
+    private String code;
+
+    private Long id;
+
+    private BatchItemStatus status;
+
+    private List<String> errors;
+}
@@ -0,0 +1,8 @@
+package project.productstock.dto;
+
+public enum BatchItemStatus {
+    CREATED,
+    UPDATED,
+    INVALID,
+    FAILED
+}
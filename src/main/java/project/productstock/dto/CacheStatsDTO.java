@@ -0,0 +1,25 @@
+package project.productstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheStatsDTO {
+
+    private boolean enabled;
+
+    private long size;
+
+    private long hitCount;
+
+    private long negativeHitCount;
+
+    private long missCount;
+
+    private long evictionCount;
+}
@@ -0,0 +1,35 @@
+package project.productstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportSummaryDTO {
+
+    private long rows;
+
+    private long created;
+
+    private long updated;
+
+    private long invalid;
+
+    private long failed;
+
+    private long elapsedMillis;
+
+    private double rowsPerSecond;
+
+    /**
+     * Rows that were not written, ordered by their zero-based position in the payload. Only the first few are kept,
+     * so a payload of bad rows cannot make the summary itself grow without bound.
+     */
+    private List<BatchItemResultDTO> errors;
+}
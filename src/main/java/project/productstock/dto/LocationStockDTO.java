@@ -0,0 +1,32 @@
+package project.productstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LocationStockDTO {
+
+    /**
+     * Taken from the request path when the location is written.
+     */
+    private String warehouse;
+
+    @NotNull
+    @Min(0)
+    @Max(500)
+    private Integer max;
+
+    @NotNull
+    @Min(0)
+    @Max(500)
+    private Integer quantity;
+}
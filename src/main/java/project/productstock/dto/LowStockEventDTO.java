@@ -0,0 +1,20 @@
+package project.productstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LowStockEventDTO {
+
+    private LowStockEventType type;
+
+    /**
+     * The product as written; for {@link LowStockEventType#LEFT} after a delete it is the last low-stock snapshot.
+     */
+    private ProductDTO product;
+}
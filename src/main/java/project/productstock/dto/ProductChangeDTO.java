@@ -0,0 +1,33 @@
+package project.productstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductChangeDTO {
+
+    private Long seq;
+
+    private ProductChangeType type;
+
+    private Long productId;
+
+    private String code;
+
+    private String description;
+
+    private Integer max;
+
+    private Integer quantity;
+
+    private Long version;
+
+    private Instant changedAt;
+}
@@ -0,0 +1,28 @@
+package project.productstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductChangePageDTO {
+
+    private List<ProductChangeDTO> content;
+
+    /**
+     * Sequence number to pass as {@code since} on the next call: the last change in this page, or the requested
+     * {@code since} when there was nothing new.
+     */
+    private long nextSince;
+
+    /**
+     * Whether more changes were already available when this page was read.
+     */
+    private boolean hasMore;
+}
@@ -0,0 +1,7 @@
+package project.productstock.dto;
+
+public enum ProductChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -10,7 +10,7 @@ import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 public class ProductDTO {
@@ -31,4 +31,9 @@ public class ProductDTO {
     @NotNull
     @Max(500)
     private Integer quantity;
+
+    /**
+     * Optimistic-locking version, bumped by every write; the product's ETag is derived from it.
+     */
+    private Long version;
 }
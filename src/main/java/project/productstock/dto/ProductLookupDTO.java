@@ -0,0 +1,24 @@
+package project.productstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductLookupDTO {
+
+    public static final int MAX_CODES = 1000;
+
+    @NotNull
+    @Size(min = 1, max = MAX_CODES)
+    private List<@NotBlank String> codes;
+}
@@ -0,0 +1,25 @@
+package project.productstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductLookupResultDTO {
+
+    /**
+     * Found products, in the order their codes were first requested.
+     */
+    private List<ProductDTO> products;
+
+    /**
+     * Requested codes no product has, in request order.
+     */
+    private List<String> missing;
+}
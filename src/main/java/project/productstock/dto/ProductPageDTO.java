@@ -0,0 +1,22 @@
+package project.productstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductPageDTO {
+
+    private List<ProductDTO> content;
+
+    /**
+     * Id to pass as {@code afterId} to fetch the next page, or {@code null} when this is the last page.
+     */
+    private Long nextAfterId;
+}
@@ -0,0 +1,38 @@
+package project.productstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductSearchDTO {
+
+    /**
+     * Whitespace separated words that must all appear in the description, case-insensitive.
+     */
+    private String q;
+
+    private String descriptionPrefix;
+
+    private String codePrefix;
+
+    private Integer minQuantity;
+
+    private Integer maxQuantity;
+
+    /**
+     * Lower bound of {@code quantity / max}, between 0 and 1.
+     */
+    private Double minFillRatio;
+
+    private Double maxFillRatio;
+
+    private Long afterId;
+
+    @Builder.Default
+    private int size = 100;
+}
@@ -0,0 +1,27 @@
+package project.productstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductStockDTO {
+
+    private ProductDTO product;
+
+    /**
+     * Home stock plus every other warehouse.
+     */
+    private StockTotalDTO total;
+
+    /**
+     * Home warehouse first, then the others by code; null when only the total was asked for.
+     */
+    private List<LocationStockDTO> locations;
+}
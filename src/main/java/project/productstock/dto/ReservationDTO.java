@@ -0,0 +1,27 @@
+package project.productstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReservationDTO {
+
+    private Long id;
+
+    private Long productId;
+
+    private String code;
+
+    private Integer quantity;
+
+    private ReservationStatus status;
+
+    private Instant expiresAt;
+}
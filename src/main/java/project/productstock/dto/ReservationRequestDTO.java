@@ -0,0 +1,28 @@
+package project.productstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReservationRequestDTO {
+
+    @NotNull
+    @Min(1)
+    @Max(500)
+    private Integer quantity;
+
+    /**
+     * How long the units are held before they return to stock; the configured default when absent.
+     */
+    @Min(1)
+    private Long ttlSeconds;
+}
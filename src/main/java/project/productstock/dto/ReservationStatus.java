@@ -0,0 +1,8 @@
+package project.productstock.dto;
+
+public enum ReservationStatus {
+    HELD,
+    COMMITTED,
+    RELEASED,
+    EXPIRED
+}
@@ -0,0 +1,6 @@
+package project.productstock.dto;
+
+public enum TransferFormat {
+    CSV,
+    NDJSON
+}
@@ -9,15 +9,24 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Version;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_product_description", columnList = "description"),
+        @Index(name = "idx_product_quantity", columnList = "quantity")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_sequence")
+    @SequenceGenerator(name = "product_sequence", sequenceName = "product_sequence", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -31,4 +40,7 @@ public class Product {
 
     @Column(nullable = false)
     private Integer quantity;
+
+    @Version
+    private Long version;
 }
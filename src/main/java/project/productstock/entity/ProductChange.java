@@ -0,0 +1,60 @@
+package project.productstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import project.productstock.dto.ProductChangeType;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import java.time.Instant;
+
+/**
+ * One entry of the append-only change log: the state a product was left in by a create, update or delete.
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_product_change_product_id", columnList = "productId, seq"),
+        @Index(name = "idx_product_change_changed_at", columnList = "changedAt")
+})
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_change_sequence")
+    @SequenceGenerator(name = "product_change_sequence", sequenceName = "product_change_sequence", allocationSize = 50)
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 7)
+    private ProductChangeType type;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private String code;
+
+    private String description;
+
+    private Integer max;
+
+    private Integer quantity;
+
+    private Long version;
+
+    @Column(nullable = false)
+    private Instant changedAt;
+}
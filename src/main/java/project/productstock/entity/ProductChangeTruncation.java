@@ -0,0 +1,29 @@
+package project.productstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * How far retention has dropped the change log, in a single row, so a restart restores it exactly. The first
+ * surviving change cannot stand in for it: compaction also deletes changes, and a client that missed only superseded
+ * ones has missed nothing.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductChangeTruncation {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private Long through;
+}
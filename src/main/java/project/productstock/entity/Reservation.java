@@ -0,0 +1,53 @@
+package project.productstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import project.productstock.dto.ReservationStatus;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import java.time.Instant;
+
+/**
+ * Units taken out of a product's quantity on behalf of a checkout. They stay out when the reservation is committed
+ * and go back when it is released or expires.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_reservation_status", columnList = "status"))
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class Reservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_sequence")
+    @SequenceGenerator(name = "reservation_sequence", sequenceName = "reservation_sequence", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private String code;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 9)
+    private ReservationStatus status;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,35 @@
+package project.productstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+
+/**
+ * One stripe of a product's running warehouse totals. Each warehouse always adds into the same stripe, so
+ * concurrent changes at different warehouses rarely lock the same row, and a product's total is a sum over at most
+ * {@link project.productstock.warehouse.WarehouseStockService#ROLLUP_STRIPES} rows however many warehouses stock it.
+ */
+@Entity
+@IdClass(StockRollupId.class)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockRollup {
+
+    @Id
+    private Long productId;
+
+    @Id
+    private Integer stripe;
+
+    @Column(nullable = false)
+    private Long max;
+
+    @Column(nullable = false)
+    private Long quantity;
+}
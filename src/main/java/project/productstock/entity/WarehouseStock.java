@@ -0,0 +1,35 @@
+package project.productstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+
+/**
+ * A product's stock at one warehouse other than its home one. The primary key leads with the product, so a
+ * product's locations sit next to each other in the index, and each location is its own row to lock.
+ */
+@Entity
+@IdClass(WarehouseStockId.class)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WarehouseStock {
+
+    @Id
+    private Long productId;
+
+    @Id
+    @Column(length = 32)
+    private String warehouse;
+
+    @Column(nullable = false)
+    private Integer max;
+
+    @Column(nullable = false)
+    private Integer quantity;
+}
@@ -0,0 +1,17 @@
+package project.productstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WarehouseStockId implements Serializable {
+
+    private Long productId;
+
+    private String warehouse;
+}
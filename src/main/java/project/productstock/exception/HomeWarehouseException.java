@@ -0,0 +1,12 @@
+package project.productstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class HomeWarehouseException extends Exception {
+
+    public HomeWarehouseException(String warehouse) {
+        super(String.format("Stock at home warehouse %s is the product's own quantity; change it through the product.", warehouse));
+    }
+}
@@ -0,0 +1,13 @@
+package project.productstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.GONE)
+public class ProductChangesExpiredException extends Exception {
+
+    public ProductChangesExpiredException(long since, long truncatedThrough) {
+        super(String.format("Changes after %d are no longer retained (the log starts after %d); "
+                + "resynchronize with a full product list.", since, truncatedThrough));
+    }
+}
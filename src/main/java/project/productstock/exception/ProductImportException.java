@@ -0,0 +1,12 @@
+package project.productstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class ProductImportException extends Exception {
+
+    public ProductImportException(long row, String reason) {
+        super(String.format("Import stopped at row %d, which is not well-formed: %s", row, reason));
+    }
+}
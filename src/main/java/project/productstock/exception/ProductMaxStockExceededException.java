@@ -0,0 +1,12 @@
+package project.productstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class ProductMaxStockExceededException extends Exception {
+
+    public ProductMaxStockExceededException(Long id, int quantity) {
+        super(String.format("Product with id %d cannot be incremented by %d without exceeding its max stock.", id, quantity));
+    }
+}
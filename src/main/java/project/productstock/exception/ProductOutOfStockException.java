@@ -0,0 +1,12 @@
+package project.productstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class ProductOutOfStockException extends Exception {
+
+    public ProductOutOfStockException(Long id, int quantity) {
+        super(String.format("Product with id %d does not have %d units in stock.", id, quantity));
+    }
+}
@@ -0,0 +1,12 @@
+package project.productstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class ProductVersionMismatchException extends Exception {
+
+    public ProductVersionMismatchException(Long id, Long expectedVersion, Long currentVersion) {
+        super(String.format("Product with id %d is at version %d, not %d.", id, currentVersion, expectedVersion));
+    }
+}
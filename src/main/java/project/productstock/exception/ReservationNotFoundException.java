@@ -0,0 +1,12 @@
+package project.productstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ReservationNotFoundException extends Exception {
+
+    public ReservationNotFoundException(String code, Long id) {
+        super(String.format("Product with code %s has no reservation with id %d.", code, id));
+    }
+}
@@ -0,0 +1,13 @@
+package project.productstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import project.productstock.dto.ReservationStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ReservationNotHeldException extends Exception {
+
+    public ReservationNotHeldException(Long id, ReservationStatus status) {
+        super(String.format("Reservation with id %d is already %s.", id, status.name().toLowerCase()));
+    }
+}
@@ -0,0 +1,12 @@
+package project.productstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ReservationsUnavailableException extends Exception {
+
+    public ReservationsUnavailableException(String code) {
+        super(String.format("Product with code %s cannot be reserved while stock changes are written behind.", code));
+    }
+}
@@ -0,0 +1,12 @@
+package project.productstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class WarehouseStockNotFoundException extends Exception {
+
+    public WarehouseStockNotFoundException(Long productId, String warehouse) {
+        super(String.format("Product with id %d has no stock at warehouse %s", productId, warehouse));
+    }
+}
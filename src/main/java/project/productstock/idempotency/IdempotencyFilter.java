@@ -0,0 +1,445 @@
+package project.productstock.idempotency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs a mutating request carrying an {@code Idempotency-Key} at most once per key, method and path, so a client
+ * may retry a timed-out write safely. The first request's response is kept in an {@link IdempotencyStore} and
+ * replayed for later ones, marked {@code Idempotent-Replayed: true}, without reaching a controller or the database.
+ * A duplicate arriving while the first is still running waits for its response, up to
+ * {@code product.idempotency.in-flight-timeout}, then gets 409 Conflict. Reusing a key with a different body or
+ * {@code If-Match} gets 422 Unprocessable Entity. A new key arriving while {@code product.idempotency.max-entries}
+ * keys are remembered gets 503 Service Unavailable. Keys are expected to be random, e.g. UUIDs, and are not scoped
+ * to a client.
+ * <p>
+ * Successful and client-error responses are stored; server errors, 408, 429 and responses over
+ * {@code product.idempotency.max-response-size} are not, and their key is freed for the next attempt. The response
+ * is written through as it is produced and copied on the side, so nothing is held back from the client.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long IN_FLIGHT_RETRY_AFTER_SECONDS = 1;
+    private static final long FULL_RETRY_AFTER_SECONDS = 5;
+    private static final Set<String> MUTATING_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private final IdempotencyProperties properties;
+    private final IdempotencyStore store;
+    private final Counter replayed;
+    private final Counter mismatched;
+    private final Counter timedOut;
+    private final Counter refused;
+
+    public IdempotencyFilter(IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.store = new IdempotencyStore(properties.getMaxEntries(), properties.getTtl());
+        this.replayed = outcome(meterRegistry, "replayed", "Requests answered with the stored response for their key");
+        this.mismatched = outcome(meterRegistry, "mismatched", "Requests refused for reusing a key with another body");
+        this.timedOut = outcome(meterRegistry, "timed_out", "Duplicates refused while the first request ran too long");
+        this.refused = outcome(meterRegistry, "refused", "New keys refused while the store was full");
+        Gauge.builder("http.server.idempotency.keys", store, IdempotencyStore::size)
+                .description("Idempotency keys currently remembered")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !MUTATING_METHODS.contains(request.getMethod()) || request.getHeader(properties.getHeader()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(properties.getHeader());
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), String.format("%s must be 1 to %d characters long",
+                    properties.getHeader(), MAX_KEY_LENGTH));
+            return;
+        }
+        String key = request.getMethod() + ' ' + request.getRequestURI() + ' ' + idempotencyKey;
+        FingerprintingRequest fingerprintingRequest = new FingerprintingRequest(request);
+        long deadline = System.nanoTime() + properties.getInFlightTimeout().toNanos();
+        while (true) {
+            IdempotencyStore.Entry entry = new IdempotencyStore.Entry();
+            IdempotencyStore.Entry owner = store.claim(key, entry);
+            if (owner == null) {
+                execute(key, entry, fingerprintingRequest, response, filterChain);
+                return;
+            }
+            if (owner == IdempotencyStore.REFUSED) {
+                refused.increment();
+                response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(FULL_RETRY_AFTER_SECONDS));
+                return;
+            }
+            IdempotencyStore.Response stored;
+            try {
+                stored = owner.response().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                timedOut.increment();
+                response.setStatus(HttpStatus.CONFLICT.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(IN_FLIGHT_RETRY_AFTER_SECONDS));
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("Interrupted waiting for the request with the same idempotency key", e);
+            } catch (ExecutionException e) {
+                throw new ServletException(e.getCause());
+            }
+            if (stored != null) {
+                replay(stored, fingerprintingRequest, response);
+                return;
+            }
+            // the owner released the key without a response to replay; claim it for this attempt
+        }
+    }
+
+    private void execute(String key, IdempotencyStore.Entry entry, FingerprintingRequest request,
+                         HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        RecordingResponse recordingResponse =
+                new RecordingResponse(response, (int) properties.getMaxResponseSize().toBytes());
+        boolean stored = false;
+        try {
+            filterChain.doFilter(request, recordingResponse);
+            recordingResponse.flushWriter();
+            if (isStorable(request, recordingResponse)) {
+                store.complete(key, entry, recordingResponse.toStored(request.fingerprint()));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                store.release(key, entry);
+            }
+        }
+    }
+
+    private void replay(IdempotencyStore.Response stored, FingerprintingRequest request, HttpServletResponse response)
+            throws IOException {
+        if (!MessageDigest.isEqual(stored.fingerprint(), request.fingerprint())) {
+            mismatched.increment();
+            response.setStatus(HttpStatus.UNPROCESSABLE_ENTITY.value());
+            return;
+        }
+        replayed.increment();
+        stored.headers().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.error()) {
+            response.sendError(stored.status());
+            return;
+        }
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private static boolean isStorable(HttpServletRequest request, RecordingResponse response) {
+        int status = response.getStatus();
+        return !request.isAsyncStarted() && !response.overflowed
+                && status < 500
+                && status != HttpStatus.REQUEST_TIMEOUT.value()
+                && status != HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome, String description) {
+        return Counter.builder("http.server.requests.idempotent")
+                .description(description)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Digests the {@code If-Match} precondition and then the body as the handler reads it; {@link #fingerprint()}
+     * reads whatever the handler left.
+     */
+    private static final class FingerprintingRequest extends HttpServletRequestWrapper {
+
+        private final MessageDigest digest;
+        private DigestingInputStream inputStream;
+        private BufferedReader reader;
+        private byte[] fingerprint;
+
+        FingerprintingRequest(HttpServletRequest request) {
+            super(request);
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            String ifMatch = request.getHeader(HttpHeaders.IF_MATCH);
+            digest.update((ifMatch == null ? "" : HttpHeaders.IF_MATCH + ": " + ifMatch + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = new DigestingInputStream(super.getInputStream(), digest);
+            }
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                String encoding = getCharacterEncoding();
+                reader = new BufferedReader(new InputStreamReader(getInputStream(),
+                        encoding == null ? StandardCharsets.ISO_8859_1.name() : encoding));
+            }
+            return reader;
+        }
+
+        byte[] fingerprint() throws IOException {
+            if (fingerprint == null) {
+                getInputStream();
+                inputStream.drain();
+                fingerprint = digest.digest();
+            }
+            return fingerprint;
+        }
+    }
+
+    private static final class DigestingInputStream extends ServletInputStream {
+
+        private final ServletInputStream delegate;
+        private final MessageDigest digest;
+        private boolean drained;
+
+        DigestingInputStream(ServletInputStream delegate, MessageDigest digest) {
+            this.delegate = delegate;
+            this.digest = digest;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            if (b >= 0) {
+                digest.update((byte) b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = delegate.read(b, off, len);
+            if (read > 0) {
+                digest.update(b, off, read);
+            }
+            return read;
+        }
+
+        /**
+         * Reads the rest of the body, so the digest covers all of it even if the handler stopped early.
+         */
+        void drain() throws IOException {
+            if (drained) {
+                return;
+            }
+            byte[] buffer = new byte[8192];
+            while (read(buffer, 0, buffer.length) >= 0) {
+                // digested by read
+            }
+            drained = true;
+        }
+
+        /**
+         * Parsers close the stream once they have what they need, which may be short of the end of the body.
+         */
+        @Override
+        public void close() throws IOException {
+            drain();
+            delegate.close();
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            delegate.setReadListener(readListener);
+        }
+    }
+
+    /**
+     * Writes through to the client and keeps a copy of the body until it outgrows the limit.
+     */
+    private static final class RecordingResponse extends HttpServletResponseWrapper {
+
+        private final int limit;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private boolean overflowed;
+        private boolean error;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        RecordingResponse(HttpServletResponse response, int limit) {
+            super(response);
+            this.limit = limit;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new RecordingOutputStream(super.getOutputStream(), this);
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            flushWriter();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            error = true;
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            error = true;
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            body.reset();
+            overflowed = false;
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            body.reset();
+            overflowed = false;
+            error = false;
+        }
+
+        void flushWriter() {
+            if (writer != null) {
+                writer.flush();
+            }
+        }
+
+        void record(byte[] b, int off, int len) {
+            if (overflowed) {
+                return;
+            }
+            if (body.size() + len > limit) {
+                overflowed = true;
+                body.reset();
+                return;
+            }
+            body.write(b, off, len);
+        }
+
+        IdempotencyStore.Response toStored(byte[] fingerprint) {
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            for (String name : getHeaderNames()) {
+                if (!HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name) && !HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                    headers.putIfAbsent(name, new ArrayList<>(getHeaders(name)));
+                }
+            }
+            return new IdempotencyStore.Response(getStatus(), error, getContentType(), headers, body.toByteArray(),
+                    fingerprint);
+        }
+    }
+
+    private static final class RecordingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+        private final RecordingResponse response;
+
+        RecordingOutputStream(ServletOutputStream delegate, RecordingResponse response) {
+            this.delegate = delegate;
+            this.response = response;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            response.record(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            response.record(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package project.productstock.idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "product.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * Deduplication of mutating requests that carry the idempotency header; requests without it are untouched.
+     */
+    private boolean enabled = true;
+
+    private String header = "Idempotency-Key";
+
+    /**
+     * How long a completed response is replayed for its key.
+     */
+    private Duration ttl = Duration.ofHours(1);
+
+    /**
+     * Keys remembered at once, in flight or completed. Keys are never dropped before their time to live; new ones
+     * beyond this are refused with 503 Service Unavailable until older responses expire.
+     */
+    private long maxEntries = 100_000;
+
+    /**
+     * Larger responses are passed through without being stored, so a retry runs the request again.
+     */
+    private DataSize maxResponseSize = DataSize.ofKilobytes(64);
+
+    /**
+     * How long a duplicate waits for the first request with its key to complete before getting 409 Conflict.
+     */
+    private Duration inFlightTimeout = Duration.ofSeconds(30);
+}
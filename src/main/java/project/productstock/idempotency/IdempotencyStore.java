@@ -0,0 +1,161 @@
+package project.productstock.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Responses by idempotency key. A key is claimed by inserting an in-flight {@link Entry} into a plain map that never
+ * evicts, so a running request cannot lose its key; duplicates find that entry and wait on it. The owner then either
+ * completes it, which moves the response into a cache that expires it a fixed time after completion, or releases it,
+ * which removes the key and wakes the waiters with {@code null} so one of them can claim the key in turn.
+ * <p>
+ * In-flight and completed keys together are bounded by {@code maxEntries}. Rather than evict a key whose response a
+ * retry may still need, new keys are refused with {@link #REFUSED} until older responses expire.
+ */
+class IdempotencyStore {
+
+    /**
+     * Returned by {@link #claim} when the store is full.
+     */
+    static final Entry REFUSED = new Entry();
+
+    private final long maxEntries;
+    private final Map<String, Entry> inFlight = new ConcurrentHashMap<>();
+    private final Cache<String, Response> completed;
+
+    IdempotencyStore(long maxEntries, Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.completed = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * @return {@code null} if the caller now owns the key, {@link #REFUSED} if the store has no room for it,
+     * otherwise the entry of the request that owns or owned it
+     */
+    Entry claim(String key, Entry entry) {
+        Entry owner = owner(key);
+        if (owner != null) {
+            return owner;
+        }
+        if (isFull()) {
+            return REFUSED;
+        }
+        owner = inFlight.putIfAbsent(key, entry);
+        if (owner != null) {
+            return owner;
+        }
+        Response response = completed.getIfPresent(key);
+        if (response != null) {
+            // the previous owner completed between the lookup and the insert
+            inFlight.remove(key, entry);
+            return Entry.completed(response);
+        }
+        return null;
+    }
+
+    void complete(String key, Entry entry, Response response) {
+        completed.put(key, response);
+        inFlight.remove(key, entry);
+        entry.response.complete(response);
+    }
+
+    void release(String key, Entry entry) {
+        inFlight.remove(key, entry);
+        entry.response.complete(null);
+    }
+
+    long size() {
+        return inFlight.size() + completed.estimatedSize();
+    }
+
+    private Entry owner(String key) {
+        Response response = completed.getIfPresent(key);
+        return response != null ? Entry.completed(response) : inFlight.get(key);
+    }
+
+    private boolean isFull() {
+        if (size() < maxEntries) {
+            return false;
+        }
+        // the estimate still counts expired responses until the cache gets round to removing them
+        completed.cleanUp();
+        return size() >= maxEntries;
+    }
+
+    static final class Entry {
+
+        private final CompletableFuture<Response> response = new CompletableFuture<>();
+
+        private static Entry completed(Response response) {
+            Entry entry = new Entry();
+            entry.response.complete(response);
+            return entry;
+        }
+
+        /**
+         * Completes with the stored response, or with {@code null} if the owner released the key without one.
+         */
+        CompletableFuture<Response> response() {
+            return response;
+        }
+    }
+
+    /**
+     * What a replay writes back. A response that went through {@code sendError} is replayed the same way, so the
+     * container renders the error body again instead of it being stored.
+     */
+    static final class Response {
+
+        private final int status;
+        private final boolean error;
+        private final String contentType;
+        private final Map<String, List<String>> headers;
+        private final byte[] body;
+        private final byte[] fingerprint;
+
+        Response(int status, boolean error, String contentType, Map<String, List<String>> headers, byte[] body,
+                 byte[] fingerprint) {
+            this.status = status;
+            this.error = error;
+            this.contentType = contentType;
+            this.headers = headers;
+            this.body = body;
+            this.fingerprint = fingerprint;
+        }
+
+        int status() {
+            return status;
+        }
+
+        boolean error() {
+            return error;
+        }
+
+        String contentType() {
+            return contentType;
+        }
+
+        Map<String, List<String>> headers() {
+            return headers;
+        }
+
+        byte[] body() {
+            return body;
+        }
+
+        /**
+         * Digest of the request body and preconditions that produced the response.
+         */
+        byte[] fingerprint() {
+            return fingerprint;
+        }
+    }
+}
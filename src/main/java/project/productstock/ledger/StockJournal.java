@@ -0,0 +1,169 @@
+package project.productstock.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, memory-mapped journal of absolute product quantities.
+ * <p>
+ * Layout: a header ({@code magic}, {@code checkpointSeq}) followed by fixed-size records
+ * ({@code seq}, {@code productId}, {@code quantity}, {@code crc}). Records at or below the checkpoint are already in
+ * the database. Because records carry absolute values, replaying the newest record per product is idempotent.
+ * Everything past the write position is kept zeroed, so the first all-zero slot marks the end; torn records fail
+ * their checksum and are skipped. Not thread-safe: {@link StockLedger} serializes access.
+ */
+final class StockJournal implements Closeable {
+
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 24;
+
+    private static final int MAGIC = 0x53544b4a;
+    private static final int CHECKPOINT_OFFSET = 8;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final boolean syncOnAppend;
+    private final ByteBuffer scratch = ByteBuffer.allocate(RECORD_SIZE - 4);
+    private final CRC32C crc = new CRC32C();
+
+    private int position = HEADER_SIZE;
+    private long lastSeq;
+
+    StockJournal(Path path, int size, boolean syncOnAppend) throws IOException {
+        if (size < HEADER_SIZE + RECORD_SIZE) {
+            throw new IllegalArgumentException("Journal size must hold at least one record: " + size);
+        }
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+        this.syncOnAppend = syncOnAppend;
+
+        int magic = buffer.getInt(0);
+        if (magic == 0) {
+            buffer.putInt(0, MAGIC);
+            buffer.putLong(CHECKPOINT_OFFSET, 0L);
+            buffer.force();
+        } else if (magic != MAGIC) {
+            channel.close();
+            throw new IOException("Not a stock journal: " + path);
+        }
+        lastSeq = checkpointSeq();
+        scan(new HashMap<>());
+    }
+
+    /**
+     * Newest quantity per product among the records past the checkpoint, i.e. the changes not yet in the database.
+     */
+    Map<Long, Integer> pending() {
+        Map<Long, Integer> quantities = new HashMap<>();
+        scan(quantities);
+        return quantities;
+    }
+
+    /**
+     * Appends an absolute quantity for a product, or returns {@code false} when the journal is full.
+     */
+    boolean append(long productId, int quantity) {
+        if (position + RECORD_SIZE > buffer.capacity()) {
+            return false;
+        }
+        long seq = ++lastSeq;
+        buffer.putLong(position, seq);
+        buffer.putLong(position + 8, productId);
+        buffer.putInt(position + 16, quantity);
+        buffer.putInt(position + 20, crc(seq, productId, quantity));
+        if (syncOnAppend) {
+            buffer.force(position, RECORD_SIZE);
+        }
+        position += RECORD_SIZE;
+        return true;
+    }
+
+    /**
+     * Marks every record up to {@code seq} as applied and reclaims their space by moving the records appended after
+     * {@code upTo} (the position that went with {@code seq}) to the front of the journal.
+     */
+    void checkpoint(long seq, int upTo) {
+        buffer.putLong(CHECKPOINT_OFFSET, seq);
+        buffer.force(CHECKPOINT_OFFSET, 8);
+
+        int tail = position - upTo;
+        if (tail > 0) {
+            byte[] records = new byte[tail];
+            buffer.get(upTo, records);
+            buffer.put(HEADER_SIZE, records);
+        }
+        int end = HEADER_SIZE + tail;
+        buffer.put(end, new byte[position - end]);
+        position = end;
+    }
+
+    long lastSeq() {
+        return lastSeq;
+    }
+
+    int position() {
+        return position;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private long checkpointSeq() {
+        return buffer.getLong(CHECKPOINT_OFFSET);
+    }
+
+    private void scan(Map<Long, Integer> quantities) {
+        long checkpointSeq = checkpointSeq();
+        Map<Long, Long> seqs = new HashMap<>();
+        int offset = HEADER_SIZE;
+        int end = HEADER_SIZE;
+        while (offset + RECORD_SIZE <= buffer.capacity()) {
+            long seq = buffer.getLong(offset);
+            long productId = buffer.getLong(offset + 8);
+            int quantity = buffer.getInt(offset + 16);
+            int crc = buffer.getInt(offset + 20);
+            if (seq == 0 && productId == 0 && quantity == 0 && crc == 0) {
+                break;
+            }
+            offset += RECORD_SIZE;
+            end = offset;
+            if (crc != crc(seq, productId, quantity)) {
+                continue;
+            }
+            lastSeq = Math.max(lastSeq, seq);
+            if (seq > checkpointSeq && seq > seqs.getOrDefault(productId, 0L)) {
+                seqs.put(productId, seq);
+                quantities.put(productId, quantity);
+            }
+        }
+        position = end;
+    }
+
+    private int crc(long seq, long productId, int quantity) {
+        scratch.clear();
+        scratch.putLong(seq).putLong(productId).putInt(quantity).flip();
+        crc.reset();
+        crc.update(scratch);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,368 @@
+package project.productstock.ledger;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.productstock.changes.ProductChangeLog;
+import project.productstock.dto.ProductChangeType;
+import project.productstock.dto.ProductDTO;
+import project.productstock.entity.Product;
+import project.productstock.exception.ProductMaxStockExceededException;
+import project.productstock.exception.ProductNotFoundException;
+import project.productstock.exception.ProductOutOfStockException;
+import project.productstock.exception.ProductVersionMismatchException;
+import project.productstock.mapper.ProductMapper;
+import project.productstock.repository.ProductRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind mode for stock changes ({@code product.ledger.enabled=true}).
+ * <p>
+ * Once a product is touched, its current state lives here and is authoritative: increments and decrements are
+ * checked and applied in memory, appended to the {@link StockJournal} and acknowledged without a database
+ * transaction. A single flusher thread periodically writes the latest quantity of every changed product in one
+ * JDBC batch and one commit, then checkpoints the journal. Each append records the state it journalled next to the
+ * dirty id, so a flush writes exactly what the journal holds up to its checkpoint, even while a change is between
+ * its append and its publication to readers. On startup, journal records that never reached the
+ * database are replayed. Every flush and replay records one {@link ProductChangeLog} change per written product, in
+ * the same transaction, so the change log sees the ledger's state as it reaches the database.
+ * <p>
+ * Changes are final once acknowledged and cannot roll back with a caller's transaction, so they are refused inside
+ * one. Each product is guarded by one of {@link #LOCK_STRIPES} locks rather than by the map's own bin locks, so a
+ * change waiting for journal space never blocks readers of unrelated products.
+ */
+@Slf4j
+@Component
+public class StockLedger implements InitializingBean, DisposableBean {
+
+    private static final String UPDATE_QUANTITY = "update product set quantity = ?, version = ? where id = ?";
+    private static final String REPLAY_QUANTITY = "update product set quantity = ?, version = version + 1 where id = ?";
+    private static final int LOCK_STRIPES = 64;
+
+    private final StockLedgerProperties properties;
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ProductChangeLog productChangeLog;
+    private final ProductMapper productMapper = ProductMapper.INSTANCE;
+
+    private final Map<Long, ProductDTO> products = new ConcurrentHashMap<>();
+    private final ReentrantLock[] productLocks = new ReentrantLock[LOCK_STRIPES];
+    private final ReentrantLock journalLock = new ReentrantLock();
+    private final Condition journalSpace = journalLock.newCondition();
+    private final Map<Long, ProductDTO> dirtyProducts = new HashMap<>();
+
+    private StockJournal journal;
+    private ScheduledExecutorService flusher;
+
+    public StockLedger(StockLedgerProperties properties, ProductRepository productRepository, JdbcTemplate jdbcTemplate,
+                       TransactionTemplate transactionTemplate, EntityManagerFactory entityManagerFactory,
+                       ProductChangeLog productChangeLog) {
+        this.properties = properties;
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.productChangeLog = productChangeLog;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            productLocks[i] = new ReentrantLock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        journal = new StockJournal(properties.getJournal(), (int) properties.getJournalSize().toBytes(),
+                properties.isSyncOnAppend());
+        Map<Long, Integer> pending = journal.pending();
+        if (!pending.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(pending.size());
+            pending.forEach((id, quantity) -> rows.add(new Object[]{quantity, id}));
+            writeQuantities(REPLAY_QUANTITY, rows, pending.keySet(), updateCounts -> productRepository.findAllById(pending.keySet())
+                    .stream()
+                    .map(productMapper::toDTO)
+                    .collect(Collectors.toList()));
+            log.info("Replayed {} unflushed stock changes from {}", pending.size(), properties.getJournal());
+        }
+        journal.checkpoint(journal.lastSeq(), journal.position());
+
+        long interval = properties.getFlushInterval().toNanos();
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "stock-ledger-flusher"));
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Adds stock; {@code onChange} runs while the product is still locked, so it sees changes in order.
+     *
+     * @throws IllegalStateException when called inside a transaction, which could not roll the change back
+     */
+    public ProductDTO increment(Long id, int quantity, Long expectedVersion, Consumer<ProductDTO> onChange)
+            throws ProductNotFoundException, ProductMaxStockExceededException, ProductVersionMismatchException {
+        Optional<ProductDTO> changed = apply(id, quantity, expectedVersion, onChange);
+        if (!changed.isPresent()) {
+            throw new ProductMaxStockExceededException(id, quantity);
+        }
+        return changed.get();
+    }
+
+    public ProductDTO decrement(Long id, int quantity, Long expectedVersion, Consumer<ProductDTO> onChange)
+            throws ProductNotFoundException, ProductOutOfStockException, ProductVersionMismatchException {
+        Optional<ProductDTO> changed = apply(id, -quantity, expectedVersion, onChange);
+        if (!changed.isPresent()) {
+            throw new ProductOutOfStockException(id, quantity);
+        }
+        return changed.get();
+    }
+
+    /**
+     * Replaces the database quantity and version with the ledger's ones when it holds newer state for the product.
+     */
+    public void overlay(ProductDTO productDTO) {
+        if (isEnabled()) {
+            ProductDTO current = products.get(productDTO.getId());
+            if (current != null) {
+                productDTO.setQuantity(current.getQuantity());
+                productDTO.setVersion(current.getVersion());
+            }
+        }
+    }
+
+    /**
+     * Adopts a product written directly to the database (e.g. by a batch upsert) once its transaction commits, so the
+     * flusher does not later overwrite it with the ledger's older quantity.
+     */
+    public void overwrite(ProductDTO productDTO) {
+        if (!isEnabled() || !products.containsKey(productDTO.getId())) {
+            return;
+        }
+        ProductDTO snapshot = productDTO.toBuilder().build();
+        afterCommit(() -> locked(snapshot.getId(), () -> {
+            if (products.containsKey(snapshot.getId())) {
+                append(snapshot);
+                products.put(snapshot.getId(), snapshot);
+            }
+        }));
+    }
+
+    /**
+     * Forgets a deleted product once its transaction commits.
+     */
+    public void remove(Long id) {
+        if (isEnabled()) {
+            afterCommit(() -> locked(id, () -> products.remove(id)));
+        }
+    }
+
+    /**
+     * Writes every pending change to the database in one transaction and checkpoints the journal.
+     */
+    public synchronized void flush() {
+        if (!isEnabled()) {
+            return;
+        }
+        Map<Long, ProductDTO> flushed;
+        long seq;
+        int position;
+        journalLock.lock();
+        try {
+            if (dirtyProducts.isEmpty()) {
+                return;
+            }
+            flushed = new HashMap<>(dirtyProducts);
+            dirtyProducts.clear();
+            seq = journal.lastSeq();
+            position = journal.position();
+        } finally {
+            journalLock.unlock();
+        }
+
+        List<ProductDTO> changed = new ArrayList<>(flushed.values());
+        List<Object[]> rows = new ArrayList<>(changed.size());
+        changed.forEach(product -> rows.add(new Object[]{product.getQuantity(), product.getVersion(), product.getId()}));
+        try {
+            writeQuantities(UPDATE_QUANTITY, rows, flushed.keySet(), updateCounts -> written(changed, updateCounts));
+        } catch (DataAccessException e) {
+            journalLock.lock();
+            try {
+                flushed.forEach(dirtyProducts::putIfAbsent);
+            } finally {
+                journalLock.unlock();
+            }
+            throw e;
+        }
+
+        journalLock.lock();
+        try {
+            journal.checkpoint(seq, position);
+            journalSpace.signalAll();
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (!isEnabled()) {
+            return;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+        journal.close();
+    }
+
+    private Optional<ProductDTO> apply(Long id, int delta, Long expectedVersion, Consumer<ProductDTO> onChange)
+            throws ProductNotFoundException, ProductVersionMismatchException {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Write-behind stock changes cannot roll back with a transaction; "
+                    + "change stock outside of one");
+        }
+        ReentrantLock lock = lockOf(id);
+        ProductDTO updated;
+        lock.lock();
+        try {
+            ProductDTO product = load(id);
+            if (expectedVersion != null && !expectedVersion.equals(product.getVersion())) {
+                throw new ProductVersionMismatchException(id, expectedVersion, product.getVersion());
+            }
+            int quantity = product.getQuantity() + delta;
+            if (quantity < 0 || quantity > product.getMax()) {
+                return Optional.empty();
+            }
+            updated = product.toBuilder().quantity(quantity).version(product.getVersion() + 1).build();
+            append(updated);
+            products.put(id, updated);
+            onChange.accept(updated.toBuilder().build());
+        } finally {
+            lock.unlock();
+        }
+        return Optional.of(updated.toBuilder().build());
+    }
+
+    /**
+     * The ledger's state of a product, read from the database on first touch; callers hold the product's lock, so a
+     * concurrent {@link #remove(Long)} cannot be undone by a load that read the row before the delete committed.
+     */
+    private ProductDTO load(Long id) throws ProductNotFoundException {
+        ProductDTO product = products.get(id);
+        if (product != null) {
+            return product;
+        }
+        Optional<ProductDTO> loaded = productRepository.findById(id).map(productMapper::toDTO);
+        if (!loaded.isPresent()) {
+            throw new ProductNotFoundException(id);
+        }
+        products.put(id, loaded.get());
+        return loaded.get();
+    }
+
+    private ReentrantLock lockOf(Long id) {
+        return productLocks[Math.floorMod(id.hashCode(), LOCK_STRIPES)];
+    }
+
+    private void locked(Long id, Runnable action) {
+        ReentrantLock lock = lockOf(id);
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Journals the product's new quantity and marks it dirty with exactly that state, which is what the next flush
+     * writes.
+     */
+    private void append(ProductDTO product) {
+        journalLock.lock();
+        try {
+            long timeoutNanos = properties.getAppendTimeout().toNanos();
+            while (!journal.append(product.getId(), product.getQuantity())) {
+                flusher.execute(this::flushQuietly);
+                if (timeoutNanos <= 0) {
+                    throw new IllegalStateException("Stock journal is full and the flusher is not keeping up");
+                }
+                timeoutNanos = journalSpace.awaitNanos(timeoutNanos);
+            }
+            dirtyProducts.put(product.getId(), product);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for stock journal space", e);
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    private void writeQuantities(String sql, List<Object[]> rows, Iterable<Long> ids,
+                                 Function<int[], List<ProductDTO>> written) {
+        transactionTemplate.executeWithoutResult(status -> {
+            int[] updateCounts = jdbcTemplate.batchUpdate(sql, rows);
+            written.apply(updateCounts).forEach(productDTO -> productChangeLog.record(ProductChangeType.UPDATED, productDTO));
+        });
+        ids.forEach(id -> entityManagerFactory.getCache().evict(Product.class, id));
+    }
+
+    /**
+     * The flushed products whose rows still existed; one deleted since its change was journalled has nothing to record.
+     */
+    private static List<ProductDTO> written(List<ProductDTO> products, int[] updateCounts) {
+        List<ProductDTO> written = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            if (updateCounts[i] != 0) {
+                written.add(products.get(i));
+            }
+        }
+        return written;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Stock ledger flush failed; retrying on the next run", e);
+        }
+    }
+}
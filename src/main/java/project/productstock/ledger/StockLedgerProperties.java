@@ -0,0 +1,35 @@
+package project.productstock.ledger;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "product.ledger")
+public class StockLedgerProperties {
+
+    /**
+     * Write-behind mode for stock changes. When off, every increment and decrement is its own database transaction.
+     */
+    private boolean enabled = false;
+
+    private Path journal = Paths.get("data", "stock-ledger.journal");
+
+    private DataSize journalSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Force every journal record to disk before acknowledging the change, so it also survives an OS crash.
+     */
+    private boolean syncOnAppend = false;
+
+    private Duration flushInterval = Duration.ofMillis(20);
+
+    /**
+     * How long a change waits for journal space before failing.
+     */
+    private Duration appendTimeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,14 @@
+package project.productstock.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.factory.Mappers;
+import project.productstock.dto.ProductChangeDTO;
+import project.productstock.entity.ProductChange;
+
+@Mapper
+public interface ProductChangeMapper {
+
+    ProductChangeMapper INSTANCE = Mappers.getMapper(ProductChangeMapper.class);
+
+    ProductChangeDTO toDTO(ProductChange productChange);
+}
@@ -0,0 +1,14 @@
+package project.productstock.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.factory.Mappers;
+import project.productstock.dto.ReservationDTO;
+import project.productstock.entity.Reservation;
+
+@Mapper
+public interface ReservationMapper {
+
+    ReservationMapper INSTANCE = Mappers.getMapper(ReservationMapper.class);
+
+    ReservationDTO toDTO(Reservation reservation);
+}
@@ -0,0 +1,46 @@
+package project.productstock.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Product domain meters. They are registered once up front so recording on the request path is a plain
+ * increment, with no tag lookup or meter registration per call.
+ */
+@Component
+public class ProductMetrics {
+
+    private final Counter productNotFound;
+    private final Counter productAlreadyExists;
+    private final DistributionSummary listedRows;
+
+    public ProductMetrics(MeterRegistry meterRegistry) {
+        this.productNotFound = Counter.builder("product.errors")
+                .description("Product lookups that ended in ProductNotFoundException")
+                .tag("exception", "ProductNotFoundException")
+                .register(meterRegistry);
+        this.productAlreadyExists = Counter.builder("product.errors")
+                .description("Product creations that ended in ProductAlreadyExistsException")
+                .tag("exception", "ProductAlreadyExistsException")
+                .register(meterRegistry);
+        this.listedRows = DistributionSummary.builder("product.list.rows")
+                .description("Rows returned by product list calls")
+                .baseUnit("rows")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public void productNotFound() {
+        productNotFound.increment();
+    }
+
+    public void productAlreadyExists() {
+        productAlreadyExists.increment();
+    }
+
+    public void rowsListed(long rows) {
+        listedRows.record(rows);
+    }
+}
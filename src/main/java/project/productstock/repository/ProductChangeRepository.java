@@ -0,0 +1,39 @@
+package project.productstock.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import project.productstock.entity.ProductChange;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ProductChangeRepository extends JpaRepository<ProductChange, Long> {
+
+    List<ProductChange> findBySeqGreaterThanAndSeqLessThanEqualOrderBySeqAsc(Long since, Long upTo, Pageable pageable);
+
+    @Query("select min(c.seq) from ProductChange c")
+    Long findFirstSeq();
+
+    @Query("select max(c.seq) from ProductChange c")
+    Long findLastSeq();
+
+    @Query("select max(c.seq) from ProductChange c where c.changedAt < :cutoff")
+    Long findLastSeqBefore(@Param("cutoff") Instant cutoff);
+
+    @Modifying
+    @Query("delete from ProductChange c where c.seq <= :seq")
+    int deleteThrough(@Param("seq") Long seq);
+
+    /**
+     * Deletes every change up to {@code seq} that a later change to the same product supersedes.
+     */
+    @Modifying
+    @Query("delete from ProductChange c where c.seq <= :seq"
+            + " and exists (select 1 from ProductChange n where n.productId = c.productId and n.seq > c.seq)")
+    int deleteSupersededThrough(@Param("seq") Long seq);
+}
@@ -0,0 +1,9 @@
+package project.productstock.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import project.productstock.entity.ProductChangeTruncation;
+
+@Repository
+public interface ProductChangeTruncationRepository extends JpaRepository<ProductChangeTruncation, Integer> {
+}
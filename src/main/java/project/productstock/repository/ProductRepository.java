@@ -1,13 +1,60 @@
 package project.productstock.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import project.productstock.entity.Product;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>, ProductSearchRepository {
 
     Optional<Product> findByCode(String code);
+
+    List<Product> findByCodeIn(Collection<String> codes);
+
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Product p where p.id = :id")
+    Optional<Product> lockById(@Param("id") Long id);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select p from Product p order by p.id")
+    Stream<Product> streamAll();
+
+    /**
+     * Adds stock unless it would exceed max or, when {@code version} is given, the product has moved past that version.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.quantity = p.quantity + :quantity, p.version = p.version + 1"
+            + " where p.id = :id and p.quantity + :quantity <= p.max and (:version is null or p.version = :version)")
+    int incrementQuantity(@Param("id") Long id, @Param("quantity") int quantity, @Param("version") Long version);
+
+    /**
+     * Removes stock unless it would go below zero or, when {@code version} is given, the product has moved past that
+     * version.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.quantity = p.quantity - :quantity, p.version = p.version + 1"
+            + " where p.id = :id and p.quantity >= :quantity and (:version is null or p.version = :version)")
+    int decrementQuantity(@Param("id") Long id, @Param("quantity") int quantity, @Param("version") Long version);
 }
@@ -0,0 +1,15 @@
+package project.productstock.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import project.productstock.entity.Product;
+
+import java.util.List;
+
+public interface ProductSearchRepository {
+
+    /**
+     * Products matching {@code specification} in ascending id order, limited to {@code limit} rows and without
+     * the count query that a {@code Page} would need.
+     */
+    List<Product> findAllOrderById(Specification<Product> specification, int limit);
+}
@@ -0,0 +1,29 @@
+package project.productstock.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+import project.productstock.entity.Product;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ProductSearchRepositoryImpl implements ProductSearchRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Product> findAllOrderById(Specification<Product> specification, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Product> query = builder.createQuery(Product.class);
+        Root<Product> root = query.from(Product.class);
+        query.where(specification.toPredicate(root, query, builder))
+                .orderBy(builder.asc(root.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -0,0 +1,57 @@
+package project.productstock.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import project.productstock.dto.ProductSearchDTO;
+import project.productstock.entity.Product;
+
+import javax.persistence.criteria.Predicate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    /**
+     * Column filters of a search. Prefix filters compile to {@code LIKE 'prefix%'} so they can use the code and
+     * description indexes; fill ratio bounds are rewritten as {@code quantity >= ratio * max} to avoid a division.
+     */
+    public static Specification<Product> matching(ProductSearchDTO criteria) {
+        return (root, query, builder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (criteria.getCodePrefix() != null) {
+                predicates.add(builder.like(root.get("code"), likePrefix(criteria.getCodePrefix()), '\\'));
+            }
+            if (criteria.getDescriptionPrefix() != null) {
+                predicates.add(builder.like(root.get("description"), likePrefix(criteria.getDescriptionPrefix()), '\\'));
+            }
+            if (criteria.getMinQuantity() != null) {
+                predicates.add(builder.ge(root.get("quantity"), criteria.getMinQuantity()));
+            }
+            if (criteria.getMaxQuantity() != null) {
+                predicates.add(builder.le(root.get("quantity"), criteria.getMaxQuantity()));
+            }
+            if (criteria.getMinFillRatio() != null) {
+                predicates.add(builder.ge(root.get("quantity"), builder.prod(root.get("max"), criteria.getMinFillRatio())));
+            }
+            if (criteria.getMaxFillRatio() != null) {
+                predicates.add(builder.le(root.get("quantity"), builder.prod(root.get("max"), criteria.getMaxFillRatio())));
+            }
+            return builder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    public static Specification<Product> idGreaterThan(Long afterId) {
+        return (root, query, builder) -> builder.gt(root.get("id"), afterId);
+    }
+
+    public static Specification<Product> idIn(Collection<Long> ids) {
+        return (root, query, builder) -> root.get("id").in(ids);
+    }
+
+    private static String likePrefix(String prefix) {
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
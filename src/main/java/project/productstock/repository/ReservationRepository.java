@@ -0,0 +1,38 @@
+package project.productstock.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import project.productstock.dto.ReservationStatus;
+import project.productstock.entity.Reservation;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+
+    Optional<Reservation> findByIdAndCode(Long id, String code);
+
+    List<Reservation> findByStatus(ReservationStatus status);
+
+    /**
+     * Moves a held reservation to {@code status} while it has not expired; only one of several racing callers
+     * sees 1.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Reservation r set r.status = :status"
+            + " where r.id = :id and r.status = project.productstock.dto.ReservationStatus.HELD and r.expiresAt > :now")
+    int settle(@Param("id") Long id, @Param("status") ReservationStatus status, @Param("now") Instant now);
+
+    /**
+     * Moves a held reservation past its expiry to EXPIRED; the counterpart of {@link #settle}.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Reservation r set r.status = project.productstock.dto.ReservationStatus.EXPIRED"
+            + " where r.id = :id and r.status = project.productstock.dto.ReservationStatus.HELD and r.expiresAt <= :now")
+    int expire(@Param("id") Long id, @Param("now") Instant now);
+}
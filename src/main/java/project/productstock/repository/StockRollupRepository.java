@@ -0,0 +1,28 @@
+package project.productstock.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import project.productstock.dto.StockTotalDTO;
+import project.productstock.entity.StockRollup;
+import project.productstock.entity.StockRollupId;
+
+@Repository
+public interface StockRollupRepository extends JpaRepository<StockRollup, StockRollupId> {
+
+    @Query("select new project.productstock.dto.StockTotalDTO(coalesce(sum(r.max), 0), coalesce(sum(r.quantity), 0))"
+            + " from StockRollup r where r.productId = :productId")
+    StockTotalDTO total(@Param("productId") Long productId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update StockRollup r set r.max = r.max + :max, r.quantity = r.quantity + :quantity"
+            + " where r.productId = :productId and r.stripe = :stripe")
+    int add(@Param("productId") Long productId, @Param("stripe") int stripe, @Param("max") long max,
+            @Param("quantity") long quantity);
+
+    @Modifying
+    @Query("delete from StockRollup r where r.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+}
@@ -0,0 +1,48 @@
+package project.productstock.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import project.productstock.dto.StockTotalDTO;
+import project.productstock.entity.WarehouseStock;
+import project.productstock.entity.WarehouseStockId;
+
+import javax.persistence.LockModeType;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WarehouseStockRepository extends JpaRepository<WarehouseStock, WarehouseStockId> {
+
+    List<WarehouseStock> findByProductIdOrderByWarehouse(Long productId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from WarehouseStock s where s.productId = :productId and s.warehouse = :warehouse")
+    Optional<WarehouseStock> lock(@Param("productId") Long productId, @Param("warehouse") String warehouse);
+
+    /**
+     * Totals computed from every location; {@link StockRollupRepository#total} reads the maintained ones instead.
+     */
+    @Query("select new project.productstock.dto.StockTotalDTO(coalesce(sum(s.max), 0), coalesce(sum(s.quantity), 0))"
+            + " from WarehouseStock s where s.productId = :productId")
+    StockTotalDTO sumByProductId(@Param("productId") Long productId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update WarehouseStock s set s.quantity = s.quantity + :quantity"
+            + " where s.productId = :productId and s.warehouse = :warehouse and s.quantity + :quantity <= s.max")
+    int incrementQuantity(@Param("productId") Long productId, @Param("warehouse") String warehouse,
+                          @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update WarehouseStock s set s.quantity = s.quantity - :quantity"
+            + " where s.productId = :productId and s.warehouse = :warehouse and s.quantity >= :quantity")
+    int decrementQuantity(@Param("productId") Long productId, @Param("warehouse") String warehouse,
+                          @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("delete from WarehouseStock s where s.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+}
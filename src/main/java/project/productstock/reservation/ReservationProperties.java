@@ -0,0 +1,31 @@
+package project.productstock.reservation;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "product.reservations")
+public class ReservationProperties {
+
+    /**
+     * How long units are held when the request does not say.
+     */
+    private Duration defaultTtl = Duration.ofMinutes(5);
+
+    /**
+     * Longest hold a request may ask for; longer ones are cut to it.
+     */
+    private Duration maxTtl = Duration.ofMinutes(30);
+
+    /**
+     * Wait before retrying an expiry that failed; it doubles with each further failure of the same reservation.
+     */
+    private Duration expiryRetryBackoff = Duration.ofSeconds(1);
+
+    /**
+     * Longest wait between retries of a failing expiry.
+     */
+    private Duration maxExpiryRetryBackoff = Duration.ofMinutes(1);
+}
@@ -0,0 +1,286 @@
+package project.productstock.reservation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.productstock.dto.ProductDTO;
+import project.productstock.dto.ReservationDTO;
+import project.productstock.dto.ReservationRequestDTO;
+import project.productstock.dto.ReservationStatus;
+import project.productstock.entity.Reservation;
+import project.productstock.exception.ProductMaxStockExceededException;
+import project.productstock.exception.ProductNotFoundException;
+import project.productstock.exception.ProductOutOfStockException;
+import project.productstock.exception.ProductVersionMismatchException;
+import project.productstock.exception.ReservationNotFoundException;
+import project.productstock.exception.ReservationNotHeldException;
+import project.productstock.exception.ReservationsUnavailableException;
+import project.productstock.ledger.StockLedger;
+import project.productstock.mapper.ReservationMapper;
+import project.productstock.repository.ReservationRepository;
+import project.productstock.service.ProductService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds units of a product for a checkout. Reserving takes them out of the product's quantity with the same
+ * conditional UPDATE as {@link ProductService#decrement}, so concurrent reservations can never oversell; committing
+ * keeps them out and releasing or expiring puts them back.
+ * <p>
+ * Every held reservation has an entry in a {@link DelayQueue} ordered by expiry, and a single thread takes entries
+ * as they fall due, so expiry costs O(log n) per reservation and never scans the table. An expiry that fails, e.g. on
+ * a lock timeout, goes back into the queue with a doubling backoff, so its units are not held until a restart. Each
+ * reservation leaves HELD through one conditional UPDATE, so commit, release and expiry racing on it settle it exactly
+ * once.
+ * <p>
+ * Write-behind stock changes ({@link StockLedger}) cannot roll back with the reservation row, so no reservations are
+ * taken while the ledger is on. Reservations still held from before are settled first and their units returned
+ * through the ledger afterwards, at most once.
+ */
+@Slf4j
+@Service
+public class ReservationService implements InitializingBean, DisposableBean {
+
+    private final ReservationProperties properties;
+    private final ReservationRepository reservationRepository;
+    private final ProductService productService;
+    private final StockLedger stockLedger;
+    private final TransactionTemplate transactionTemplate;
+    private final ReservationMapper reservationMapper = ReservationMapper.INSTANCE;
+
+    private final DelayQueue<Expiry> expiries = new DelayQueue<>();
+    private Thread expirer;
+
+    public ReservationService(ReservationProperties properties, ReservationRepository reservationRepository,
+                              ProductService productService, StockLedger stockLedger,
+                              TransactionTemplate transactionTemplate) {
+        this.properties = properties;
+        this.reservationRepository = reservationRepository;
+        this.productService = productService;
+        this.stockLedger = stockLedger;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        reservationRepository.findByStatus(ReservationStatus.HELD)
+                .forEach(reservation -> expiries.add(new Expiry(reservation.getId(), reservation.getExpiresAt())));
+        expirer = new Thread(this::expireDueReservations, "reservation-expirer");
+        expirer.setDaemon(true);
+        expirer.start();
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    public ReservationDTO reserve(String code, ReservationRequestDTO reservationRequestDTO)
+            throws ProductNotFoundException, ProductOutOfStockException, ReservationsUnavailableException {
+        if (stockLedger.isEnabled()) {
+            throw new ReservationsUnavailableException(code);
+        }
+        ProductDTO productDTO = productService.getByCode(code);
+        try {
+            productService.decrement(productDTO.getId(), reservationRequestDTO.getQuantity(), null);
+        } catch (ProductVersionMismatchException e) {
+            throw new IllegalStateException("Unconditional decrement failed a version check", e);
+        }
+        Reservation reservation = reservationRepository.save(Reservation.builder()
+                .productId(productDTO.getId())
+                .code(productDTO.getCode())
+                .quantity(reservationRequestDTO.getQuantity())
+                .status(ReservationStatus.HELD)
+                .expiresAt(Instant.now().plus(ttl(reservationRequestDTO.getTtlSeconds())))
+                .build());
+        Expiry expiry = new Expiry(reservation.getId(), reservation.getExpiresAt());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                expiries.add(expiry);
+            }
+        });
+        return reservationMapper.toDTO(reservation);
+    }
+
+    public ReservationDTO getById(String code, Long id) throws ReservationNotFoundException {
+        return reservationMapper.toDTO(get(code, id));
+    }
+
+    /**
+     * Keeps the units out of stock for good; fails once the reservation has expired, even if the expiry thread has
+     * not returned its units yet.
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public ReservationDTO commit(String code, Long id) throws ReservationNotFoundException, ReservationNotHeldException {
+        Reservation reservation = get(code, id);
+        Instant now = Instant.now();
+        if (reservationRepository.settle(id, ReservationStatus.COMMITTED, now) == 0) {
+            throw notHeld(id, now);
+        }
+        reservation.setStatus(ReservationStatus.COMMITTED);
+        return reservationMapper.toDTO(reservation);
+    }
+
+    public ReservationDTO release(String code, Long id) throws ReservationNotFoundException, ReservationNotHeldException {
+        Reservation reservation = get(code, id);
+        Instant now = Instant.now();
+        if (!settleAndReturnStock(reservation, ReservationStatus.RELEASED, now)) {
+            throw notHeld(id, now);
+        }
+        reservation.setStatus(ReservationStatus.RELEASED);
+        return reservationMapper.toDTO(reservation);
+    }
+
+    @Override
+    public void destroy() {
+        expirer.interrupt();
+    }
+
+    private void expireDueReservations() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Expiry expiry;
+            try {
+                expiry = expiries.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                Optional<Reservation> reservation = reservationRepository.findById(expiry.id);
+                if (reservation.isPresent() && reservation.get().getStatus() == ReservationStatus.HELD
+                        && !settleAndReturnStock(reservation.get(), ReservationStatus.EXPIRED, Instant.now())) {
+                    // the queue's clock ran ahead of the wall clock; not due yet
+                    expiries.add(new Expiry(expiry.id, reservation.get().getExpiresAt()));
+                }
+            } catch (RuntimeException e) {
+                Expiry retry = expiry.retry(properties.getExpiryRetryBackoff(), properties.getMaxExpiryRetryBackoff());
+                log.warn("Expiry of reservation {} failed; retrying in {} ms", expiry.id,
+                        retry.getDelay(TimeUnit.MILLISECONDS), e);
+                expiries.add(retry);
+            }
+        }
+    }
+
+    /**
+     * Moves the reservation out of HELD and returns its units in one transaction. Units that no longer fit, because
+     * the product was deleted or restocked up to its max meanwhile, are dropped and the reservation is settled
+     * anyway. In write-behind mode the units are returned through the ledger once the settle has committed.
+     *
+     * @return whether this call settled the reservation
+     */
+    private boolean settleAndReturnStock(Reservation reservation, ReservationStatus status, Instant now) {
+        if (stockLedger.isEnabled()) {
+            if (!transactionTemplate.execute(transaction -> settle(reservation.getId(), status, now) == 1)) {
+                return false;
+            }
+            try {
+                productService.increment(reservation.getProductId(), reservation.getQuantity(), null);
+            } catch (ProductNotFoundException | ProductMaxStockExceededException | ProductVersionMismatchException e) {
+                log.warn("Dropping the {} units of reservation {}: {}", reservation.getQuantity(), reservation.getId(),
+                        e.getMessage());
+            }
+            return true;
+        }
+        try {
+            return transactionTemplate.execute(transaction -> {
+                if (settle(reservation.getId(), status, now) == 0) {
+                    return false;
+                }
+                try {
+                    productService.increment(reservation.getProductId(), reservation.getQuantity(), null);
+                } catch (ProductNotFoundException | ProductMaxStockExceededException | ProductVersionMismatchException e) {
+                    throw new StockNotReturnedException(e);
+                }
+                return true;
+            });
+        } catch (StockNotReturnedException e) {
+            log.warn("Dropping the {} units of reservation {}: {}", reservation.getQuantity(), reservation.getId(),
+                    e.getCause().getMessage());
+            return transactionTemplate.execute(transaction -> settle(reservation.getId(), status, now) == 1);
+        }
+    }
+
+    private int settle(Long id, ReservationStatus status, Instant now) {
+        return status == ReservationStatus.EXPIRED
+                ? reservationRepository.expire(id, now)
+                : reservationRepository.settle(id, status, now);
+    }
+
+    private Duration ttl(Long ttlSeconds) {
+        if (ttlSeconds == null) {
+            return properties.getDefaultTtl();
+        }
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        return ttl.compareTo(properties.getMaxTtl()) > 0 ? properties.getMaxTtl() : ttl;
+    }
+
+    private Reservation get(String code, Long id) throws ReservationNotFoundException {
+        Optional<Reservation> reservation = reservationRepository.findByIdAndCode(id, code);
+        if (!reservation.isPresent()) {
+            throw new ReservationNotFoundException(code, id);
+        }
+        return reservation.get();
+    }
+
+    /**
+     * Why a reservation could not be settled: another caller got there first, or it expired and is waiting for the
+     * expiry thread.
+     */
+    private ReservationNotHeldException notHeld(Long id, Instant now) {
+        Reservation reservation = reservationRepository.findById(id).orElseThrow();
+        ReservationStatus status = reservation.getStatus() == ReservationStatus.HELD && !reservation.getExpiresAt().isAfter(now)
+                ? ReservationStatus.EXPIRED
+                : reservation.getStatus();
+        return new ReservationNotHeldException(id, status);
+    }
+
+    private static final class Expiry implements Delayed {
+
+        private final Long id;
+        private final long deadline;
+        private final int failures;
+
+        Expiry(Long id, Instant expiresAt) {
+            this(id, Duration.between(Instant.now(), expiresAt), 0);
+        }
+
+        private Expiry(Long id, Duration delay, int failures) {
+            this.id = id;
+            this.deadline = System.nanoTime() + delay.toNanos();
+            this.failures = failures;
+        }
+
+        /**
+         * The next attempt after this one failed, {@code backoff} later and doubling with every failure up to
+         * {@code maxBackoff}.
+         */
+        Expiry retry(Duration backoff, Duration maxBackoff) {
+            Duration delay = backoff.multipliedBy(1L << Math.min(failures, 30));
+            return new Expiry(id, delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay, failures + 1);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(deadline, ((Expiry) other).deadline);
+        }
+    }
+
+    private static final class StockNotReturnedException extends RuntimeException {
+
+        StockNotReturnedException(Exception cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package project.productstock.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.productstock.entity.Product;
+import project.productstock.repository.ProductRepository;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index from lower-cased description words to product ids. It is built from the database once
+ * the application is ready and kept up to date by the product write paths.
+ * <p>
+ * Each word's postings are kept sorted in a skip list, so a search seeks straight to the first id after the page
+ * cursor and intersects the words lazily, touching about as many ids as the page needs however common the words are.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DescriptionIndex {
+
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    private final Map<String, NavigableSet<Long>> idsByToken = new ConcurrentHashMap<>();
+    private final Map<Long, List<String>> tokensById = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Product> products = productRepository.streamAll()) {
+                products.forEach(product -> {
+                    index(product.getId(), product.getDescription());
+                    entityManager.detach(product);
+                });
+            }
+        });
+        log.info("Indexed {} product descriptions in {} ms", tokensById.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Replaces the product's words; the postings are updated while its entry is locked, so concurrent calls for one
+     * product cannot leave it listed under words of different descriptions.
+     */
+    public void index(Long id, String description) {
+        List<String> tokens = tokenize(description);
+        tokensById.compute(id, (key, previousTokens) -> {
+            if (tokens.equals(previousTokens)) {
+                // re-imports mostly rewrite unchanged descriptions; keep the long-lived entry instead of churning it
+                return previousTokens;
+            }
+            if (previousTokens != null) {
+                previousTokens.stream()
+                        .filter(token -> !tokens.contains(token))
+                        .forEach(token -> removeId(token, id));
+            }
+            tokens.forEach(token -> idsByToken.compute(token, (word, ids) -> {
+                NavigableSet<Long> postings = ids == null ? new ConcurrentSkipListSet<>() : ids;
+                postings.add(id);
+                return postings;
+            }));
+            return tokens;
+        });
+    }
+
+    public void remove(Long id) {
+        tokensById.computeIfPresent(id, (key, tokens) -> {
+            tokens.forEach(token -> removeId(token, id));
+            return null;
+        });
+    }
+
+    /**
+     * Ids greater than {@code afterId} of the products whose description contains every word of {@code query}, in
+     * ascending order. Matches are found as the iterator advances.
+     */
+    public Iterator<Long> search(String query, long afterId) {
+        List<NavigableSet<Long>> postings = new ArrayList<>();
+        for (String token : tokenize(query)) {
+            NavigableSet<Long> ids = idsByToken.get(token);
+            if (ids == null) {
+                return Collections.emptyIterator();
+            }
+            postings.add(ids);
+        }
+        if (postings.isEmpty() || afterId == Long.MAX_VALUE) {
+            return Collections.emptyIterator();
+        }
+        return new Intersection(postings, afterId + 1);
+    }
+
+    private void removeId(String token, Long id) {
+        idsByToken.computeIfPresent(token, (key, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return Collections.emptyList();
+        }
+        return SEPARATOR.splitAsStream(text.toLowerCase(Locale.ROOT))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Leapfrogs through the postings: each one in turn seeks to the current candidate, until all of them agree on it.
+     */
+    private static final class Intersection implements Iterator<Long> {
+
+        private final List<NavigableSet<Long>> postings;
+        private Long next;
+
+        Intersection(List<NavigableSet<Long>> postings, long from) {
+            this.postings = postings;
+            this.next = seek(from);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Long next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Long current = next;
+            next = current == Long.MAX_VALUE ? null : seek(current + 1);
+            return current;
+        }
+
+        private Long seek(long from) {
+            long candidate = from;
+            int agreeing = 0;
+            for (int i = 0; agreeing < postings.size(); i = (i + 1) % postings.size()) {
+                Long ceiling = postings.get(i).ceiling(candidate);
+                if (ceiling == null) {
+                    return null;
+                }
+                if (ceiling == candidate) {
+                    agreeing++;
+                } else {
+                    candidate = ceiling;
+                    agreeing = 1;
+                }
+            }
+            return candidate;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package project.productstock.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.productstock.alert.LowStockIndex;
+import project.productstock.cache.ProductCache;
+import project.productstock.changes.ProductChangeLog;
+import project.productstock.dto.BatchItemResultDTO;
+import project.productstock.dto.BatchItemStatus;
+import project.productstock.dto.ProductChangeType;
+import project.productstock.dto.ProductDTO;
+import project.productstock.entity.Product;
+import project.productstock.ledger.StockLedger;
+import project.productstock.mapper.ProductMapper;
+import project.productstock.repository.ProductRepository;
+import project.productstock.search.DescriptionIndex;
+
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Creates or updates products in chunks: one {@code code IN (...)} lookup and one transaction per chunk, with the
+ * inserts and updates flushed as JDBC batches.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductBatchService {
+
+    public static final int CHUNK_SIZE = 500;
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ProductCache productCache;
+    private final DescriptionIndex descriptionIndex;
+    private final LowStockIndex lowStockIndex;
+    private final StockLedger stockLedger;
+    private final ProductChangeLog productChangeLog;
+    private final ProductMapper productMapper = ProductMapper.INSTANCE;
+
+    public List<BatchItemResultDTO> upsertAll(Iterator<ProductDTO> productDTOs) {
+        List<BatchItemResultDTO> results = new ArrayList<>();
+        upsertAll(productDTOs, results::add);
+        return results;
+    }
+
+    public void upsertAll(Iterator<ProductDTO> productDTOs, Consumer<BatchItemResultDTO> resultConsumer) {
+        List<ProductDTO> chunk = new ArrayList<>(CHUNK_SIZE);
+        int chunkStart = 0;
+        while (productDTOs.hasNext()) {
+            chunk.add(productDTOs.next());
+            if (chunk.size() == CHUNK_SIZE) {
+                upsertChunk(chunk, chunkStart).forEach(resultConsumer);
+                chunkStart += chunk.size();
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            upsertChunk(chunk, chunkStart).forEach(resultConsumer);
+        }
+    }
+
+    private List<BatchItemResultDTO> upsertChunk(List<ProductDTO> chunk, int chunkStart) {
+        List<BatchItemResultDTO> results = new ArrayList<>(chunk.size());
+        List<ProductDTO> validProductDTOs = new ArrayList<>(chunk.size());
+        List<BatchItemResultDTO> validResults = new ArrayList<>(chunk.size());
+
+        for (int i = 0; i < chunk.size(); i++) {
+            ProductDTO productDTO = chunk.get(i);
+            BatchItemResultDTO result = BatchItemResultDTO.builder()
+                    .index(chunkStart + i)
+                    .code(productDTO.getCode())
+                    .build();
+            List<String> errors = validate(productDTO);
+            if (errors.isEmpty()) {
+                validProductDTOs.add(productDTO);
+                validResults.add(result);
+            } else {
+                result.setStatus(BatchItemStatus.INVALID);
+                result.setErrors(errors);
+            }
+            results.add(result);
+        }
+
+        if (!validProductDTOs.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> writeChunk(validProductDTOs, validResults));
+            } catch (DataAccessException e) {
+                validResults.forEach(result -> {
+                    result.setId(null);
+                    result.setStatus(BatchItemStatus.FAILED);
+                    result.setErrors(Collections.singletonList(e.getMostSpecificCause().getMessage()));
+                });
+            }
+        }
+        return results;
+    }
+
+    private void writeChunk(List<ProductDTO> productDTOs, List<BatchItemResultDTO> results) {
+        Set<String> codes = productDTOs.stream().map(ProductDTO::getCode).collect(Collectors.toSet());
+        Map<String, Product> productsByCode = new HashMap<>();
+        productRepository.findByCodeIn(codes).forEach(product -> productsByCode.put(product.getCode(), product));
+
+        List<Product> newProducts = new ArrayList<>();
+        List<Product> writtenProducts = new ArrayList<>(productDTOs.size());
+        for (int i = 0; i < productDTOs.size(); i++) {
+            ProductDTO productDTO = productDTOs.get(i);
+            Product product = productsByCode.get(productDTO.getCode());
+            if (product == null) {
+                product = productMapper.toModel(productDTO);
+                product.setId(null);
+                product.setVersion(null);
+                newProducts.add(product);
+                productsByCode.put(product.getCode(), product);
+                results.get(i).setStatus(BatchItemStatus.CREATED);
+            } else {
+                product.setDescription(productDTO.getDescription());
+                product.setMax(productDTO.getMax());
+                product.setQuantity(productDTO.getQuantity());
+                results.get(i).setStatus(BatchItemStatus.UPDATED);
+            }
+            writtenProducts.add(product);
+            productCache.evict(product.getCode());
+        }
+
+        productRepository.saveAll(newProducts);
+        entityManager.flush();
+        for (int i = 0; i < writtenProducts.size(); i++) {
+            Product product = writtenProducts.get(i);
+            results.get(i).setId(product.getId());
+            descriptionIndex.index(product.getId(), product.getDescription());
+            ProductDTO writtenProductDTO = productMapper.toDTO(product);
+            lowStockIndex.update(writtenProductDTO);
+            stockLedger.overwrite(writtenProductDTO);
+            productChangeLog.record(results.get(i).getStatus() == BatchItemStatus.CREATED
+                    ? ProductChangeType.CREATED : ProductChangeType.UPDATED, writtenProductDTO);
+        }
+        entityManager.clear();
+    }
+
+    private List<String> validate(ProductDTO productDTO) {
+        Set<ConstraintViolation<ProductDTO>> violations = validator.validate(productDTO);
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
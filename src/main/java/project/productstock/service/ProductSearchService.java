@@ -0,0 +1,73 @@
+package project.productstock.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import project.productstock.dto.ProductDTO;
+import project.productstock.dto.ProductPageDTO;
+import project.productstock.dto.ProductSearchDTO;
+import project.productstock.entity.Product;
+import project.productstock.mapper.ProductMapper;
+import project.productstock.metrics.ProductMetrics;
+import project.productstock.repository.ProductRepository;
+import project.productstock.repository.ProductSpecifications;
+import project.productstock.search.DescriptionIndex;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ProductSearchService {
+
+    static final int CANDIDATE_CHUNK_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final DescriptionIndex descriptionIndex;
+    private final ProductMetrics productMetrics;
+    private final ProductMapper productMapper = ProductMapper.INSTANCE;
+
+    /**
+     * Keyset-paginated search. Column filters run in the database; description words are first resolved to
+     * candidate ids through the {@link DescriptionIndex}, which are then checked against the column filters in
+     * chunks until the page is full. The first chunk is one page of candidates, enough when no filter rejects any;
+     * each further chunk doubles, up to {@link #CANDIDATE_CHUNK_SIZE}.
+     */
+    public ProductPageDTO search(ProductSearchDTO criteria) {
+        int pageSize = Math.max(1, Math.min(criteria.getSize(), ProductService.MAX_PAGE_SIZE));
+        long afterId = criteria.getAfterId() == null ? 0L : criteria.getAfterId();
+        Specification<Product> filters = ProductSpecifications.matching(criteria);
+
+        List<Product> products;
+        if (StringUtils.hasText(criteria.getQ())) {
+            products = searchCandidates(descriptionIndex.search(criteria.getQ(), afterId), filters, pageSize);
+        } else {
+            products = productRepository.findAllOrderById(filters.and(ProductSpecifications.idGreaterThan(afterId)), pageSize);
+        }
+
+        List<ProductDTO> content = products.stream()
+                .map(productMapper::toDTO)
+                .collect(Collectors.toList());
+        productMetrics.rowsListed(content.size());
+        Long nextAfterId = content.size() < pageSize ? null : content.get(content.size() - 1).getId();
+        return new ProductPageDTO(content, nextAfterId);
+    }
+
+    private List<Product> searchCandidates(Iterator<Long> candidateIds, Specification<Product> filters, int pageSize) {
+        List<Product> products = new ArrayList<>();
+        int chunkSize = Math.min(pageSize, CANDIDATE_CHUNK_SIZE);
+        while (candidateIds.hasNext() && products.size() < pageSize) {
+            List<Long> chunk = new ArrayList<>(chunkSize);
+            while (candidateIds.hasNext() && chunk.size() < chunkSize) {
+                chunk.add(candidateIds.next());
+            }
+            products.addAll(productRepository.findAllOrderById(
+                    filters.and(ProductSpecifications.idIn(chunk)), pageSize - products.size()));
+            chunkSize = Math.min(chunkSize * 2, CANDIDATE_CHUNK_SIZE);
+        }
+        return products;
+    }
+}
@@ -1,60 +1,342 @@
 package project.productstock.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.productstock.alert.LowStockIndex;
+import project.productstock.cache.ProductCache;
+import project.productstock.changes.ProductChangeLog;
+import project.productstock.dto.LocationStockDTO;
+import project.productstock.dto.ProductChangeType;
 import project.productstock.dto.ProductDTO;
+import project.productstock.dto.ProductLookupResultDTO;
+import project.productstock.dto.ProductPageDTO;
+import project.productstock.dto.ProductStockDTO;
+import project.productstock.dto.StockTotalDTO;
 import project.productstock.entity.Product;
 import project.productstock.exception.ProductAlreadyExistsException;
+import project.productstock.exception.ProductMaxStockExceededException;
 import project.productstock.exception.ProductNotFoundException;
+import project.productstock.exception.ProductOutOfStockException;
+import project.productstock.exception.ProductVersionMismatchException;
+import project.productstock.ledger.StockLedger;
 import project.productstock.mapper.ProductMapper;
+import project.productstock.metrics.ProductMetrics;
 import project.productstock.repository.ProductRepository;
+import project.productstock.search.DescriptionIndex;
+import project.productstock.snapshot.ProductListing;
+import project.productstock.snapshot.ProductSnapshot;
+import project.productstock.warehouse.WarehouseStockService;
 
+import javax.persistence.EntityManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int LOOKUP_CHUNK_SIZE = 500;
+
+    private static final String UNIQUE_VIOLATION_SQL_STATE = "23505";
+
     private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final ProductCache productCache;
+    private final ProductMetrics productMetrics;
+    private final DescriptionIndex descriptionIndex;
+    private final LowStockIndex lowStockIndex;
+    private final StockLedger stockLedger;
+    private final ProductChangeLog productChangeLog;
+    private final WarehouseStockService warehouseStockService;
+    private final ProductSnapshot productSnapshot;
+    private final TransactionTemplate transactionTemplate;
     private final ProductMapper productMapper = ProductMapper.INSTANCE;
 
+    /**
+     * Inserts right away instead of looking the code up first: the unique index on {@code code} answers whether it is
+     * taken in the same round trip, and also settles concurrent creations of one code.
+     */
+    @Transactional(rollbackFor = Exception.class)
     public ProductDTO createProduct(ProductDTO productDTO) throws ProductAlreadyExistsException {
-        checksIfProductAlreadyExists(productDTO.getCode());
         Product product = productMapper.toModel(productDTO);
-        Product savedProduct = productRepository.save(product);
-        return productMapper.toDTO(savedProduct);
+        product.setVersion(null);
+        Product savedProduct;
+        try {
+            savedProduct = productRepository.saveAndFlush(product);
+        } catch (DataIntegrityViolationException e) {
+            if (!isUniqueViolation(e)) {
+                throw e;
+            }
+            productMetrics.productAlreadyExists();
+            throw new ProductAlreadyExistsException(productDTO.getCode());
+        }
+        productCache.evict(savedProduct.getCode());
+        descriptionIndex.index(savedProduct.getId(), savedProduct.getDescription());
+        ProductDTO savedProductDTO = productMapper.toDTO(savedProduct);
+        lowStockIndex.update(savedProductDTO);
+        productChangeLog.record(ProductChangeType.CREATED, savedProductDTO);
+        return savedProductDTO;
     }
 
+    /**
+     * Served by the {@link ProductSnapshot} while it is serving, so it may trail the latest write by one refresh;
+     * otherwise by the product cache and the database.
+     */
     public ProductDTO getByCode(String code) throws ProductNotFoundException {
-        Product product = productRepository.findByCode(code)
-                .orElseThrow(() -> new ProductNotFoundException(code));
-        return productMapper.toDTO(product);
+        Optional<ProductDTO> productDTO = productSnapshot.isServing()
+                ? productSnapshot.get(code)
+                : productCache.get(code, this::findByCode);
+        if (!productDTO.isPresent()) {
+            productMetrics.productNotFound();
+            throw new ProductNotFoundException(code);
+        }
+        stockLedger.overlay(productDTO.get());
+        return productDTO.get();
+    }
+
+    /**
+     * The version a product is at now, including write-behind stock changes, or empty when it does not exist.
+     */
+    public Optional<Long> currentVersion(Long id) {
+        return productRepository.findById(id).map(this::toCurrentDTO).map(ProductDTO::getVersion);
+    }
+
+    /**
+     * Products for many codes at once. Cached codes are served from the cache and the rest are read with one
+     * {@code code IN (...)} query per {@link #LOOKUP_CHUNK_SIZE} codes; unknown codes are listed as missing instead
+     * of failing the lookup. Repeated codes are resolved once.
+     */
+    public ProductLookupResultDTO lookupByCodes(List<String> codes) {
+        Set<String> distinctCodes = new LinkedHashSet<>(codes);
+        Map<String, Optional<ProductDTO>> snapshots = productCache.getAll(distinctCodes, this::findByCodes);
+        List<ProductDTO> products = new ArrayList<>(distinctCodes.size());
+        List<String> missing = new ArrayList<>();
+        for (String code : distinctCodes) {
+            Optional<ProductDTO> productDTO = snapshots.get(code);
+            if (productDTO.isPresent()) {
+                stockLedger.overlay(productDTO.get());
+                products.add(productDTO.get());
+            } else {
+                productMetrics.productNotFound();
+                missing.add(code);
+            }
+        }
+        return new ProductLookupResultDTO(products, missing);
+    }
+
+    /**
+     * The product with its stock across warehouses. With {@code withLocations} every location is listed and the
+     * total is their sum, so the two always agree; without, the total comes from the maintained rollup and costs the
+     * same however many warehouses stock the product.
+     */
+    public ProductStockDTO getStockByCode(String code, boolean withLocations) throws ProductNotFoundException {
+        ProductDTO productDTO = getByCode(code);
+        LocationStockDTO home = new LocationStockDTO(warehouseStockService.homeWarehouse(), productDTO.getMax(),
+                productDTO.getQuantity());
+        if (!withLocations) {
+            StockTotalDTO others = warehouseStockService.total(productDTO.getId());
+            return new ProductStockDTO(productDTO,
+                    new StockTotalDTO(home.getMax() + others.getMax(), home.getQuantity() + others.getQuantity()), null);
+        }
+        List<LocationStockDTO> locations = new ArrayList<>();
+        locations.add(home);
+        locations.addAll(warehouseStockService.locations(productDTO.getId()));
+        StockTotalDTO total = new StockTotalDTO();
+        for (LocationStockDTO location : locations) {
+            total.setMax(total.getMax() + location.getMax());
+            total.setQuantity(total.getQuantity() + location.getQuantity());
+        }
+        return new ProductStockDTO(productDTO, total, locations);
     }
 
     public List<ProductDTO> listAll() {
-        return productRepository.findAll()
+        List<ProductDTO> productDTOs = productRepository.findAll()
+                .stream()
+                .map(this::toCurrentDTO)
+                .collect(Collectors.toList());
+        productMetrics.rowsListed(productDTOs.size());
+        return productDTOs;
+    }
+
+    /**
+     * The whole catalogue straight from the {@link ProductSnapshot}, without reading a row or creating a DTO per
+     * product; empty while the snapshot is not serving, and {@link #listAll()} has to do. In write-behind mode its
+     * quantities trail the {@link StockLedger} until the ledger's next flush.
+     */
+    public Optional<ProductListing> listAllFromSnapshot() {
+        if (!productSnapshot.isServing()) {
+            return Optional.empty();
+        }
+        ProductListing listing = productSnapshot.listing();
+        productMetrics.rowsListed(listing.size());
+        return Optional.of(listing);
+    }
+
+    /**
+     * Keyset pagination: returns up to {@code size} products whose id is greater than {@code afterId},
+     * so every page is an index seek instead of an OFFSET scan.
+     */
+    public ProductPageDTO listPage(Long afterId, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<ProductDTO> content = productRepository
+                .findByIdGreaterThanOrderByIdAsc(afterId == null ? 0L : afterId, PageRequest.of(0, pageSize))
                 .stream()
-                .map(productMapper::toDTO)
+                .map(this::toCurrentDTO)
                 .collect(Collectors.toList());
+        productMetrics.rowsListed(content.size());
+        Long nextAfterId = content.size() < pageSize ? null : content.get(content.size() - 1).getId();
+        return new ProductPageDTO(content, nextAfterId);
+    }
+
+    /**
+     * Walks the whole catalogue through a forward-only cursor, handing each product to the consumer and
+     * detaching it right away so the persistence context does not grow with the catalogue size.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<ProductDTO> consumer) {
+        long rows = 0;
+        try (Stream<Product> products = productRepository.streamAll()) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                consumer.accept(toCurrentDTO(product));
+                entityManager.detach(product);
+                rows++;
+            }
+        }
+        productMetrics.rowsListed(rows);
+    }
+
+    /**
+     * Adds stock with a single conditional UPDATE, so concurrent writers can never push the quantity above
+     * {@code max} nor lose each other's updates. With an {@code expectedVersion} the same UPDATE is also an optimistic
+     * check: it only applies while the product is still at that version. In write-behind mode the
+     * {@link StockLedger} applies it instead, without opening a transaction; callers must not hold one either.
+     */
+    public ProductDTO increment(Long id, int quantity, Long expectedVersion)
+            throws ProductNotFoundException, ProductMaxStockExceededException, ProductVersionMismatchException {
+        if (stockLedger.isEnabled()) {
+            return stockLedger.increment(id, quantity, expectedVersion, lowStockIndex::update);
+        }
+        Optional<ProductDTO> updated = transactionTemplate.execute(status ->
+                productRepository.incrementQuantity(id, quantity, expectedVersion) == 0
+                        ? Optional.empty()
+                        : productRepository.findById(id).map(this::refreshAndRecord));
+        if (!updated.isPresent()) {
+            checkVersion(productMapper.toDTO(getById(id)), expectedVersion);
+            throw new ProductMaxStockExceededException(id, quantity);
+        }
+        return updated.get();
+    }
+
+    /**
+     * Removes stock with a single conditional UPDATE, so concurrent writers can never take the quantity below zero.
+     * {@code expectedVersion} works as for {@link #increment(Long, int, Long)}.
+     */
+    public ProductDTO decrement(Long id, int quantity, Long expectedVersion)
+            throws ProductNotFoundException, ProductOutOfStockException, ProductVersionMismatchException {
+        if (stockLedger.isEnabled()) {
+            return stockLedger.decrement(id, quantity, expectedVersion, lowStockIndex::update);
+        }
+        Optional<ProductDTO> updated = transactionTemplate.execute(status ->
+                productRepository.decrementQuantity(id, quantity, expectedVersion) == 0
+                        ? Optional.empty()
+                        : productRepository.findById(id).map(this::refreshAndRecord));
+        if (!updated.isPresent()) {
+            checkVersion(productMapper.toDTO(getById(id)), expectedVersion);
+            throw new ProductOutOfStockException(id, quantity);
+        }
+        return updated.get();
     }
 
-    public void deleteById(Long id) throws ProductNotFoundException {
-        getById(id);
+    @Transactional(rollbackFor = Exception.class)
+    public void deleteById(Long id, Long expectedVersion) throws ProductNotFoundException, ProductVersionMismatchException {
+        Product product = getById(id);
+        ProductDTO current = productMapper.toDTO(product);
+        stockLedger.overlay(current);
+        checkVersion(current, expectedVersion);
         productRepository.deleteById(id);
+        productCache.evict(product.getCode());
+        descriptionIndex.remove(id);
+        lowStockIndex.remove(id);
+        stockLedger.remove(id);
+        warehouseStockService.removeAll(id);
+        productChangeLog.record(ProductChangeType.DELETED, current);
+    }
+
+    private static boolean isUniqueViolation(DataIntegrityViolationException e) {
+        Throwable cause = e.getMostSpecificCause();
+        return cause instanceof SQLException && UNIQUE_VIOLATION_SQL_STATE.equals(((SQLException) cause).getSQLState());
+    }
+
+    private void checkVersion(ProductDTO productDTO, Long expectedVersion) throws ProductVersionMismatchException {
+        if (expectedVersion != null && !expectedVersion.equals(productDTO.getVersion())) {
+            throw new ProductVersionMismatchException(productDTO.getId(), expectedVersion, productDTO.getVersion());
+        }
     }
 
-    private void checksIfProductAlreadyExists(String code) throws ProductAlreadyExistsException {
-        Optional<Product> optionalProduct = productRepository.findByCode(code);
-        if (optionalProduct.isPresent()) {
-            throw new ProductAlreadyExistsException(code);
+    private Optional<ProductDTO> findByCode(String code) {
+        return productRepository.findByCode(code).map(productMapper::toDTO);
+    }
+
+    private Map<String, Optional<ProductDTO>> findByCodes(Set<String> codes) {
+        Map<String, Optional<ProductDTO>> found = new HashMap<>();
+        List<String> chunk = new ArrayList<>(Math.min(codes.size(), LOOKUP_CHUNK_SIZE));
+        for (String code : codes) {
+            found.put(code, Optional.empty());
+            chunk.add(code);
+            if (chunk.size() == LOOKUP_CHUNK_SIZE) {
+                findChunk(chunk, found);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            findChunk(chunk, found);
+        }
+        return found;
+    }
+
+    private void findChunk(List<String> codes, Map<String, Optional<ProductDTO>> found) {
+        for (Product product : productRepository.findByCodeIn(codes)) {
+            found.put(product.getCode(), Optional.of(productMapper.toDTO(product)));
         }
     }
 
+    private ProductDTO toCurrentDTO(Product product) {
+        ProductDTO productDTO = productMapper.toDTO(product);
+        stockLedger.overlay(productDTO);
+        return productDTO;
+    }
+
+    private ProductDTO refreshAndRecord(Product product) {
+        productCache.evict(product.getCode());
+        ProductDTO productDTO = productMapper.toDTO(product);
+        lowStockIndex.update(productDTO);
+        productChangeLog.record(ProductChangeType.UPDATED, productDTO);
+        return productDTO;
+    }
+
     private Product getById(Long id) throws ProductNotFoundException {
-        return productRepository.findById(id)
-                .orElseThrow(() -> new ProductNotFoundException(id));
+        Optional<Product> product = productRepository.findById(id);
+        if (!product.isPresent()) {
+            productMetrics.productNotFound();
+            throw new ProductNotFoundException(id);
+        }
+        return product.get();
     }
 }
-
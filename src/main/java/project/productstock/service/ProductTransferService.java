@@ -0,0 +1,320 @@
+package project.productstock.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+import project.productstock.dto.BatchItemResultDTO;
+import project.productstock.dto.BatchItemStatus;
+import project.productstock.dto.ImportSummaryDTO;
+import project.productstock.dto.ProductDTO;
+import project.productstock.dto.TransferFormat;
+import project.productstock.exception.ProductImportException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Moves the whole catalogue in and out as CSV or NDJSON without holding it in memory. Imports are pipelined: the
+ * calling thread parses the payload into chunks while a writer thread hands each chunk to
+ * {@link ProductBatchService}, with a small bounded queue in between. Exports walk the catalogue through
+ * {@link ProductService#streamAll} and write every row straight to the output stream.
+ */
+@Slf4j
+@Service
+public class ProductTransferService implements DisposableBean {
+
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final int QUEUED_CHUNKS = 4;
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+    private static final ImportChunk END_OF_IMPORT = new ImportChunk(Collections.emptyList(), new int[0]);
+    private static final CsvSchema CSV_SCHEMA = CsvSchema.builder()
+            .addColumn("id")
+            .addColumn("code")
+            .addColumn("description")
+            .addColumn("max")
+            .addColumn("quantity")
+            .addColumn("version")
+            .setUseHeader(true)
+            .build();
+
+    private final ProductBatchService productBatchService;
+    private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper = new CsvMapper();
+    private final ExecutorService writers;
+
+    public ProductTransferService(ProductBatchService productBatchService, ProductService productService,
+                                  ObjectMapper objectMapper) {
+        this.productBatchService = productBatchService;
+        this.productService = productService;
+        this.objectMapper = objectMapper;
+        AtomicInteger threads = new AtomicInteger();
+        this.writers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "product-import-writer-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates or updates every product in {@code body}. Rows that cannot be bound to a product or that break the
+     * {@link ProductDTO} constraints are reported and skipped; a payload that is not well-formed stops the import,
+     * leaving the chunks written before it in place.
+     */
+    public ImportSummaryDTO importProducts(InputStream body, TransferFormat format)
+            throws IOException, ProductImportException {
+        long start = System.nanoTime();
+        ImportTally tally = new ImportTally();
+        BlockingQueue<ImportChunk> chunks = new ArrayBlockingQueue<>(QUEUED_CHUNKS);
+        Future<?> writer = writers.submit(() -> write(chunks, tally));
+        try {
+            read(body, format, chunks, tally, writer);
+        } finally {
+            hand(chunks, END_OF_IMPORT, writer);
+            awaitWriter(writer);
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        ImportSummaryDTO summary = tally.toSummary(elapsedNanos);
+        log.info("Imported {} {} rows in {} ms ({} rows/s): {} created, {} updated, {} invalid, {} failed",
+                summary.getRows(), format, summary.getElapsedMillis(), Math.round(summary.getRowsPerSecond()),
+                summary.getCreated(), summary.getUpdated(), summary.getInvalid(), summary.getFailed());
+        return summary;
+    }
+
+    public void exportProducts(OutputStream outputStream, TransferFormat format) throws IOException {
+        long start = System.nanoTime();
+        long[] rows = new long[1];
+        if (format == TransferFormat.CSV) {
+            try (SequenceWriter writer = csvMapper.writer(CSV_SCHEMA).writeValues(outputStream)) {
+                productService.streamAll(productDTO -> {
+                    writeValue(writer, productDTO);
+                    rows[0]++;
+                });
+            }
+        } else {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                productService.streamAll(productDTO -> {
+                    writeLine(generator, productDTO);
+                    rows[0]++;
+                });
+            }
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        log.info("Exported {} {} rows in {} ms ({} rows/s)", rows[0], format, elapsedMillis, rows[0] * 1000 / elapsedMillis);
+    }
+
+    @Override
+    public void destroy() {
+        writers.shutdownNow();
+    }
+
+    private void read(InputStream body, TransferFormat format, BlockingQueue<ImportChunk> chunks, ImportTally tally,
+                      Future<?> writer) throws IOException, ProductImportException {
+        ImportChunk chunk = new ImportChunk();
+        int row = 0;
+        try (MappingIterator<ProductDTO> productDTOs = reader(format).readValues(body)) {
+            while (!writer.isDone() && productDTOs.hasNextValue()) {
+                try {
+                    chunk.add(productDTOs.nextValue(), row);
+                } catch (JsonMappingException e) {
+                    tally.add(BatchItemResultDTO.builder()
+                            .index(row)
+                            .status(BatchItemStatus.INVALID)
+                            .errors(Collections.singletonList(e.getOriginalMessage()))
+                            .build());
+                }
+                row++;
+                if (chunk.isFull()) {
+                    hand(chunks, chunk, writer);
+                    chunk = new ImportChunk();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new ProductImportException(row, e.getOriginalMessage());
+        }
+        if (!chunk.products.isEmpty()) {
+            hand(chunks, chunk, writer);
+        }
+    }
+
+    /**
+     * Runs on the writer thread: one {@link ProductBatchService} call per chunk, with each result's index mapped
+     * back from its position in the chunk to its row in the payload.
+     */
+    private Void write(BlockingQueue<ImportChunk> chunks, ImportTally tally) throws InterruptedException {
+        while (true) {
+            ImportChunk chunk = chunks.take();
+            if (chunk == END_OF_IMPORT) {
+                return null;
+            }
+            productBatchService.upsertAll(chunk.products.iterator(), result -> {
+                result.setIndex(chunk.rows[result.getIndex()]);
+                tally.add(result);
+            });
+        }
+    }
+
+    /**
+     * Blocks while the queue is full, but gives up once the writer has stopped, so a failed writer cannot leave the
+     * parsing thread waiting forever.
+     */
+    private void hand(BlockingQueue<ImportChunk> chunks, ImportChunk chunk, Future<?> writer)
+            throws InterruptedIOException {
+        try {
+            while (!chunks.offer(chunk, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (writer.isDone()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while handing a chunk to the import writer");
+        }
+    }
+
+    private void awaitWriter(Future<?> writer) throws InterruptedIOException {
+        try {
+            writer.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writer.cancel(true);
+            throw new InterruptedIOException("Interrupted while waiting for the import writer");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Import writer failed", e.getCause());
+        }
+    }
+
+    private ObjectReader reader(TransferFormat format) {
+        if (format == TransferFormat.CSV) {
+            return csvMapper.readerFor(ProductDTO.class)
+                    .with(CsvSchema.emptySchema().withHeader())
+                    .with(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+                    .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        }
+        return objectMapper.readerFor(ProductDTO.class);
+    }
+
+    private static void writeValue(SequenceWriter writer, ProductDTO productDTO) {
+        try {
+            writer.write(productDTO);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeLine(JsonGenerator generator, ProductDTO productDTO) {
+        try {
+            generator.writeObject(productDTO);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Up to {@link ProductBatchService#CHUNK_SIZE} parsed products with the payload row each came from.
+     */
+    private static class ImportChunk {
+
+        private final List<ProductDTO> products;
+        private final int[] rows;
+
+        ImportChunk() {
+            this(new ArrayList<>(ProductBatchService.CHUNK_SIZE), new int[ProductBatchService.CHUNK_SIZE]);
+        }
+
+        ImportChunk(List<ProductDTO> products, int[] rows) {
+            this.products = products;
+            this.rows = rows;
+        }
+
+        void add(ProductDTO productDTO, int row) {
+            rows[products.size()] = row;
+            products.add(productDTO);
+        }
+
+        boolean isFull() {
+            return products.size() == rows.length;
+        }
+    }
+
+    /**
+     * Running totals of an import. Both the parsing and the writer thread report into it.
+     */
+    private static class ImportTally {
+
+        private long rows;
+        private long created;
+        private long updated;
+        private long invalid;
+        private long failed;
+        private final List<BatchItemResultDTO> errors = new ArrayList<>();
+
+        synchronized void add(BatchItemResultDTO result) {
+            rows++;
+            switch (result.getStatus()) {
+                case CREATED:
+                    created++;
+                    return;
+                case UPDATED:
+                    updated++;
+                    return;
+                case INVALID:
+                    invalid++;
+                    break;
+                default:
+                    failed++;
+                    break;
+            }
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(result);
+            }
+        }
+
+        synchronized ImportSummaryDTO toSummary(long elapsedNanos) {
+            errors.sort(Comparator.comparingInt(BatchItemResultDTO::getIndex));
+            return ImportSummaryDTO.builder()
+                    .rows(rows)
+                    .created(created)
+                    .updated(updated)
+                    .invalid(invalid)
+                    .failed(failed)
+                    .elapsedMillis(elapsedNanos / 1_000_000)
+                    .rowsPerSecond(elapsedNanos == 0 ? 0 : rows * 1_000_000_000.0 / elapsedNanos)
+                    .errors(new ArrayList<>(errors))
+                    .build();
+        }
+    }
+}
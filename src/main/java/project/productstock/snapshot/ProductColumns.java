@@ -0,0 +1,251 @@
+package project.productstock.snapshot;
+
+import project.productstock.dto.ProductDTO;
+
+import java.util.Arrays;
+
+/**
+ * The catalogue as parallel arrays, one row per product, with an open-addressing table (linear probing) from code to
+ * row. Numbers are kept as primitives, so a row costs its two strings plus 40 bytes of arrays and table.
+ * <p>
+ * Rows freed by deletes are reused by later inserts, so a product keeps its row for as long as it exists and a scan
+ * by row never sees a live product twice. Not thread-safe: {@link ProductSnapshot} runs one writer at a time and lets
+ * readers in optimistically, so the read methods tolerate a torn view. They may then return wrong data, which the
+ * caller discards, but never throw or loop forever.
+ */
+final class ProductColumns {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] ids;
+    private long[] versions;
+    private int[] maxes;
+    private int[] quantities;
+    private String[] codes;
+    private String[] descriptions;
+
+    /**
+     * Row + 1 per slot, 0 when empty; at most half full.
+     */
+    private int[] slots;
+
+    private int rowCount;
+    private int size;
+    private int[] freeRows = new int[MIN_CAPACITY];
+    private int freeCount;
+
+    ProductColumns(int expectedSize) {
+        int capacity = Math.max(MIN_CAPACITY, expectedSize);
+        ids = new long[capacity];
+        versions = new long[capacity];
+        maxes = new int[capacity];
+        quantities = new int[capacity];
+        codes = new String[capacity];
+        descriptions = new String[capacity];
+        slots = new int[tableSize(capacity)];
+    }
+
+    static int hash(String code) {
+        int hash = code.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * A new DTO for the product with {@code code}, or {@code null}; {@code hash} is {@link #hash(String)} of the code.
+     */
+    ProductDTO get(String code, int hash) {
+        int[] slots = this.slots;
+        long[] ids = this.ids;
+        long[] versions = this.versions;
+        int[] maxes = this.maxes;
+        int[] quantities = this.quantities;
+        String[] codes = this.codes;
+        String[] descriptions = this.descriptions;
+        int rows = Math.min(Math.min(Math.min(ids.length, versions.length), Math.min(maxes.length, quantities.length)),
+                Math.min(codes.length, descriptions.length));
+        int mask = slots.length - 1;
+        for (int slot = hash & mask, probes = 0; probes < slots.length; slot = (slot + 1) & mask, probes++) {
+            int row = slots[slot] - 1;
+            if (row < 0) {
+                return null;
+            }
+            if (row < rows && code.equals(codes[row])) {
+                return new ProductDTO(ids[row], code, descriptions[row], maxes[row], quantities[row], versions[row]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Copies the live rows from row {@code from} on into {@code chunk} until it is full.
+     *
+     * @return the row to continue from
+     */
+    int copyRows(int from, Chunk chunk) {
+        long[] ids = this.ids;
+        long[] versions = this.versions;
+        int[] maxes = this.maxes;
+        int[] quantities = this.quantities;
+        String[] codes = this.codes;
+        String[] descriptions = this.descriptions;
+        int rows = Math.min(Math.min(Math.min(ids.length, versions.length), Math.min(maxes.length, quantities.length)),
+                Math.min(Math.min(codes.length, descriptions.length), rowCount));
+        int row = from;
+        int count = 0;
+        for (; row < rows && count < chunk.codes.length; row++) {
+            String code = codes[row];
+            if (code != null) {
+                chunk.ids[count] = ids[row];
+                chunk.versions[count] = versions[row];
+                chunk.maxes[count] = maxes[row];
+                chunk.quantities[count] = quantities[row];
+                chunk.codes[count] = code;
+                chunk.descriptions[count] = descriptions[row];
+                count++;
+            }
+        }
+        chunk.count = count;
+        return row;
+    }
+
+    /**
+     * Adds the product, or overwrites the row holding its code. A row holding the same product at a newer version is
+     * left alone, so replaying changes the rows already reflect does not move them back.
+     */
+    void put(long id, String code, String description, int max, int quantity, long version) {
+        int slot = find(code);
+        int row = slots[slot] - 1;
+        if (row >= 0) {
+            if (ids[row] == id && versions[row] > version) {
+                return;
+            }
+        } else {
+            row = allocateRow();
+            codes[row] = code;
+            slots[slot] = row + 1;
+            size++;
+            if (size * 2 > slots.length) {
+                rehash(slots.length * 2);
+            }
+        }
+        ids[row] = id;
+        versions[row] = version;
+        maxes[row] = max;
+        quantities[row] = quantity;
+        descriptions[row] = description;
+    }
+
+    /**
+     * Removes the product if its code is still held by that product rather than by a later one.
+     */
+    void remove(long id, String code) {
+        int slot = find(code);
+        int row = slots[slot] - 1;
+        if (row < 0 || ids[row] != id) {
+            return;
+        }
+        deleteSlot(slot);
+        codes[row] = null;
+        descriptions[row] = null;
+        if (freeCount == freeRows.length) {
+            freeRows = Arrays.copyOf(freeRows, freeCount * 2);
+        }
+        freeRows[freeCount++] = row;
+        size--;
+    }
+
+    /**
+     * The slot holding {@code code}, or the empty slot where it would go.
+     */
+    private int find(String code) {
+        int mask = slots.length - 1;
+        int slot = hash(code) & mask;
+        while (slots[slot] != 0 && !code.equals(codes[slots[slot] - 1])) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Empties the slot and shifts later entries of the probe run back, so no lookup stops short of its entry.
+     */
+    private void deleteSlot(int slot) {
+        int mask = slots.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; slots[next] != 0; next = (next + 1) & mask) {
+            int home = hash(codes[slots[next] - 1]) & mask;
+            // the entry may fill the hole unless its home lies cyclically in (hole, next]
+            if (hole <= next ? home <= hole || home > next : home <= hole && home > next) {
+                slots[hole] = slots[next];
+                hole = next;
+            }
+        }
+        slots[hole] = 0;
+    }
+
+    private int allocateRow() {
+        if (freeCount > 0) {
+            return freeRows[--freeCount];
+        }
+        if (rowCount == codes.length) {
+            int capacity = codes.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            maxes = Arrays.copyOf(maxes, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            codes = Arrays.copyOf(codes, capacity);
+            descriptions = Arrays.copyOf(descriptions, capacity);
+        }
+        return rowCount++;
+    }
+
+    private void rehash(int tableSize) {
+        int[] rehashed = new int[tableSize];
+        int mask = tableSize - 1;
+        for (int entry : slots) {
+            if (entry != 0) {
+                int slot = hash(codes[entry - 1]) & mask;
+                while (rehashed[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                rehashed[slot] = entry;
+            }
+        }
+        slots = rehashed;
+    }
+
+    private static int tableSize(int capacity) {
+        return Integer.highestOneBit(capacity * 2 - 1) << 1;
+    }
+
+    /**
+     * Reusable buffer for {@link #copyRows}, so a full scan allocates nothing per row.
+     */
+    static final class Chunk {
+
+        final long[] ids;
+        final long[] versions;
+        final int[] maxes;
+        final int[] quantities;
+        final String[] codes;
+        final String[] descriptions;
+        int count;
+
+        Chunk(int capacity) {
+            ids = new long[capacity];
+            versions = new long[capacity];
+            maxes = new int[capacity];
+            quantities = new int[capacity];
+            codes = new String[capacity];
+            descriptions = new String[capacity];
+        }
+
+        boolean isFull() {
+            return count == codes.length;
+        }
+    }
+}
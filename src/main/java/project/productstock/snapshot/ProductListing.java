@@ -0,0 +1,85 @@
+package project.productstock.snapshot;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+
+/**
+ * Every product of a {@link ProductSnapshot}, serialized as the same array of objects a {@code List<ProductDTO>}
+ * gives, in any format. Rows are copied out a chunk at a time, each chunk consistent on its own, and written from
+ * primitives, so no object is created per product. Like a weakly consistent iterator, a listing reflects each product
+ * once, as of some point during the write, and picks up products added or removed meanwhile only in part.
+ */
+public final class ProductListing implements JsonSerializable {
+
+    static final int CHUNK_SIZE = 512;
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString CODE = new SerializedString("code");
+    private static final SerializableString DESCRIPTION = new SerializedString("description");
+    private static final SerializableString MAX = new SerializedString("max");
+    private static final SerializableString QUANTITY = new SerializedString("quantity");
+    private static final SerializableString VERSION = new SerializedString("version");
+
+    private final ProductSnapshot snapshot;
+    private final int size;
+    private final long seq;
+
+    ProductListing(ProductSnapshot snapshot, int size, long seq) {
+        this.snapshot = snapshot;
+        this.size = size;
+        this.seq = seq;
+    }
+
+    /**
+     * Products in the snapshot when the listing was taken.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The last product change the snapshot had applied when the listing was taken.
+     */
+    public long seq() {
+        return seq;
+    }
+
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider serializers) throws IOException {
+        ProductColumns.Chunk chunk = new ProductColumns.Chunk(CHUNK_SIZE);
+        generator.writeStartArray();
+        int row = 0;
+        do {
+            row = snapshot.copyRows(row, chunk);
+            for (int i = 0; i < chunk.count; i++) {
+                generator.writeStartObject();
+                generator.writeFieldName(ID);
+                generator.writeNumber(chunk.ids[i]);
+                generator.writeFieldName(CODE);
+                generator.writeString(chunk.codes[i]);
+                generator.writeFieldName(DESCRIPTION);
+                generator.writeString(chunk.descriptions[i]);
+                generator.writeFieldName(MAX);
+                generator.writeNumber(chunk.maxes[i]);
+                generator.writeFieldName(QUANTITY);
+                generator.writeNumber(chunk.quantities[i]);
+                generator.writeFieldName(VERSION);
+                generator.writeNumber(chunk.versions[i]);
+                generator.writeEndObject();
+            }
+        } while (chunk.isFull());
+        generator.writeEndArray();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider serializers, TypeSerializer typeSerializer)
+            throws IOException {
+        serialize(generator, serializers);
+    }
+}
@@ -0,0 +1,237 @@
+package project.productstock.snapshot;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.productstock.changes.ProductChangeLog;
+import project.productstock.dto.ProductChangeDTO;
+import project.productstock.dto.ProductChangePageDTO;
+import project.productstock.dto.ProductChangeType;
+import project.productstock.dto.ProductDTO;
+import project.productstock.entity.Product;
+import project.productstock.exception.ProductChangesExpiredException;
+import project.productstock.repository.ProductRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.Stream;
+
+/**
+ * Read-optimized copy of the whole catalogue for read-heavy nodes ({@code product.snapshot.enabled=true}), held in
+ * {@link ProductColumns}: reads by code and full listings skip Hibernate, and a listing creates no object per product.
+ * <p>
+ * The first refresh loads every product; later ones apply the {@link ProductChangeLog} from where the snapshot left
+ * off, so a refresh costs O(changes). A single refresher thread writes, taking the write lock for one page of
+ * changes at a time; readers go through an optimistic {@link StampedLock} read and only lock when a write overlapped.
+ * Until the first load completes the snapshot is not {@link #isServing() serving} and reads fall back to the database.
+ */
+@Slf4j
+@Component
+public class ProductSnapshot implements InitializingBean, DisposableBean {
+
+    private final ProductSnapshotProperties properties;
+    private final ProductRepository productRepository;
+    private final ProductChangeLog productChangeLog;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    private final StampedLock lock = new StampedLock();
+    private ProductColumns columns = new ProductColumns(0);
+    private long appliedSeq;
+    private volatile boolean serving;
+    private ScheduledExecutorService refresher;
+
+    public ProductSnapshot(ProductSnapshotProperties properties, ProductRepository productRepository,
+                           ProductChangeLog productChangeLog, TransactionTemplate transactionTemplate,
+                           EntityManager entityManager) {
+        this.properties = properties;
+        this.productRepository = productRepository;
+        this.productChangeLog = productChangeLog;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public boolean isServing() {
+        return serving;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!isEnabled()) {
+            return;
+        }
+        long interval = properties.getRefreshInterval().toNanos();
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-snapshot-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, 0, interval, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Applies every change committed since the last refresh. The first call loads the whole catalogue instead, and
+     * so does a call that finds the change log already dropped changes the snapshot has not applied.
+     */
+    public synchronized void refresh() {
+        if (!serving || !catchUp()) {
+            reload();
+        }
+    }
+
+    /**
+     * Loads the whole catalogue again, for rows written around the change log, e.g. bulk-loaded in SQL. Reads keep
+     * being served from the current copy meanwhile.
+     */
+    public synchronized void reload() {
+        load();
+        if (!catchUp()) {
+            throw new IllegalStateException("Product changes were dropped while the snapshot was loading");
+        }
+        serving = true;
+    }
+
+    public Optional<ProductDTO> get(String code) {
+        int hash = ProductColumns.hash(code);
+        long stamp = lock.tryOptimisticRead();
+        ProductDTO productDTO = columns.get(code, hash);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                productDTO = columns.get(code, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return Optional.ofNullable(productDTO);
+    }
+
+    /**
+     * Every product, written straight from the columns when serialized.
+     */
+    public ProductListing listing() {
+        long stamp = lock.tryOptimisticRead();
+        int size = columns.size();
+        long seq = appliedSeq;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                size = columns.size();
+                seq = appliedSeq;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return new ProductListing(this, size, seq);
+    }
+
+    /**
+     * Copies the next live rows into {@code chunk}, consistently within the chunk.
+     *
+     * @return the row to continue from
+     */
+    int copyRows(int from, ProductColumns.Chunk chunk) {
+        long stamp = lock.tryOptimisticRead();
+        int next = columns.copyRows(from, chunk);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                next = columns.copyRows(from, chunk);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return next;
+    }
+
+    @Override
+    public void destroy() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    /**
+     * Builds fresh columns off to the side while readers keep using the current ones. Changes up to the watermark
+     * taken first are all committed, so the scan sees them; later ones are replayed by {@link #catchUp()}, and
+     * {@link ProductColumns#put} skips those the scan already saw.
+     */
+    private void load() {
+        long start = System.nanoTime();
+        long since = productChangeLog.watermark();
+        ProductColumns loaded = new ProductColumns((int) productRepository.count());
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Product> products = productRepository.streamAll()) {
+                products.forEach(product -> {
+                    loaded.put(product.getId(), product.getCode(), product.getDescription(), product.getMax(),
+                            product.getQuantity(), product.getVersion());
+                    entityManager.detach(product);
+                });
+            }
+        });
+        long stamp = lock.writeLock();
+        try {
+            columns = loaded;
+            appliedSeq = since;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        log.info("Loaded {} products into the snapshot in {} ms", loaded.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * @return {@code false} when the change log no longer holds every change since the last one applied
+     */
+    private boolean catchUp() {
+        try {
+            ProductChangePageDTO page;
+            do {
+                page = productChangeLog.changesSince(appliedSeq, ProductChangeLog.MAX_PAGE_SIZE);
+                apply(page.getContent(), page.getNextSince());
+            } while (page.isHasMore());
+            return true;
+        } catch (ProductChangesExpiredException e) {
+            log.warn("Reloading the product snapshot: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void apply(List<ProductChangeDTO> changes, long nextSince) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            for (ProductChangeDTO change : changes) {
+                if (change.getType() == ProductChangeType.DELETED) {
+                    columns.remove(change.getProductId(), change.getCode());
+                } else {
+                    columns.put(change.getProductId(), change.getCode(), change.getDescription(), change.getMax(),
+                            change.getQuantity(), change.getVersion());
+                }
+            }
+            appliedSeq = nextSince;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Product snapshot refresh failed; retrying on the next run", e);
+        }
+    }
+}
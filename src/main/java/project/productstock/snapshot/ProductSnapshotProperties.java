@@ -0,0 +1,22 @@
+package project.productstock.snapshot;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "product.snapshot")
+public class ProductSnapshotProperties {
+
+    /**
+     * Serve product reads by code and full listings from an in-memory copy of the catalogue. Meant for read-heavy
+     * nodes: reads may trail writes by up to one {@link #refreshInterval}.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Pause between applying one batch of changes from the product change log and polling for the next.
+     */
+    private Duration refreshInterval = Duration.ofMillis(200);
+}
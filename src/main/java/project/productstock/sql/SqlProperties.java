@@ -0,0 +1,32 @@
+package project.productstock.sql;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "product.sql")
+public class SqlProperties {
+
+    /**
+     * Whether statements are counted and timed at all; off, the DataSource is not wrapped.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Statements taking at least this long are logged at WARN with their SQL.
+     */
+    private Duration slowStatement = Duration.ofMillis(200);
+
+    /**
+     * Requests issuing more statements than this are logged at WARN; 0 turns the check off.
+     */
+    private int requestStatementWarning = 100;
+
+    /**
+     * Requests running the same SQL at least this many times, the mark of an N+1, are logged at WARN; 0 turns the
+     * check off.
+     */
+    private int repeatedStatementWarning = 10;
+}
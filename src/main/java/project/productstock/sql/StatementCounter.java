@@ -0,0 +1,112 @@
+package project.productstock.sql;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Counts and times the statements sent through the wrapped DataSource, per thread. Each execution is one database
+ * round trip, so a JDBC batch counts once however many rows it carries. Statements at or above
+ * {@code product.sql.slow-statement} are logged with their SQL.
+ * <p>
+ * A {@link Recording} reads what its thread issued between {@link #start()} and {@link Recording#close()};
+ * recordings nest, and the SQL text is only kept while one is open.
+ */
+@Slf4j
+public class StatementCounter implements QueryExecutionListener {
+
+    private static final ThreadLocal<Tally> TALLY = ThreadLocal.withInitial(Tally::new);
+
+    private final long slowStatementNanos;
+
+    public StatementCounter(SqlProperties properties) {
+        this.slowStatementNanos = properties.getSlowStatement().toNanos();
+    }
+
+    /**
+     * Starts recording the statements of the calling thread; close it on the same thread.
+     */
+    public static Recording start() {
+        return new Recording(TALLY.get());
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        TALLY.get().startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Tally tally = TALLY.get();
+        long elapsed = System.nanoTime() - tally.startedAt;
+        String sql = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+        tally.statements++;
+        tally.nanos += elapsed;
+        if (tally.recordings > 0) {
+            tally.sql.add(sql);
+        }
+        if (elapsed >= slowStatementNanos) {
+            log.warn("Slow statement took {} ms{}: {}", elapsed / 1_000_000,
+                    execInfo.isBatch() ? " for a batch of " + execInfo.getBatchSize() : "", sql);
+        }
+    }
+
+    public static final class Recording implements AutoCloseable {
+
+        private final Tally tally;
+        private final long statementsAtStart;
+        private final long nanosAtStart;
+        private final int sqlAtStart;
+
+        private Recording(Tally tally) {
+            this.tally = tally;
+            this.statementsAtStart = tally.statements;
+            this.nanosAtStart = tally.nanos;
+            this.sqlAtStart = tally.sql.size();
+            tally.recordings++;
+        }
+
+        /**
+         * Round trips issued since the recording started.
+         */
+        public int statements() {
+            return (int) (tally.statements - statementsAtStart);
+        }
+
+        /**
+         * Time spent executing them, as seen by the JDBC driver call; reading a result set afterwards is not included.
+         */
+        public Duration elapsed() {
+            return Duration.ofNanos(tally.nanos - nanosAtStart);
+        }
+
+        /**
+         * Their SQL, in order; for a batch, its first statement.
+         */
+        public List<String> sql() {
+            return Collections.unmodifiableList(new ArrayList<>(tally.sql.subList(sqlAtStart, tally.sql.size())));
+        }
+
+        @Override
+        public void close() {
+            if (--tally.recordings == 0) {
+                tally.sql.clear();
+            }
+        }
+    }
+
+    private static final class Tally {
+
+        private long statements;
+        private long nanos;
+        private long startedAt;
+        private int recordings;
+        private final List<String> sql = new ArrayList<>();
+    }
+}
@@ -0,0 +1,59 @@
+package project.productstock.sql;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Logs the statements each request issued on its own thread: count and time at DEBUG, and a WARN when there are
+ * more than {@code product.sql.request-statement-warning} or one SQL repeats
+ * {@code product.sql.repeated-statement-warning} times, which is what an N+1 looks like. Work handed to other
+ * threads, such as streamed responses and import writers, is not attributed to the request.
+ */
+@Slf4j
+public class StatementLogFilter extends OncePerRequestFilter {
+
+    private final SqlProperties properties;
+
+    public StatementLogFilter(SqlProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try (StatementCounter.Recording recording = StatementCounter.start()) {
+            filterChain.doFilter(request, response);
+            report(request, recording);
+        }
+    }
+
+    private void report(HttpServletRequest request, StatementCounter.Recording recording) {
+        int statements = recording.statements();
+        if (statements == 0) {
+            return;
+        }
+        log.debug("{} {}: {} statements in {} ms", request.getMethod(), request.getRequestURI(), statements,
+                recording.elapsed().toMillis());
+        if (properties.getRequestStatementWarning() > 0 && statements > properties.getRequestStatementWarning()) {
+            log.warn("{} {} issued {} statements", request.getMethod(), request.getRequestURI(), statements);
+        }
+        if (properties.getRepeatedStatementWarning() > 0 && statements >= properties.getRepeatedStatementWarning()) {
+            Map<String, Integer> repeats = new HashMap<>();
+            recording.sql().forEach(sql -> repeats.merge(sql, 1, Integer::sum));
+            repeats.forEach((sql, count) -> {
+                if (count >= properties.getRepeatedStatementWarning()) {
+                    log.warn("{} {} ran the same statement {} times, likely an N+1: {}", request.getMethod(),
+                            request.getRequestURI(), count, sql);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package project.productstock.startup;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "product.startup")
+public class StartupProperties {
+
+    /**
+     * How many startup steps the timeline report lists, slowest first by their own time.
+     */
+    private int reportedSteps = 15;
+
+    /**
+     * Shuts the application down as soon as it is ready; used by the AppCDS training run to dump the class archive.
+     */
+    private boolean exitWhenReady = false;
+}
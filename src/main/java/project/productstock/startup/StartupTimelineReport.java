@@ -0,0 +1,94 @@
+package project.productstock.startup;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Logs where startup went once the application is ready: the steps recorded by a
+ * {@link BufferingApplicationStartup}, slowest first by their own time, i.e. without the time of the steps nested
+ * in them, so a slow bean stands out instead of the context refresh that contains it. The timeline is only read,
+ * and stays available at the {@code startup} actuator endpoint.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StartupTimelineReport implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final StartupProperties properties;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        ConfigurableApplicationContext context = event.getApplicationContext();
+        ApplicationStartup applicationStartup = context.getApplicationStartup();
+        if (applicationStartup instanceof BufferingApplicationStartup && log.isInfoEnabled()) {
+            StartupTimeline timeline = ((BufferingApplicationStartup) applicationStartup).getBufferedTimeline();
+            log.info("Started in {} ms over {} recorded steps; slowest by own time:\n{}",
+                    Duration.between(timeline.getStartTime(), Instant.now()).toMillis(),
+                    timeline.getEvents().size(),
+                    slowestSteps(timeline.getEvents(), properties.getReportedSteps()));
+        }
+        if (properties.isExitWhenReady()) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    /**
+     * One line per step, {@code limit} of them, in descending order of own time: the step's duration less the
+     * durations of its direct children.
+     */
+    static String slowestSteps(List<StartupTimeline.TimelineEvent> events, int limit) {
+        Map<Long, Duration> childTime = new HashMap<>();
+        for (StartupTimeline.TimelineEvent event : events) {
+            Long parentId = event.getStartupStep().getParentId();
+            if (parentId != null) {
+                childTime.merge(parentId, event.getDuration(), Duration::plus);
+            }
+        }
+        return events.stream()
+                .map(event -> new Step(event, event.getDuration()
+                        .minus(childTime.getOrDefault(event.getStartupStep().getId(), Duration.ZERO))))
+                .sorted(Comparator.comparing((Step step) -> step.ownTime).reversed())
+                .limit(limit)
+                .map(Step::toString)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static final class Step {
+
+        private final StartupTimeline.TimelineEvent event;
+        private final Duration ownTime;
+
+        Step(StartupTimeline.TimelineEvent event, Duration ownTime) {
+            this.event = event;
+            this.ownTime = ownTime;
+        }
+
+        @Override
+        public String toString() {
+            StartupStep step = event.getStartupStep();
+            String tags = StreamSupport.stream(step.getTags().spliterator(), false)
+                    .map(tag -> tag.getKey() + "=" + tag.getValue())
+                    .collect(Collectors.joining(", "));
+            return String.format("%8d ms own %8d ms total  %s%s", ownTime.toMillis(), event.getDuration().toMillis(),
+                    step.getName(), tags.isEmpty() ? "" : " [" + tags + "]");
+        }
+    }
+}
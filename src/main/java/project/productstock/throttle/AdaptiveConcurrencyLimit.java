@@ -0,0 +1,119 @@
+package project.productstock.throttle;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit that follows measured latency (a gradient limiter). Every window it compares the average
+ * latency with the lowest latency seen so far: while they stay close it grows the limit by about its square root,
+ * and once requests start queueing, and latency rises with them, it shrinks the limit in proportion. Requests over
+ * the limit are shed right away instead of waiting for a worker or a connection.
+ * <p>
+ * Acquiring is a CAS on the in-flight count; latencies go to striped adders, and only the thread that closes a
+ * window recomputes the limit.
+ */
+class AdaptiveConcurrencyLimit {
+
+    static final long WINDOW_NANOS = 100_000_000;
+
+    /**
+     * Latency may reach this multiple of the lowest one before the limit shrinks.
+     */
+    private static final double LATENCY_TOLERANCE = 2.0;
+
+    private static final double SMOOTHING = 0.2;
+
+    /**
+     * The lowest latency is forgotten every this many windows, so a lasting change in the baseline is picked up.
+     */
+    private static final int WINDOWS_PER_BASELINE = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder windowLatencyNanos = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final AtomicLong windowEnd;
+
+    private volatile int limit;
+    private volatile int peakInFlight;
+    private long baselineLatencyNanos = Long.MAX_VALUE;
+    private int windows;
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long nowNanos) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, initialLimit));
+        this.windowEnd = new AtomicLong(nowNanos + WINDOW_NANOS);
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                if (current + 1 > peakInFlight) {
+                    peakInFlight = current + 1;
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a slot without a latency sample, for requests whose duration says nothing about load.
+     */
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    void release(long latencyNanos, long nowNanos) {
+        inFlight.decrementAndGet();
+        windowLatencyNanos.add(latencyNanos);
+        windowSamples.increment();
+        long end = windowEnd.get();
+        if (nowNanos >= end && windowEnd.compareAndSet(end, nowNanos + WINDOW_NANOS)) {
+            update();
+        }
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Only the thread that won the window's CAS gets here, so the fields below are never updated concurrently.
+     */
+    private void update() {
+        long samples = windowSamples.sumThenReset();
+        long latencyNanos = windowLatencyNanos.sumThenReset();
+        int peak = peakInFlight;
+        peakInFlight = inFlight.get();
+        if (samples == 0) {
+            return;
+        }
+        long averageNanos = Math.max(1, latencyNanos / samples);
+        if (++windows % WINDOWS_PER_BASELINE == 0) {
+            baselineLatencyNanos = averageNanos;
+        }
+        baselineLatencyNanos = Math.min(baselineLatencyNanos, averageNanos);
+
+        int current = limit;
+        double gradient = Math.max(0.5, Math.min(1.0, LATENCY_TOLERANCE * baselineLatencyNanos / averageNanos));
+        double target = current * gradient + Math.sqrt(current);
+        if (target > current && peak < current / 2) {
+            // the limit was not what held requests back; growing it would only let it drift upwards unchecked
+            return;
+        }
+        double smoothed = current * (1 - SMOOTHING) + target * SMOOTHING;
+        long next = (long) (target > current ? Math.ceil(smoothed) : Math.floor(smoothed));
+        limit = (int) Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
@@ -0,0 +1,22 @@
+package project.productstock.throttle;
+
+/**
+ * Groups endpoints that share a rate budget and a concurrency limit.
+ */
+public enum ThrottleBudget {
+
+    /**
+     * Single-product reads and writes.
+     */
+    STANDARD,
+
+    /**
+     * Whole-catalogue reads and bulk writes, which hold a connection and a worker far longer than a lookup.
+     */
+    BULK,
+
+    /**
+     * Long-lived event streams; rate limited only, since a subscription holds its connection by design.
+     */
+    SUBSCRIPTION
+}
@@ -0,0 +1,223 @@
+package project.productstock.throttle;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.security.Principal;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Rate limits each client per {@link ThrottleBudget} with a {@link TokenBucket} (429 Too Many Requests), then sheds
+ * load over the budget's {@link AdaptiveConcurrencyLimit} (503 Service Unavailable); both answers carry
+ * {@code Retry-After}. Handler methods pick their budget with {@link Throttled}. Checks run in that order, so a
+ * client over its rate never takes a concurrency slot from the others.
+ * <p>
+ * Clients are told apart by authenticated principal, by {@code product.throttle.client-header} when a
+ * {@code product.throttle.trusted-proxies} gateway sets it, or else by remote address.
+ * <p>
+ * Refusals are written straight to the response rather than thrown: going through {@code sendError} would dispatch
+ * to the error page and render a body for every refused request, which is exactly the work shedding should avoid.
+ */
+public class ThrottleInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = ThrottleInterceptor.class.getName() + ".permit";
+    private static final long OVERLOADED_RETRY_AFTER_SECONDS = 1;
+
+    private final ThrottleProperties properties;
+    private final Cache<String, TokenBucket> buckets;
+    private final Map<ThrottleBudget, BudgetState> budgets = new EnumMap<>(ThrottleBudget.class);
+
+    public ThrottleInterceptor(ThrottleProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxClients())
+                .expireAfterAccess(properties.getIdleClientExpiry())
+                .build();
+        long now = System.nanoTime();
+        for (ThrottleBudget budget : ThrottleBudget.values()) {
+            budgets.put(budget, new BudgetState(budget, properties.budget(budget), meterRegistry, now));
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC || !(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        BudgetState budget = budgets.get(budgetOf((HandlerMethod) handler));
+        String client = clientOf(request);
+        long now = System.nanoTime();
+        long waitNanos = buckets.get(client + '|' + budget.budget, key -> budget.newBucket(now)).tryAcquire(now);
+        if (waitNanos > 0) {
+            budget.rateLimited.increment();
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999));
+            return refuse(response, HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds);
+        }
+        if (budget.limit != null) {
+            if (!budget.limit.tryAcquire()) {
+                budget.shed.increment();
+                return refuse(response, HttpStatus.SERVICE_UNAVAILABLE, OVERLOADED_RETRY_AFTER_SECONDS);
+            }
+            request.setAttribute(PERMIT_ATTRIBUTE, new Permit(budget.limit, now));
+        }
+        return true;
+    }
+
+    /**
+     * Streaming responses keep their slot until the async request completes. Their duration is not fed back to the
+     * limit, since it follows the size of the catalogue rather than how loaded the service is.
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Permit permit = takePermit(request);
+        if (permit != null) {
+            request.getAsyncContext().addListener(permit);
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Permit permit = takePermit(request);
+        if (permit != null) {
+            permit.release(true);
+        }
+    }
+
+    private static boolean refuse(HttpServletResponse response, HttpStatus status, long retryAfterSeconds) {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return false;
+    }
+
+    private ThrottleBudget budgetOf(HandlerMethod handlerMethod) {
+        Throttled throttled = handlerMethod.getMethodAnnotation(Throttled.class);
+        return throttled == null ? ThrottleBudget.STANDARD : throttled.value();
+    }
+
+    /**
+     * Whom the bucket belongs to. A caller can change its headers on every request, so the client header is only
+     * believed when a trusted proxy sent it; the prefixes keep the three kinds of key from colliding.
+     */
+    private String clientOf(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "principal:" + principal.getName();
+        }
+        String remoteAddress = request.getRemoteAddr();
+        if (properties.getTrustedProxies().contains(remoteAddress)) {
+            String client = request.getHeader(properties.getClientHeader());
+            if (client != null && !client.isEmpty()) {
+                return "client:" + client;
+            }
+        }
+        return "address:" + remoteAddress;
+    }
+
+    private static Permit takePermit(HttpServletRequest request) {
+        Permit permit = (Permit) request.getAttribute(PERMIT_ATTRIBUTE);
+        if (permit != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+        }
+        return permit;
+    }
+
+    private static class BudgetState {
+
+        private final ThrottleBudget budget;
+        private final ThrottleProperties.Budget config;
+        private final AdaptiveConcurrencyLimit limit;
+        private final Counter rateLimited;
+        private final Counter shed;
+
+        BudgetState(ThrottleBudget budget, ThrottleProperties.Budget config, MeterRegistry meterRegistry, long now) {
+            this.budget = budget;
+            this.config = config;
+            this.limit = config.getInitialConcurrency() > 0
+                    ? new AdaptiveConcurrencyLimit(config.getInitialConcurrency(), config.getMinConcurrency(),
+                    config.getMaxConcurrency(), now)
+                    : null;
+            this.rateLimited = Counter.builder("http.server.requests.throttled")
+                    .description("Requests refused because the client exceeded its rate")
+                    .tag("budget", budget.name())
+                    .tag("reason", "rate")
+                    .register(meterRegistry);
+            this.shed = Counter.builder("http.server.requests.throttled")
+                    .description("Requests shed because the budget's concurrency limit was reached")
+                    .tag("budget", budget.name())
+                    .tag("reason", "concurrency")
+                    .register(meterRegistry);
+            if (limit != null) {
+                Gauge.builder("http.server.concurrency.limit", limit, AdaptiveConcurrencyLimit::limit)
+                        .description("Current adaptive concurrency limit")
+                        .tag("budget", budget.name())
+                        .register(meterRegistry);
+            }
+        }
+
+        TokenBucket newBucket(long now) {
+            return new TokenBucket(config.getRatePerSecond(), config.getBurst(), now);
+        }
+    }
+
+    /**
+     * A held concurrency slot, released exactly once.
+     */
+    private static class Permit implements AsyncListener {
+
+        private final AdaptiveConcurrencyLimit limit;
+        private final long startNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(AdaptiveConcurrencyLimit limit, long startNanos) {
+            this.limit = limit;
+            this.startNanos = startNanos;
+        }
+
+        void release(boolean sample) {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            if (sample) {
+                long now = System.nanoTime();
+                limit.release(now - startNanos, now);
+            } else {
+                limit.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release(false);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release(false);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release(false);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // the listener stays registered for the rest of the request
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package project.productstock.throttle;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "product.throttle")
+public class ThrottleProperties {
+
+    /**
+     * Rate limiting and load shedding in front of the API.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Header that identifies the client, honoured only on requests from {@link #trustedProxies}.
+     */
+    private String clientHeader = "X-Client-Id";
+
+    /**
+     * Remote addresses of the gateways allowed to name the client through {@link #clientHeader}. Every other request
+     * is keyed by its authenticated principal, or else its remote address, whatever headers it sends.
+     */
+    private Set<String> trustedProxies = new HashSet<>();
+
+    /**
+     * Per-client buckets kept at once; the least recently used ones are dropped first.
+     */
+    private long maxClients = 100_000;
+
+    private Duration idleClientExpiry = Duration.ofMinutes(10);
+
+    private Budget standard = new Budget(200, 400, 32, 4, 256);
+
+    private Budget bulk = new Budget(1, 5, 4, 1, 16);
+
+    private Budget subscription = new Budget(1, 5, 0, 0, 0);
+
+    public Budget budget(ThrottleBudget budget) {
+        switch (budget) {
+            case BULK:
+                return bulk;
+            case SUBSCRIPTION:
+                return subscription;
+            default:
+                return standard;
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Budget {
+
+        /**
+         * Sustained requests per second allowed to each client.
+         */
+        private double ratePerSecond;
+
+        /**
+         * Requests a client may send back to back after being idle.
+         */
+        private int burst;
+
+        /**
+         * Starting point of the adaptive concurrency limit shared by every client; 0 turns it off.
+         */
+        private int initialConcurrency;
+
+        private int minConcurrency;
+
+        private int maxConcurrency;
+    }
+}
@@ -0,0 +1,18 @@
+package project.productstock.throttle;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Puts a handler method on a {@link ThrottleBudget} other than {@link ThrottleBudget#STANDARD}.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Throttled {
+
+    ThrottleBudget value();
+}
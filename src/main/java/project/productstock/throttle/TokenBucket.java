@@ -0,0 +1,40 @@
+package project.productstock.throttle;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket kept as a single timestamp (the generic cell rate algorithm): the time at which the bucket would be
+ * full again. Taking a token pushes it one emission interval further, and a request is refused while that would
+ * put it more than {@code burst} intervals ahead of now. One CAS per request, no lock and no refill thread.
+ */
+class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    TokenBucket(double ratePerSecond, int burst, long nowNanos) {
+        this.emissionIntervalNanos = Math.max(1, Math.round(1_000_000_000 / ratePerSecond));
+        this.burstNanos = emissionIntervalNanos * Math.max(1, burst);
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @return 0 when the token was taken, otherwise how long until one is available
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + emissionIntervalNanos;
+            long excessNanos = next - nowNanos - burstNanos;
+            if (excessNanos > 0) {
+                return excessNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package project.productstock.warehouse;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "product.warehouses")
+public class WarehouseProperties {
+
+    /**
+     * Warehouse whose stock is the product's own quantity and max, i.e. what a single-warehouse deployment held.
+     */
+    private String home = "HOME";
+}
@@ -0,0 +1,163 @@
+package project.productstock.warehouse;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import project.productstock.dto.LocationStockDTO;
+import project.productstock.dto.StockTotalDTO;
+import project.productstock.entity.StockRollup;
+import project.productstock.entity.WarehouseStock;
+import project.productstock.entity.WarehouseStockId;
+import project.productstock.exception.HomeWarehouseException;
+import project.productstock.exception.ProductMaxStockExceededException;
+import project.productstock.exception.ProductNotFoundException;
+import project.productstock.exception.ProductOutOfStockException;
+import project.productstock.exception.WarehouseStockNotFoundException;
+import project.productstock.repository.ProductRepository;
+import project.productstock.repository.StockRollupRepository;
+import project.productstock.repository.WarehouseStockRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Stock a product holds at warehouses other than its home one. Every change updates the location's own row with a
+ * single conditional UPDATE and adds the difference to one {@link StockRollup} stripe in the same transaction, so
+ * busy warehouses do not queue behind each other, and a product's total is read from at most
+ * {@link #ROLLUP_STRIPES} rows rather than summed over all of its locations.
+ */
+@Service
+@RequiredArgsConstructor
+public class WarehouseStockService {
+
+    public static final int ROLLUP_STRIPES = 16;
+
+    private final WarehouseProperties properties;
+    private final WarehouseStockRepository warehouseStockRepository;
+    private final StockRollupRepository stockRollupRepository;
+    private final ProductRepository productRepository;
+
+    /**
+     * Creates or replaces a location. The product row stays locked until commit, so locations of one product are
+     * never created concurrently and its missing rollup stripes can be inserted without a race.
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public LocationStockDTO putLocation(Long productId, String warehouse, LocationStockDTO locationStockDTO)
+            throws HomeWarehouseException, ProductNotFoundException, ProductMaxStockExceededException {
+        checkNotHome(warehouse);
+        if (locationStockDTO.getQuantity() > locationStockDTO.getMax()) {
+            throw new ProductMaxStockExceededException(productId, locationStockDTO.getQuantity());
+        }
+        if (!productRepository.lockById(productId).isPresent()) {
+            throw new ProductNotFoundException(productId);
+        }
+        Optional<WarehouseStock> current = warehouseStockRepository.lock(productId, warehouse);
+        // read before saving: the save merges into the same managed instance
+        int previousMax = current.map(WarehouseStock::getMax).orElse(0);
+        int previousQuantity = current.map(WarehouseStock::getQuantity).orElse(0);
+        WarehouseStock location = warehouseStockRepository.save(
+                new WarehouseStock(productId, warehouse, locationStockDTO.getMax(), locationStockDTO.getQuantity()));
+        addToRollup(productId, warehouse, location.getMax() - previousMax, location.getQuantity() - previousQuantity);
+        return toDTO(location);
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    public LocationStockDTO increment(Long productId, String warehouse, int quantity)
+            throws HomeWarehouseException, WarehouseStockNotFoundException, ProductMaxStockExceededException {
+        checkNotHome(warehouse);
+        if (warehouseStockRepository.incrementQuantity(productId, warehouse, quantity) == 0) {
+            getLocation(productId, warehouse);
+            throw new ProductMaxStockExceededException(productId, quantity);
+        }
+        addToRollup(productId, warehouse, 0, quantity);
+        return toDTO(getLocation(productId, warehouse));
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    public LocationStockDTO decrement(Long productId, String warehouse, int quantity)
+            throws HomeWarehouseException, WarehouseStockNotFoundException, ProductOutOfStockException {
+        checkNotHome(warehouse);
+        if (warehouseStockRepository.decrementQuantity(productId, warehouse, quantity) == 0) {
+            getLocation(productId, warehouse);
+            throw new ProductOutOfStockException(productId, quantity);
+        }
+        addToRollup(productId, warehouse, 0, -quantity);
+        return toDTO(getLocation(productId, warehouse));
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    public void removeLocation(Long productId, String warehouse)
+            throws HomeWarehouseException, WarehouseStockNotFoundException {
+        checkNotHome(warehouse);
+        Optional<WarehouseStock> location = warehouseStockRepository.lock(productId, warehouse);
+        if (!location.isPresent()) {
+            throw new WarehouseStockNotFoundException(productId, warehouse);
+        }
+        warehouseStockRepository.delete(location.get());
+        addToRollup(productId, warehouse, -location.get().getMax(), -location.get().getQuantity());
+    }
+
+    /**
+     * Every location except the home one, by warehouse code.
+     */
+    public List<LocationStockDTO> locations(Long productId) {
+        return warehouseStockRepository.findByProductIdOrderByWarehouse(productId)
+                .stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Totals over every location except the home one, from the maintained rollup.
+     */
+    public StockTotalDTO total(Long productId) {
+        return stockRollupRepository.total(productId);
+    }
+
+    /**
+     * Drops every location of a product; runs inside the transaction that deletes it. That transaction loads none of
+     * the locations, so there is nothing to flush or evict from the persistence context first.
+     */
+    public void removeAll(Long productId) {
+        warehouseStockRepository.deleteByProductId(productId);
+        stockRollupRepository.deleteByProductId(productId);
+    }
+
+    public String homeWarehouse() {
+        return properties.getHome();
+    }
+
+    /**
+     * The rollup stripe a warehouse always adds into.
+     */
+    public static int stripe(String warehouse) {
+        return Math.floorMod(warehouse.hashCode(), ROLLUP_STRIPES);
+    }
+
+    private void addToRollup(Long productId, String warehouse, long max, long quantity) {
+        int stripe = stripe(warehouse);
+        if (stockRollupRepository.add(productId, stripe, max, quantity) == 0) {
+            // first location in this stripe; only reached from putLocation, which holds the product lock
+            stockRollupRepository.save(new StockRollup(productId, stripe, max, quantity));
+        }
+    }
+
+    private WarehouseStock getLocation(Long productId, String warehouse) throws WarehouseStockNotFoundException {
+        Optional<WarehouseStock> location = warehouseStockRepository.findById(new WarehouseStockId(productId, warehouse));
+        if (!location.isPresent()) {
+            throw new WarehouseStockNotFoundException(productId, warehouse);
+        }
+        return location.get();
+    }
+
+    private void checkNotHome(String warehouse) throws HomeWarehouseException {
+        if (properties.getHome().equals(warehouse)) {
+            throw new HomeWarehouseException(warehouse);
+        }
+    }
+
+    private LocationStockDTO toDTO(WarehouseStock location) {
+        return new LocationStockDTO(location.getWarehouse(), location.getMax(), location.getQuantity());
+    }
+}
@@ -1,13 +1,55 @@
 package project.productstock;
 
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.time.Duration;
 
 @SpringBootTest
 class ProductStockApplicationTests {
 
+	/**
+	 * From launch to the first successful product lookup in the faststart profile. Generous, since this JVM already
+	 * has the classes loaded but build agents share their cores; a cold start is measured by ProductStartupBenchmark.
+	 */
+	private static final Duration STARTUP_BUDGET = Duration.ofSeconds(20);
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void whenStartedInFastStartModeThenTheFirstLookupSucceedsWithinTheStartupBudget() throws Exception {
+		// given
+		long start = System.nanoTime();
+
+		// when
+		int status;
+		Duration elapsed;
+		try (ConfigurableApplicationContext context = ProductStockApplication.application()
+				.profiles("faststart")
+				.properties("server.port=0", "spring.main.banner-mode=off")
+				.run("--spring.datasource.url=jdbc:h2:mem:startup-budget")) {
+			context.getBean(JdbcTemplate.class).update(
+					"insert into product (id, code, description, max, quantity, version) values (next value for product_sequence, ?, ?, ?, ?, 0)",
+					"BUDGET1", "Startup budget product", 100, 10);
+			int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+			HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/api/v1/products/BUDGET1")
+					.openConnection();
+			status = connection.getResponseCode();
+			elapsed = Duration.ofNanos(System.nanoTime() - start);
+		}
+
+		// then
+		MatcherAssert.assertThat(status, Matchers.is(200));
+		MatcherAssert.assertThat(elapsed, Matchers.lessThan(STARTUP_BUDGET));
+	}
+
 }
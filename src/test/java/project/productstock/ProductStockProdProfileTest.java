@@ -0,0 +1,64 @@
+package project.productstock;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import project.productstock.builder.ProductDTOBuilder;
+import project.productstock.dto.ProductDTO;
+import project.productstock.entity.Product;
+import project.productstock.repository.ProductRepository;
+import project.productstock.service.ProductService;
+
+import javax.persistence.EntityManagerFactory;
+import java.nio.file.Path;
+
+public class ProductStockProdProfileTest {
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void whenApplicationRestartsThenProductsAreStillThere() throws Exception {
+        ProductDTO created;
+        try (ConfigurableApplicationContext context = start()) {
+            created = context.getBean(ProductService.class).createProduct(ProductDTOBuilder.builder()
+                    .id(null)
+                    .build()
+                    .toProductDTO());
+        }
+
+        try (ConfigurableApplicationContext context = start()) {
+            MatcherAssert.assertThat(context.getBean(ProductService.class).getByCode(created.getCode()),
+                    Matchers.is(Matchers.equalTo(created)));
+        }
+    }
+
+    @Test
+    void whenProductIsLoadedByIdThenItIsNotKeptInTheSecondLevelCache() throws Exception {
+        try (ConfigurableApplicationContext context = start()) {
+            ProductDTO created = context.getBean(ProductService.class).createProduct(ProductDTOBuilder.builder()
+                    .id(null)
+                    .code("L2C0001")
+                    .build()
+                    .toProductDTO());
+            EntityManagerFactory entityManagerFactory = context.getBean(EntityManagerFactory.class);
+
+            context.getBean(ProductRepository.class).findById(created.getId());
+
+            MatcherAssert.assertThat(entityManagerFactory.getCache().contains(Product.class, created.getId()),
+                    Matchers.is(false));
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(ProductStockApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("prod")
+                .properties("spring.main.banner-mode=off")
+                .run("--product.data-dir=" + dataDir.toAbsolutePath());
+    }
+}
@@ -0,0 +1,131 @@
+package project.productstock.alert;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import project.productstock.builder.ProductDTOBuilder;
+import project.productstock.dto.LowStockEventDTO;
+import project.productstock.dto.LowStockEventType;
+import project.productstock.dto.ProductDTO;
+import project.productstock.exception.ProductMaxStockExceededException;
+import project.productstock.exception.ProductOutOfStockException;
+import project.productstock.service.ProductService;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Moves a handful of products back and forth across the low-stock threshold from many threads, then checks that the
+ * index, the database and a subscriber replaying only the published deltas all agree.
+ */
+@SpringBootTest
+public class LowStockIndexConcurrencyTest {
+
+    private static final int PRODUCTS = 8;
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 250;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private LowStockIndex lowStockIndex;
+
+    private final List<ProductDTO> products = new ArrayList<>();
+    private final Map<Long, ProductDTO> replayed = new ConcurrentHashMap<>();
+    private final Consumer<LowStockEventDTO> replayer = event -> {
+        if (event.getType() == LowStockEventType.LEFT) {
+            replayed.remove(event.getProduct().getId());
+        } else {
+            replayed.put(event.getProduct().getId(), event.getProduct());
+        }
+    };
+
+    @BeforeEach
+    void setUp() throws Exception {
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(productService.createProduct(ProductDTOBuilder.builder()
+                    .id(null)
+                    .code(String.format("LOW%04d", i))
+                    .max(40)
+                    .quantity(8)
+                    .build()
+                    .toProductDTO()));
+        }
+        products.stream().filter(lowStockIndex::isLow).forEach(product -> replayed.put(product.getId(), product));
+        lowStockIndex.addListener(replayer);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        lowStockIndex.removeListener(replayer);
+        for (ProductDTO product : products) {
+            productService.deleteById(product.getId(), null);
+        }
+    }
+
+    @Test
+    void whenProductsCrossTheThresholdConcurrentlyThenTheIndexMatchesTheDatabase() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    Long id = products.get(ThreadLocalRandom.current().nextInt(PRODUCTS)).getId();
+                    int quantity = ThreadLocalRandom.current().nextInt(1, 4);
+                    try {
+                        if (ThreadLocalRandom.current().nextBoolean()) {
+                            productService.increment(id, quantity, null);
+                        } else {
+                            productService.decrement(id, quantity, null);
+                        }
+                    } catch (ProductMaxStockExceededException | ProductOutOfStockException e) {
+                        // the conditional update refused it; nothing changed
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        Set<ProductDTO> expected = new TreeSet<>((a, b) -> a.getId().compareTo(b.getId()));
+        for (ProductDTO product : products) {
+            ProductDTO current = productService.getByCode(product.getCode());
+            if (lowStockIndex.isLow(current)) {
+                expected.add(current);
+            }
+        }
+        List<ProductDTO> indexed = lowStockIndex.snapshot().stream()
+                .filter(product -> product.getCode().startsWith("LOW"))
+                .collect(Collectors.toList());
+
+        MatcherAssert.assertThat(indexed, Matchers.is(Matchers.equalTo(new ArrayList<>(expected))));
+        MatcherAssert.assertThat(new HashSet<>(replayed.values()), Matchers.is(Matchers.equalTo(new HashSet<>(expected))));
+    }
+}
@@ -0,0 +1,122 @@
+package project.productstock.alert;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import project.productstock.builder.ProductDTOBuilder;
+import project.productstock.dto.LowStockEventDTO;
+import project.productstock.dto.LowStockEventType;
+import project.productstock.dto.ProductDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class LowStockIndexTest {
+
+    private final LowStockIndex lowStockIndex = new LowStockIndex(null, null, null, new LowStockProperties());
+    private final List<LowStockEventDTO> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lowStockIndex.addListener(events::add);
+    }
+
+    @Test
+    void whenQuantityCrossesTheThresholdThenOnlyTheTransitionsArePublished() {
+        // when
+        lowStockIndex.update(product(1L, 50));
+        lowStockIndex.update(product(1L, 9));
+        lowStockIndex.update(product(1L, 8));
+        lowStockIndex.update(product(1L, 8));
+        lowStockIndex.update(product(1L, 10));
+        lowStockIndex.update(product(1L, 40));
+
+        // then
+        MatcherAssert.assertThat(events.stream().map(LowStockEventDTO::getType).collect(Collectors.toList()),
+                Matchers.contains(LowStockEventType.ENTERED, LowStockEventType.UPDATED, LowStockEventType.LEFT));
+        MatcherAssert.assertThat(lowStockIndex.snapshot(), Matchers.is(Matchers.empty()));
+    }
+
+    @Test
+    void whenLowStockProductIsRemovedThenItLeavesTheIndex() {
+        // given
+        lowStockIndex.update(product(2L, 1));
+        lowStockIndex.update(product(1L, 0));
+
+        // when
+        lowStockIndex.remove(2L);
+        lowStockIndex.remove(3L);
+
+        // then
+        MatcherAssert.assertThat(lowStockIndex.snapshot().stream().map(ProductDTO::getId).collect(Collectors.toList()),
+                Matchers.contains(1L));
+        MatcherAssert.assertThat(events.get(events.size() - 1),
+                Matchers.is(new LowStockEventDTO(LowStockEventType.LEFT, product(2L, 1))));
+    }
+
+    @Test
+    void whenWriteRollsBackThenNoEventIsPublished() {
+        // given
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            lowStockIndex.update(product(1L, 1));
+            lowStockIndex.update(product(2L, 2));
+
+            // when
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // then
+        MatcherAssert.assertThat(events, Matchers.is(Matchers.empty()));
+        MatcherAssert.assertThat(lowStockIndex.snapshot(), Matchers.is(Matchers.empty()));
+    }
+
+    @Test
+    void whenAnOlderVersionArrivesLateThenItIsIgnored() {
+        // when
+        lowStockIndex.update(product(1L, 5).toBuilder().version(3L).build());
+        lowStockIndex.update(product(1L, 8).toBuilder().version(2L).build());
+
+        // then
+        MatcherAssert.assertThat(lowStockIndex.snapshot().get(0).getQuantity(), Matchers.is(5));
+        MatcherAssert.assertThat(events.stream().map(LowStockEventDTO::getType).collect(Collectors.toList()),
+                Matchers.contains(LowStockEventType.ENTERED));
+    }
+
+    @Test
+    void whenAnOlderLowVersionArrivesAfterANewerOneThatIsNotLowThenItIsIgnored() {
+        // when
+        lowStockIndex.update(product(1L, 40).toBuilder().version(2L).build());
+        lowStockIndex.update(product(1L, 5).toBuilder().version(1L).build());
+
+        // then
+        MatcherAssert.assertThat(lowStockIndex.snapshot(), Matchers.is(Matchers.empty()));
+        MatcherAssert.assertThat(events, Matchers.is(Matchers.empty()));
+    }
+
+    @Test
+    void whenAnUpdateArrivesAfterTheProductWasRemovedThenItIsIgnored() {
+        // given
+        lowStockIndex.update(product(1L, 5).toBuilder().version(1L).build());
+
+        // when
+        lowStockIndex.remove(1L);
+        lowStockIndex.update(product(1L, 4).toBuilder().version(2L).build());
+
+        // then
+        MatcherAssert.assertThat(lowStockIndex.snapshot(), Matchers.is(Matchers.empty()));
+        MatcherAssert.assertThat(events.stream().map(LowStockEventDTO::getType).collect(Collectors.toList()),
+                Matchers.contains(LowStockEventType.ENTERED, LowStockEventType.LEFT));
+    }
+
+    private static ProductDTO product(Long id, int quantity) {
+        return ProductDTOBuilder.builder().id(id).max(50).quantity(quantity).build().toProductDTO();
+    }
+}
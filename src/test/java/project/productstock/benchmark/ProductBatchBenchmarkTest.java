@@ -0,0 +1,70 @@
+package project.productstock.benchmark;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import project.productstock.dto.ProductDTO;
+import project.productstock.service.ProductBatchService;
+import project.productstock.service.ProductService;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Loads the same products through {@link ProductService#createProduct} one by one and through
+ * {@link ProductBatchService} and prints the throughput of both paths.
+ * Run with {@code mvn test -Dtest=ProductBatchBenchmarkTest -Dbenchmark.items=100000}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark.items", matches = "\\d+")
+public class ProductBatchBenchmarkTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductBatchService productBatchService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void whenProductsAreLoadedInBatchThenThroughputBeatsTheSingleItemPath() throws Exception {
+        int items = Integer.getInteger("benchmark.items");
+
+        jdbcTemplate.update("delete from product");
+        List<ProductDTO> singleItemLoad = products("S", items);
+        long start = System.nanoTime();
+        for (ProductDTO productDTO : singleItemLoad) {
+            productService.createProduct(productDTO);
+        }
+        double singleItemPerSecond = items / ((System.nanoTime() - start) / 1_000_000_000.0);
+
+        jdbcTemplate.update("delete from product");
+        List<ProductDTO> batchLoad = products("B", items);
+        start = System.nanoTime();
+        productBatchService.upsertAll(batchLoad.iterator(), result -> { });
+        double batchPerSecond = items / ((System.nanoTime() - start) / 1_000_000_000.0);
+
+        System.out.printf("single-item: %.0f items/sec, batch: %.0f items/sec (%.1fx)%n",
+                singleItemPerSecond, batchPerSecond, batchPerSecond / singleItemPerSecond);
+        MatcherAssert.assertThat(jdbcTemplate.queryForObject("select count(*) from product", Integer.class), Matchers.is(items));
+        MatcherAssert.assertThat(batchPerSecond, Matchers.greaterThan(singleItemPerSecond));
+    }
+
+    private static List<ProductDTO> products(String prefix, int items) {
+        return IntStream.range(0, items)
+                .mapToObj(i -> ProductDTO.builder()
+                        .code(String.format("%s%06d", prefix, i))
+                        .description("Benchmark product " + i)
+                        .max(500)
+                        .quantity(i % 500)
+                        .build())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,75 @@
+package project.productstock.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import project.productstock.dto.ProductDTO;
+import project.productstock.service.ProductBatchService;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Measures p50/p99 latency of {@code GET /api/v1/products/{code}}. Run once per cache mode and compare:
+ * {@code mvn test -Dtest=ProductCacheBenchmarkTest -Dbenchmark.lookups=100000 -Dproduct.cache.enabled=false}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@EnabledIfSystemProperty(named = "benchmark.lookups", matches = "\\d+")
+public class ProductCacheBenchmarkTest {
+
+    private static final int PRODUCTS = 10_000;
+    private static final int WARMUP_LOOKUPS = 20_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductBatchService productBatchService;
+
+    @Value("${product.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Test
+    void whenProductsAreLookedUpByCodeThenLatencyPercentilesAreReported() throws Exception {
+        int lookups = Integer.getInteger("benchmark.lookups");
+        List<ProductDTO> productDTOs = IntStream.range(0, PRODUCTS)
+                .mapToObj(i -> ProductDTO.builder()
+                        .code(String.format("C%06d", i))
+                        .description("Cached product " + i)
+                        .max(500)
+                        .quantity(i % 500)
+                        .build())
+                .collect(Collectors.toList());
+        productBatchService.upsertAll(productDTOs.iterator(), result -> { });
+
+        lookup(WARMUP_LOOKUPS);
+        long[] latencies = lookup(lookups);
+        Arrays.sort(latencies);
+
+        System.out.printf("cache %s: p50 %d us, p99 %d us over %d lookups%n", cacheEnabled ? "on" : "off",
+                latencies[lookups / 2] / 1000, latencies[(int) (lookups * 0.99)] / 1000, lookups);
+    }
+
+    private long[] lookup(int lookups) throws Exception {
+        long[] latencies = new long[lookups];
+        for (int i = 0; i < lookups; i++) {
+            String code = String.format("C%06d", ThreadLocalRandom.current().nextInt(PRODUCTS));
+            long start = System.nanoTime();
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/products/" + code).accept(MediaType.APPLICATION_JSON))
+                    .andExpect(MockMvcResultMatchers.status().isOk());
+            latencies[i] = System.nanoTime() - start;
+        }
+        return latencies;
+    }
+}
@@ -0,0 +1,110 @@
+package project.productstock.benchmark;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams a seeded catalogue over real HTTP and checks that peak heap usage does not grow with the
+ * number of rows. Run with {@code mvn test -Dtest=ProductStreamingBenchmarkTest -Dbenchmark.rows=1000000}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "benchmark.rows", matches = "\\d+")
+public class ProductStreamingBenchmarkTest {
+
+    private static final int INSERT_BATCH_SIZE = 10_000;
+    private static final String INSERT_PRODUCT_SQL =
+            "insert into product (id, code, description, max, quantity) values (next value for product_sequence, ?, ?, ?, ?)";
+    private static final long MAX_HEAP_GROWTH_BYTES = 256L * 1024 * 1024;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void whenCatalogueIsStreamedThenPeakHeapStaysBounded() throws Exception {
+        int rows = Integer.getInteger("benchmark.rows");
+        seed(rows);
+
+        System.gc();
+        long baseline = heapUsed();
+        resetPeakHeap();
+
+        long start = System.nanoTime();
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/api/v1/products/stream").openConnection();
+        connection.setRequestProperty("Accept", "application/x-ndjson");
+        long lines = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            while (reader.readLine() != null) {
+                lines++;
+            }
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        long peakGrowth = peakHeap() - baseline;
+
+        System.out.printf("streamed %d rows in %d ms, peak heap growth %d MB%n", lines, elapsedMillis, peakGrowth / (1024 * 1024));
+        MatcherAssert.assertThat(lines, Matchers.is((long) rows));
+        MatcherAssert.assertThat(peakGrowth, Matchers.lessThan(MAX_HEAP_GROWTH_BYTES));
+    }
+
+    private void seed(int rows) {
+        jdbcTemplate.update("delete from product");
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[]{String.format("B%06d", i), "Benchmark product " + i, 500, i % 500});
+            if (batch.size() == INSERT_BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(INSERT_PRODUCT_SQL, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_PRODUCT_SQL, batch);
+        }
+    }
+
+    private static long heapUsed() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                used += pool.getUsage().getUsed();
+            }
+        }
+        return used;
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package project.productstock.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import project.productstock.alert.LowStockIndex;
+import project.productstock.controller.ProductController;
+import project.productstock.dto.ImportSummaryDTO;
+import project.productstock.search.DescriptionIndex;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exports a seeded catalogue as CSV over real HTTP and imports the file back, checking that the live heap does
+ * not grow with the number of rows in either direction. The re-import updates the same products, so the in-memory
+ * indexes keep their size and any growth would come from the pipeline itself. At millions of rows, point the
+ * datasource at a file so the database stays off the heap:
+ * {@code mvn test -Dtest=ProductTransferBenchmarkTest -Dbenchmark.transfer.rows=5000000 -DargLine=-Xmx4g
+ * -Dspring.datasource.url=jdbc:h2:file:/tmp/transfer/products -Dspring.jpa.hibernate.ddl-auto=create}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "benchmark.transfer.rows", matches = "\\d+")
+public class ProductTransferBenchmarkTest {
+
+    private static final int INSERT_BATCH_SIZE = 10_000;
+    private static final String INSERT_PRODUCT_SQL =
+            "insert into product (id, code, description, max, quantity, version) values (next value for product_sequence, ?, ?, ?, ?, 0)";
+    private static final long MAX_HEAP_GROWTH_BYTES = 256L * 1024 * 1024;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DescriptionIndex descriptionIndex;
+
+    @Autowired
+    private LowStockIndex lowStockIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @TempDir
+    Path exportDir;
+
+    @Test
+    void whenCatalogueMakesARoundTripThenPeakHeapStaysBounded() throws Exception {
+        int rows = Integer.getInteger("benchmark.transfer.rows");
+        seed(rows);
+        descriptionIndex.rebuild();
+        lowStockIndex.rebuild();
+        Path export = exportDir.resolve("products.csv");
+
+        System.gc();
+        long baseline = heapUsed();
+        LiveHeapTracker liveHeap = new LiveHeapTracker();
+
+        long start = System.nanoTime();
+        HttpURLConnection exportConnection = open("/export");
+        exportConnection.setRequestProperty("Accept", ProductController.TEXT_CSV_VALUE);
+        try (InputStream body = exportConnection.getInputStream()) {
+            Files.copy(body, export);
+        }
+        long exportMillis = (System.nanoTime() - start) / 1_000_000;
+        long exportPeakGrowth = liveHeap.peak() - baseline;
+
+        System.gc();
+        baseline = heapUsed();
+        liveHeap.reset();
+
+        HttpURLConnection importConnection = open("/import");
+        importConnection.setRequestMethod("POST");
+        importConnection.setDoOutput(true);
+        importConnection.setChunkedStreamingMode(64 * 1024);
+        importConnection.setRequestProperty("Content-Type", ProductController.TEXT_CSV_VALUE);
+        try (OutputStream body = importConnection.getOutputStream()) {
+            Files.copy(export, body);
+        }
+        ImportSummaryDTO summary;
+        try (InputStream body = importConnection.getInputStream()) {
+            summary = objectMapper.readValue(body, ImportSummaryDTO.class);
+        }
+        long importPeakGrowth = liveHeap.peak() - baseline;
+        liveHeap.close();
+
+        System.out.printf("exported %d rows in %d ms (%d rows/s), peak live heap growth %d MB%n", rows, exportMillis,
+                rows * 1000L / Math.max(1, exportMillis), exportPeakGrowth / (1024 * 1024));
+        System.out.printf("imported %d rows in %d ms (%.0f rows/s), peak live heap growth %d MB%n", summary.getRows(),
+                summary.getElapsedMillis(), summary.getRowsPerSecond(), importPeakGrowth / (1024 * 1024));
+        MatcherAssert.assertThat(countLines(export), Matchers.is((long) rows + 1));
+        MatcherAssert.assertThat(summary.getUpdated(), Matchers.is((long) rows));
+        MatcherAssert.assertThat(exportPeakGrowth, Matchers.lessThan(MAX_HEAP_GROWTH_BYTES));
+        MatcherAssert.assertThat(importPeakGrowth, Matchers.lessThan(MAX_HEAP_GROWTH_BYTES));
+    }
+
+    private HttpURLConnection open(String path) throws Exception {
+        return (HttpURLConnection) new URL("http://localhost:" + port + "/api/v1/products" + path).openConnection();
+    }
+
+    private void seed(int rows) {
+        jdbcTemplate.update("delete from product");
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[]{String.format("T%6s", Integer.toString(i, 36)).replace(' ', '0'), "Transfer product " + (i % 1000), 500, 100 + i % 400});
+            if (batch.size() == INSERT_BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(INSERT_PRODUCT_SQL, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_PRODUCT_SQL, batch);
+        }
+    }
+
+    private static long countLines(Path file) throws Exception {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return reader.lines().count();
+        }
+    }
+
+    private static long heapUsed() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                used += pool.getUsage().getUsed();
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Highest heap usage seen right after a garbage collection. Unlike the pools' peak usage it leaves out the
+     * garbage a larger young generation lets pile up between collections, so it tracks what the run keeps alive.
+     */
+    private static class LiveHeapTracker implements NotificationListener, AutoCloseable {
+
+        private final Set<String> heapPools = new HashSet<>();
+        private final AtomicLong peak = new AtomicLong();
+
+        LiveHeapTracker() {
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    heapPools.add(pool.getName());
+                }
+            }
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                ((NotificationEmitter) collector).addNotificationListener(this, null, null);
+            }
+            reset();
+        }
+
+        @Override
+        public void handleNotification(Notification notification, Object handback) {
+            if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                return;
+            }
+            GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            long used = 0;
+            for (Map.Entry<String, MemoryUsage> pool : info.getGcInfo().getMemoryUsageAfterGc().entrySet()) {
+                if (heapPools.contains(pool.getKey())) {
+                    used += pool.getValue().getUsed();
+                }
+            }
+            peak.accumulateAndGet(used, Math::max);
+        }
+
+        long peak() {
+            return peak.get();
+        }
+
+        void reset() {
+            peak.set(heapUsed());
+        }
+
+        @Override
+        public void close() throws ListenerNotFoundException {
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                ((NotificationEmitter) collector).removeNotificationListener(this);
+            }
+        }
+    }
+}
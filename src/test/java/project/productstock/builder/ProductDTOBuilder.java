@@ -21,13 +21,17 @@ public class ProductDTOBuilder {
     @Builder.Default
     private Integer quantity = 10;
 
+    @Builder.Default
+    private Long version = 0L;
+
     public ProductDTO toProductDTO() {
         return new ProductDTO(
                 id,
                 code,
                 description,
                 max,
-                quantity
+                quantity,
+                version
         );
     }
 }
@@ -0,0 +1,104 @@
+package project.productstock.cache;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import project.productstock.builder.ProductDTOBuilder;
+import project.productstock.dto.CacheStatsDTO;
+import project.productstock.dto.ProductDTO;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+public class ProductCacheTest {
+
+    @Test
+    void whenCachedSnapshotIsModifiedThenTheCachedEntryIsUnaffected() {
+        // given
+        ProductCache productCache = new ProductCache(new ProductCacheProperties());
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+
+        // when
+        productCache.get(productDTO.getCode(), code -> Optional.of(productDTO)).get().setQuantity(0);
+        productDTO.setQuantity(0);
+
+        // then
+        ProductDTO cachedProductDTO = productCache.get(productDTO.getCode(), code -> Optional.empty()).get();
+        MatcherAssert.assertThat(cachedProductDTO.getQuantity(), Matchers.is(Matchers.equalTo(10)));
+    }
+
+    @Test
+    void whenLookupsHitAndMissThenStatsAreCounted() {
+        // given
+        ProductCache productCache = new ProductCache(new ProductCacheProperties());
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+
+        // when
+        productCache.get(productDTO.getCode(), code -> Optional.of(productDTO));
+        productCache.get(productDTO.getCode(), code -> Optional.of(productDTO));
+        productCache.get("UNKNOWN", code -> Optional.empty());
+        productCache.get("UNKNOWN", code -> Optional.empty());
+        CacheStatsDTO stats = productCache.stats();
+
+        // then
+        MatcherAssert.assertThat(stats.getHitCount(), Matchers.is(2L));
+        MatcherAssert.assertThat(stats.getMissCount(), Matchers.is(2L));
+        MatcherAssert.assertThat(stats.getNegativeHitCount(), Matchers.is(1L));
+    }
+
+    @Test
+    void whenCodesAreFetchedTogetherThenOnlyUncachedOnesAreLoaded() {
+        // given
+        ProductCache productCache = new ProductCache(new ProductCacheProperties());
+        ProductDTO cachedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        ProductDTO loadedProductDTO = ProductDTOBuilder.builder().id(2L).code("RWS0002").build().toProductDTO();
+        List<Set<String>> loads = new ArrayList<>();
+        Function<Set<String>, Map<String, Optional<ProductDTO>>> loader = codes -> {
+            loads.add(codes);
+            Map<String, Optional<ProductDTO>> loaded = new HashMap<>();
+            codes.forEach(code -> loaded.put(code,
+                    code.equals(loadedProductDTO.getCode()) ? Optional.of(loadedProductDTO) : Optional.empty()));
+            return loaded;
+        };
+
+        // when
+        productCache.get(cachedProductDTO.getCode(), code -> Optional.of(cachedProductDTO));
+        Set<String> codes = Set.of(cachedProductDTO.getCode(), loadedProductDTO.getCode(), "UNKNOWN");
+        Map<String, Optional<ProductDTO>> first = productCache.getAll(codes, loader);
+        Map<String, Optional<ProductDTO>> second = productCache.getAll(codes, loader);
+
+        // then
+        MatcherAssert.assertThat(loads, Matchers.contains(Set.of(loadedProductDTO.getCode(), "UNKNOWN")));
+        MatcherAssert.assertThat(first, Matchers.is(Matchers.equalTo(second)));
+        MatcherAssert.assertThat(first.get(cachedProductDTO.getCode()), Matchers.is(Optional.of(cachedProductDTO)));
+        MatcherAssert.assertThat(first.get("UNKNOWN"), Matchers.is(Optional.empty()));
+    }
+
+    @Test
+    void whenCacheIsDisabledThenEveryLookupGoesToTheLoader() {
+        // given
+        ProductCacheProperties properties = new ProductCacheProperties();
+        properties.setEnabled(false);
+        ProductCache productCache = new ProductCache(properties);
+        AtomicInteger loads = new AtomicInteger();
+
+        // when
+        productCache.get("RWS0001", code -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        productCache.get("RWS0001", code -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        // then
+        MatcherAssert.assertThat(loads.get(), Matchers.is(2));
+    }
+}
@@ -0,0 +1,202 @@
+package project.productstock.changes;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.productstock.builder.ProductDTOBuilder;
+import project.productstock.dto.ProductChangeDTO;
+import project.productstock.dto.ProductChangePageDTO;
+import project.productstock.dto.ProductChangeType;
+import project.productstock.dto.ProductDTO;
+import project.productstock.exception.ProductChangesExpiredException;
+import project.productstock.exception.ProductNotFoundException;
+import project.productstock.service.ProductService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@SpringBootTest(properties = "product.changes.cleanup-interval=1h")
+public class ProductChangeLogTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductChangeLog productChangeLog;
+
+    @Autowired
+    private ProductChangeProperties productChangeProperties;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<ProductDTO> products = new ArrayList<>();
+
+    private long since;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        since = productChangeLog.watermark();
+        for (int i = 1; i <= 3; i++) {
+            products.add(productService.createProduct(ProductDTOBuilder.builder()
+                    .id(null)
+                    .code("CHG000" + i)
+                    .build()
+                    .toProductDTO()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        productChangeProperties.setMaxEntries(new ProductChangeProperties().getMaxEntries());
+        productChangeProperties.setCompaction(false);
+        for (ProductDTO product : products) {
+            try {
+                productService.deleteById(product.getId(), null);
+            } catch (ProductNotFoundException e) {
+                // deleted by the test itself
+            }
+        }
+    }
+
+    @Test
+    void whenProductsChangeThenEveryChangeIsListedInOrder() throws Exception {
+        // given
+        ProductDTO product = products.get(0);
+
+        // when
+        productService.increment(product.getId(), 5, null);
+        productService.deleteById(product.getId(), null);
+        List<ProductChangeDTO> changes = changesOf(product, productChangeLog.changesSince(since, 100).getContent());
+
+        // then
+        MatcherAssert.assertThat(changes.stream().map(ProductChangeDTO::getType).collect(Collectors.toList()),
+                Matchers.contains(ProductChangeType.CREATED, ProductChangeType.UPDATED, ProductChangeType.DELETED));
+        MatcherAssert.assertThat(changes.get(1).getQuantity(), Matchers.is(15));
+        MatcherAssert.assertThat(changes.get(1).getVersion(), Matchers.is(1L));
+        MatcherAssert.assertThat(changes.get(1).getSeq(), Matchers.greaterThan(changes.get(0).getSeq()));
+    }
+
+    @Test
+    void whenChangesExceedThePageThenNextSinceResumesAfterTheLastOne() throws Exception {
+        // when
+        ProductChangePageDTO first = productChangeLog.changesSince(since, 2);
+        ProductChangePageDTO second = productChangeLog.changesSince(first.getNextSince(), 2);
+
+        // then
+        MatcherAssert.assertThat(first.getContent(), Matchers.hasSize(2));
+        MatcherAssert.assertThat(first.isHasMore(), Matchers.is(true));
+        MatcherAssert.assertThat(second.getContent(), Matchers.hasSize(1));
+        MatcherAssert.assertThat(second.isHasMore(), Matchers.is(false));
+        MatcherAssert.assertThat(second.getContent().get(0).getCode(), Matchers.is("CHG0003"));
+        MatcherAssert.assertThat(productChangeLog.changesSince(second.getNextSince(), 2).getNextSince(),
+                Matchers.is(second.getNextSince()));
+    }
+
+    @Test
+    void whenAnEarlierTransactionIsStillOpenThenLaterCommittedChangesStayHidden() throws Exception {
+        // given
+        since = productChangeLog.watermark();
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // when
+        Future<?> slowWriter = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            try {
+                productService.increment(products.get(0).getId(), 1, null);
+                recorded.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        recorded.await(10, TimeUnit.SECONDS);
+        productService.increment(products.get(1).getId(), 1, null);
+        ProductChangePageDTO whileOpen = productChangeLog.changesSince(since, 100);
+        release.countDown();
+        slowWriter.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+        ProductChangePageDTO afterCommit = productChangeLog.changesSince(since, 100);
+
+        // then
+        MatcherAssert.assertThat(whileOpen.getContent(), Matchers.is(Matchers.empty()));
+        MatcherAssert.assertThat(afterCommit.getContent().stream().map(ProductChangeDTO::getCode).collect(Collectors.toList()),
+                Matchers.contains("CHG0001", "CHG0002"));
+    }
+
+    @Test
+    void whenRetentionDropsUnreadChangesThenTheyAreReportedAsExpired() throws Exception {
+        // given
+        long lastSeq = productChangeLog.changesSince(since, 100).getNextSince();
+        productChangeProperties.setMaxEntries(1);
+
+        // when
+        productChangeLog.cleanUp();
+        ProductChangePageDTO latest = productChangeLog.changesSince(lastSeq - 1, 100);
+
+        // then
+        Assertions.assertThrows(ProductChangesExpiredException.class, () -> productChangeLog.changesSince(since, 100));
+        MatcherAssert.assertThat(latest.getContent().get(0).getCode(), Matchers.is("CHG0003"));
+    }
+
+    @Test
+    void whenCompactionIsEnabledThenOnlyTheLatestChangeOfEachProductIsKept() throws Exception {
+        // given
+        ProductDTO product = products.get(0);
+        productChangeProperties.setCompaction(true);
+
+        // when
+        productService.increment(product.getId(), 1, null);
+        productService.increment(product.getId(), 1, null);
+        productChangeLog.cleanUp();
+        List<ProductChangeDTO> changes = changesOf(product, productChangeLog.changesSince(since, 100).getContent());
+
+        // then
+        MatcherAssert.assertThat(changes, Matchers.hasSize(1));
+        MatcherAssert.assertThat(changes.get(0).getQuantity(), Matchers.is(12));
+        MatcherAssert.assertThat(changes.get(0).getVersion(), Matchers.is(2L));
+    }
+
+    @Test
+    void whenRestartedAfterCompactionThenOnlyRetentionDecidesWhatExpired() throws Exception {
+        // given
+        ProductDTO product = products.get(0);
+        productService.increment(product.getId(), 1, null);
+        productService.increment(product.getId(), 1, null);
+        long lastSeq = productChangeLog.changesSince(since, 100).getNextSince();
+        productChangeProperties.setMaxEntries(lastSeq - since);
+        productChangeProperties.setCompaction(true);
+        productChangeLog.cleanUp();
+
+        // when
+        productChangeLog.destroy();
+        productChangeLog.afterPropertiesSet();
+        ProductChangePageDTO page = productChangeLog.changesSince(since, 100);
+
+        // then
+        MatcherAssert.assertThat(page.getNextSince(), Matchers.is(lastSeq));
+        MatcherAssert.assertThat(changesOf(product, page.getContent()), Matchers.hasSize(1));
+        if (since > 0) {
+            Assertions.assertThrows(ProductChangesExpiredException.class, () -> productChangeLog.changesSince(since - 1, 100));
+        }
+    }
+
+    private static List<ProductChangeDTO> changesOf(ProductDTO product, List<ProductChangeDTO> changes) {
+        return changes.stream()
+                .filter(change -> change.getProductId().equals(product.getId()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,39 @@
+package project.productstock.config;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIf;
+import org.junit.jupiter.api.condition.EnabledIf;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class VirtualThreadConfigurationTest {
+
+    @Test
+    @DisabledIf("runtimeHasVirtualThreads")
+    void whenRuntimeHasNoVirtualThreadsThenVirtualModeFailsFast() {
+        IllegalStateException exception = Assertions.assertThrows(IllegalStateException.class,
+                VirtualThreadConfiguration::newVirtualThreadPerTaskExecutor);
+
+        MatcherAssert.assertThat(exception.getMessage(), Matchers.containsString("requires Java 21"));
+    }
+
+    @Test
+    @EnabledIf("runtimeHasVirtualThreads")
+    void whenRuntimeHasVirtualThreadsThenTasksRunOnThem() throws Exception {
+        ExecutorService executor = VirtualThreadConfiguration.newVirtualThreadPerTaskExecutor();
+
+        Boolean virtual = executor.submit(() -> (Boolean) Thread.class.getMethod("isVirtual").invoke(Thread.currentThread())).get();
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+
+        MatcherAssert.assertThat(virtual, Matchers.is(true));
+    }
+
+    static boolean runtimeHasVirtualThreads() {
+        return Runtime.version().feature() >= 21;
+    }
+}
@@ -0,0 +1,72 @@
+package project.productstock.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import project.productstock.alert.LowStockIndex;
+import project.productstock.alert.LowStockStream;
+import project.productstock.builder.ProductDTOBuilder;
+import project.productstock.dto.ProductDTO;
+
+import java.util.Collections;
+
+import static org.hamcrest.core.Is.is;
+
+@ExtendWith(MockitoExtension.class)
+public class LowStockControllerTest {
+
+    private static final String LOW_STOCK_API_URL_PATH = "/api/v1/products/low-stock";
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private LowStockIndex lowStockIndex;
+
+    @Mock
+    private LowStockStream lowStockStream;
+
+    @InjectMocks
+    private LowStockController lowStockController;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(lowStockController).build();
+    }
+
+    @Test
+    void whenGETIsCalledThenLowStockProductsAreReturned() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().quantity(1).build().toProductDTO();
+
+        // when
+        Mockito.when(lowStockIndex.snapshot()).thenReturn(Collections.singletonList(productDTO));
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.get(LOW_STOCK_API_URL_PATH))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].code", is(productDTO.getCode())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].quantity", is(1)));
+    }
+
+    @Test
+    void whenGETStreamIsCalledThenAnEventStreamIsOpened() throws Exception {
+        // when
+        Mockito.when(lowStockStream.subscribe(5000L)).thenReturn(new SseEmitter(5000L));
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.get(LOW_STOCK_API_URL_PATH + "/stream")
+                        .param("timeoutMillis", "5000")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted());
+    }
+}
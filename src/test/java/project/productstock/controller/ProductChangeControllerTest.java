@@ -0,0 +1,78 @@
+package project.productstock.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import project.productstock.changes.ProductChangeLog;
+import project.productstock.dto.ProductChangeDTO;
+import project.productstock.dto.ProductChangePageDTO;
+import project.productstock.dto.ProductChangeType;
+import project.productstock.exception.ProductChangesExpiredException;
+
+import java.util.Collections;
+
+import static org.hamcrest.core.Is.is;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductChangeControllerTest {
+
+    private static final String CHANGES_API_URL_PATH = "/api/v1/products/changes";
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private ProductChangeLog productChangeLog;
+
+    @InjectMocks
+    private ProductChangeController productChangeController;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(productChangeController).build();
+    }
+
+    @Test
+    void whenGETIsCalledWithSinceThenChangesAfterItAreReturned() throws Exception {
+        // given
+        ProductChangeDTO change = ProductChangeDTO.builder()
+                .seq(43L)
+                .type(ProductChangeType.UPDATED)
+                .productId(1L)
+                .code("RWS0001")
+                .quantity(12)
+                .version(3L)
+                .build();
+
+        // when
+        Mockito.when(productChangeLog.changesSince(42L, 100))
+                .thenReturn(new ProductChangePageDTO(Collections.singletonList(change), 43L, false));
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.get(CHANGES_API_URL_PATH)
+                        .param("since", "42")
+                        .param("limit", "100"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].type", is("UPDATED")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].quantity", is(12)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextSince", is(43)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.hasMore", is(false)));
+    }
+
+    @Test
+    void whenChangesAfterSinceWereDroppedThenGoneStatusIsReturned() throws Exception {
+        // when
+        Mockito.when(productChangeLog.changesSince(0L, 500)).thenThrow(new ProductChangesExpiredException(0L, 10L));
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.get(CHANGES_API_URL_PATH))
+                .andExpect(MockMvcResultMatchers.status().isGone());
+    }
+}
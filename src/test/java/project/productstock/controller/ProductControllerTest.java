@@ -1,5 +1,10 @@
 package project.productstock.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -7,20 +12,43 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.servlet.view.json.MappingJackson2JsonView;
 import project.productstock.builder.ProductDTOBuilder;
+import project.productstock.dto.BatchItemResultDTO;
+import project.productstock.dto.BatchItemStatus;
+import project.productstock.dto.ImportSummaryDTO;
 import project.productstock.dto.ProductDTO;
+import project.productstock.dto.ProductLookupDTO;
+import project.productstock.dto.ProductLookupResultDTO;
+import project.productstock.dto.ProductPageDTO;
+import project.productstock.dto.ProductSearchDTO;
+import project.productstock.dto.QuantityDTO;
+import project.productstock.dto.TransferFormat;
+import project.productstock.exception.ProductMaxStockExceededException;
 import project.productstock.exception.ProductNotFoundException;
+import project.productstock.exception.ProductVersionMismatchException;
+import project.productstock.service.ProductBatchService;
+import project.productstock.service.ProductSearchService;
 import project.productstock.service.ProductService;
+import project.productstock.service.ProductTransferService;
 
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.hamcrest.core.Is.is;
 
@@ -38,6 +66,18 @@ public class ProductControllerTest {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private ProductBatchService productBatchService;
+
+    @Mock
+    private ProductSearchService productSearchService;
+
+    @Mock
+    private ProductTransferService productTransferService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private ProductController productController;
 
@@ -125,6 +165,75 @@ public class ProductControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].description", is(productDTO.getDescription())));
     }
 
+    @Test
+    void whenGETIsCalledAcceptingCborThenTheProductIsEncodedAsCbor() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+
+        // when
+        Mockito.when(productService.getByCode(productDTO.getCode())).thenReturn(productDTO);
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/" + productDTO.getCode())
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        // then
+        MatcherAssert.assertThat(new CBORMapper().readValue(result.getResponse().getContentAsByteArray(), ProductDTO.class),
+                Matchers.is(Matchers.equalTo(productDTO)));
+    }
+
+    @Test
+    void whenGETListIsCalledAcceptingSmileThenProductsAreEncodedAsSmile() throws Exception {
+        // given
+        List<ProductDTO> productDTOs = List.of(
+                ProductDTOBuilder.builder().build().toProductDTO(),
+                ProductDTOBuilder.builder().id(2L).code("RWS0002").build().toProductDTO());
+
+        // when
+        Mockito.when(productService.listAll()).thenReturn(productDTOs);
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH)
+                        .accept(ProductController.APPLICATION_SMILE_VALUE))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(ProductController.APPLICATION_SMILE_VALUE))
+                .andReturn();
+
+        // then
+        List<ProductDTO> decoded = new SmileMapper().readValue(result.getResponse().getContentAsByteArray(),
+                new TypeReference<List<ProductDTO>>() { });
+        MatcherAssert.assertThat(decoded, Matchers.is(Matchers.equalTo(productDTOs)));
+        MatcherAssert.assertThat(result.getResponse().getContentAsByteArray().length,
+                Matchers.lessThan(asJsonString(productDTOs).length()));
+    }
+
+    @Test
+    void whenPOSTLookupIsCalledThenFoundProductsAndMissingCodesAreReturned() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        List<String> codes = List.of(productDTO.getCode(), "MISSING");
+
+        // when
+        Mockito.when(productService.lookupByCodes(codes))
+                .thenReturn(new ProductLookupResultDTO(List.of(productDTO), List.of("MISSING")));
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.post(PRODUCT_API_URL_PATH + "/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(new ProductLookupDTO(codes))))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.products[0].code", is(productDTO.getCode())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.missing[0]", is("MISSING")));
+    }
+
+    @Test
+    void whenPOSTLookupIsCalledWithoutCodesThenBadRequestStatusIsReturned() throws Exception {
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.post(PRODUCT_API_URL_PATH + "/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(new ProductLookupDTO(List.of()))))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
     @Test
     void whenGETListWithoutProductsIsCalledThenOkStatusIsReturned() throws Exception {
         // when
@@ -142,7 +251,7 @@ public class ProductControllerTest {
         ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
 
         // when
-        Mockito.doNothing().when(productService).deleteById(productDTO.getId());
+        Mockito.doNothing().when(productService).deleteById(productDTO.getId(), null);
 
         // then
         mockMvc.perform(MockMvcRequestBuilders.delete(PRODUCT_API_URL_PATH + "/" + productDTO.getId())
@@ -153,11 +262,365 @@ public class ProductControllerTest {
     @Test
     void whenDeleteIsCalledWithInvalidIdThenNotFoundStatusIsReturned() throws Exception {
         // when
-        Mockito.doThrow(ProductNotFoundException.class).when(productService).deleteById(INVALID_PRODUCT_ID);
+        Mockito.doThrow(ProductNotFoundException.class).when(productService).deleteById(INVALID_PRODUCT_ID, null);
 
         // then
         mockMvc.perform(MockMvcRequestBuilders.delete(PRODUCT_API_URL_PATH + "/" + INVALID_PRODUCT_ID)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.status().isNotFound());
     }
+
+    @Test
+    void whenGETListWithPageSizeIsCalledThenAKeysetPageIsReturned() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        ProductPageDTO productPageDTO = new ProductPageDTO(Collections.singletonList(productDTO), productDTO.getId());
+
+        // when
+        Mockito.when(productService.listPage(0L, 1)).thenReturn(productPageDTO);
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH)
+                        .param("afterId", "0")
+                        .param("size", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].code", is(productDTO.getCode())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextAfterId", is(productDTO.getId().intValue())));
+    }
+
+    @Test
+    void whenGETStreamIsCalledThenProductsAreWrittenAsNdjson() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+
+        // when
+        Mockito.doAnswer(invocation -> {
+            Consumer<ProductDTO> consumer = invocation.getArgument(0);
+            consumer.accept(productDTO);
+            consumer.accept(productDTO);
+            return null;
+        }).when(productService).streamAll(Mockito.any());
+
+        // then
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/stream")
+                        .accept(ProductController.APPLICATION_NDJSON_VALUE))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        String expectedLine = objectMapper.writeValueAsString(productDTO) + "\n";
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string(expectedLine + expectedLine));
+    }
+
+    @Test
+    void whenGETStreamIsCalledAcceptingJsonThenProductsAreWrittenAsAnArray() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+
+        // when
+        Mockito.doAnswer(invocation -> {
+            Consumer<ProductDTO> consumer = invocation.getArgument(0);
+            consumer.accept(productDTO);
+            return null;
+        }).when(productService).streamAll(Mockito.any());
+
+        // then
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/stream")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].code", is(productDTO.getCode())));
+    }
+
+    @Test
+    void whenCsvIsPostedToImportThenTheImportSummaryIsReturned() throws Exception {
+        // given
+        String csv = "code,description,max,quantity\nRWS0001,Mouse,50,10\n";
+        ImportSummaryDTO summary = ImportSummaryDTO.builder().rows(1).created(1).errors(Collections.emptyList()).build();
+
+        // when
+        Mockito.when(productTransferService.importProducts(Mockito.any(), Mockito.eq(TransferFormat.CSV))).thenReturn(summary);
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.post(PRODUCT_API_URL_PATH + "/import")
+                        .contentType(ProductController.TEXT_CSV_VALUE)
+                        .content(csv))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.created", is(1)));
+    }
+
+    @Test
+    void whenExportIsCalledAcceptingNdjsonThenTheCatalogueIsStreamedAsNdjson() throws Exception {
+        // when
+        Mockito.doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write("{}\n".getBytes());
+            return null;
+        }).when(productTransferService).exportProducts(Mockito.any(), Mockito.eq(TransferFormat.NDJSON));
+
+        // then
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/export")
+                        .accept(ProductController.APPLICATION_NDJSON_VALUE))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("Content-Type", ProductController.APPLICATION_NDJSON_VALUE))
+                .andExpect(MockMvcResultMatchers.content().string("{}\n"));
+    }
+
+    @Test
+    void whenPATCHIncrementIsCalledThenTheUpdatedProductIsReturned() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().quantity(15).build().toProductDTO();
+        QuantityDTO quantityDTO = new QuantityDTO(5);
+
+        // when
+        Mockito.when(productService.increment(VALID_PRODUCT_ID, quantityDTO.getQuantity(), null)).thenReturn(productDTO);
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.patch(PRODUCT_API_URL_PATH + "/" + VALID_PRODUCT_ID + "/increment")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(quantityDTO)))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.quantity", is(15)));
+    }
+
+    @Test
+    void whenPATCHIncrementExceedsMaxThenBadRequestStatusIsReturned() throws Exception {
+        // given
+        QuantityDTO quantityDTO = new QuantityDTO(100);
+
+        // when
+        Mockito.when(productService.increment(VALID_PRODUCT_ID, quantityDTO.getQuantity(), null))
+                .thenThrow(ProductMaxStockExceededException.class);
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.patch(PRODUCT_API_URL_PATH + "/" + VALID_PRODUCT_ID + "/increment")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(quantityDTO)))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void whenGETIsCalledThenTheProductIdAndVersionAreReturnedAsETag() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().version(3L).build().toProductDTO();
+
+        // when
+        Mockito.when(productService.getByCode(productDTO.getCode())).thenReturn(productDTO);
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/" + productDTO.getCode()))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "W/\"1-3\""));
+    }
+
+    @Test
+    void whenGETIsCalledWithMatchingIfNoneMatchThenNotModifiedStatusIsReturned() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().version(3L).build().toProductDTO();
+
+        // when
+        Mockito.when(productService.getByCode(productDTO.getCode())).thenReturn(productDTO);
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/" + productDTO.getCode())
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"1-3\""))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.content().string(""));
+    }
+
+    @Test
+    void whenGETListIsCalledWithMatchingIfNoneMatchThenNotModifiedStatusIsReturned() throws Exception {
+        // given
+        List<ProductDTO> productDTOs = Collections.singletonList(ProductDTOBuilder.builder().build().toProductDTO());
+
+        // when
+        Mockito.when(productService.listAll()).thenReturn(productDTOs);
+
+        // then
+        String eTag = mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(MockMvcResultMatchers.status().isNotModified());
+    }
+
+    @Test
+    void whenPATCHIncrementIsCalledWithIfMatchThenTheExpectedVersionIsPassedOn() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().quantity(15).version(4L).build().toProductDTO();
+        QuantityDTO quantityDTO = new QuantityDTO(5);
+
+        // when
+        Mockito.when(productService.increment(VALID_PRODUCT_ID, quantityDTO.getQuantity(), 3L)).thenReturn(productDTO);
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.patch(PRODUCT_API_URL_PATH + "/" + VALID_PRODUCT_ID + "/increment")
+                        .header(HttpHeaders.IF_MATCH, "\"1-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(quantityDTO)))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "W/\"1-4\""));
+    }
+
+    @Test
+    void whenIfMatchListsSeveralTagsThenTheOneOfThisProductIsPassedOn() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().quantity(15).version(4L).build().toProductDTO();
+        QuantityDTO quantityDTO = new QuantityDTO(5);
+
+        // when
+        Mockito.when(productService.increment(VALID_PRODUCT_ID, quantityDTO.getQuantity(), 3L)).thenReturn(productDTO);
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.patch(PRODUCT_API_URL_PATH + "/" + VALID_PRODUCT_ID + "/increment")
+                        .header(HttpHeaders.IF_MATCH, "W/\"" + INVALID_PRODUCT_ID + "-7\", W/\"1-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(quantityDTO)))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+
+    @Test
+    void whenIfMatchListsSeveralVersionsOfTheProductThenTheCurrentOneIsPassedOn() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().quantity(15).version(5L).build().toProductDTO();
+        QuantityDTO quantityDTO = new QuantityDTO(5);
+
+        // when
+        Mockito.when(productService.currentVersion(VALID_PRODUCT_ID)).thenReturn(Optional.of(4L));
+        Mockito.when(productService.increment(VALID_PRODUCT_ID, quantityDTO.getQuantity(), 4L)).thenReturn(productDTO);
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.patch(PRODUCT_API_URL_PATH + "/" + VALID_PRODUCT_ID + "/increment")
+                        .header(HttpHeaders.IF_MATCH, "W/\"1-3\", W/\"1-4\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(quantityDTO)))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "W/\"1-5\""));
+    }
+
+    @Test
+    void whenPATCHDecrementIsCalledWithStaleIfMatchThenPreconditionFailedStatusIsReturned() throws Exception {
+        // given
+        QuantityDTO quantityDTO = new QuantityDTO(1);
+
+        // when
+        Mockito.when(productService.decrement(VALID_PRODUCT_ID, quantityDTO.getQuantity(), 3L))
+                .thenThrow(ProductVersionMismatchException.class);
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.patch(PRODUCT_API_URL_PATH + "/" + VALID_PRODUCT_ID + "/decrement")
+                        .header(HttpHeaders.IF_MATCH, "W/\"1-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(quantityDTO)))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+    }
+
+    @Test
+    void whenDeleteIsCalledWithStaleIfMatchThenPreconditionFailedStatusIsReturned() throws Exception {
+        // when
+        Mockito.doThrow(ProductVersionMismatchException.class).when(productService).deleteById(VALID_PRODUCT_ID, 3L);
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.delete(PRODUCT_API_URL_PATH + "/" + VALID_PRODUCT_ID)
+                        .header(HttpHeaders.IF_MATCH, "\"1-3\""))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+    }
+
+    @Test
+    void whenDeleteIsCalledWithAnotherProductsTagThenPreconditionFailedStatusIsReturned() throws Exception {
+        // when
+        Mockito.doThrow(ProductVersionMismatchException.class).when(productService).deleteById(VALID_PRODUCT_ID, -1L);
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.delete(PRODUCT_API_URL_PATH + "/" + VALID_PRODUCT_ID)
+                        .header(HttpHeaders.IF_MATCH, "W/\"" + INVALID_PRODUCT_ID + "-3\""))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+    }
+
+    @Test
+    void whenPATCHDecrementIsCalledWithoutPositiveQuantityThenBadRequestStatusIsReturned() throws Exception {
+        // given
+        QuantityDTO quantityDTO = new QuantityDTO(0);
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.patch(PRODUCT_API_URL_PATH + "/" + VALID_PRODUCT_ID + "/decrement")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(quantityDTO)))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void whenPOSTBatchIsCalledWithJsonArrayThenPerItemResultsAreReturned() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        BatchItemResultDTO resultDTO = new BatchItemResultDTO(0, productDTO.getCode(), productDTO.getId(), BatchItemStatus.CREATED, null);
+
+        // when
+        Mockito.when(productBatchService.upsertAll(Mockito.any())).thenReturn(Collections.singletonList(resultDTO));
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.post(PRODUCT_API_URL_PATH + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(Collections.singletonList(productDTO))))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].code", is(productDTO.getCode())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status", is("CREATED")));
+    }
+
+    @Test
+    void whenPOSTBatchIsCalledWithNdjsonThenEveryLineIsUpserted() throws Exception {
+        // given
+        ProductDTO firstProductDTO = ProductDTOBuilder.builder().code("RWS0001").build().toProductDTO();
+        ProductDTO secondProductDTO = ProductDTOBuilder.builder().code("RWS0002").build().toProductDTO();
+        String ndjson = asJsonString(firstProductDTO) + "\n" + asJsonString(secondProductDTO) + "\n";
+
+        // when
+        Mockito.when(productBatchService.upsertAll(Mockito.any())).thenAnswer(invocation -> {
+            List<ProductDTO> productDTOs = new ArrayList<>();
+            invocation.<Iterator<ProductDTO>>getArgument(0).forEachRemaining(productDTOs::add);
+            MatcherAssert.assertThat(productDTOs, Matchers.contains(firstProductDTO, secondProductDTO));
+            return Collections.emptyList();
+        });
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.post(PRODUCT_API_URL_PATH + "/batch")
+                        .contentType(ProductController.APPLICATION_NDJSON_VALUE)
+                        .content(ndjson))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        Mockito.verify(productBatchService, Mockito.times(1)).upsertAll(Mockito.any());
+    }
+
+    @Test
+    void whenGETSearchIsCalledThenQueryParametersAreBoundToTheCriteria() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        ProductSearchDTO expectedCriteria = ProductSearchDTO.builder()
+                .q("wireless mouse")
+                .codePrefix("RWS")
+                .maxFillRatio(0.2)
+                .size(10)
+                .build();
+
+        // when
+        Mockito.when(productSearchService.search(expectedCriteria))
+                .thenReturn(new ProductPageDTO(Collections.singletonList(productDTO), null));
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/search")
+                        .param("q", "wireless mouse")
+                        .param("codePrefix", "RWS")
+                        .param("maxFillRatio", "0.2")
+                        .param("size", "10"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].code", is(productDTO.getCode())));
+    }
 }
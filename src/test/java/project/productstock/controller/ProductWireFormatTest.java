@@ -0,0 +1,135 @@
+package project.productstock.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import project.productstock.dto.ProductDTO;
+import project.productstock.service.ProductService;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Content negotiation and compression as a real client sees them, through the converters and Tomcat settings the
+ * application actually configures.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ProductWireFormatTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<ProductDTO> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            products.add(productService.createProduct(ProductDTO.builder()
+                    .code(String.format("WIR%04d", i))
+                    .description("Wire format product " + i)
+                    .max(50)
+                    .quantity(i)
+                    .build()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (ProductDTO product : products) {
+            productService.deleteById(product.getId(), null);
+        }
+    }
+
+    @Test
+    void whenClientAcceptsGzipThenLargeListsAreCompressed() throws Exception {
+        // when
+        HttpURLConnection connection = open("");
+        connection.setRequestProperty(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+        connection.setRequestProperty(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        List<ProductDTO> listed;
+        try (InputStream body = new GZIPInputStream(connection.getInputStream())) {
+            listed = objectMapper.readValue(body, new TypeReference<List<ProductDTO>>() { });
+        }
+
+        // then
+        MatcherAssert.assertThat(connection.getHeaderField(HttpHeaders.CONTENT_ENCODING), Matchers.is("gzip"));
+        MatcherAssert.assertThat(String.join(",", connection.getHeaderFields().get(HttpHeaders.VARY)),
+                Matchers.equalToIgnoringCase("Accept,Accept-Encoding"));
+        MatcherAssert.assertThat(listed, Matchers.hasItems(products.toArray(new ProductDTO[0])));
+    }
+
+    @Test
+    void whenClientDoesNotAcceptGzipThenTheBodyIsSentAsIs() throws Exception {
+        // when
+        HttpURLConnection connection = open("");
+        connection.setRequestProperty(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+        List<ProductDTO> listed;
+        try (InputStream body = connection.getInputStream()) {
+            listed = objectMapper.readValue(body, new TypeReference<List<ProductDTO>>() { });
+        }
+
+        // then
+        MatcherAssert.assertThat(connection.getHeaderField(HttpHeaders.CONTENT_ENCODING), Matchers.is(Matchers.nullValue()));
+        MatcherAssert.assertThat(listed, Matchers.hasItems(products.toArray(new ProductDTO[0])));
+    }
+
+    @Test
+    void whenProductIsPostedAsCborThenItCanBeReadBackAsSmile() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTO.builder().code("WIR9999").description("Posted as CBOR").max(40).quantity(4).build();
+
+        // when
+        HttpURLConnection post = open("");
+        post.setRequestMethod("POST");
+        post.setDoOutput(true);
+        post.setRequestProperty(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_CBOR_VALUE);
+        post.setRequestProperty(HttpHeaders.ACCEPT, MediaType.APPLICATION_CBOR_VALUE);
+        try (OutputStream body = post.getOutputStream()) {
+            body.write(new CBORMapper().writeValueAsBytes(productDTO));
+        }
+        ProductDTO created;
+        try (InputStream body = post.getInputStream()) {
+            created = new CBORMapper().readValue(body, ProductDTO.class);
+        }
+        products.add(created);
+
+        HttpURLConnection get = open("/" + productDTO.getCode());
+        get.setRequestProperty(HttpHeaders.ACCEPT, ProductController.APPLICATION_SMILE_VALUE);
+        ProductDTO read;
+        try (InputStream body = get.getInputStream()) {
+            read = new SmileMapper().readValue(body, ProductDTO.class);
+        }
+
+        // then
+        MatcherAssert.assertThat(post.getResponseCode(), Matchers.is(201));
+        MatcherAssert.assertThat(get.getContentType(), Matchers.is(ProductController.APPLICATION_SMILE_VALUE));
+        MatcherAssert.assertThat(read, Matchers.is(Matchers.equalTo(created)));
+        MatcherAssert.assertThat(read.getDescription(), Matchers.is("Posted as CBOR"));
+    }
+
+    private HttpURLConnection open(String path) throws Exception {
+        return (HttpURLConnection) new URL("http://localhost:" + port + "/api/v1/products" + path).openConnection();
+    }
+}
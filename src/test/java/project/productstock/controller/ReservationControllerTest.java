@@ -0,0 +1,118 @@
+package project.productstock.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import project.productstock.dto.ReservationDTO;
+import project.productstock.dto.ReservationRequestDTO;
+import project.productstock.dto.ReservationStatus;
+import project.productstock.exception.ProductOutOfStockException;
+import project.productstock.exception.ReservationNotHeldException;
+import project.productstock.reservation.ReservationService;
+
+import java.time.Instant;
+
+import static org.hamcrest.core.Is.is;
+import static project.productstock.utils.JsonConvertionUtils.asJsonString;
+
+@ExtendWith(MockitoExtension.class)
+public class ReservationControllerTest {
+
+    private static final String RESERVATIONS_API_URL_PATH = "/api/v1/products/RWS0001/reservations";
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private ReservationService reservationService;
+
+    @InjectMocks
+    private ReservationController reservationController;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(reservationController).build();
+    }
+
+    @Test
+    void whenPOSTIsCalledThenAHeldReservationIsCreated() throws Exception {
+        // given
+        ReservationRequestDTO request = ReservationRequestDTO.builder().quantity(3).build();
+
+        // when
+        Mockito.when(reservationService.reserve("RWS0001", request)).thenReturn(reservation(ReservationStatus.HELD));
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.post(RESERVATIONS_API_URL_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(request)))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id", is(7)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status", is("HELD")));
+    }
+
+    @Test
+    void whenPOSTIsCalledWithoutQuantityThenBadRequestStatusIsReturned() throws Exception {
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.post(RESERVATIONS_API_URL_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void whenPOSTIsCalledForMoreThanIsInStockThenBadRequestStatusIsReturned() throws Exception {
+        // given
+        ReservationRequestDTO request = ReservationRequestDTO.builder().quantity(300).build();
+
+        // when
+        Mockito.when(reservationService.reserve("RWS0001", request)).thenThrow(new ProductOutOfStockException(1L, 300));
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.post(RESERVATIONS_API_URL_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(request)))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void whenCommitIsCalledThenTheCommittedReservationIsReturned() throws Exception {
+        // when
+        Mockito.when(reservationService.commit("RWS0001", 7L)).thenReturn(reservation(ReservationStatus.COMMITTED));
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.post(RESERVATIONS_API_URL_PATH + "/7/commit"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status", is("COMMITTED")));
+    }
+
+    @Test
+    void whenReleaseIsCalledOnAnExpiredReservationThenConflictStatusIsReturned() throws Exception {
+        // when
+        Mockito.when(reservationService.release("RWS0001", 7L))
+                .thenThrow(new ReservationNotHeldException(7L, ReservationStatus.EXPIRED));
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.post(RESERVATIONS_API_URL_PATH + "/7/release"))
+                .andExpect(MockMvcResultMatchers.status().isConflict());
+    }
+
+    private static ReservationDTO reservation(ReservationStatus status) {
+        return ReservationDTO.builder()
+                .id(7L)
+                .productId(1L)
+                .code("RWS0001")
+                .quantity(3)
+                .status(status)
+                .expiresAt(Instant.parse("2022-01-01T10:05:00Z"))
+                .build();
+    }
+}
@@ -0,0 +1,127 @@
+package project.productstock.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import project.productstock.builder.ProductDTOBuilder;
+import project.productstock.dto.LocationStockDTO;
+import project.productstock.dto.ProductDTO;
+import project.productstock.dto.ProductStockDTO;
+import project.productstock.dto.QuantityDTO;
+import project.productstock.dto.StockTotalDTO;
+import project.productstock.exception.HomeWarehouseException;
+import project.productstock.exception.WarehouseStockNotFoundException;
+import project.productstock.service.ProductService;
+import project.productstock.warehouse.WarehouseStockService;
+
+import java.util.Arrays;
+
+import static org.hamcrest.core.Is.is;
+import static project.productstock.utils.JsonConvertionUtils.asJsonString;
+
+@ExtendWith(MockitoExtension.class)
+public class WarehouseStockControllerTest {
+
+    private static final String PRODUCT_API_URL_PATH = "/api/v1/products";
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private WarehouseStockService warehouseStockService;
+
+    @InjectMocks
+    private WarehouseStockController warehouseStockController;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(warehouseStockController).build();
+    }
+
+    @Test
+    void whenGETStockIsCalledThenEveryLocationAndTheTotalAreReturned() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        ProductStockDTO productStockDTO = new ProductStockDTO(productDTO, new StockTotalDTO(150, 50),
+                Arrays.asList(new LocationStockDTO("HOME", 50, 10), new LocationStockDTO("LIS", 100, 40)));
+
+        // when
+        Mockito.when(productService.getStockByCode(productDTO.getCode(), true)).thenReturn(productStockDTO);
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/" + productDTO.getCode() + "/stock"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.product.code", is(productDTO.getCode())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.total.quantity", is(50)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.locations[1].warehouse", is("LIS")));
+    }
+
+    @Test
+    void whenPUTIsCalledWithValidStockThenTheLocationIsReturned() throws Exception {
+        // given
+        LocationStockDTO locationStockDTO = new LocationStockDTO(null, 100, 40);
+
+        // when
+        Mockito.when(warehouseStockService.putLocation(1L, "LIS", locationStockDTO))
+                .thenReturn(new LocationStockDTO("LIS", 100, 40));
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.put(PRODUCT_API_URL_PATH + "/1/warehouses/LIS")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(locationStockDTO)))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.warehouse", is("LIS")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.quantity", is(40)));
+    }
+
+    @Test
+    void whenPUTIsCalledForTheHomeWarehouseThenBadRequestStatusIsReturned() throws Exception {
+        // given
+        LocationStockDTO locationStockDTO = new LocationStockDTO(null, 100, 40);
+
+        // when
+        Mockito.when(warehouseStockService.putLocation(1L, "HOME", locationStockDTO))
+                .thenThrow(new HomeWarehouseException("HOME"));
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.put(PRODUCT_API_URL_PATH + "/1/warehouses/HOME")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(locationStockDTO)))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void whenPATCHIncrementIsCalledForAMissingLocationThenNotFoundStatusIsReturned() throws Exception {
+        // given
+        QuantityDTO quantityDTO = QuantityDTO.builder().quantity(5).build();
+
+        // when
+        Mockito.when(warehouseStockService.increment(1L, "LIS", 5))
+                .thenThrow(new WarehouseStockNotFoundException(1L, "LIS"));
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.patch(PRODUCT_API_URL_PATH + "/1/warehouses/LIS/increment")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(quantityDTO)))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    void whenDELETEIsCalledThenNoContentStatusIsReturned() throws Exception {
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.delete(PRODUCT_API_URL_PATH + "/1/warehouses/LIS"))
+                .andExpect(MockMvcResultMatchers.status().isNoContent());
+        Mockito.verify(warehouseStockService).removeLocation(1L, "LIS");
+    }
+}
@@ -0,0 +1,237 @@
+package project.productstock.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import project.productstock.builder.ProductDTOBuilder;
+import project.productstock.controller.ProductController;
+import project.productstock.dto.ProductDTO;
+import project.productstock.exception.ProductAlreadyExistsException;
+import project.productstock.service.ProductBatchService;
+import project.productstock.service.ProductSearchService;
+import project.productstock.service.ProductService;
+import project.productstock.service.ProductTransferService;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static project.productstock.utils.JsonConvertionUtils.asJsonString;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyFilterTest {
+
+    private static final String PRODUCT_API_URL_PATH = "/api/v1/products";
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private ProductBatchService productBatchService;
+
+    @Mock
+    private ProductSearchService productSearchService;
+
+    @Mock
+    private ProductTransferService productTransferService;
+
+    private IdempotencyProperties properties;
+
+    private MockMvc mockMvc;
+
+    private final ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+
+    @BeforeEach
+    void setUp() {
+        properties = new IdempotencyProperties();
+        buildMockMvc();
+    }
+
+    private void buildMockMvc() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new ProductController(productService, productBatchService,
+                        productSearchService, productTransferService, new ObjectMapper()))
+                .addFilters(new IdempotencyFilter(properties, new SimpleMeterRegistry()))
+                .build();
+    }
+
+    @Test
+    void whenCreateIsRetriedWithTheSameKeyThenTheFirstResponseIsReplayed() throws Exception {
+        // given
+        Mockito.when(productService.createProduct(productDTO)).thenReturn(productDTO);
+        String first = mockMvc.perform(create("key-1", productDTO))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        // when
+        MvcResult retry = mockMvc.perform(create("key-1", productDTO)).andReturn();
+
+        // then
+        MatcherAssert.assertThat(retry.getResponse().getStatus(), Matchers.is(201));
+        MatcherAssert.assertThat(retry.getResponse().getContentAsString(), Matchers.is(first));
+        MatcherAssert.assertThat(retry.getResponse().getContentType(), Matchers.startsWith(MediaType.APPLICATION_JSON_VALUE));
+        MatcherAssert.assertThat(retry.getResponse().getHeader(IdempotencyFilter.REPLAYED_HEADER), Matchers.is("true"));
+        Mockito.verify(productService, Mockito.times(1)).createProduct(productDTO);
+    }
+
+    @Test
+    void whenKeyIsReusedWithAnotherBodyThenUnprocessableEntityIsReturned() throws Exception {
+        // given
+        Mockito.when(productService.createProduct(productDTO)).thenReturn(productDTO);
+        mockMvc.perform(create("key-2", productDTO))
+                .andExpect(MockMvcResultMatchers.status().isCreated());
+
+        // when
+        ProductDTO other = ProductDTOBuilder.builder().code("RWS0002").build().toProductDTO();
+
+        // then
+        mockMvc.perform(create("key-2", other))
+                .andExpect(MockMvcResultMatchers.status().isUnprocessableEntity());
+        Mockito.verify(productService, Mockito.never()).createProduct(other);
+    }
+
+    @Test
+    void whenKeyIsReusedWithAnotherIfMatchThenUnprocessableEntityIsReturned() throws Exception {
+        // given
+        Mockito.when(productService.createProduct(productDTO)).thenReturn(productDTO);
+        mockMvc.perform(create("key-6", productDTO).header(HttpHeaders.IF_MATCH, "\"1\""))
+                .andExpect(MockMvcResultMatchers.status().isCreated());
+
+        // then
+        mockMvc.perform(create("key-6", productDTO).header(HttpHeaders.IF_MATCH, "\"2\""))
+                .andExpect(MockMvcResultMatchers.status().isUnprocessableEntity());
+        mockMvc.perform(create("key-6", productDTO))
+                .andExpect(MockMvcResultMatchers.status().isUnprocessableEntity());
+        Mockito.verify(productService, Mockito.times(1)).createProduct(productDTO);
+    }
+
+    @Test
+    void whenStoreIsFullThenNewKeysAreRefusedAndKnownKeysStillReplayed() throws Exception {
+        // given
+        properties.setMaxEntries(1);
+        buildMockMvc();
+        Mockito.when(productService.createProduct(productDTO)).thenReturn(productDTO);
+        mockMvc.perform(create("key-7", productDTO))
+                .andExpect(MockMvcResultMatchers.status().isCreated());
+
+        // then
+        mockMvc.perform(create("key-8", productDTO))
+                .andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+                .andExpect(MockMvcResultMatchers.header().exists(HttpHeaders.RETRY_AFTER));
+        mockMvc.perform(create("key-7", productDTO))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.header().string(IdempotencyFilter.REPLAYED_HEADER, "true"));
+        Mockito.verify(productService, Mockito.times(1)).createProduct(productDTO);
+    }
+
+    @Test
+    void whenCreateFailedWithAClientErrorThenTheRetryGetsTheSameStatusWithoutRunningIt() throws Exception {
+        // given
+        Mockito.when(productService.createProduct(productDTO))
+                .thenThrow(new ProductAlreadyExistsException(productDTO.getCode()));
+        mockMvc.perform(create("key-3", productDTO))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        // when
+        mockMvc.perform(create("key-3", productDTO))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.header().string(IdempotencyFilter.REPLAYED_HEADER, "true"));
+
+        // then
+        Mockito.verify(productService, Mockito.times(1)).createProduct(productDTO);
+    }
+
+    @Test
+    void whenCreateFailedWithAServerErrorThenTheRetryRunsAgain() throws Exception {
+        // given
+        Mockito.when(productService.createProduct(productDTO))
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenReturn(productDTO);
+        try {
+            mockMvc.perform(create("key-4", productDTO));
+        } catch (Exception e) {
+            // the standalone setup rethrows what no handler resolved
+        }
+
+        // when
+        mockMvc.perform(create("key-4", productDTO))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+
+        // then
+        Mockito.verify(productService, Mockito.times(2)).createProduct(productDTO);
+    }
+
+    @Test
+    void whenDuplicateArrivesWhileTheFirstIsRunningThenItWaitsForItsResponse() throws Exception {
+        // given
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Mockito.when(productService.createProduct(ArgumentMatchers.any())).thenAnswer(invocation -> {
+            running.countDown();
+            finish.await(10, TimeUnit.SECONDS);
+            return productDTO;
+        });
+        CompletableFuture<MvcResult> first = CompletableFuture.supplyAsync(() -> perform(create("key-5", productDTO)));
+        MatcherAssert.assertThat(running.await(10, TimeUnit.SECONDS), Matchers.is(true));
+
+        // when
+        CompletableFuture<MvcResult> duplicate = CompletableFuture.supplyAsync(() -> perform(create("key-5", productDTO)));
+        Thread.sleep(100);
+        MatcherAssert.assertThat(duplicate.isDone(), Matchers.is(false));
+        finish.countDown();
+
+        // then
+        MatcherAssert.assertThat(duplicate.get(10, TimeUnit.SECONDS).getResponse().getStatus(), Matchers.is(201));
+        MatcherAssert.assertThat(duplicate.get().getResponse().getContentAsString(),
+                Matchers.is(first.get(10, TimeUnit.SECONDS).getResponse().getContentAsString()));
+        Mockito.verify(productService, Mockito.times(1)).createProduct(ArgumentMatchers.any());
+    }
+
+    @Test
+    void whenRequestsCarryNoKeyThenEveryOneRuns() throws Exception {
+        // given
+        Mockito.when(productService.createProduct(productDTO)).thenReturn(productDTO);
+
+        // when
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(MockMvcRequestBuilders.post(PRODUCT_API_URL_PATH)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(productDTO)))
+                    .andExpect(MockMvcResultMatchers.status().isCreated());
+        }
+
+        // then
+        Mockito.verify(productService, Mockito.times(2)).createProduct(productDTO);
+    }
+
+    private MockHttpServletRequestBuilder create(String key, ProductDTO productDTO) {
+        return MockMvcRequestBuilders.post(PRODUCT_API_URL_PATH)
+                .header(properties.getHeader(), key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(productDTO));
+    }
+
+    private MvcResult perform(MockHttpServletRequestBuilder request) {
+        try {
+            return mockMvc.perform(request).andReturn();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package project.productstock.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.web.server.LocalServerPort;
+import project.productstock.dto.ProductDTO;
+import project.productstock.service.ProductService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Creates the same number of products twice over real HTTP: once with every create sent a single time, and once in
+ * a retry storm where each create is sent several times with one idempotency key, duplicates racing each other and
+ * arriving after the first completed. The storm must reach the service and the repositories exactly as often as the
+ * calm run did, every attempt of a create must get the same product back, and its p99 latency must stay within
+ * {@code load.idempotency.max-p99-ratio} of the calm run's; a first run warms the server up:
+ * <pre>
+ * mvn test -Dtest=IdempotencyStressTest -Dload.idempotency.creates=200 -Dload.idempotency.attempts=8
+ * </pre>
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "load.idempotency.creates", matches = "\\d+")
+public class IdempotencyStressTest {
+
+    private static final int THREADS = 16;
+
+    @LocalServerPort
+    private int port;
+
+    @SpyBean
+    private ProductService productService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final int creates = Integer.getInteger("load.idempotency.creates", 200);
+    private final int attempts = Integer.getInteger("load.idempotency.attempts", 8);
+    private final double maxP99Ratio = Double.parseDouble(System.getProperty("load.idempotency.max-p99-ratio", "2"));
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final List<Long> created = Collections.synchronizedList(new ArrayList<>());
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (Long id : created) {
+            productService.deleteById(id, null);
+        }
+    }
+
+    @Test
+    void whenCreatesAreRetriedInAStormThenTheDatabaseSeesEachOnce() throws Exception {
+        // given
+        run("W", 1);
+        long before = repositoryInvocations();
+        Histogram calm = run("C", 1);
+        long calmInvocations = repositoryInvocations() - before;
+
+        // when
+        before = repositoryInvocations();
+        Histogram storm = run("S", attempts);
+        long stormInvocations = repositoryInvocations() - before;
+
+        // then
+        log.info(String.format("calm:  %d requests, p50 %.2f ms, p99 %.2f ms, %d repository invocations",
+                calm.getTotalCount(), calm.getValueAtPercentile(50) / 1e6, calm.getValueAtPercentile(99) / 1e6,
+                calmInvocations));
+        log.info(String.format("storm: %d requests, p50 %.2f ms, p99 %.2f ms, %d repository invocations",
+                storm.getTotalCount(), storm.getValueAtPercentile(50) / 1e6, storm.getValueAtPercentile(99) / 1e6,
+                stormInvocations));
+        MatcherAssert.assertThat(created.size(), Matchers.is(3 * creates));
+        MatcherAssert.assertThat(stormInvocations, Matchers.is(calmInvocations));
+        Mockito.verify(productService, Mockito.times(3 * creates)).createProduct(ArgumentMatchers.any());
+        MatcherAssert.assertThat((double) storm.getValueAtPercentile(99),
+                Matchers.lessThanOrEqualTo(maxP99Ratio * calm.getValueAtPercentile(99)));
+    }
+
+    /**
+     * Sends every create {@code attempts} times, shuffled so that attempts of one create overlap.
+     *
+     * @return latency of every request
+     */
+    private Histogram run(String prefix, int attempts) throws Exception {
+        List<HttpRequest> requests = new ArrayList<>();
+        for (int i = 0; i < creates; i++) {
+            ProductDTO productDTO = ProductDTO.builder()
+                    .code(String.format("%s%06d", prefix, i))
+                    .description("Idempotency stress product " + i)
+                    .max(500)
+                    .quantity(i)
+                    .build();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/products"))
+                    .header("Content-Type", "application/json")
+                    .header("Idempotency-Key", UUID.randomUUID().toString())
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(productDTO)))
+                    .build();
+            for (int attempt = 0; attempt < attempts; attempt++) {
+                requests.add(request);
+            }
+        }
+        Collections.shuffle(requests);
+
+        Histogram latency = new Histogram(3);
+        Map<String, Long> idsByCode = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (HttpRequest request : requests) {
+                futures.add(executor.submit(() -> {
+                    long start = System.nanoTime();
+                    HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                    long elapsed = System.nanoTime() - start;
+                    synchronized (latency) {
+                        latency.recordValue(elapsed);
+                    }
+                    MatcherAssert.assertThat(response.body(), response.statusCode(), Matchers.is(201));
+                    ProductDTO productDTO = objectMapper.readValue(response.body(), ProductDTO.class);
+                    Long id = idsByCode.putIfAbsent(productDTO.getCode(), productDTO.getId());
+                    if (id == null) {
+                        created.add(productDTO.getId());
+                    } else {
+                        MatcherAssert.assertThat(productDTO.getId(), Matchers.is(id));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return latency;
+    }
+
+    private long repositoryInvocations() {
+        return meterRegistry.find("spring.data.repository.invocations").timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+}
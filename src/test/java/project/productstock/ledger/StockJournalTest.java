@@ -0,0 +1,92 @@
+package project.productstock.ledger;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+public class StockJournalTest {
+
+    private static final int SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void whenJournalIsReopenedThenTheNewestQuantityOfEachProductIsPending() throws IOException {
+        // given
+        Path path = directory.resolve("reopen.journal");
+        try (StockJournal journal = new StockJournal(path, SIZE, false)) {
+            journal.append(1L, 10);
+            journal.append(2L, 20);
+            journal.append(1L, 11);
+        }
+
+        // when
+        try (StockJournal journal = new StockJournal(path, SIZE, false)) {
+            // then
+            MatcherAssert.assertThat(journal.pending(), Matchers.is(Map.of(1L, 11, 2L, 20)));
+            MatcherAssert.assertThat(journal.lastSeq(), Matchers.is(3L));
+        }
+    }
+
+    @Test
+    void whenCheckpointedThenOnlyRecordsAppendedAfterItStayPending() throws IOException {
+        // given
+        Path path = directory.resolve("checkpoint.journal");
+        try (StockJournal journal = new StockJournal(path, SIZE, false)) {
+            journal.append(1L, 10);
+            journal.append(2L, 20);
+            long seq = journal.lastSeq();
+            int position = journal.position();
+            journal.append(2L, 21);
+
+            // when
+            journal.checkpoint(seq, position);
+
+            // then
+            MatcherAssert.assertThat(journal.position(), Matchers.is(StockJournal.HEADER_SIZE + StockJournal.RECORD_SIZE));
+            MatcherAssert.assertThat(journal.pending(), Matchers.is(Map.of(2L, 21)));
+        }
+        try (StockJournal journal = new StockJournal(path, SIZE, false)) {
+            MatcherAssert.assertThat(journal.pending(), Matchers.is(Map.of(2L, 21)));
+        }
+    }
+
+    @Test
+    void whenARecordIsTornThenItIsSkippedAndLaterRecordsAreStillReplayed() throws IOException {
+        // given
+        Path path = directory.resolve("torn.journal");
+        try (StockJournal journal = new StockJournal(path, SIZE, false)) {
+            journal.append(1L, 10);
+            journal.append(2L, 20);
+            journal.append(3L, 30);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), StockJournal.HEADER_SIZE + StockJournal.RECORD_SIZE + 16);
+        }
+
+        // when
+        try (StockJournal journal = new StockJournal(path, SIZE, false)) {
+            // then
+            MatcherAssert.assertThat(journal.pending(), Matchers.is(Map.of(1L, 10, 3L, 30)));
+        }
+    }
+
+    @Test
+    void whenJournalIsFullThenAppendIsRefused() throws IOException {
+        try (StockJournal journal = new StockJournal(directory.resolve("full.journal"),
+                StockJournal.HEADER_SIZE + 2 * StockJournal.RECORD_SIZE, false)) {
+            MatcherAssert.assertThat(journal.append(1L, 1), Matchers.is(true));
+            MatcherAssert.assertThat(journal.append(1L, 2), Matchers.is(true));
+            MatcherAssert.assertThat(journal.append(1L, 3), Matchers.is(false));
+        }
+    }
+}
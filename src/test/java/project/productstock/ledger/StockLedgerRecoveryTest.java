@@ -0,0 +1,65 @@
+package project.productstock.ledger;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.unit.DataSize;
+import project.productstock.ProductStockApplication;
+import project.productstock.builder.ProductDTOBuilder;
+import project.productstock.dto.ProductDTO;
+import project.productstock.service.ProductService;
+
+import java.nio.file.Path;
+
+/**
+ * Simulates a crash between acknowledging stock changes and flushing them: the journal holds records the database
+ * never received, and the next start must apply them.
+ */
+public class StockLedgerRecoveryTest {
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void whenJournalHasUnflushedChangesThenTheyAreReplayedOnStartup() throws Exception {
+        ProductDTO created;
+        try (ConfigurableApplicationContext context = start(false)) {
+            created = context.getBean(ProductService.class).createProduct(ProductDTOBuilder.builder()
+                    .id(null)
+                    .code("RCV0001")
+                    .quantity(10)
+                    .build()
+                    .toProductDTO());
+        }
+        try (StockJournal journal = new StockJournal(journal(), (int) DataSize.ofMegabytes(64).toBytes(), false)) {
+            journal.append(created.getId(), 12);
+            journal.append(created.getId(), 9);
+        }
+
+        try (ConfigurableApplicationContext context = start(true)) {
+            MatcherAssert.assertThat(context.getBean(ProductService.class).getByCode(created.getCode()).getQuantity(),
+                    Matchers.is(9));
+        }
+        try (StockJournal journal = new StockJournal(journal(), (int) DataSize.ofMegabytes(64).toBytes(), false)) {
+            MatcherAssert.assertThat(journal.pending().entrySet(), Matchers.is(Matchers.empty()));
+        }
+    }
+
+    private Path journal() {
+        return dataDir.resolve("stock-ledger.journal");
+    }
+
+    private ConfigurableApplicationContext start(boolean ledgerEnabled) {
+        return new SpringApplicationBuilder(ProductStockApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("prod")
+                .properties("spring.main.banner-mode=off")
+                .run("--product.data-dir=" + dataDir.toAbsolutePath(),
+                        "--product.ledger.enabled=" + ledgerEnabled,
+                        "--product.ledger.journal=" + journal());
+    }
+}
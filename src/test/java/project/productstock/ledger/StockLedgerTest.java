@@ -0,0 +1,168 @@
+package project.productstock.ledger;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.productstock.builder.ProductDTOBuilder;
+import project.productstock.dto.ProductDTO;
+import project.productstock.exception.ProductMaxStockExceededException;
+import project.productstock.exception.ProductNotFoundException;
+import project.productstock.exception.ProductOutOfStockException;
+import project.productstock.exception.ProductVersionMismatchException;
+import project.productstock.service.ProductService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@SpringBootTest(properties = {"product.ledger.enabled=true", "product.ledger.flush-interval=1h"})
+public class StockLedgerTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private ProductDTO product;
+
+    @DynamicPropertySource
+    static void journal(DynamicPropertyRegistry registry) throws IOException {
+        String journal = Files.createTempDirectory("stock-ledger").resolve("test.journal").toString();
+        registry.add("product.ledger.journal", () -> journal);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        product = productService.createProduct(ProductDTOBuilder.builder()
+                .id(null)
+                .code("LDG0001")
+                .max(50)
+                .quantity(10)
+                .build()
+                .toProductDTO());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        productService.deleteById(product.getId(), null);
+    }
+
+    @Test
+    void whenStockChangesThenReadsSeeThemBeforeTheyAreFlushed() throws Exception {
+        // when
+        productService.increment(product.getId(), 5, null);
+        ProductDTO decremented = productService.decrement(product.getId(), 2, null);
+
+        // then
+        MatcherAssert.assertThat(decremented.getQuantity(), Matchers.is(13));
+        MatcherAssert.assertThat(productService.getByCode(product.getCode()).getQuantity(), Matchers.is(13));
+        MatcherAssert.assertThat(databaseQuantity(), Matchers.is(10));
+
+        stockLedger.flush();
+
+        MatcherAssert.assertThat(databaseQuantity(), Matchers.is(13));
+    }
+
+    @Test
+    void whenDecrementExceedsStockThenItIsRejectedWithoutChangingTheLedger() throws Exception {
+        // when
+        Assertions.assertThrows(ProductOutOfStockException.class, () -> productService.decrement(product.getId(), 11, null));
+        stockLedger.flush();
+
+        // then
+        MatcherAssert.assertThat(productService.getByCode(product.getCode()).getQuantity(), Matchers.is(10));
+        MatcherAssert.assertThat(databaseQuantity(), Matchers.is(10));
+    }
+
+    @Test
+    void whenListedBeforeAFlushThenListingsShowTheLedgerQuantity() throws Exception {
+        // when
+        productService.increment(product.getId(), 5, null);
+
+        // then
+        MatcherAssert.assertThat(productService.listPage(product.getId() - 1, 1).getContent().get(0).getQuantity(),
+                Matchers.is(15));
+        MatcherAssert.assertThat(databaseQuantity(), Matchers.is(10));
+    }
+
+    @Test
+    void whenStockChangesInsideATransactionThenTheyAreRefused() throws Exception {
+        // when
+        Assertions.assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            try {
+                productService.increment(product.getId(), 5, null);
+            } catch (ProductNotFoundException | ProductMaxStockExceededException | ProductVersionMismatchException e) {
+                throw new AssertionError(e);
+            }
+        }));
+
+        // then
+        MatcherAssert.assertThat(productService.getByCode(product.getCode()).getQuantity(), Matchers.is(10));
+    }
+
+    @Test
+    void whenFlushesRunDuringStockChangesThenTheDatabaseEndsWithTheLastOne() throws Exception {
+        // given
+        int threads = 4;
+        int rounds = 250;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        AtomicBoolean changing = new AtomicBoolean(true);
+
+        // when
+        try {
+            Future<?> flushes = executor.submit(() -> {
+                while (changing.get()) {
+                    stockLedger.flush();
+                }
+            });
+            List<Future<?>> changes = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                changes.add(executor.submit(() -> {
+                    for (int round = 0; round < rounds; round++) {
+                        productService.increment(product.getId(), 1, null);
+                        productService.decrement(product.getId(), 1, null);
+                    }
+                    return productService.increment(product.getId(), 5, null);
+                }));
+            }
+            for (Future<?> change : changes) {
+                change.get();
+            }
+            changing.set(false);
+            flushes.get();
+        } finally {
+            executor.shutdown();
+        }
+        stockLedger.flush();
+
+        // then
+        MatcherAssert.assertThat(databaseQuantity(), Matchers.is(10 + threads * 5));
+        MatcherAssert.assertThat(jdbcTemplate.queryForObject("select version from product where id = ?", Long.class,
+                product.getId()), Matchers.is(productService.getByCode(product.getCode()).getVersion()));
+    }
+
+    private int databaseQuantity() {
+        return jdbcTemplate.queryForObject("select quantity from product where id = ?", Integer.class, product.getId());
+    }
+}
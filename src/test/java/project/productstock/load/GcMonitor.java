@@ -0,0 +1,88 @@
+package project.productstock.load;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collections seen while a load runs and the heap each one left behind. The heap after a collection tracks what the
+ * process keeps alive, so a soak run whose post-collection heap keeps climbing is leaking. The load generator shares
+ * the JVM with the application, so its own garbage is counted too.
+ */
+class GcMonitor implements NotificationListener, AutoCloseable {
+
+    private final Set<String> heapPools = new HashSet<>();
+
+    private long collections;
+    private long collectionMillis;
+    private long maxCollectionMillis;
+    private long firstHeapAfterGc = -1;
+    private long lastHeapAfterGc = -1;
+    private long maxHeapAfterGc = -1;
+
+    GcMonitor() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                heapPools.add(pool.getName());
+            }
+        }
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) collector).addNotificationListener(this, null, null);
+        }
+    }
+
+    static long heapUsed() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    @Override
+    public synchronized void handleNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        long used = 0;
+        for (Map.Entry<String, MemoryUsage> pool : info.getGcInfo().getMemoryUsageAfterGc().entrySet()) {
+            if (heapPools.contains(pool.getKey())) {
+                used += pool.getValue().getUsed();
+            }
+        }
+        collections++;
+        collectionMillis += info.getGcInfo().getDuration();
+        maxCollectionMillis = Math.max(maxCollectionMillis, info.getGcInfo().getDuration());
+        if (firstHeapAfterGc < 0) {
+            firstHeapAfterGc = used;
+        }
+        lastHeapAfterGc = used;
+        maxHeapAfterGc = Math.max(maxHeapAfterGc, used);
+    }
+
+    synchronized LoadResult.Gc result() {
+        return new LoadResult.Gc(collections, collectionMillis, maxCollectionMillis, firstHeapAfterGc, lastHeapAfterGc,
+                maxHeapAfterGc, ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getMax());
+    }
+
+    @Override
+    public void close() {
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            try {
+                ((NotificationEmitter) collector).removeNotificationListener(this);
+            } catch (ListenerNotFoundException e) {
+                // registered in the constructor, so never thrown
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package project.productstock.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Closed-loop HTTP load generator: keeps {@code connections} requests in flight, issuing the next one on a
+ * connection as soon as the previous response arrives, until the duration elapses. Latencies go into HdrHistograms,
+ * one per operation of the {@link TrafficMix}, which are also sampled every {@code timelineInterval} into a
+ * throughput timeline.
+ * <p>
+ * Being closed-loop, it slows down with the server and so under-reports the latency an open stream of clients
+ * would see once the server saturates; compare throughput, not just percentiles, between runs.
+ */
+public class HttpLoadGenerator {
+
+    private static final Duration DEFAULT_TIMELINE_INTERVAL = Duration.ofSeconds(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private final Duration timelineInterval;
+
+    public HttpLoadGenerator() {
+        this(DEFAULT_TIMELINE_INTERVAL);
+    }
+
+    public HttpLoadGenerator(Duration timelineInterval) {
+        this.timelineInterval = timelineInterval;
+    }
+
+    public LoadResult run(int connections, Duration duration, Supplier<HttpRequest> requests) throws InterruptedException {
+        return run(connections, duration, TrafficMix.of("request", requests));
+    }
+
+    public LoadResult run(int connections, Duration duration, TrafficMix mix) throws InterruptedException {
+        try (GcMonitor gcMonitor = new GcMonitor()) {
+            LoadRecorder recorder = new LoadRecorder(mix.operations());
+            CountDownLatch finished = new CountDownLatch(connections);
+            long start = System.nanoTime();
+            long deadline = start + duration.toNanos();
+            ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "load-timeline-sampler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = timelineInterval.toNanos();
+            sampler.scheduleAtFixedRate(() -> recorder.sample(start), interval, interval, TimeUnit.NANOSECONDS);
+            for (int i = 0; i < connections; i++) {
+                sendNext(mix, deadline, recorder, finished);
+            }
+            finished.await();
+            sampler.shutdown();
+            sampler.awaitTermination(1, TimeUnit.MINUTES);
+            long end = System.nanoTime();
+            recorder.sample(start);
+            return recorder.result(connections, (end - start) / 1_000_000_000.0, gcMonitor.result());
+        }
+    }
+
+    private void sendNext(TrafficMix mix, long deadline, LoadRecorder recorder, CountDownLatch finished) {
+        if (System.nanoTime() >= deadline) {
+            finished.countDown();
+            return;
+        }
+        TrafficMix.Draw draw;
+        try {
+            draw = mix.next();
+        } catch (RuntimeException e) {
+            finished.countDown();
+            throw e;
+        }
+        long start = System.nanoTime();
+        Consumer<String> onSuccess = draw.onSuccess();
+        CompletableFuture<? extends HttpResponse<?>> response = onSuccess == null
+                ? httpClient.sendAsync(draw.request(), HttpResponse.BodyHandlers.discarding())
+                : httpClient.sendAsync(draw.request(), HttpResponse.BodyHandlers.ofString());
+        response.whenComplete((received, error) -> {
+            boolean success = error == null && received.statusCode() < 400;
+            recorder.record(draw.operation(), System.nanoTime() - start, success);
+            try {
+                if (success && onSuccess != null) {
+                    onSuccess.accept((String) received.body());
+                }
+            } finally {
+                sendNext(mix, deadline, recorder, finished);
+            }
+        });
+    }
+
+    private static final class LoadRecorder {
+
+        private final Map<String, OperationRecorder> operations = new LinkedHashMap<>();
+        private final List<LoadResult.Interval> timeline = new ArrayList<>();
+        private final Histogram interval = new Histogram(SIGNIFICANT_DIGITS);
+        private long errorsSampled;
+
+        LoadRecorder(List<String> operationNames) {
+            operationNames.forEach(name -> operations.put(name, new OperationRecorder()));
+        }
+
+        void record(String operation, long latencyNanos, boolean success) {
+            operations.get(operation).record(latencyNanos, success);
+        }
+
+        /**
+         * Moves what was recorded since the last sample into the totals and appends it to the timeline.
+         */
+        synchronized void sample(long start) {
+            interval.reset();
+            long errors = 0;
+            for (OperationRecorder operation : operations.values()) {
+                interval.add(operation.drain());
+                errors += operation.errors.sum();
+            }
+            timeline.add(new LoadResult.Interval((System.nanoTime() - start) / 1_000_000_000.0,
+                    interval.getTotalCount(), errors - errorsSampled, interval.getValueAtPercentile(99),
+                    GcMonitor.heapUsed()));
+            errorsSampled = errors;
+        }
+
+        synchronized LoadResult result(int connections, double seconds, LoadResult.Gc gc) {
+            Histogram all = new Histogram(SIGNIFICANT_DIGITS);
+            List<LoadResult.Operation> results = new ArrayList<>();
+            long errors = 0;
+            for (Map.Entry<String, OperationRecorder> operation : operations.entrySet()) {
+                Histogram total = operation.getValue().total;
+                all.add(total);
+                errors += operation.getValue().errors.sum();
+                results.add(new LoadResult.Operation(operation.getKey(), operation.getValue().errors.sum(), total));
+            }
+            return new LoadResult(connections, all.getTotalCount(), errors, seconds, all.getValueAtPercentile(50),
+                    all.getValueAtPercentile(99), all.getMaxValue(), results, new ArrayList<>(timeline), gc);
+        }
+    }
+
+    private static final class OperationRecorder {
+
+        private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+        private final Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+        private final LongAdder errors = new LongAdder();
+        private Histogram recycled;
+
+        void record(long latencyNanos, boolean success) {
+            recorder.recordValue(latencyNanos);
+            if (!success) {
+                errors.increment();
+            }
+        }
+
+        Histogram drain() {
+            recycled = recorder.getIntervalHistogram(recycled);
+            total.add(recycled);
+            return recycled;
+        }
+    }
+}
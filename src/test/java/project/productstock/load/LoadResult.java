@@ -0,0 +1,177 @@
+package project.productstock.load;
+
+import lombok.Value;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+@Value
+public class LoadResult {
+
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    int connections;
+
+    long requests;
+
+    long errors;
+
+    double seconds;
+
+    long p50Nanos;
+
+    long p99Nanos;
+
+    long maxNanos;
+
+    /**
+     * Latencies of each operation of the mix over the whole run.
+     */
+    List<Operation> operations;
+
+    /**
+     * Requests completed in each sampling interval, in order.
+     */
+    List<Interval> timeline;
+
+    Gc gc;
+
+    public double requestsPerSecond() {
+        return requests / seconds;
+    }
+
+    public Operation operation(String name) {
+        return operations.stream()
+                .filter(operation -> operation.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("No operation " + name));
+    }
+
+    /**
+     * Per-operation percentiles, the throughput timeline and the collections seen, for printing after a run.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder(String.format("%s%n%n", this));
+        report.append(String.format("%-10s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Operation operation : operations) {
+            report.append(String.format("%-10s %9d %7d %9.0f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation.getName(), operation.count(), operation.getErrors(), operation.count() / seconds,
+                    operation.percentileNanos(50) / NANOS_PER_MILLI, operation.percentileNanos(90) / NANOS_PER_MILLI,
+                    operation.percentileNanos(99) / NANOS_PER_MILLI, operation.percentileNanos(99.9) / NANOS_PER_MILLI,
+                    operation.getLatency().getMaxValue() / NANOS_PER_MILLI));
+        }
+        report.append(String.format("%n%8s %9s %7s %9s %9s%n", "seconds", "req/s", "errors", "p99 ms", "heap MB"));
+        double previous = 0;
+        for (Interval interval : timeline) {
+            double length = interval.getEndSeconds() - previous;
+            report.append(String.format("%8.1f %9.0f %7d %9.2f %9d%n", interval.getEndSeconds(),
+                    length > 0 ? interval.getRequests() / length : 0, interval.getErrors(),
+                    interval.getP99Nanos() / NANOS_PER_MILLI, interval.getHeapUsed() >> 20));
+            previous = interval.getEndSeconds();
+        }
+        report.append(String.format("%n%s%n", gc));
+        return report.toString();
+    }
+
+    /**
+     * Writes one HdrHistogram percentile distribution per operation, in milliseconds, as {@code <name>-<operation>.hgrm}
+     * (plottable with HdrHistogram's plotter), and the timeline as {@code <name>-timeline.csv}.
+     */
+    public void writeTo(Path directory, String name) throws IOException {
+        Files.createDirectories(directory);
+        for (Operation operation : operations) {
+            Path file = directory.resolve(name + "-" + operation.getName() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+                operation.getLatency().outputPercentileDistribution(out, NANOS_PER_MILLI);
+            }
+        }
+        StringBuilder csv = new StringBuilder("end_seconds,requests,errors,p99_ms,heap_used_bytes\n");
+        for (Interval interval : timeline) {
+            csv.append(String.format("%.3f,%d,%d,%.3f,%d%n", interval.getEndSeconds(), interval.getRequests(),
+                    interval.getErrors(), interval.getP99Nanos() / NANOS_PER_MILLI, interval.getHeapUsed()));
+        }
+        Files.writeString(directory.resolve(name + "-timeline.csv"), csv);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%6d connections: %9.0f req/s, p50 %7.2f ms, p99 %8.2f ms, max %8.2f ms, %d errors",
+                connections, requestsPerSecond(), p50Nanos / 1e6, p99Nanos / 1e6, maxNanos / 1e6, errors);
+    }
+
+    @Value
+    public static class Operation {
+
+        String name;
+
+        long errors;
+
+        Histogram latency;
+
+        public long count() {
+            return latency.getTotalCount();
+        }
+
+        public long percentileNanos(double percentile) {
+            return latency.getValueAtPercentile(percentile);
+        }
+    }
+
+    @Value
+    public static class Interval {
+
+        double endSeconds;
+
+        long requests;
+
+        long errors;
+
+        long p99Nanos;
+
+        /**
+         * Heap in use when the interval was sampled, garbage included.
+         */
+        long heapUsed;
+    }
+
+    /**
+     * Collections during the run; the heap figures are measured right after a collection, {@code -1} if none ran.
+     */
+    @Value
+    public static class Gc {
+
+        long collections;
+
+        long collectionMillis;
+
+        long maxCollectionMillis;
+
+        long firstHeapAfterGc;
+
+        long lastHeapAfterGc;
+
+        long maxHeapAfterGc;
+
+        long maxHeap;
+
+        /**
+         * How much more the last collection left alive than the first; steady growth over a soak run is a leak.
+         */
+        public long heapGrowth() {
+            return collections == 0 ? 0 : lastHeapAfterGc - firstHeapAfterGc;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("gc: %d collections, %d ms total, %d ms max; heap after gc first %d MB, last %d MB, "
+                            + "max %d MB of %d MB", collections, collectionMillis, maxCollectionMillis,
+                    firstHeapAfterGc >> 20, lastHeapAfterGc >> 20, maxHeapAfterGc >> 20, maxHeap >> 20);
+        }
+    }
+}
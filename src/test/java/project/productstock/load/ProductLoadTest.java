@@ -0,0 +1,70 @@
+package project.productstock.load;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import project.productstock.dto.ProductDTO;
+import project.productstock.service.ProductBatchService;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Drives {@code GET /api/v1/products/{code}} over real HTTP at each requested concurrency level and prints req/s and
+ * latency percentiles. Compare execution modes by running it once per mode, e.g.
+ * {@code mvn test -Dtest=ProductLoadTest -Dload.connections=1000,5000,10000 -Dproduct.execution.mode=virtual}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.max-connections=20000",
+        "server.tomcat.accept-count=10000"
+})
+@EnabledIfSystemProperty(named = "load.connections", matches = "\\d+(,\\d+)*")
+public class ProductLoadTest {
+
+    private static final int PRODUCTS = 1_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductBatchService productBatchService;
+
+    @Value("${product.execution.mode:platform}")
+    private String executionMode;
+
+    @Test
+    void whenLookupsRunAtIncreasingConcurrencyThenThroughputAndLatencyAreReported() throws Exception {
+        productBatchService.upsertAll(IntStream.range(0, PRODUCTS)
+                .mapToObj(i -> ProductDTO.builder()
+                        .code(String.format("L%06d", i))
+                        .description("Load test product " + i)
+                        .max(500)
+                        .quantity(i % 500)
+                        .build())
+                .collect(Collectors.toList())
+                .iterator(), result -> { });
+
+        Duration duration = Duration.ofSeconds(Long.getLong("load.seconds", 20));
+        HttpLoadGenerator loadGenerator = new HttpLoadGenerator();
+        String baseUrl = "http://localhost:" + port + "/api/v1/products/";
+
+        loadGenerator.run(100, Duration.ofSeconds(5), () -> lookup(baseUrl));
+        System.out.println("execution mode: " + executionMode);
+        for (int connections : Arrays.stream(System.getProperty("load.connections").split(",")).mapToInt(Integer::parseInt).toArray()) {
+            System.out.println(loadGenerator.run(connections, duration, () -> lookup(baseUrl)));
+        }
+    }
+
+    private static HttpRequest lookup(String baseUrl) {
+        String code = String.format("L%06d", ThreadLocalRandom.current().nextInt(PRODUCTS));
+        return HttpRequest.newBuilder(URI.create(baseUrl + code)).GET().build();
+    }
+}
@@ -0,0 +1,217 @@
+package project.productstock.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import project.productstock.dto.ProductDTO;
+import project.productstock.service.ProductBatchService;
+import project.productstock.service.ProductService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Boots the whole stack on H2, seeds the catalogue and drives a mix of lookups by code, listing pages, creates and
+ * deletes of earlier creates over real HTTP. Prints per-operation HdrHistogram percentiles, a throughput timeline and
+ * GC statistics, writes them under {@code target/load-reports}, and fails when a service level objective is broken:
+ * <pre>
+ * mvn test -Dtest=ProductMixedLoadTest -Dload.mix.seconds=60 -Dload.mix=lookup=70,list=10,create=10,delete=10 \
+ *     -Dload.slo.p99-ms=50 -Dload.slo.p99-ms.list=100 -Dload.slo.min-throughput=1000
+ * </pre>
+ * A long {@code load.mix.seconds} makes it a soak test; add {@code -Dload.slo.max-heap-growth-mb=...} to fail on
+ * heap left alive after collections that keeps growing. Without SLO properties only errors fail the run.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "load.mix.seconds", matches = "\\d+")
+public class ProductMixedLoadTest {
+
+    private static final String LOOKUP = "lookup";
+    private static final String LIST = "list";
+    private static final String CREATE = "create";
+    private static final String DELETE = "delete";
+    private static final int PAGE_SIZE = 50;
+    private static final Path REPORTS = Path.of("target", "load-reports");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductBatchService productBatchService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final int products = Integer.getInteger("load.mix.products", 10_000);
+    private final Queue<Long> created = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger createdCount = new AtomicInteger();
+    private String baseUrl;
+    private long firstId;
+    private long lastId;
+
+    @Test
+    void whenTheMixRunsThenEveryServiceLevelObjectiveHolds() throws Exception {
+        seed();
+        baseUrl = "http://localhost:" + port + "/api/v1/products";
+        TrafficMix mix = mix(System.getProperty("load.mix", "lookup=70,list=10,create=10,delete=10"));
+        int connections = Integer.getInteger("load.mix.connections", 32);
+        HttpLoadGenerator loadGenerator = new HttpLoadGenerator();
+
+        loadGenerator.run(connections, Duration.ofSeconds(Long.getLong("load.mix.warmup-seconds", 10)), mix);
+        LoadResult result = loadGenerator.run(connections, Duration.ofSeconds(Long.getLong("load.mix.seconds")), mix);
+
+        System.out.println(result.report());
+        result.writeTo(REPORTS, "mixed");
+        MatcherAssert.assertThat(violations(result), Matchers.empty());
+    }
+
+    private void seed() throws Exception {
+        productBatchService.upsertAll(IntStream.range(0, products)
+                .mapToObj(i -> ProductDTO.builder()
+                        .code(seededCode(i))
+                        .description("Mixed load test product " + i)
+                        .max(500)
+                        .quantity(i % 500)
+                        .build())
+                .collect(Collectors.toList())
+                .iterator(), result -> { });
+        firstId = productService.getByCode(seededCode(0)).getId();
+        lastId = productService.getByCode(seededCode(products - 1)).getId();
+    }
+
+    private TrafficMix mix(String weights) {
+        TrafficMix mix = new TrafficMix();
+        for (String entry : weights.split(",")) {
+            String[] operation = entry.trim().split("=");
+            int weight = Integer.parseInt(operation[1]);
+            switch (operation[0]) {
+                case LOOKUP:
+                    mix.add(LOOKUP, weight, this::lookup);
+                    break;
+                case LIST:
+                    mix.add(LIST, weight, this::list);
+                    break;
+                case CREATE:
+                    mix.add(CREATE, weight, this::create, this::onCreated);
+                    break;
+                case DELETE:
+                    mix.add(DELETE, weight, this::delete);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown operation in load.mix: " + operation[0]);
+            }
+        }
+        return mix;
+    }
+
+    private HttpRequest lookup() {
+        String code = seededCode(ThreadLocalRandom.current().nextInt(products));
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/" + code)).GET().build();
+    }
+
+    private HttpRequest list() {
+        long afterId = ThreadLocalRandom.current().nextLong(firstId - 1, lastId);
+        return HttpRequest.newBuilder(URI.create(baseUrl + "?size=" + PAGE_SIZE + "&afterId=" + afterId)).GET().build();
+    }
+
+    private HttpRequest create() {
+        int n = createdCount.getAndIncrement();
+        ProductDTO productDTO = ProductDTO.builder()
+                .code(String.format("N%06d", n % 1_000_000))
+                .description("Created under load " + n)
+                .max(500)
+                .quantity(n % 500)
+                .build();
+        try {
+            return HttpRequest.newBuilder(URI.create(baseUrl))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(productDTO)))
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void onCreated(String body) {
+        try {
+            created.add(objectMapper.readValue(body, ProductDTO.class).getId());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Deletes the oldest product created under load, or has nothing to send until one exists.
+     */
+    private HttpRequest delete() {
+        Long id = created.poll();
+        return id == null ? null : HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).DELETE().build();
+    }
+
+    private static List<String> violations(LoadResult result) {
+        List<String> violations = new ArrayList<>();
+        double maxErrorRate = Double.parseDouble(System.getProperty("load.slo.max-error-rate", "0"));
+        if (result.getErrors() > maxErrorRate * result.getRequests()) {
+            violations.add(String.format("%d of %d requests failed, more than the error rate %s",
+                    result.getErrors(), result.getRequests(), maxErrorRate));
+        }
+        String minThroughput = System.getProperty("load.slo.min-throughput");
+        if (minThroughput != null && result.requestsPerSecond() < Double.parseDouble(minThroughput)) {
+            violations.add(String.format("throughput %.0f req/s is below %s req/s", result.requestsPerSecond(),
+                    minThroughput));
+        }
+        for (Map.Entry<String, Double> slo : p99Slos(result).entrySet()) {
+            long p99Nanos = result.operation(slo.getKey()).percentileNanos(99);
+            if (p99Nanos > slo.getValue() * 1e6) {
+                violations.add(String.format("%s p99 %.2f ms is above %s ms", slo.getKey(), p99Nanos / 1e6,
+                        slo.getValue()));
+            }
+        }
+        String maxHeapGrowth = System.getProperty("load.slo.max-heap-growth-mb");
+        if (maxHeapGrowth != null && result.getGc().heapGrowth() > Long.parseLong(maxHeapGrowth) << 20) {
+            violations.add(String.format("heap after gc grew by %d MB, more than %s MB",
+                    result.getGc().heapGrowth() >> 20, maxHeapGrowth));
+        }
+        return violations;
+    }
+
+    /**
+     * {@code load.slo.p99-ms} for every operation, unless {@code load.slo.p99-ms.<operation>} overrides it.
+     */
+    private static Map<String, Double> p99Slos(LoadResult result) {
+        Map<String, Double> slos = new LinkedHashMap<>();
+        for (LoadResult.Operation operation : result.getOperations()) {
+            String slo = System.getProperty("load.slo.p99-ms." + operation.getName(),
+                    System.getProperty("load.slo.p99-ms"));
+            if (slo != null && operation.count() > 0) {
+                slos.put(operation.getName(), Double.parseDouble(slo));
+            }
+        }
+        return slos;
+    }
+
+    private static String seededCode(int i) {
+        return String.format("M%06d", i);
+    }
+}
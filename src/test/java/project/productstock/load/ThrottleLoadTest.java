@@ -0,0 +1,111 @@
+package project.productstock.load;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import project.productstock.dto.ProductDTO;
+import project.productstock.service.ProductBatchService;
+import project.productstock.throttle.ThrottleProperties;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Well-behaved clients look products up by code, first alone and then while one abusive client loops on
+ * {@code GET /api/v1/products} over many connections, and their latency is printed for both phases. Run it once
+ * with and once without throttling to compare:
+ * {@code mvn test -Dtest=ThrottleLoadTest -Dload.throttle.seconds=20 -Dproduct.throttle.enabled=true}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "product.throttle.standard.rate-per-second=100000",
+        "product.throttle.standard.burst=100000",
+        "product.throttle.bulk.rate-per-second=1",
+        "product.throttle.bulk.burst=2"
+})
+@EnabledIfSystemProperty(named = "load.throttle.seconds", matches = "\\d+")
+public class ThrottleLoadTest {
+
+    private static final int PRODUCTS = 20_000;
+    private static final int WELL_BEHAVED_CLIENTS = 16;
+    private static final int ABUSIVE_CONNECTIONS = 32;
+    private static final long MAX_P99_GROWTH = 5;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductBatchService productBatchService;
+
+    @Autowired
+    private ThrottleProperties throttleProperties;
+
+    @Value("${product.throttle.enabled:false}")
+    private boolean throttled;
+
+    @Test
+    void whenOneClientFloodsTheCatalogueThenTheOthersKeepTheirLatency() throws Exception {
+        productBatchService.upsertAll(IntStream.range(0, PRODUCTS)
+                .mapToObj(i -> ProductDTO.builder()
+                        .code(String.format("T%06d", i))
+                        .description("Throttle test product " + i)
+                        .max(500)
+                        .quantity(i % 500)
+                        .build())
+                .collect(Collectors.toList())
+                .iterator(), result -> { });
+
+        Duration duration = Duration.ofSeconds(Long.getLong("load.throttle.seconds"));
+        HttpLoadGenerator wellBehaved = new HttpLoadGenerator();
+        HttpLoadGenerator abusive = new HttpLoadGenerator();
+
+        wellBehaved.run(WELL_BEHAVED_CLIENTS, Duration.ofSeconds(5), this::lookup);
+        LoadResult alone = wellBehaved.run(WELL_BEHAVED_CLIENTS, duration, this::lookup);
+        CompletableFuture<LoadResult> flood = CompletableFuture.supplyAsync(() -> {
+            try {
+                return abusive.run(ABUSIVE_CONNECTIONS, duration, this::listAll);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        });
+        LoadResult flooded = wellBehaved.run(WELL_BEHAVED_CLIENTS, duration, this::lookup);
+        LoadResult abuser = flood.get();
+
+        System.out.println("throttling: " + (throttled ? "on" : "off"));
+        System.out.println("well-behaved alone:    " + alone);
+        System.out.println("well-behaved flooded:  " + flooded);
+        System.out.println("abusive client:        " + abuser + " (errors are 429/503 answers)");
+        if (throttled) {
+            // some lookups may still be shed: the refused flood costs CPU too, and the adaptive limit reacts to it
+            MatcherAssert.assertThat(flooded.getP99Nanos(), Matchers.lessThan(MAX_P99_GROWTH * alone.getP99Nanos()));
+            MatcherAssert.assertThat(flooded.getErrors(), Matchers.lessThan(flooded.getRequests() / 20));
+            MatcherAssert.assertThat(abuser.getErrors(), Matchers.greaterThan(abuser.getRequests() / 2));
+        }
+    }
+
+    private HttpRequest lookup() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return HttpRequest.newBuilder(URI.create(String.format("http://localhost:%d/api/v1/products/T%06d", port,
+                        random.nextInt(PRODUCTS))))
+                .header(throttleProperties.getClientHeader(), "client-" + random.nextInt(WELL_BEHAVED_CLIENTS))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest listAll() {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/products"))
+                .header(throttleProperties.getClientHeader(), "abuser")
+                .GET()
+                .build();
+    }
+}
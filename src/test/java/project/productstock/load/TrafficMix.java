@@ -0,0 +1,105 @@
+package project.productstock.load;
+
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Named operations drawn at random in proportion to their weights, each reported separately by
+ * {@link HttpLoadGenerator}. An operation whose supplier returns {@code null} has nothing to send right now, e.g. a
+ * delete before anything was created, and another one is drawn instead.
+ */
+public class TrafficMix {
+
+    private static final int MAX_DRAWS = 1_000;
+
+    private final List<Operation> operations = new ArrayList<>();
+    private int totalWeight;
+
+    public static TrafficMix of(String operation, Supplier<HttpRequest> requests) {
+        return new TrafficMix().add(operation, 1, requests);
+    }
+
+    public TrafficMix add(String operation, int weight, Supplier<HttpRequest> requests) {
+        return add(operation, weight, requests, null);
+    }
+
+    /**
+     * @param onSuccess receives the body of every successful response; without one, bodies are discarded unread
+     */
+    public TrafficMix add(String operation, int weight, Supplier<HttpRequest> requests, Consumer<String> onSuccess) {
+        if (weight < 0) {
+            throw new IllegalArgumentException(String.format("Weight of %s must not be negative: %d", operation, weight));
+        }
+        operations.add(new Operation(operation, weight, requests, onSuccess));
+        totalWeight += weight;
+        return this;
+    }
+
+    public List<String> operations() {
+        return operations.stream().map(operation -> operation.name).collect(Collectors.toList());
+    }
+
+    Draw next() {
+        for (int i = 0; i < MAX_DRAWS; i++) {
+            Operation operation = pick(ThreadLocalRandom.current().nextInt(totalWeight));
+            HttpRequest request = operation.requests.get();
+            if (request != null) {
+                return new Draw(operation, request);
+            }
+        }
+        throw new IllegalStateException("No operation of the mix has a request to send: " + operations());
+    }
+
+    private Operation pick(int ticket) {
+        for (Operation operation : operations) {
+            ticket -= operation.weight;
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Ticket beyond the total weight " + totalWeight);
+    }
+
+    private static final class Operation {
+
+        private final String name;
+        private final int weight;
+        private final Supplier<HttpRequest> requests;
+        private final Consumer<String> onSuccess;
+
+        Operation(String name, int weight, Supplier<HttpRequest> requests, Consumer<String> onSuccess) {
+            this.name = name;
+            this.weight = weight;
+            this.requests = requests;
+            this.onSuccess = onSuccess;
+        }
+    }
+
+    static final class Draw {
+
+        private final Operation operation;
+        private final HttpRequest request;
+
+        Draw(Operation operation, HttpRequest request) {
+            this.operation = operation;
+            this.request = request;
+        }
+
+        String operation() {
+            return operation.name;
+        }
+
+        HttpRequest request() {
+            return request;
+        }
+
+        Consumer<String> onSuccess() {
+            return operation.onSuccess;
+        }
+    }
+}
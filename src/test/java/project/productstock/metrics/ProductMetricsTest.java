@@ -0,0 +1,38 @@
+package project.productstock.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import static org.hamcrest.Matchers.containsString;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+public class ProductMetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void whenEndpointsAreCalledThenPrometheusScrapeExposesTheirMeters() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/products/RWS0404"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/products"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(MockMvcResultMatchers.content().string(containsString("spring_data_repository_invocations_seconds")))
+                .andExpect(MockMvcResultMatchers.content().string(containsString("hikaricp_connections_active")))
+                .andExpect(MockMvcResultMatchers.content().string(containsString("product_errors_total{exception=\"ProductNotFoundException\",}")))
+                .andExpect(MockMvcResultMatchers.content().string(containsString("product_list_rows_count")))
+                .andExpect(MockMvcResultMatchers.content().string(containsString("cache_gets_total{cache=\"product\"")));
+    }
+}
@@ -0,0 +1,96 @@
+package project.productstock.reservation;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import project.productstock.builder.ProductDTOBuilder;
+import project.productstock.dto.ProductDTO;
+import project.productstock.dto.ReservationRequestDTO;
+import project.productstock.dto.ReservationStatus;
+import project.productstock.entity.Reservation;
+import project.productstock.exception.ReservationNotHeldException;
+import project.productstock.exception.ReservationsUnavailableException;
+import project.productstock.repository.ReservationRepository;
+import project.productstock.service.ProductService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+
+@SpringBootTest(properties = {"product.ledger.enabled=true", "product.ledger.flush-interval=1h"})
+public class ReservationLedgerTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    private ProductDTO product;
+
+    @DynamicPropertySource
+    static void journal(DynamicPropertyRegistry registry) throws IOException {
+        String journal = Files.createTempDirectory("reservation-ledger").resolve("test.journal").toString();
+        registry.add("product.ledger.journal", () -> journal);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        product = productService.createProduct(ProductDTOBuilder.builder()
+                .id(null)
+                .code("RSL0001")
+                .max(50)
+                .quantity(10)
+                .build()
+                .toProductDTO());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        productService.deleteById(product.getId(), null);
+    }
+
+    @Test
+    void whenLedgerIsOnThenReservationsAreRefusedWithoutTakingStock() throws Exception {
+        // then
+        Assertions.assertThrows(ReservationsUnavailableException.class,
+                () -> reservationService.reserve(product.getCode(), ReservationRequestDTO.builder().quantity(4).build()));
+        MatcherAssert.assertThat(quantity(), Matchers.is(10));
+    }
+
+    @Test
+    void whenReservationHeldBeforeTheLedgerIsReleasedThenItsUnitsReturnOnce() throws Exception {
+        // given
+        Reservation reservation = reservationRepository.save(Reservation.builder()
+                .productId(product.getId())
+                .code(product.getCode())
+                .quantity(4)
+                .status(ReservationStatus.HELD)
+                .expiresAt(Instant.now().plus(Duration.ofMinutes(5)))
+                .build());
+
+        // when
+        reservationService.release(product.getCode(), reservation.getId());
+
+        // then
+        MatcherAssert.assertThat(quantity(), Matchers.is(14));
+        Assertions.assertThrows(ReservationNotHeldException.class,
+                () -> reservationService.release(product.getCode(), reservation.getId()));
+        MatcherAssert.assertThat(quantity(), Matchers.is(14));
+    }
+
+    private int quantity() throws Exception {
+        return productService.getByCode(product.getCode()).getQuantity();
+    }
+}
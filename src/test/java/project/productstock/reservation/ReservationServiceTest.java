@@ -0,0 +1,161 @@
+package project.productstock.reservation;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.QueryTimeoutException;
+import project.productstock.builder.ProductDTOBuilder;
+import project.productstock.dto.ProductDTO;
+import project.productstock.dto.ReservationDTO;
+import project.productstock.dto.ReservationRequestDTO;
+import project.productstock.dto.ReservationStatus;
+import project.productstock.exception.ProductOutOfStockException;
+import project.productstock.exception.ReservationNotFoundException;
+import project.productstock.exception.ReservationNotHeldException;
+import project.productstock.repository.ReservationRepository;
+import project.productstock.service.ProductService;
+
+@SpringBootTest(properties = "product.reservations.expiry-retry-backoff=100ms")
+public class ReservationServiceTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @SpyBean
+    private ReservationRepository reservationRepository;
+
+    private ProductDTO product;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        product = productService.createProduct(ProductDTOBuilder.builder()
+                .id(null)
+                .code("RSV0001")
+                .max(50)
+                .quantity(10)
+                .build()
+                .toProductDTO());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        productService.deleteById(product.getId(), null);
+    }
+
+    @Test
+    void whenReservationIsCommittedThenItsUnitsStayOutOfStock() throws Exception {
+        // when
+        ReservationDTO reservation = reservationService.reserve(product.getCode(), request(4, null));
+        ReservationDTO committed = reservationService.commit(product.getCode(), reservation.getId());
+
+        // then
+        MatcherAssert.assertThat(reservation.getStatus(), Matchers.is(ReservationStatus.HELD));
+        MatcherAssert.assertThat(committed.getStatus(), Matchers.is(ReservationStatus.COMMITTED));
+        MatcherAssert.assertThat(quantity(), Matchers.is(6));
+        Assertions.assertThrows(ReservationNotHeldException.class,
+                () -> reservationService.release(product.getCode(), reservation.getId()));
+        MatcherAssert.assertThat(quantity(), Matchers.is(6));
+    }
+
+    @Test
+    void whenReservationIsReleasedThenItsUnitsReturnToStock() throws Exception {
+        // when
+        ReservationDTO reservation = reservationService.reserve(product.getCode(), request(4, null));
+        ReservationDTO released = reservationService.release(product.getCode(), reservation.getId());
+
+        // then
+        MatcherAssert.assertThat(released.getStatus(), Matchers.is(ReservationStatus.RELEASED));
+        MatcherAssert.assertThat(quantity(), Matchers.is(10));
+        Assertions.assertThrows(ReservationNotHeldException.class,
+                () -> reservationService.commit(product.getCode(), reservation.getId()));
+    }
+
+    @Test
+    void whenReservationExpiresThenItsUnitsReturnAndItCannotBeCommitted() throws Exception {
+        // given
+        ReservationDTO reservation = reservationService.reserve(product.getCode(), request(4, 1L));
+
+        // when
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (reservationService.getById(product.getCode(), reservation.getId()).getStatus() == ReservationStatus.HELD
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        // then
+        MatcherAssert.assertThat(reservationService.getById(product.getCode(), reservation.getId()).getStatus(),
+                Matchers.is(ReservationStatus.EXPIRED));
+        MatcherAssert.assertThat(quantity(), Matchers.is(10));
+        ReservationNotHeldException exception = Assertions.assertThrows(ReservationNotHeldException.class,
+                () -> reservationService.commit(product.getCode(), reservation.getId()));
+        MatcherAssert.assertThat(exception.getMessage(), Matchers.containsString("expired"));
+    }
+
+    @Test
+    void whenExpiryFailsThenItIsRetriedAndTheUnitsStillReturn() throws Exception {
+        // given
+        Answer<?> repository = Mockito.mockingDetails(reservationRepository).getMockCreationSettings().getDefaultAnswer();
+        Mockito.doThrow(new QueryTimeoutException("Timeout trying to lock table"))
+                .doAnswer(repository)
+                .when(reservationRepository).expire(ArgumentMatchers.anyLong(), ArgumentMatchers.any());
+        ReservationDTO reservation = reservationService.reserve(product.getCode(), request(4, 1L));
+
+        // when
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (reservationService.getById(product.getCode(), reservation.getId()).getStatus() == ReservationStatus.HELD
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        // then
+        MatcherAssert.assertThat(reservationService.getById(product.getCode(), reservation.getId()).getStatus(),
+                Matchers.is(ReservationStatus.EXPIRED));
+        MatcherAssert.assertThat(quantity(), Matchers.is(10));
+        Mockito.verify(reservationRepository, Mockito.times(2)).expire(ArgumentMatchers.eq(reservation.getId()),
+                ArgumentMatchers.any());
+    }
+
+    @Test
+    void whenProductWasRestockedToMaxThenReleasedUnitsAreDropped() throws Exception {
+        // given
+        ReservationDTO reservation = reservationService.reserve(product.getCode(), request(4, null));
+        productService.increment(product.getId(), 44, null);
+
+        // when
+        ReservationDTO released = reservationService.release(product.getCode(), reservation.getId());
+
+        // then
+        MatcherAssert.assertThat(released.getStatus(), Matchers.is(ReservationStatus.RELEASED));
+        MatcherAssert.assertThat(quantity(), Matchers.is(50));
+    }
+
+    @Test
+    void whenReservationCannotBeMadeThenStockIsUnchanged() throws Exception {
+        // then
+        Assertions.assertThrows(ProductOutOfStockException.class,
+                () -> reservationService.reserve(product.getCode(), request(11, null)));
+        Assertions.assertThrows(ReservationNotFoundException.class,
+                () -> reservationService.commit("OTHER01", -1L));
+        MatcherAssert.assertThat(quantity(), Matchers.is(10));
+    }
+
+    private int quantity() throws Exception {
+        return productService.getByCode(product.getCode()).getQuantity();
+    }
+
+    private static ReservationRequestDTO request(int quantity, Long ttlSeconds) {
+        return ReservationRequestDTO.builder().quantity(quantity).ttlSeconds(ttlSeconds).build();
+    }
+}
@@ -0,0 +1,168 @@
+package project.productstock.reservation;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import project.productstock.builder.ProductDTOBuilder;
+import project.productstock.dto.ProductDTO;
+import project.productstock.dto.ReservationDTO;
+import project.productstock.dto.ReservationRequestDTO;
+import project.productstock.exception.ProductOutOfStockException;
+import project.productstock.exception.ReservationNotHeldException;
+import project.productstock.service.ProductService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reserves, commits and releases units of a single hot product from many threads and checks that stock is never
+ * oversold and every unit is accounted for: what is left equals the initial stock minus what is committed or still
+ * held.
+ */
+@SpringBootTest
+public class ReservationStressTest {
+
+    private static final int THREADS = 16;
+    private static final int RESERVATIONS_PER_THREAD = 200;
+    private static final int STOCK = 500;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    private ProductDTO hotProduct;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        hotProduct = productService.createProduct(ProductDTOBuilder.builder()
+                .id(null)
+                .code("HOT0002")
+                .max(STOCK)
+                .quantity(STOCK)
+                .build()
+                .toProductDTO());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        productService.deleteById(hotProduct.getId(), null);
+    }
+
+    @Test
+    void whenHotProductIsReservedConcurrentlyThenStockIsNeverOversold() throws Exception {
+        AtomicInteger committedUnits = new AtomicInteger();
+        AtomicInteger heldUnits = new AtomicInteger();
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        // when
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < RESERVATIONS_PER_THREAD; i++) {
+                    int quantity = 1 + ThreadLocalRandom.current().nextInt(3);
+                    ReservationDTO reservation;
+                    try {
+                        reservation = reservationService.reserve(hotProduct.getCode(), request(quantity));
+                        reserved.incrementAndGet();
+                    } catch (ProductOutOfStockException e) {
+                        rejected.incrementAndGet();
+                        continue;
+                    }
+                    switch (ThreadLocalRandom.current().nextInt(3)) {
+                        case 0:
+                            reservationService.commit(hotProduct.getCode(), reservation.getId());
+                            committedUnits.addAndGet(quantity);
+                            break;
+                        case 1:
+                            reservationService.release(hotProduct.getCode(), reservation.getId());
+                            break;
+                        default:
+                            heldUnits.addAndGet(quantity);
+                    }
+                }
+                return null;
+            }));
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        executor.shutdown();
+
+        // then
+        int attempts = THREADS * RESERVATIONS_PER_THREAD;
+        System.out.printf("%d reservation attempts (%d rejected) in %d ms: %d attempts/s%n", attempts, rejected.get(),
+                elapsedMillis, attempts * 1000L / elapsedMillis);
+        int left = productService.getByCode(hotProduct.getCode()).getQuantity();
+        MatcherAssert.assertThat(left, Matchers.greaterThanOrEqualTo(0));
+        MatcherAssert.assertThat(left, Matchers.is(STOCK - committedUnits.get() - heldUnits.get()));
+        MatcherAssert.assertThat(rejected.get(), Matchers.greaterThan(0));
+    }
+
+    @Test
+    void whenCommitAndReleaseRaceThenExactlyOneWins() throws Exception {
+        // given
+        List<ReservationDTO> reservations = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            reservations.add(reservationService.reserve(hotProduct.getCode(), request(1)));
+        }
+        AtomicInteger committed = new AtomicInteger();
+        AtomicInteger released = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // when
+        for (ReservationDTO reservation : reservations) {
+            Future<?> commit = executor.submit(() -> {
+                try {
+                    reservationService.commit(hotProduct.getCode(), reservation.getId());
+                    committed.incrementAndGet();
+                } catch (ReservationNotHeldException e) {
+                    conflicts.incrementAndGet();
+                }
+                return null;
+            });
+            Future<?> release = executor.submit(() -> {
+                try {
+                    reservationService.release(hotProduct.getCode(), reservation.getId());
+                    released.incrementAndGet();
+                } catch (ReservationNotHeldException e) {
+                    conflicts.incrementAndGet();
+                }
+                return null;
+            });
+            commit.get(10, TimeUnit.SECONDS);
+            release.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // then
+        MatcherAssert.assertThat(committed.get() + released.get(), Matchers.is(reservations.size()));
+        MatcherAssert.assertThat(conflicts.get(), Matchers.is(reservations.size()));
+        MatcherAssert.assertThat(productService.getByCode(hotProduct.getCode()).getQuantity(),
+                Matchers.is(STOCK - committed.get()));
+    }
+
+    private static ReservationRequestDTO request(int quantity) {
+        return ReservationRequestDTO.builder().quantity(quantity).build();
+    }
+}
@@ -0,0 +1,61 @@
+package project.productstock.search;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DescriptionIndexTest {
+
+    private final DescriptionIndex descriptionIndex = new DescriptionIndex(null, null, null);
+
+    @Test
+    void whenAllWordsMatchThenIdsAreReturnedInAscendingOrder() {
+        // given
+        descriptionIndex.index(3L, "Wireless Mouse, black");
+        descriptionIndex.index(1L, "wireless mouse");
+        descriptionIndex.index(2L, "Wired mouse");
+
+        // then
+        MatcherAssert.assertThat(search("MOUSE wireless", 0), Matchers.contains(1L, 3L));
+        MatcherAssert.assertThat(search("mouse", 0), Matchers.contains(1L, 2L, 3L));
+        MatcherAssert.assertThat(search("keyboard mouse", 0), Matchers.is(Matchers.empty()));
+    }
+
+    @Test
+    void whenDescriptionChangesOrProductIsRemovedThenStaleWordsStopMatching() {
+        // given
+        descriptionIndex.index(1L, "wireless mouse");
+        descriptionIndex.index(2L, "wireless keyboard");
+
+        // when
+        descriptionIndex.index(1L, "wired mouse");
+        descriptionIndex.remove(2L);
+
+        // then
+        MatcherAssert.assertThat(search("wireless", 0), Matchers.is(Matchers.empty()));
+        MatcherAssert.assertThat(search("wired", 0), Matchers.contains(1L));
+    }
+
+    @Test
+    void whenSearchingAfterAnIdThenOnlyLaterMatchesAreReturned() {
+        // given
+        for (long id = 1; id <= 20; id++) {
+            descriptionIndex.index(id, id % 2 == 0 ? "steel bolt" : "steel screw");
+        }
+        descriptionIndex.index(21L, "bolt");
+
+        // then
+        MatcherAssert.assertThat(search("bolt steel", 13), Matchers.contains(14L, 16L, 18L, 20L));
+        MatcherAssert.assertThat(search("bolt", 20), Matchers.contains(21L));
+        MatcherAssert.assertThat(search("steel", 20), Matchers.is(Matchers.empty()));
+    }
+
+    private List<Long> search(String query, long afterId) {
+        List<Long> ids = new ArrayList<>();
+        descriptionIndex.search(query, afterId).forEachRemaining(ids::add);
+        return ids;
+    }
+}
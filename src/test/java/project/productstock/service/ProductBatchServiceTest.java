@@ -0,0 +1,129 @@
+package project.productstock.service;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.productstock.alert.LowStockIndex;
+import project.productstock.builder.ProductDTOBuilder;
+import project.productstock.cache.ProductCache;
+import project.productstock.cache.ProductCacheProperties;
+import project.productstock.changes.ProductChangeLog;
+import project.productstock.dto.BatchItemResultDTO;
+import project.productstock.dto.BatchItemStatus;
+import project.productstock.dto.ProductDTO;
+import project.productstock.entity.Product;
+import project.productstock.ledger.StockLedger;
+import project.productstock.mapper.ProductMapper;
+import project.productstock.repository.ProductRepository;
+import project.productstock.search.DescriptionIndex;
+
+import javax.persistence.EntityManager;
+import javax.validation.Validation;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ProductBatchServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private DescriptionIndex descriptionIndex;
+
+    @Mock
+    private LowStockIndex lowStockIndex;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private ProductChangeLog productChangeLog;
+
+    private ProductMapper productMapper = ProductMapper.INSTANCE;
+
+    private ProductBatchService productBatchService;
+
+    @BeforeEach
+    void setUp() {
+        productBatchService = new ProductBatchService(productRepository, entityManager,
+                new TransactionTemplate(transactionManager), Validation.buildDefaultValidatorFactory().getValidator(),
+                new ProductCache(new ProductCacheProperties()), descriptionIndex, lowStockIndex, stockLedger, productChangeLog);
+    }
+
+    @Test
+    void whenBatchMixesNewAndExistingProductsThenTheyAreCreatedAndUpdated() {
+        // given
+        ProductDTO newProductDTO = ProductDTOBuilder.builder().id(null).code("RWS0002").build().toProductDTO();
+        ProductDTO existingProductDTO = ProductDTOBuilder.builder().id(null).code("RWS0001").quantity(30).build().toProductDTO();
+        Product existingProduct = productMapper.toModel(ProductDTOBuilder.builder().build().toProductDTO());
+
+        // when
+        Mockito.when(productRepository.findByCodeIn(Mockito.anyCollection())).thenReturn(Collections.singletonList(existingProduct));
+
+        List<BatchItemResultDTO> results = productBatchService.upsertAll(Arrays.asList(newProductDTO, existingProductDTO).iterator());
+
+        // then
+        MatcherAssert.assertThat(results.get(0).getStatus(), Matchers.is(BatchItemStatus.CREATED));
+        MatcherAssert.assertThat(results.get(1).getStatus(), Matchers.is(BatchItemStatus.UPDATED));
+        MatcherAssert.assertThat(results.get(1).getId(), Matchers.is(Matchers.equalTo(existingProduct.getId())));
+        MatcherAssert.assertThat(existingProduct.getQuantity(), Matchers.is(Matchers.equalTo(30)));
+        Mockito.verify(productRepository, Mockito.times(1)).saveAll(Mockito.argThat(products ->
+                ((Collection<?>) products).size() == 1));
+        Mockito.verify(entityManager, Mockito.times(1)).flush();
+    }
+
+    @Test
+    void whenBatchContainsInvalidProductThenItIsReportedWithoutBeingWritten() {
+        // given
+        ProductDTO invalidProductDTO = ProductDTOBuilder.builder().code("TOO-LONG-CODE").build().toProductDTO();
+
+        // when
+        List<BatchItemResultDTO> results = productBatchService.upsertAll(Collections.singletonList(invalidProductDTO).iterator());
+
+        // then
+        MatcherAssert.assertThat(results.get(0).getStatus(), Matchers.is(BatchItemStatus.INVALID));
+        MatcherAssert.assertThat(results.get(0).getErrors(), Matchers.hasItem(Matchers.startsWith("code")));
+        Mockito.verifyNoInteractions(productRepository);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void whenBatchIsLargerThanAChunkThenCodesAreResolvedOncePerChunk() {
+        // given
+        List<ProductDTO> productDTOs = IntStream.range(0, ProductBatchService.CHUNK_SIZE + 1)
+                .mapToObj(i -> ProductDTOBuilder.builder().id(null).code(String.format("B%06d", i)).build().toProductDTO())
+                .collect(Collectors.toList());
+        ArgumentCaptor<Collection<String>> codes = ArgumentCaptor.forClass(Collection.class);
+
+        // when
+        List<BatchItemResultDTO> results = productBatchService.upsertAll(productDTOs.iterator());
+
+        // then
+        Mockito.verify(productRepository, Mockito.times(2)).findByCodeIn(codes.capture());
+        MatcherAssert.assertThat(codes.getAllValues().get(0), Matchers.hasSize(ProductBatchService.CHUNK_SIZE));
+        MatcherAssert.assertThat(codes.getAllValues().get(1), Matchers.hasSize(1));
+        MatcherAssert.assertThat(results.get(ProductBatchService.CHUNK_SIZE).getIndex(), Matchers.is(ProductBatchService.CHUNK_SIZE));
+    }
+}
@@ -0,0 +1,93 @@
+package project.productstock.service;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import project.productstock.builder.ProductDTOBuilder;
+import project.productstock.dto.ProductDTO;
+import project.productstock.exception.ProductVersionMismatchException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Races several writers that all read the same version of a product: in every round exactly one of them wins and
+ * the others are told their version is stale, so no write is applied on top of a state its author never saw.
+ */
+@SpringBootTest
+public class ProductOptimisticConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private ProductService productService;
+
+    private ProductDTO product;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        product = productService.createProduct(ProductDTOBuilder.builder()
+                .id(null)
+                .code("OCC0001")
+                .max(1000)
+                .quantity(0)
+                .build()
+                .toProductDTO());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        productService.deleteById(product.getId(), null);
+    }
+
+    @Test
+    void whenWritersRaceOnTheSameVersionThenExactlyOneWinsEachRound() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                Long version = productService.getByCode(product.getCode()).getVersion();
+                AtomicInteger applied = new AtomicInteger();
+                AtomicInteger stale = new AtomicInteger();
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        try {
+                            productService.increment(product.getId(), 1, version);
+                            applied.incrementAndGet();
+                        } catch (ProductVersionMismatchException e) {
+                            stale.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+
+                MatcherAssert.assertThat(applied.get(), Matchers.is(Matchers.equalTo(1)));
+                MatcherAssert.assertThat(stale.get(), Matchers.is(Matchers.equalTo(THREADS - 1)));
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+
+        ProductDTO finalProduct = productService.getByCode(product.getCode());
+        MatcherAssert.assertThat(finalProduct.getQuantity(), Matchers.is(Matchers.equalTo(ROUNDS)));
+        MatcherAssert.assertThat(finalProduct.getVersion(), Matchers.is(Matchers.equalTo(product.getVersion() + ROUNDS)));
+    }
+}
@@ -0,0 +1,107 @@
+package project.productstock.service;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import project.productstock.dto.BatchItemResultDTO;
+import project.productstock.dto.ProductDTO;
+import project.productstock.dto.ProductPageDTO;
+import project.productstock.dto.ProductSearchDTO;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@SpringBootTest
+public class ProductSearchServiceTest {
+
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private ProductBatchService productBatchService;
+
+    @Autowired
+    private ProductService productService;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        ids = productBatchService.upsertAll(Arrays.asList(
+                        product("SRC0001", "Searchable wireless mouse", 100, 5),
+                        product("SRC0002", "Searchable wired mouse", 100, 50),
+                        product("SRC0003", "Searchable wireless keyboard", 10, 9),
+                        product("SRX0004", "Searchable_ wireless headset", 100, 15)).iterator())
+                .stream()
+                .map(BatchItemResultDTO::getId)
+                .collect(Collectors.toList());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (Long id : ids) {
+            productService.deleteById(id, null);
+        }
+    }
+
+    @Test
+    void whenWordsAndColumnFiltersAreCombinedThenOnlyMatchingProductsAreReturned() {
+        ProductPageDTO page = productSearchService.search(ProductSearchDTO.builder()
+                .q("searchable WIRELESS")
+                .codePrefix("SRC")
+                .build());
+
+        MatcherAssert.assertThat(codes(page), Matchers.contains("SRC0001", "SRC0003"));
+    }
+
+    @Test
+    void whenFillRatioRangeIsGivenThenQuantityIsComparedAgainstMax() {
+        ProductPageDTO page = productSearchService.search(ProductSearchDTO.builder()
+                .codePrefix("SR")
+                .maxFillRatio(0.2)
+                .build());
+
+        MatcherAssert.assertThat(codes(page), Matchers.contains("SRC0001", "SRX0004"));
+    }
+
+    @Test
+    void whenPrefixContainsLikeWildcardsThenTheyAreMatchedLiterally() {
+        ProductPageDTO page = productSearchService.search(ProductSearchDTO.builder()
+                .descriptionPrefix("Searchable_")
+                .build());
+
+        MatcherAssert.assertThat(codes(page), Matchers.contains("SRX0004"));
+    }
+
+    @Test
+    void whenResultsSpanSeveralPagesThenNextAfterIdContinuesTheSearch() {
+        ProductSearchDTO criteria = ProductSearchDTO.builder()
+                .q("searchable")
+                .minQuantity(6)
+                .size(1)
+                .build();
+
+        ProductPageDTO firstPage = productSearchService.search(criteria);
+        criteria.setAfterId(firstPage.getNextAfterId());
+        ProductPageDTO secondPage = productSearchService.search(criteria);
+        criteria.setAfterId(secondPage.getNextAfterId());
+        ProductPageDTO thirdPage = productSearchService.search(criteria);
+
+        MatcherAssert.assertThat(codes(firstPage), Matchers.contains("SRC0002"));
+        MatcherAssert.assertThat(codes(secondPage), Matchers.contains("SRC0003"));
+        MatcherAssert.assertThat(codes(thirdPage), Matchers.contains("SRX0004"));
+    }
+
+    private static List<String> codes(ProductPageDTO page) {
+        return page.getContent().stream().map(ProductDTO::getCode).collect(Collectors.toList());
+    }
+
+    private static ProductDTO product(String code, String description, int max, int quantity) {
+        return ProductDTO.builder().code(code).description(description).max(max).quantity(quantity).build();
+    }
+}
@@ -0,0 +1,136 @@
+package project.productstock.service;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import project.productstock.builder.ProductDTOBuilder;
+import project.productstock.cache.ProductCache;
+import project.productstock.dto.ProductDTO;
+import project.productstock.dto.ProductLookupResultDTO;
+import project.productstock.exception.ProductAlreadyExistsException;
+import project.productstock.exception.ProductNotFoundException;
+import project.productstock.utils.StatementAssertions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Round trips per service operation, counted at the DataSource, so a change that adds a query to a hot path or
+ * turns a batch read into one query per row fails here.
+ */
+@SpringBootTest
+public class ProductServiceStatementTest {
+
+    private static final int PRODUCTS = 20;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductCache productCache;
+
+    private final List<ProductDTO> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(productService.createProduct(ProductDTOBuilder.builder()
+                    .id(null)
+                    .code(String.format("SQL%04d", i))
+                    .build()
+                    .toProductDTO()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (ProductDTO product : products) {
+            try {
+                productService.deleteById(product.getId(), null);
+            } catch (ProductNotFoundException e) {
+                // deleted by the test itself
+            }
+        }
+    }
+
+    @Test
+    void whenProductIsCreatedThenItTakesTheInsertAndItsChangeRecordOnly() throws Exception {
+        // when
+        ProductDTO created = StatementAssertions.assertStatementsAtMost(2, () -> productService.createProduct(
+                ProductDTOBuilder.builder().id(null).code("SQL9999").build().toProductDTO()));
+        products.add(created);
+
+        // then
+        MatcherAssert.assertThat(productService.getByCode("SQL9999"), Matchers.is(created));
+    }
+
+    @Test
+    void whenCodeIsTakenThenTheFailedInsertIsTheOnlyStatement() throws Exception {
+        // when
+        List<String> statements = StatementAssertions.statementsOf(() -> Assertions.assertThrows(
+                ProductAlreadyExistsException.class,
+                () -> productService.createProduct(ProductDTOBuilder.builder().id(null).code("SQL0000").build().toProductDTO())));
+
+        // then
+        MatcherAssert.assertThat(statements, Matchers.contains(Matchers.startsWith("insert into product ")));
+    }
+
+    @Test
+    void whenStockChangesThenTheUpdateTheReadBackAndTheChangeRecordAreTheOnlyStatements() throws Exception {
+        // given
+        ProductDTO product = products.get(0);
+
+        // when
+        StatementAssertions.assertStatementsAtMost(3, () -> productService.increment(product.getId(), 1, null));
+        StatementAssertions.assertStatementsAtMost(3, () -> productService.decrement(product.getId(), 1, product.getVersion() + 1));
+    }
+
+    @Test
+    void whenProductIsDeletedThenItsLocationsAreClearedByParameterizedDeletes() throws Exception {
+        // given
+        ProductDTO product = products.get(0);
+
+        // when
+        List<String> statements = StatementAssertions.statementsOf(() -> {
+            productService.deleteById(product.getId(), null);
+            return null;
+        });
+
+        // then
+        MatcherAssert.assertThat(statements, Matchers.hasSize(Matchers.lessThanOrEqualTo(5)));
+        MatcherAssert.assertThat(statements.stream().filter(sql -> sql.startsWith("select")).count(), Matchers.is(1L));
+        List<String> deletes = statements.stream().filter(sql -> sql.startsWith("delete from")).collect(Collectors.toList());
+        MatcherAssert.assertThat(deletes, Matchers.hasItem(Matchers.startsWith("delete from warehouse_stock ")));
+        MatcherAssert.assertThat(deletes, Matchers.hasItem(Matchers.startsWith("delete from stock_rollup ")));
+        MatcherAssert.assertThat(deletes, Matchers.everyItem(Matchers.endsWith("=?")));
+    }
+
+    @Test
+    void whenManyCodesAreLookedUpThenTheyAreReadWithOneQuery() throws Exception {
+        // given
+        List<String> codes = products.stream().map(ProductDTO::getCode).collect(Collectors.toList());
+        codes.forEach(productCache::evict);
+
+        // when
+        ProductLookupResultDTO result = StatementAssertions.assertStatementsAtMost(1, () -> productService.lookupByCodes(codes));
+
+        // then
+        MatcherAssert.assertThat(result.getProducts(), Matchers.hasSize(PRODUCTS));
+    }
+
+    @Test
+    void whenProductIsReadByCodeThenAtMostOneQueryIsIssued() throws Exception {
+        // given
+        productCache.evict(products.get(0).getCode());
+
+        // when
+        StatementAssertions.assertStatementsAtMost(1, () -> productService.getByCode(products.get(0).getCode()));
+        StatementAssertions.assertStatementsAtMost(1, () -> productService.listPage(null, PRODUCTS));
+    }
+}
@@ -1,5 +1,6 @@
 package project.productstock.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Assertions;
@@ -8,20 +9,45 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.productstock.alert.LowStockIndex;
 import project.productstock.builder.ProductDTOBuilder;
+import project.productstock.cache.ProductCache;
+import project.productstock.cache.ProductCacheProperties;
+import project.productstock.changes.ProductChangeLog;
 import project.productstock.dto.ProductDTO;
+import project.productstock.dto.ProductLookupResultDTO;
+import project.productstock.dto.ProductPageDTO;
 import project.productstock.entity.Product;
 import project.productstock.exception.ProductAlreadyExistsException;
+import project.productstock.exception.ProductMaxStockExceededException;
 import project.productstock.exception.ProductNotFoundException;
+import project.productstock.exception.ProductOutOfStockException;
+import project.productstock.exception.ProductVersionMismatchException;
+import project.productstock.ledger.StockLedger;
 import project.productstock.mapper.ProductMapper;
+import project.productstock.metrics.ProductMetrics;
 import project.productstock.repository.ProductRepository;
-
+import project.productstock.search.DescriptionIndex;
+import project.productstock.snapshot.ProductSnapshot;
+import project.productstock.warehouse.WarehouseStockService;
+
+import javax.persistence.EntityManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -30,6 +56,38 @@ public class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private DescriptionIndex descriptionIndex;
+
+    @Mock
+    private LowStockIndex lowStockIndex;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private ProductChangeLog productChangeLog;
+
+    @Mock
+    private WarehouseStockService warehouseStockService;
+
+    @Mock
+    private ProductSnapshot productSnapshot;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class));
+
+    @Spy
+    private ProductCache productCache = new ProductCache(new ProductCacheProperties());
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private ProductMetrics productMetrics = new ProductMetrics(meterRegistry);
+
     private ProductMapper productMapper = ProductMapper.INSTANCE;
 
     @InjectMocks
@@ -38,12 +96,11 @@ public class ProductServiceTest {
     @Test
     void whenProductInformedThenItShouldBeCreated() throws ProductAlreadyExistsException {
         // given
-        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        ProductDTO productDTO = ProductDTOBuilder.builder().version(null).build().toProductDTO();
         Product product = productMapper.toModel(productDTO);
 
         // when
-        Mockito.when(productRepository.findByCode(productDTO.getCode())).thenReturn(Optional.empty());
-        Mockito.when(productRepository.save(product)).thenReturn(product);
+        Mockito.when(productRepository.saveAndFlush(product)).thenReturn(product);
 
         ProductDTO createdProductDTO = productService.createProduct(productDTO);
 
@@ -58,16 +115,30 @@ public class ProductServiceTest {
     void whenAlreadyRegisteredProductInformedThenAnExceptionShouldBeThrown() throws ProductAlreadyExistsException {
         // given
         ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
-        Product product = productMapper.toModel(productDTO);
 
         // when
-        Mockito.when(productRepository.findByCode(productDTO.getCode())).thenReturn(Optional.of(product));
+        Mockito.when(productRepository.saveAndFlush(Mockito.any(Product.class))).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new SQLException("Unique index or primary key violation", "23505")));
 
         // then
         Assertions.assertThrows(ProductAlreadyExistsException.class, () -> productService.createProduct(productDTO));
+        Mockito.verify(productRepository, Mockito.never()).findByCode(productDTO.getCode());
+    }
+
+    @Test
+    void whenProductViolatesAnotherConstraintThenTheDatabaseErrorIsNotReportedAsADuplicate() {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+
+        // when
+        Mockito.when(productRepository.saveAndFlush(Mockito.any(Product.class))).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new SQLException("NULL not allowed for column", "23502")));
+
+        // then
+        Assertions.assertThrows(DataIntegrityViolationException.class, () -> productService.createProduct(productDTO));
     }
 
-    /*@Test
+    @Test
     void whenValidProductCodeIsGivenThenReturnAProduct() throws ProductNotFoundException {
         // given
         ProductDTO expectedFoundProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
@@ -80,7 +151,7 @@ public class ProductServiceTest {
 
         // then
         MatcherAssert.assertThat(foundProductDTO, Matchers.is(Matchers.equalTo(expectedFoundProductDTO)));
-    }*/
+    }
 
     @Test
     void whenNotRegisteredProductNameIsGivenThenThrowAnException() {
@@ -94,7 +165,7 @@ public class ProductServiceTest {
         Assertions.assertThrows(ProductNotFoundException.class, () -> productService.getByCode(expectedProductDTO.getCode()));
     }
 
-    /*@Test
+    @Test
     void whenListProductIsCalledThenReturnAListOfProducts() {
         // given
         ProductDTO expectedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
@@ -104,12 +175,11 @@ public class ProductServiceTest {
         Mockito.when(productRepository.findAll()).thenReturn(Collections.singletonList(expectedProduct));
 
         List<ProductDTO> foundListProductDTO = productService.listAll();
-        System.out.println(foundListProductDTO);
 
         // then
         MatcherAssert.assertThat(foundListProductDTO, Matchers.is(Matchers.not(Matchers.empty())));
         MatcherAssert.assertThat(foundListProductDTO.get(0), Matchers.is(Matchers.equalTo(expectedProductDTO)));
-    }*/
+    }
 
     @Test
     void whenListProductIsCalledThenReturnAEmptyListOfProducts() {
@@ -123,7 +193,7 @@ public class ProductServiceTest {
     }
 
     @Test
-    void whenExclusionIsCalledWithValidIdThenAProductShouldBeDeleted() throws ProductNotFoundException {
+    void whenExclusionIsCalledWithValidIdThenAProductShouldBeDeleted() throws ProductNotFoundException, ProductVersionMismatchException {
         // given
         ProductDTO expectedDeletedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
         Product expectedDeletedProduct = productMapper.toModel(expectedDeletedProductDTO);
@@ -133,9 +203,264 @@ public class ProductServiceTest {
         Mockito.doNothing().when(productRepository).deleteById(expectedDeletedProductDTO.getId());
 
         // then
-        productService.deleteById(expectedDeletedProductDTO.getId());
+        productService.deleteById(expectedDeletedProductDTO.getId(), null);
 
         Mockito.verify(productRepository, Mockito.times(1)).findById(expectedDeletedProductDTO.getId());
         Mockito.verify(productRepository, Mockito.times(1)).deleteById(expectedDeletedProductDTO.getId());
     }
+
+    @Test
+    void whenFullPageIsListedThenNextAfterIdPointsToTheLastProduct() {
+        // given
+        Product firstProduct = productMapper.toModel(ProductDTOBuilder.builder().id(1L).code("RWS0001").build().toProductDTO());
+        Product secondProduct = productMapper.toModel(ProductDTOBuilder.builder().id(2L).code("RWS0002").build().toProductDTO());
+
+        // when
+        Mockito.when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2)))
+                .thenReturn(Arrays.asList(firstProduct, secondProduct));
+
+        ProductPageDTO productPageDTO = productService.listPage(null, 2);
+
+        // then
+        MatcherAssert.assertThat(productPageDTO.getContent(), Matchers.hasSize(2));
+        MatcherAssert.assertThat(productPageDTO.getNextAfterId(), Matchers.is(Matchers.equalTo(2L)));
+    }
+
+    @Test
+    void whenLastPageIsListedThenNextAfterIdIsNull() {
+        // given
+        Product product = productMapper.toModel(ProductDTOBuilder.builder().id(3L).build().toProductDTO());
+
+        // when
+        Mockito.when(productRepository.findByIdGreaterThanOrderByIdAsc(2L, PageRequest.of(0, 2)))
+                .thenReturn(Collections.singletonList(product));
+
+        ProductPageDTO productPageDTO = productService.listPage(2L, 2);
+
+        // then
+        MatcherAssert.assertThat(productPageDTO.getContent(), Matchers.hasSize(1));
+        MatcherAssert.assertThat(productPageDTO.getNextAfterId(), Matchers.is(Matchers.nullValue()));
+    }
+
+    @Test
+    void whenStreamAllIsCalledThenEveryProductIsHandedOverAndDetached() {
+        // given
+        ProductDTO expectedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        Product product = productMapper.toModel(expectedProductDTO);
+        List<ProductDTO> streamedProducts = new ArrayList<>();
+
+        // when
+        Mockito.when(productRepository.streamAll()).thenReturn(Stream.of(product));
+
+        productService.streamAll(streamedProducts::add);
+
+        // then
+        MatcherAssert.assertThat(streamedProducts, Matchers.contains(expectedProductDTO));
+        Mockito.verify(entityManager, Mockito.times(1)).detach(product);
+    }
+
+    @Test
+    void whenIncrementFitsUnderMaxThenTheUpdatedProductIsReturned() throws Exception {
+        // given
+        ProductDTO expectedProductDTO = ProductDTOBuilder.builder().quantity(15).build().toProductDTO();
+        Product updatedProduct = productMapper.toModel(expectedProductDTO);
+
+        // when
+        Mockito.when(productRepository.incrementQuantity(expectedProductDTO.getId(), 5, null)).thenReturn(1);
+        Mockito.when(productRepository.findById(expectedProductDTO.getId())).thenReturn(Optional.of(updatedProduct));
+
+        ProductDTO incrementedProductDTO = productService.increment(expectedProductDTO.getId(), 5, null);
+
+        // then
+        MatcherAssert.assertThat(incrementedProductDTO.getQuantity(), Matchers.is(Matchers.equalTo(15)));
+    }
+
+    @Test
+    void whenIncrementExceedsMaxThenAnExceptionShouldBeThrown() {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        Product product = productMapper.toModel(productDTO);
+
+        // when
+        Mockito.when(productRepository.incrementQuantity(productDTO.getId(), 100, null)).thenReturn(0);
+        Mockito.when(productRepository.findById(productDTO.getId())).thenReturn(Optional.of(product));
+
+        // then
+        Assertions.assertThrows(ProductMaxStockExceededException.class, () -> productService.increment(productDTO.getId(), 100, null));
+    }
+
+    @Test
+    void whenDecrementExceedsStockThenAnExceptionShouldBeThrown() {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        Product product = productMapper.toModel(productDTO);
+
+        // when
+        Mockito.when(productRepository.decrementQuantity(productDTO.getId(), 11, null)).thenReturn(0);
+        Mockito.when(productRepository.findById(productDTO.getId())).thenReturn(Optional.of(product));
+
+        // then
+        Assertions.assertThrows(ProductOutOfStockException.class, () -> productService.decrement(productDTO.getId(), 11, null));
+    }
+
+    @Test
+    void whenDecrementIsCalledWithInvalidIdThenNotFoundExceptionShouldBeThrown() {
+        // when
+        Mockito.when(productRepository.decrementQuantity(2L, 1, null)).thenReturn(0);
+        Mockito.when(productRepository.findById(2L)).thenReturn(Optional.empty());
+
+        // then
+        Assertions.assertThrows(ProductNotFoundException.class, () -> productService.decrement(2L, 1, null));
+    }
+
+    @Test
+    void whenIncrementIsCalledWithStaleVersionThenVersionMismatchExceptionShouldBeThrown() {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().version(4L).build().toProductDTO();
+        Product product = productMapper.toModel(productDTO);
+
+        // when
+        Mockito.when(productRepository.incrementQuantity(productDTO.getId(), 5, 3L)).thenReturn(0);
+        Mockito.when(productRepository.findById(productDTO.getId())).thenReturn(Optional.of(product));
+
+        // then
+        Assertions.assertThrows(ProductVersionMismatchException.class, () -> productService.increment(productDTO.getId(), 5, 3L));
+    }
+
+    @Test
+    void whenDeleteIsCalledWithStaleVersionThenNothingIsDeleted() {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().version(4L).build().toProductDTO();
+        Product product = productMapper.toModel(productDTO);
+
+        // when
+        Mockito.when(productRepository.findById(productDTO.getId())).thenReturn(Optional.of(product));
+
+        // then
+        Assertions.assertThrows(ProductVersionMismatchException.class, () -> productService.deleteById(productDTO.getId(), 3L));
+        Mockito.verify(productRepository, Mockito.never()).deleteById(productDTO.getId());
+    }
+
+    @Test
+    void whenSameCodeIsLookedUpTwiceThenTheDatabaseIsQueriedOnce() throws ProductNotFoundException {
+        // given
+        ProductDTO expectedFoundProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        Product expectedFoundProduct = productMapper.toModel(expectedFoundProductDTO);
+
+        // when
+        Mockito.when(productRepository.findByCode(expectedFoundProduct.getCode())).thenReturn(Optional.of(expectedFoundProduct));
+
+        productService.getByCode(expectedFoundProductDTO.getCode());
+        ProductDTO foundProductDTO = productService.getByCode(expectedFoundProductDTO.getCode());
+
+        // then
+        MatcherAssert.assertThat(foundProductDTO, Matchers.is(Matchers.equalTo(expectedFoundProductDTO)));
+        Mockito.verify(productRepository, Mockito.times(1)).findByCode(expectedFoundProductDTO.getCode());
+    }
+
+    @Test
+    void whenCodesAreLookedUpTogetherThenFoundAndMissingAreSeparated() {
+        // given
+        ProductDTO firstProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        ProductDTO secondProductDTO = ProductDTOBuilder.builder().id(2L).code("RWS0002").build().toProductDTO();
+
+        // when
+        Mockito.when(productRepository.findByCodeIn(Mockito.anyCollection())).thenReturn(List.of(
+                productMapper.toModel(secondProductDTO), productMapper.toModel(firstProductDTO)));
+        ProductLookupResultDTO result = productService.lookupByCodes(
+                List.of(firstProductDTO.getCode(), "MISSING", secondProductDTO.getCode(), firstProductDTO.getCode()));
+
+        // then
+        MatcherAssert.assertThat(result.getProducts(), Matchers.contains(firstProductDTO, secondProductDTO));
+        MatcherAssert.assertThat(result.getMissing(), Matchers.contains("MISSING"));
+        Mockito.verify(productRepository, Mockito.times(1)).findByCodeIn(Mockito.anyCollection());
+        Mockito.verify(productRepository, Mockito.never()).findByCode(Mockito.anyString());
+    }
+
+    @Test
+    void whenSomeCodesAreCachedThenOnlyTheOthersAreQueriedInChunks() throws ProductNotFoundException {
+        // given
+        ProductDTO cachedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        List<String> codes = new ArrayList<>();
+        codes.add(cachedProductDTO.getCode());
+        for (int i = 0; i < ProductService.LOOKUP_CHUNK_SIZE + 10; i++) {
+            codes.add(String.format("LKP%04d", i));
+        }
+        List<Collection<String>> queried = new ArrayList<>();
+
+        // when
+        Mockito.when(productRepository.findByCode(cachedProductDTO.getCode()))
+                .thenReturn(Optional.of(productMapper.toModel(cachedProductDTO)));
+        Mockito.when(productRepository.findByCodeIn(Mockito.anyCollection())).thenAnswer(invocation -> {
+            queried.add(new ArrayList<>(invocation.<Collection<String>>getArgument(0)));
+            return Collections.emptyList();
+        });
+        productService.getByCode(cachedProductDTO.getCode());
+        ProductLookupResultDTO result = productService.lookupByCodes(codes);
+
+        // then
+        MatcherAssert.assertThat(result.getProducts(), Matchers.contains(cachedProductDTO));
+        MatcherAssert.assertThat(result.getMissing(), Matchers.hasSize(ProductService.LOOKUP_CHUNK_SIZE + 10));
+        MatcherAssert.assertThat(queried, Matchers.hasSize(2));
+        MatcherAssert.assertThat(queried.get(0), Matchers.hasSize(ProductService.LOOKUP_CHUNK_SIZE));
+        MatcherAssert.assertThat(queried.get(1), Matchers.not(Matchers.hasItem(cachedProductDTO.getCode())));
+    }
+
+    @Test
+    void whenUnknownCodeIsLookedUpTwiceThenTheMissIsCached() {
+        // given
+        ProductDTO expectedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
+
+        // when
+        Mockito.when(productRepository.findByCode(expectedProductDTO.getCode())).thenReturn(Optional.empty());
+
+        // then
+        Assertions.assertThrows(ProductNotFoundException.class, () -> productService.getByCode(expectedProductDTO.getCode()));
+        Assertions.assertThrows(ProductNotFoundException.class, () -> productService.getByCode(expectedProductDTO.getCode()));
+        Mockito.verify(productRepository, Mockito.times(1)).findByCode(expectedProductDTO.getCode());
+    }
+
+    @Test
+    void whenProductIsDeletedThenItsCachedSnapshotIsEvicted() throws ProductNotFoundException, ProductVersionMismatchException {
+        // given
+        ProductDTO expectedDeletedProductDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        Product expectedDeletedProduct = productMapper.toModel(expectedDeletedProductDTO);
+
+        // when
+        Mockito.when(productRepository.findByCode(expectedDeletedProductDTO.getCode())).thenReturn(Optional.of(expectedDeletedProduct));
+        Mockito.when(productRepository.findById(expectedDeletedProductDTO.getId())).thenReturn(Optional.of(expectedDeletedProduct));
+
+        productService.getByCode(expectedDeletedProductDTO.getCode());
+        productService.deleteById(expectedDeletedProductDTO.getId(), null);
+        Mockito.when(productRepository.findByCode(expectedDeletedProductDTO.getCode())).thenReturn(Optional.empty());
+
+        // then
+        Assertions.assertThrows(ProductNotFoundException.class, () -> productService.getByCode(expectedDeletedProductDTO.getCode()));
+        Mockito.verify(productCache, Mockito.times(1)).evict(expectedDeletedProductDTO.getCode());
+    }
+
+    @Test
+    void whenNotRegisteredProductIsLookedUpThenTheErrorIsCounted() {
+        // when
+        Mockito.when(productRepository.findByCode("RWS0404")).thenReturn(Optional.empty());
+
+        // then
+        Assertions.assertThrows(ProductNotFoundException.class, () -> productService.getByCode("RWS0404"));
+        MatcherAssert.assertThat(meterRegistry.get("product.errors").tag("exception", "ProductNotFoundException").counter().count(),
+                Matchers.is(1.0));
+    }
+
+    @Test
+    void whenListIsCalledThenReturnedRowsAreRecorded() {
+        // given
+        Product product = productMapper.toModel(ProductDTOBuilder.builder().build().toProductDTO());
+
+        // when
+        Mockito.when(productRepository.findAll()).thenReturn(Collections.singletonList(product));
+
+        productService.listAll();
+
+        // then
+        MatcherAssert.assertThat(meterRegistry.get("product.list.rows").summary().totalAmount(), Matchers.is(1.0));
+    }
 }
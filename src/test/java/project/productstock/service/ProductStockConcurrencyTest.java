@@ -0,0 +1,104 @@
+package project.productstock.service;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import project.productstock.builder.ProductDTOBuilder;
+import project.productstock.dto.ProductDTO;
+import project.productstock.exception.ProductMaxStockExceededException;
+import project.productstock.exception.ProductOutOfStockException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hammers a single hot product with concurrent increments and decrements and checks that no update is lost
+ * and neither the max ceiling nor the zero floor is ever crossed.
+ */
+@SpringBootTest
+public class ProductStockConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 250;
+
+    @Autowired
+    private ProductService productService;
+
+    private ProductDTO hotProduct;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        hotProduct = productService.createProduct(ProductDTOBuilder.builder()
+                .id(null)
+                .code("HOT0001")
+                .max(100)
+                .quantity(50)
+                .build()
+                .toProductDTO());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        productService.deleteById(hotProduct.getId(), null);
+    }
+
+    @Test
+    void whenHotProductIsUpdatedConcurrentlyThenNoUpdateIsLost() throws Exception {
+        AtomicInteger incremented = new AtomicInteger();
+        AtomicInteger decremented = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    int quantity = ThreadLocalRandom.current().nextInt(1, 6);
+                    try {
+                        if (ThreadLocalRandom.current().nextBoolean()) {
+                            productService.increment(hotProduct.getId(), quantity, null);
+                            incremented.addAndGet(quantity);
+                        } else {
+                            productService.decrement(hotProduct.getId(), quantity, null);
+                            decremented.addAndGet(quantity);
+                        }
+                    } catch (ProductMaxStockExceededException | ProductOutOfStockException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        ProductDTO finalProduct = productService.getByCode(hotProduct.getCode());
+        System.out.printf("%d stock updates (%d rejected) in %.2f s: %.0f ops/sec%n",
+                THREADS * OPERATIONS_PER_THREAD, rejected.get(), seconds, THREADS * OPERATIONS_PER_THREAD / seconds);
+
+        MatcherAssert.assertThat(finalProduct.getQuantity(),
+                Matchers.is(Matchers.equalTo(hotProduct.getQuantity() + incremented.get() - decremented.get())));
+        MatcherAssert.assertThat(finalProduct.getQuantity(), Matchers.is(Matchers.both(
+                Matchers.greaterThanOrEqualTo(0)).and(Matchers.lessThanOrEqualTo(hotProduct.getMax()))));
+    }
+}
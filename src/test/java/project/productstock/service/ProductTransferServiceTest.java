@@ -0,0 +1,202 @@
+package project.productstock.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import project.productstock.builder.ProductDTOBuilder;
+import project.productstock.dto.BatchItemResultDTO;
+import project.productstock.dto.BatchItemStatus;
+import project.productstock.dto.ImportSummaryDTO;
+import project.productstock.dto.ProductDTO;
+import project.productstock.dto.TransferFormat;
+import project.productstock.exception.ProductImportException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductTransferServiceTest {
+
+    @Mock
+    private ProductBatchService productBatchService;
+
+    @Mock
+    private ProductService productService;
+
+    private ProductTransferService productTransferService;
+
+    private final List<ProductDTO> writtenProductDTOs = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        productTransferService = new ProductTransferService(productBatchService, productService, new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        productTransferService.destroy();
+    }
+
+    @Test
+    void whenCsvIsImportedThenRowsAreWrittenInChunks() throws Exception {
+        // given
+        StringBuilder csv = new StringBuilder("code,description,max,quantity\n");
+        for (int i = 0; i < 1200; i++) {
+            csv.append(String.format("C%06d,Product %d,50,10%n", i, i));
+        }
+
+        // when
+        createEveryProduct();
+        ImportSummaryDTO summary = productTransferService.importProducts(asStream(csv.toString()), TransferFormat.CSV);
+
+        // then
+        MatcherAssert.assertThat(summary.getRows(), Matchers.is(Matchers.equalTo(1200L)));
+        MatcherAssert.assertThat(summary.getCreated(), Matchers.is(Matchers.equalTo(1200L)));
+        MatcherAssert.assertThat(summary.getErrors(), Matchers.is(Matchers.empty()));
+        MatcherAssert.assertThat(writtenProductDTOs.get(1199).getCode(), Matchers.is(Matchers.equalTo("C001199")));
+        Mockito.verify(productBatchService, Mockito.times(3)).upsertAll(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void whenARowCannotBeBoundThenItIsReportedAtItsRowAndTheOthersAreWritten() throws Exception {
+        // given
+        String csv = "code,description,max,quantity\n"
+                + "RWS0001,Mouse,50,10\n"
+                + "RWS0002,Keyboard,lots,10\n"
+                + "RWS0003,Monitor,50,10\n";
+
+        // when
+        createEveryProduct();
+        ImportSummaryDTO summary = productTransferService.importProducts(asStream(csv), TransferFormat.CSV);
+
+        // then
+        MatcherAssert.assertThat(summary.getCreated(), Matchers.is(Matchers.equalTo(2L)));
+        MatcherAssert.assertThat(summary.getInvalid(), Matchers.is(Matchers.equalTo(1L)));
+        MatcherAssert.assertThat(summary.getErrors().get(0).getIndex(), Matchers.is(Matchers.equalTo(1)));
+        MatcherAssert.assertThat(writtenProductDTOs.get(1).getCode(), Matchers.is(Matchers.equalTo("RWS0003")));
+    }
+
+    @Test
+    void whenWrittenRowsAreRejectedThenTheirPayloadRowIsReported() throws Exception {
+        // given
+        String ndjson = "{\"code\":\"RWS0001\",\"description\":\"Mouse\",\"max\":50,\"quantity\":10}\n"
+                + "{\"code\":\"RWS0002\",\"description\":\"Keyboard\",\"max\":50,\"quantity\":10,\"extra\":true}\n"
+                + "{\"code\":\"BAD\",\"description\":\"Monitor\",\"max\":50,\"quantity\":10}\n";
+
+        // when
+        Mockito.doAnswer(invocation -> {
+            Iterator<ProductDTO> productDTOs = invocation.getArgument(0);
+            Consumer<BatchItemResultDTO> resultConsumer = invocation.getArgument(1);
+            for (int i = 0; productDTOs.hasNext(); i++) {
+                ProductDTO productDTO = productDTOs.next();
+                resultConsumer.accept(BatchItemResultDTO.builder()
+                        .index(i)
+                        .code(productDTO.getCode())
+                        .status(productDTO.getCode().length() == 7 ? BatchItemStatus.UPDATED : BatchItemStatus.INVALID)
+                        .build());
+            }
+            return null;
+        }).when(productBatchService).upsertAll(Mockito.any(), Mockito.any());
+        ImportSummaryDTO summary = productTransferService.importProducts(asStream(ndjson), TransferFormat.NDJSON);
+
+        // then
+        MatcherAssert.assertThat(summary.getUpdated(), Matchers.is(Matchers.equalTo(1L)));
+        MatcherAssert.assertThat(summary.getInvalid(), Matchers.is(Matchers.equalTo(2L)));
+        MatcherAssert.assertThat(summary.getErrors().get(0).getIndex(), Matchers.is(Matchers.equalTo(1)));
+        MatcherAssert.assertThat(summary.getErrors().get(1).getCode(), Matchers.is(Matchers.equalTo("BAD")));
+        MatcherAssert.assertThat(summary.getErrors().get(1).getIndex(), Matchers.is(Matchers.equalTo(2)));
+    }
+
+    @Test
+    void whenPayloadIsNotWellFormedThenTheImportStops() {
+        // given
+        String ndjson = "{\"code\":\"RWS0001\",\"description\":\"Mouse\",\"max\":50,\"quantity\":10}\n"
+                + "{\"code\":\"RWS0002\",\"description\n";
+
+        // then
+        Assertions.assertThrows(ProductImportException.class,
+                () -> productTransferService.importProducts(asStream(ndjson), TransferFormat.NDJSON));
+    }
+
+    @Test
+    void whenCatalogueIsExportedAsCsvThenItCanBeImportedBack() throws Exception {
+        // given
+        List<ProductDTO> productDTOs = Arrays.asList(
+                ProductDTOBuilder.builder().build().toProductDTO(),
+                ProductDTOBuilder.builder().id(2L).code("RWS0002").description("Keyboard, wireless").build().toProductDTO());
+
+        // when
+        Mockito.doAnswer(invocation -> {
+            Consumer<ProductDTO> consumer = invocation.getArgument(0);
+            productDTOs.forEach(consumer);
+            return null;
+        }).when(productService).streamAll(Mockito.any());
+        createEveryProduct();
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        productTransferService.exportProducts(csv, TransferFormat.CSV);
+        productTransferService.importProducts(new ByteArrayInputStream(csv.toByteArray()), TransferFormat.CSV);
+
+        // then
+        MatcherAssert.assertThat(csv.toString(StandardCharsets.UTF_8),
+                Matchers.startsWith("id,code,description,max,quantity,version\n"));
+        MatcherAssert.assertThat(writtenProductDTOs, Matchers.is(Matchers.equalTo(productDTOs)));
+    }
+
+    @Test
+    void whenCatalogueIsExportedAsNdjsonThenEachProductIsALine() throws Exception {
+        // given
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+
+        // when
+        Mockito.doAnswer(invocation -> {
+            Consumer<ProductDTO> consumer = invocation.getArgument(0);
+            consumer.accept(productDTO);
+            consumer.accept(productDTO);
+            return null;
+        }).when(productService).streamAll(Mockito.any());
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        productTransferService.exportProducts(ndjson, TransferFormat.NDJSON);
+
+        // then
+        String expectedLine = new ObjectMapper().writeValueAsString(productDTO) + "\n";
+        MatcherAssert.assertThat(ndjson.toString(StandardCharsets.UTF_8), Matchers.is(Matchers.equalTo(expectedLine + expectedLine)));
+    }
+
+    private void createEveryProduct() {
+        Mockito.doAnswer(invocation -> {
+            Iterator<ProductDTO> productDTOs = invocation.getArgument(0);
+            Consumer<BatchItemResultDTO> resultConsumer = invocation.getArgument(1);
+            for (int i = 0; productDTOs.hasNext(); i++) {
+                ProductDTO productDTO = productDTOs.next();
+                writtenProductDTOs.add(productDTO);
+                resultConsumer.accept(BatchItemResultDTO.builder()
+                        .index(i)
+                        .code(productDTO.getCode())
+                        .status(BatchItemStatus.CREATED)
+                        .build());
+            }
+            return null;
+        }).when(productBatchService).upsertAll(Mockito.any(), Mockito.any());
+    }
+
+    private static ByteArrayInputStream asStream(String payload) {
+        return new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
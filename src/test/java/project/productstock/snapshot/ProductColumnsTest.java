@@ -0,0 +1,89 @@
+package project.productstock.snapshot;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import project.productstock.dto.ProductDTO;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class ProductColumnsTest {
+
+    private final ProductColumns columns = new ProductColumns(0);
+
+    @Test
+    void whenProductIsPutThenItIsFoundByCode() {
+        // when
+        columns.put(1L, "COL0001", "First", 50, 10, 0L);
+
+        // then
+        MatcherAssert.assertThat(get("COL0001"), Matchers.is(new ProductDTO(1L, "COL0001", "First", 50, 10, 0L)));
+        MatcherAssert.assertThat(get("COL0002"), Matchers.is(Matchers.nullValue()));
+    }
+
+    @Test
+    void whenAnOlderVersionOfTheSameProductIsPutThenTheRowIsKept() {
+        // given
+        columns.put(1L, "COL0001", "First", 50, 12, 2L);
+
+        // when
+        columns.put(1L, "COL0001", "First", 50, 11, 1L);
+        columns.put(2L, "COL0001", "Recreated", 40, 0, 0L);
+
+        // then
+        MatcherAssert.assertThat(get("COL0001"), Matchers.is(new ProductDTO(2L, "COL0001", "Recreated", 40, 0, 0L)));
+        MatcherAssert.assertThat(columns.size(), Matchers.is(1));
+    }
+
+    @Test
+    void whenAnotherProductHoldsTheCodeThenRemoveLeavesIt() {
+        // given
+        columns.put(2L, "COL0001", "Recreated", 40, 0, 0L);
+
+        // when
+        columns.remove(1L, "COL0001");
+
+        // then
+        MatcherAssert.assertThat(get("COL0001").getId(), Matchers.is(2L));
+    }
+
+    @Test
+    void whenManyProductsAreAddedAndRemovedThenEveryRemainingOneIsFoundAndListedOnce() {
+        // given
+        Random random = new Random(42);
+        Map<String, Long> expected = new HashMap<>();
+        for (long id = 0; id < 20_000; id++) {
+            String code = String.format("C%06d", random.nextInt(50_000));
+            if (expected.containsKey(code) && random.nextBoolean()) {
+                columns.remove(expected.remove(code), code);
+            } else {
+                columns.put(id, code, "Description " + id, 500, (int) (id % 500), 0L);
+                expected.put(code, id);
+            }
+        }
+
+        // when
+        List<String> listed = new ArrayList<>();
+        ProductColumns.Chunk chunk = new ProductColumns.Chunk(100);
+        int row = 0;
+        do {
+            row = columns.copyRows(row, chunk);
+            for (int i = 0; i < chunk.count; i++) {
+                listed.add(chunk.codes[i]);
+            }
+        } while (chunk.isFull());
+
+        // then
+        MatcherAssert.assertThat(columns.size(), Matchers.is(expected.size()));
+        expected.forEach((code, id) -> MatcherAssert.assertThat(get(code).getId(), Matchers.is(id)));
+        MatcherAssert.assertThat(listed, Matchers.containsInAnyOrder(expected.keySet().toArray()));
+    }
+
+    private ProductDTO get(String code) {
+        return columns.get(code, ProductColumns.hash(code));
+    }
+}
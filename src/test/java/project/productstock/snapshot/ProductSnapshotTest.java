@@ -0,0 +1,158 @@
+package project.productstock.snapshot;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import project.productstock.changes.ProductChangeLog;
+import project.productstock.changes.ProductChangeProperties;
+import project.productstock.dto.ProductDTO;
+import project.productstock.exception.ProductNotFoundException;
+import project.productstock.service.ProductService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@SpringBootTest(properties = {
+        "product.snapshot.enabled=true",
+        "product.snapshot.refresh-interval=1h",
+        "product.changes.cleanup-interval=1h"
+})
+@AutoConfigureMockMvc
+public class ProductSnapshotTest {
+
+    private static final TypeReference<List<ProductDTO>> PRODUCT_LIST = new TypeReference<List<ProductDTO>>() { };
+
+    @Autowired
+    private ProductSnapshot productSnapshot;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductChangeLog productChangeLog;
+
+    @Autowired
+    private ProductChangeProperties productChangeProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final List<ProductDTO> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        for (int i = 1; i <= 3; i++) {
+            products.add(productService.createProduct(ProductDTO.builder()
+                    .code("SNP000" + i)
+                    .description("Snapshot product " + i)
+                    .max(50)
+                    .quantity(10)
+                    .build()));
+        }
+        productSnapshot.refresh();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        productChangeProperties.setMaxEntries(new ProductChangeProperties().getMaxEntries());
+        for (ProductDTO product : products) {
+            try {
+                productService.deleteById(product.getId(), null);
+            } catch (ProductNotFoundException e) {
+                // deleted by the test itself
+            }
+        }
+        productSnapshot.refresh();
+    }
+
+    @Test
+    void whenProductsChangeThenReadsFollowOnTheNextRefresh() throws Exception {
+        // given
+        ProductDTO incremented = products.get(0);
+        ProductDTO deleted = products.get(1);
+
+        // when
+        productService.increment(incremented.getId(), 5, null);
+        productService.deleteById(deleted.getId(), null);
+        ProductDTO beforeRefresh = productService.getByCode(incremented.getCode());
+        productSnapshot.refresh();
+
+        // then
+        MatcherAssert.assertThat(productSnapshot.isServing(), Matchers.is(true));
+        MatcherAssert.assertThat(beforeRefresh.getQuantity(), Matchers.is(10));
+        MatcherAssert.assertThat(productService.getByCode(incremented.getCode()).getQuantity(), Matchers.is(15));
+        MatcherAssert.assertThat(productService.getByCode(incremented.getCode()).getVersion(), Matchers.is(1L));
+        Assertions.assertThrows(ProductNotFoundException.class, () -> productService.getByCode(deleted.getCode()));
+    }
+
+    @Test
+    void whenListingIsSerializedThenItReadsAsTheDatabaseListingInEveryFormat() throws Exception {
+        // given
+        ProductListing listing = productSnapshot.listing();
+        Object[] expected = productService.listAll().toArray();
+
+        // when
+        List<ProductDTO> json = objectMapper.readValue(objectMapper.writeValueAsBytes(listing), PRODUCT_LIST);
+        CBORMapper cborMapper = new CBORMapper();
+        List<ProductDTO> cbor = cborMapper.readValue(cborMapper.writeValueAsBytes(listing), PRODUCT_LIST);
+
+        // then
+        MatcherAssert.assertThat(listing.size(), Matchers.is(expected.length));
+        MatcherAssert.assertThat(json, Matchers.containsInAnyOrder(expected));
+        MatcherAssert.assertThat(cbor, Matchers.containsInAnyOrder(expected));
+    }
+
+    @Test
+    void whenListingIsRequestedThenItIsWeaklyTaggedWithTheAppliedChange() throws Exception {
+        // when
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/products"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn();
+        String eTag = result.getResponse().getHeader(HttpHeaders.ETAG);
+
+        // then
+        MatcherAssert.assertThat(eTag, Matchers.startsWith("W/\""));
+        MatcherAssert.assertThat(objectMapper.readValue(result.getResponse().getContentAsByteArray(), PRODUCT_LIST),
+                Matchers.hasItems(products.toArray(new ProductDTO[0])));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/products").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(MockMvcResultMatchers.status().isNotModified());
+        productService.increment(products.get(0).getId(), 1, null);
+        productSnapshot.refresh();
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/products").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+
+    @Test
+    void whenTheChangeLogDroppedUnappliedChangesThenTheSnapshotReloads() throws Exception {
+        // given
+        ProductDTO product = products.get(2);
+        productService.increment(product.getId(), 7, null);
+        productService.increment(product.getId(), 1, null);
+        productChangeProperties.setMaxEntries(1);
+
+        // when
+        productChangeLog.cleanUp();
+        productSnapshot.refresh();
+
+        // then
+        MatcherAssert.assertThat(productService.getByCode(product.getCode()).getQuantity(), Matchers.is(18));
+        MatcherAssert.assertThat(productSnapshot.listing().size(), Matchers.is(productService.listAll().size()));
+    }
+}
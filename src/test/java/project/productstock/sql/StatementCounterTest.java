@@ -0,0 +1,73 @@
+package project.productstock.sql;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class StatementCounterTest {
+
+    private final StatementCounter statementCounter = new StatementCounter(new SqlProperties());
+
+    @Test
+    void whenRecordingsAreNestedThenEachCountsTheStatementsIssuedWhileItWasOpen() {
+        // given
+        execute("select 1");
+
+        // when
+        try (StatementCounter.Recording outer = StatementCounter.start()) {
+            execute("select 2");
+            try (StatementCounter.Recording inner = StatementCounter.start()) {
+                execute("select 3");
+                execute("select 4");
+
+                // then
+                MatcherAssert.assertThat(inner.statements(), Matchers.is(2));
+                MatcherAssert.assertThat(inner.sql(), Matchers.contains("select 3", "select 4"));
+            }
+            MatcherAssert.assertThat(outer.statements(), Matchers.is(3));
+            MatcherAssert.assertThat(outer.sql(), Matchers.contains("select 2", "select 3", "select 4"));
+        }
+    }
+
+    @Test
+    void whenAnotherThreadIssuesStatementsThenTheyAreNotCounted() throws Exception {
+        // when
+        try (StatementCounter.Recording recording = StatementCounter.start()) {
+            Thread other = new Thread(() -> execute("select 1"));
+            other.start();
+            other.join();
+
+            // then
+            MatcherAssert.assertThat(recording.statements(), Matchers.is(0));
+        }
+    }
+
+    @Test
+    void whenBatchIsExecutedThenItCountsAsOneRoundTrip() {
+        // given
+        ExecutionInfo batch = new ExecutionInfo();
+        batch.setBatch(true);
+        batch.setBatchSize(50);
+
+        // when
+        try (StatementCounter.Recording recording = StatementCounter.start()) {
+            List<QueryInfo> queries = List.of(new QueryInfo("insert into product values (?)"));
+            statementCounter.beforeQuery(batch, queries);
+            statementCounter.afterQuery(batch, queries);
+
+            // then
+            MatcherAssert.assertThat(recording.statements(), Matchers.is(1));
+        }
+    }
+
+    private void execute(String sql) {
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        List<QueryInfo> queries = List.of(new QueryInfo(sql));
+        statementCounter.beforeQuery(executionInfo, queries);
+        statementCounter.afterQuery(executionInfo, queries);
+    }
+}
@@ -0,0 +1,51 @@
+package project.productstock.startup;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class StartupTimelineReportTest {
+
+    @Test
+    void whenAStepContainsASlowerOneThenTheNestedStepIsReportedFirst() throws Exception {
+        // given
+        BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(10);
+        StartupStep refresh = applicationStartup.start("refresh");
+        StartupStep bean = applicationStartup.start("bean").tag("beanName", "slowBean");
+        Thread.sleep(200);
+        bean.end();
+        refresh.end();
+
+        // when
+        List<String> lines = Arrays.asList(StartupTimelineReport
+                .slowestSteps(applicationStartup.getBufferedTimeline().getEvents(), 10)
+                .split("\n"));
+
+        // then
+        MatcherAssert.assertThat(lines, Matchers.hasSize(2));
+        MatcherAssert.assertThat(lines.get(0), Matchers.endsWith("bean [beanName=slowBean]"));
+        MatcherAssert.assertThat(lines.get(1), Matchers.endsWith("refresh"));
+    }
+
+    @Test
+    void whenThereAreMoreStepsThanTheLimitThenOnlyTheSlowestAreReported() throws Exception {
+        // given
+        BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(10);
+        applicationStartup.start("fast").end();
+        StartupStep slow = applicationStartup.start("slow");
+        Thread.sleep(50);
+        slow.end();
+
+        // when
+        String report = StartupTimelineReport.slowestSteps(applicationStartup.getBufferedTimeline().getEvents(), 1);
+
+        // then
+        MatcherAssert.assertThat(report, Matchers.endsWith("slow"));
+        MatcherAssert.assertThat(report, Matchers.not(Matchers.containsString("\n")));
+    }
+}
@@ -0,0 +1,73 @@
+package project.productstock.throttle;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long MILLISECOND = 1_000_000L;
+
+    @Test
+    void whenLimitIsReachedThenFurtherRequestsAreShed() {
+        // given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 0);
+
+        // when
+        boolean first = limit.tryAcquire();
+        boolean second = limit.tryAcquire();
+        boolean third = limit.tryAcquire();
+        limit.release();
+        boolean afterRelease = limit.tryAcquire();
+
+        // then
+        MatcherAssert.assertThat(first && second, Matchers.is(true));
+        MatcherAssert.assertThat(third, Matchers.is(false));
+        MatcherAssert.assertThat(afterRelease, Matchers.is(true));
+    }
+
+    @Test
+    void whenLatencyStaysFlatUnderFullUseThenTheLimitGrows() {
+        // given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 100, 0);
+
+        // when
+        long now = runWindows(limit, 0, 20, MILLISECOND);
+
+        // then
+        MatcherAssert.assertThat(limit.limit(), Matchers.greaterThan(4));
+        MatcherAssert.assertThat(now, Matchers.greaterThan(0L));
+    }
+
+    @Test
+    void whenLatencyClimbsThenTheLimitShrinksTowardsTheMinimum() {
+        // given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(64, 4, 100, 0);
+        long now = runWindows(limit, 0, 5, MILLISECOND);
+        int before = limit.limit();
+
+        // when
+        runWindows(limit, now, 40, 50 * MILLISECOND);
+
+        // then
+        MatcherAssert.assertThat(limit.limit(), Matchers.lessThan(before / 2));
+        MatcherAssert.assertThat(limit.limit(), Matchers.greaterThanOrEqualTo(4));
+    }
+
+    /**
+     * Fills the limit, then releases every slot with {@code latencyNanos}, once per window.
+     */
+    private static long runWindows(AdaptiveConcurrencyLimit limit, long now, int windows, long latencyNanos) {
+        for (int i = 0; i < windows; i++) {
+            int acquired = 0;
+            while (limit.tryAcquire()) {
+                acquired++;
+            }
+            now += AdaptiveConcurrencyLimit.WINDOW_NANOS;
+            for (int j = 0; j < acquired; j++) {
+                limit.release(latencyNanos, now);
+            }
+        }
+        return now;
+    }
+}
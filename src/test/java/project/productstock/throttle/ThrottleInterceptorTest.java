@@ -0,0 +1,165 @@
+package project.productstock.throttle;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import project.productstock.builder.ProductDTOBuilder;
+import project.productstock.controller.ProductController;
+import project.productstock.dto.ProductDTO;
+import project.productstock.service.ProductBatchService;
+import project.productstock.service.ProductSearchService;
+import project.productstock.service.ProductService;
+import project.productstock.service.ProductTransferService;
+
+import java.util.Collections;
+import java.util.Set;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ThrottleInterceptorTest {
+
+    private static final String PRODUCT_API_URL_PATH = "/api/v1/products";
+    private static final String GATEWAY_ADDRESS = "127.0.0.1";
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private ProductBatchService productBatchService;
+
+    @Mock
+    private ProductSearchService productSearchService;
+
+    @Mock
+    private ProductTransferService productTransferService;
+
+    private ThrottleProperties properties;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        properties = new ThrottleProperties();
+        properties.setTrustedProxies(Set.of(GATEWAY_ADDRESS));
+        properties.setStandard(new ThrottleProperties.Budget(1, 3, 8, 1, 8));
+        properties.setBulk(new ThrottleProperties.Budget(1, 1, 4, 1, 4));
+        ProductDTO productDTO = ProductDTOBuilder.builder().build().toProductDTO();
+        Mockito.when(productService.getByCode(productDTO.getCode())).thenReturn(productDTO);
+        Mockito.when(productService.listAll()).thenReturn(Collections.singletonList(productDTO));
+        mockMvc = throttledMockMvc();
+    }
+
+    @Test
+    void whenClientExceedsItsRateThenTooManyRequestsIsReturnedWithRetryAfter() throws Exception {
+        // when
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(findByCode("noisy"))
+                    .andExpect(MockMvcResultMatchers.status().isOk());
+        }
+
+        // then
+        mockMvc.perform(findByCode("noisy"))
+                .andExpect(MockMvcResultMatchers.status().isTooManyRequests())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.RETRY_AFTER, "1"));
+        mockMvc.perform(findByCode("quiet"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+
+    @Test
+    void whenBulkBudgetIsSpentThenLookupsStillGoThrough() throws Exception {
+        // when
+        mockMvc.perform(listAll("noisy"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        // then
+        mockMvc.perform(listAll("noisy"))
+                .andExpect(MockMvcResultMatchers.status().isTooManyRequests());
+        mockMvc.perform(findByCode("noisy"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+
+    @Test
+    void whenBulkConcurrencyLimitIsReachedThenRequestsAreShedWithServiceUnavailable() throws Exception {
+        // given
+        properties.setBulk(new ThrottleProperties.Budget(100, 100, 1, 1, 1));
+        mockMvc = throttledMockMvc();
+
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/stream"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted());
+
+        // then
+        mockMvc.perform(listAll("other"))
+                .andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    @Test
+    void whenNoClientHeaderIsSentThenRequestsAreKeyedByRemoteAddress() throws Exception {
+        // when
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/RWS0001").with(request -> {
+                request.setRemoteAddr("10.0.0.1");
+                return request;
+            }));
+        }
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/RWS0001").with(request -> {
+                    request.setRemoteAddr("10.0.0.1");
+                    return request;
+                }))
+                .andExpect(MockMvcResultMatchers.status().isTooManyRequests());
+        mockMvc.perform(MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/RWS0001").with(request -> {
+                    request.setRemoteAddr("10.0.0.2");
+                    return request;
+                }))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+
+    @Test
+    void whenClientHeaderComesFromAnUntrustedAddressThenItIsIgnored() throws Exception {
+        // when
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(findByCode("rotated-" + i).with(request -> {
+                request.setRemoteAddr("10.0.0.3");
+                return request;
+            }));
+        }
+
+        // then
+        mockMvc.perform(findByCode("rotated-3").with(request -> {
+                    request.setRemoteAddr("10.0.0.3");
+                    return request;
+                }))
+                .andExpect(MockMvcResultMatchers.status().isTooManyRequests());
+    }
+
+    private MockMvc throttledMockMvc() {
+        return MockMvcBuilders.standaloneSetup(new ProductController(productService, productBatchService,
+                        productSearchService, productTransferService, new ObjectMapper()))
+                .addInterceptors(new ThrottleInterceptor(properties, new SimpleMeterRegistry()))
+                .build();
+    }
+
+    private MockHttpServletRequestBuilder findByCode(String client) {
+        return MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH + "/RWS0001").header(properties.getClientHeader(), client);
+    }
+
+    private MockHttpServletRequestBuilder listAll(String client) {
+        return MockMvcRequestBuilders.get(PRODUCT_API_URL_PATH).header(properties.getClientHeader(), client);
+    }
+}
@@ -0,0 +1,72 @@
+package project.productstock.throttle;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void whenBurstIsSpentThenTheNextTokenArrivesAtTheConfiguredRate() {
+        // given
+        TokenBucket bucket = new TokenBucket(10, 3, 0);
+
+        // when
+        long first = bucket.tryAcquire(0);
+        long second = bucket.tryAcquire(0);
+        long third = bucket.tryAcquire(0);
+        long refused = bucket.tryAcquire(0);
+        long afterRefill = bucket.tryAcquire(SECOND / 10);
+
+        // then
+        MatcherAssert.assertThat(first + second + third, Matchers.is(0L));
+        MatcherAssert.assertThat(refused, Matchers.is(SECOND / 10));
+        MatcherAssert.assertThat(afterRefill, Matchers.is(0L));
+    }
+
+    @Test
+    void whenBucketIsIdleThenItRefillsOnlyUpToTheBurst() {
+        // given
+        TokenBucket bucket = new TokenBucket(10, 2, 0);
+
+        // when
+        int granted = 0;
+        while (bucket.tryAcquire(60 * SECOND) == 0) {
+            granted++;
+        }
+
+        // then
+        MatcherAssert.assertThat(granted, Matchers.is(2));
+    }
+
+    @Test
+    void whenManyThreadsRaceForTokensThenNoneIsHandedOutTwice() throws Exception {
+        // given
+        TokenBucket bucket = new TokenBucket(1, 1000, 0);
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // when
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    if (bucket.tryAcquire(0) == 0) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        // then
+        MatcherAssert.assertThat(granted.get(), Matchers.is(1000));
+    }
+}
@@ -0,0 +1,44 @@
+package project.productstock.utils;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import project.productstock.sql.StatementCounter;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Asserts how many statements an operation sends to the database, for integration tests running against the real
+ * DataSource. Sequence block fetches are left out: each happens once per allocation of ids, so whether an operation
+ * triggers one depends on what ran before it.
+ */
+public class StatementAssertions {
+
+    @FunctionalInterface
+    public interface Operation<T> {
+
+        T run() throws Exception;
+    }
+
+    public static <T> T assertStatementsAtMost(int max, Operation<T> operation) throws Exception {
+        try (StatementCounter.Recording recording = StatementCounter.start()) {
+            T result = operation.run();
+            List<String> statements = withoutSequenceFetches(recording.sql());
+            MatcherAssert.assertThat("statements issued: " + statements, statements.size(), Matchers.lessThanOrEqualTo(max));
+            return result;
+        }
+    }
+
+    public static <T> List<String> statementsOf(Operation<T> operation) throws Exception {
+        try (StatementCounter.Recording recording = StatementCounter.start()) {
+            operation.run();
+            return withoutSequenceFetches(recording.sql());
+        }
+    }
+
+    private static List<String> withoutSequenceFetches(List<String> sql) {
+        return sql.stream()
+                .filter(statement -> !statement.toLowerCase().contains("next value for"))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,164 @@
+package project.productstock.warehouse;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import project.productstock.builder.ProductDTOBuilder;
+import project.productstock.dto.LocationStockDTO;
+import project.productstock.dto.ProductDTO;
+import project.productstock.dto.ProductStockDTO;
+import project.productstock.dto.StockTotalDTO;
+import project.productstock.exception.HomeWarehouseException;
+import project.productstock.exception.ProductMaxStockExceededException;
+import project.productstock.exception.ProductNotFoundException;
+import project.productstock.exception.ProductOutOfStockException;
+import project.productstock.exception.WarehouseStockNotFoundException;
+import project.productstock.repository.WarehouseStockRepository;
+import project.productstock.service.ProductService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+@SpringBootTest
+public class WarehouseStockServiceTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private WarehouseStockService warehouseStockService;
+
+    @Autowired
+    private WarehouseStockRepository warehouseStockRepository;
+
+    private ProductDTO product;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        product = productService.createProduct(ProductDTOBuilder.builder()
+                .id(null)
+                .code("WHS0001")
+                .max(50)
+                .quantity(10)
+                .build()
+                .toProductDTO());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        try {
+            productService.deleteById(product.getId(), null);
+        } catch (ProductNotFoundException e) {
+            // deleted by the test itself
+        }
+    }
+
+    @Test
+    void whenLocationsChangeThenTheRollupMatchesTheirSum() throws Exception {
+        // when
+        warehouseStockService.putLocation(product.getId(), "LIS", new LocationStockDTO(null, 100, 40));
+        warehouseStockService.putLocation(product.getId(), "OPO", new LocationStockDTO(null, 60, 20));
+        warehouseStockService.putLocation(product.getId(), "LIS", new LocationStockDTO(null, 80, 30));
+        warehouseStockService.increment(product.getId(), "OPO", 15);
+        warehouseStockService.decrement(product.getId(), "LIS", 5);
+        warehouseStockService.putLocation(product.getId(), "FAR", new LocationStockDTO(null, 10, 10));
+        warehouseStockService.removeLocation(product.getId(), "FAR");
+
+        // then
+        StockTotalDTO total = warehouseStockService.total(product.getId());
+        MatcherAssert.assertThat(total, Matchers.is(warehouseStockRepository.sumByProductId(product.getId())));
+        MatcherAssert.assertThat(total, Matchers.is(new StockTotalDTO(140, 60)));
+    }
+
+    @Test
+    void whenStockIsViewedThenTheHomeWarehouseComesFirstAndTotalsAgree() throws Exception {
+        // given
+        warehouseStockService.putLocation(product.getId(), "OPO", new LocationStockDTO(null, 60, 20));
+        warehouseStockService.putLocation(product.getId(), "LIS", new LocationStockDTO(null, 100, 40));
+
+        // when
+        ProductStockDTO withLocations = productService.getStockByCode(product.getCode(), true);
+        ProductStockDTO totalOnly = productService.getStockByCode(product.getCode(), false);
+
+        // then
+        MatcherAssert.assertThat(withLocations.getLocations().stream().map(LocationStockDTO::getWarehouse)
+                .collect(Collectors.toList()), Matchers.contains("HOME", "LIS", "OPO"));
+        MatcherAssert.assertThat(withLocations.getTotal(), Matchers.is(new StockTotalDTO(210, 70)));
+        MatcherAssert.assertThat(totalOnly.getTotal(), Matchers.is(withLocations.getTotal()));
+        MatcherAssert.assertThat(totalOnly.getLocations(), Matchers.is(Matchers.nullValue()));
+    }
+
+    @Test
+    void whenWarehousesChangeConcurrentlyThenNoUpdateIsLost() throws Exception {
+        // given
+        List<String> warehouses = List.of("W01", "W02", "W03", "W04", "W05", "W06", "W07", "W08");
+        for (String warehouse : warehouses) {
+            warehouseStockService.putLocation(product.getId(), warehouse, new LocationStockDTO(null, 500, 0));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(warehouses.size());
+
+        // when
+        List<Future<?>> futures = new ArrayList<>();
+        for (String warehouse : warehouses) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 25; i++) {
+                    warehouseStockService.increment(product.getId(), warehouse, 2);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // then
+        MatcherAssert.assertThat(warehouseStockService.total(product.getId()),
+                Matchers.is(new StockTotalDTO(4000, 400)));
+        MatcherAssert.assertThat(warehouseStockRepository.sumByProductId(product.getId()),
+                Matchers.is(new StockTotalDTO(4000, 400)));
+    }
+
+    @Test
+    void whenAChangeIsRejectedThenTheRollupIsUnchanged() throws Exception {
+        // given
+        warehouseStockService.putLocation(product.getId(), "LIS", new LocationStockDTO(null, 50, 40));
+
+        // then
+        Assertions.assertThrows(ProductMaxStockExceededException.class,
+                () -> warehouseStockService.increment(product.getId(), "LIS", 11));
+        Assertions.assertThrows(ProductOutOfStockException.class,
+                () -> warehouseStockService.decrement(product.getId(), "LIS", 41));
+        Assertions.assertThrows(ProductMaxStockExceededException.class,
+                () -> warehouseStockService.putLocation(product.getId(), "OPO", new LocationStockDTO(null, 10, 11)));
+        Assertions.assertThrows(WarehouseStockNotFoundException.class,
+                () -> warehouseStockService.increment(product.getId(), "OPO", 1));
+        Assertions.assertThrows(HomeWarehouseException.class,
+                () -> warehouseStockService.putLocation(product.getId(), "HOME", new LocationStockDTO(null, 10, 1)));
+        Assertions.assertThrows(ProductNotFoundException.class,
+                () -> warehouseStockService.putLocation(-1L, "LIS", new LocationStockDTO(null, 10, 1)));
+        MatcherAssert.assertThat(warehouseStockService.total(product.getId()), Matchers.is(new StockTotalDTO(50, 40)));
+    }
+
+    @Test
+    void whenProductIsDeletedThenItsLocationsGoWithIt() throws Exception {
+        // given
+        warehouseStockService.putLocation(product.getId(), "LIS", new LocationStockDTO(null, 50, 40));
+
+        // when
+        productService.deleteById(product.getId(), null);
+
+        // then
+        MatcherAssert.assertThat(warehouseStockService.locations(product.getId()), Matchers.is(Matchers.empty()));
+        MatcherAssert.assertThat(warehouseStockService.total(product.getId()), Matchers.is(new StockTotalDTO(0, 0)));
+    }
+}